@@ -1,21 +1,27 @@
 package cn.usage;
 
 import cn.core.BufferedImageEncoder;
+import cn.core.IndependentPipeFilter;
 import cn.core.PipeFilter;
 import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
 import cn.core.ex.UnsupportedFormatException;
+import cn.core.tool.WriteOptions;
 import cn.core.utils.BufferedImageUtils;
 import cn.core.utils.CollectionUtils;
+import cn.core.utils.ConcurrentUtils;
 import cn.core.utils.ObjectUtils;
 import cn.core.utils.StringUtils;
 import net.coobird.thumbnailator.Thumbnails;
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An abstract superclass of source builder.
@@ -36,6 +42,22 @@ public abstract class AbstractSourceBuilder<T> {
      */
     protected String formatName;
 
+    /**
+     * The executor which handles the independent images concurrently.
+     */
+    protected ExecutorService executor;
+
+    /**
+     * The number of threads which handle the independent images concurrently, it is
+     * ignored when an executor is specified.
+     */
+    protected int parallelism = 1;
+
+    /**
+     * The options of writing the output images.
+     */
+    protected WriteOptions writeOptions = WriteOptions.DEFAULT;
+
     /**
      * Set the output format name.
      * @param formatName The format name.
@@ -49,6 +71,46 @@ public abstract class AbstractSourceBuilder<T> {
         return typeThis;
     }
 
+    /**
+     * Set the options of writing the output images, such as the compression quality.
+     *
+     * @param writeOptions The options of writing.
+     * @return The object of children.
+     */
+    public T writeOptions(WriteOptions writeOptions) {
+        ObjectUtils.excNull(writeOptions, "Write options is null.");
+        this.writeOptions = writeOptions;
+        return typeThis;
+    }
+
+    /**
+     * Handle the independent images concurrently by the specified executor. The
+     * executor is managed by the caller, so it will not be shut down after used.
+     *
+     * @param executor The executor which handles the images.
+     * @return The object of children.
+     */
+    public T parallel(ExecutorService executor) {
+        ObjectUtils.excNull(executor, "ExecutorService is null.");
+        this.executor = executor;
+        return typeThis;
+    }
+
+    /**
+     * Handle the independent images concurrently by a number of threads. The threads
+     * are created for every execution and destroyed after the execution completed.
+     *
+     * @param parallelism The number of threads.
+     * @return The object of children.
+     */
+    public T parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new InvalidSettingException("Parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+        return typeThis;
+    }
+
     /**
      * Add a filter to the end of the pipe.
      *
@@ -117,13 +179,104 @@ public abstract class AbstractSourceBuilder<T> {
         }
         // execute all filters
         List<BufferedImage> targetImages = sourceImages;
+        List<IndependentPipeFilter> independents = new ArrayList<>();
         for (PipeFilter ypf : filters) {
+            if (ypf instanceof IndependentPipeFilter && isParallel()) {
+                // the consecutive independent filters are executed for each image at once
+                independents.add((IndependentPipeFilter) ypf);
+                continue;
+            }
+            if (!independents.isEmpty()) {
+                sourceImages = executeIndependently(independents, sourceImages);
+                independents.clear();
+            }
             targetImages = ypf.execute(sourceImages);
             sourceImages = targetImages;
         }
+        if (!independents.isEmpty()) {
+            targetImages = executeIndependently(independents, sourceImages);
+        }
         return targetImages;
     }
 
+    /**
+     * Execute the independent pipe filters for every image concurrently.
+     *
+     * @param independents The independent pipe filters in order.
+     * @param images The source images.
+     * @return The final images in order of the source images.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    private List<BufferedImage> executeIndependently(List<IndependentPipeFilter> independents,
+                                                     List<BufferedImage> images) throws IOException {
+        List<IndependentPipeFilter> chain = new ArrayList<>(independents);
+        List<Callable<List<BufferedImage>>> tasks = new ArrayList<>();
+        for (BufferedImage o : images) {
+            tasks.add(() -> {
+                List<BufferedImage> tars = Collections.singletonList(o);
+                for (IndependentPipeFilter ipf : chain) {
+                    tars = ipf.execute(tars);
+                }
+                return tars;
+            });
+        }
+        List<BufferedImage> targetImages = new ArrayList<>();
+        for (List<BufferedImage> o : executeAll(tasks)) {
+            targetImages.addAll(o);
+        }
+        return targetImages;
+    }
+
+    /**
+     * Obtain all buffered images lazily. The images are pulled from the sources one
+     * at a time and pushed through the filters as the iterator advances, so that only
+     * the images in flight are kept in memory.
+     * <p>
+     * The {@link IndependentPipeFilter} is executed image by image, while any other
+     * pipe filter needs all images at once (such as merging), so it acts as a
+     * barrier that buffers all the images arrived at it.
+     * </p>
+     * The I/O exceptions occurred while iterating are thrown as {@link UncheckedIOException}.
+     * The images are always handled in the current thread, even if the parallel
+     * execution is enabled. The iterator may hold the resources of sources until all
+     * images are pulled, so it should be closed if it is {@link Closeable} and the
+     * consumer stops early.
+     *
+     * @return The iterator of buffered images.
+     * @throws IOException If some I/O exceptions occurred.
+     * @throws HandlingException If there is no image in the pipe.
+     */
+    public Iterator<BufferedImage> obtainLazily() throws IOException {
+        Iterator<BufferedImage> images = null;
+        boolean completed = false;
+        try {
+            images = obtainSourceImagesLazily();
+            if (!images.hasNext()) {
+                throw new HandlingException("No images was found.");
+            }
+            for (PipeFilter ypf : filters) {
+                if (ypf instanceof IndependentPipeFilter) {
+                    images = new IndependentFilterIterator(images, (IndependentPipeFilter) ypf);
+                } else {
+                    // buffer all images which arrived at the barrier
+                    List<BufferedImage> buffered = new ArrayList<>();
+                    images.forEachRemaining(buffered::add);
+                    close(images);
+                    images = ypf.execute(buffered).iterator();
+                }
+            }
+            completed = true;
+            return images;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // release the sources if the iterator is not handed to the caller
+            if (!completed) {
+                close(images);
+            }
+        }
+    }
+
     /**
      * Get all images from image sources.
      *
@@ -132,6 +285,18 @@ public abstract class AbstractSourceBuilder<T> {
      */
     protected abstract List<BufferedImage> obtainSourceImages() throws IOException;
 
+    /**
+     * Get all images from image sources lazily. By default, all images are loaded at
+     * once by {@link AbstractSourceBuilder#obtainSourceImages()}, the children that
+     * can load images one by one should override this method.
+     *
+     * @return The iterator of images which loaded from sources.
+     * @throws IOException If some I/O exceptions occurred when loading sources.
+     */
+    protected Iterator<BufferedImage> obtainSourceImagesLazily() throws IOException {
+        return obtainSourceImages().iterator();
+    }
+
 
     public Thumbnails.Builder<BufferedImage> toThumbnails() throws IOException {
         BufferedImage[] images = obtainBufferedImages().toArray(new BufferedImage[0]);
@@ -160,12 +325,14 @@ public abstract class AbstractSourceBuilder<T> {
 
         List<BufferedImage> images = obtainBufferedImages();
         Iterator<File> iter = iterable.iterator();
-        for (BufferedImage o : images) {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
             if (!iter.hasNext()) {
                 throw new IndexOutOfBoundsException("Not enough File provided by iterable.");
             }
-            writeFile(o, iter.next());
+            files.add(iter.next());
         }
+        writeFiles(images, files);
     }
 
     public void toFiles(String... filenames) throws IOException {
@@ -177,9 +344,11 @@ public abstract class AbstractSourceBuilder<T> {
         if (images.size() > filenames.length) {
             throw new IndexOutOfBoundsException("Not enough file name provided by iterator.");
         }
-        for (int i = 0; i < filenames.length; i++) {
-            writeFile(images.get(i), new File(filenames[i]));
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            files.add(new File(filenames[i]));
         }
+        writeFiles(images, files);
     }
 
     public void toOutputStream(OutputStream os) throws IOException {
@@ -191,27 +360,134 @@ public abstract class AbstractSourceBuilder<T> {
 
         List<BufferedImage> images = obtainBufferedImages();
         Iterator<OutputStream> iter = iterable.iterator();
+        List<Callable<Void>> tasks = new ArrayList<>();
         for (BufferedImage o : images) {
             if (!iter.hasNext()) {
                 throw new IndexOutOfBoundsException("Not enough OutputStream provided by iterable.");
             }
-            writeStream(o, iter.next());
+            OutputStream os = iter.next();
+            tasks.add(() -> {
+                writeStream(o, os);
+                return null;
+            });
+        }
+        executeAll(tasks);
+    }
+
+    public void toFilesStreaming(Iterable<File> iterable) throws IOException {
+        ObjectUtils.excNull(iterable, "File iterable is null.");
+
+        Iterator<BufferedImage> images = obtainLazily();
+        Iterator<File> iter = iterable.iterator();
+        try {
+            while (images.hasNext()) {
+                if (!iter.hasNext()) {
+                    throw new IndexOutOfBoundsException("Not enough File provided by iterable.");
+                }
+                writeFile(images.next(), iter.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // release the sources when stopped early
+            close(images);
         }
     }
 
+    public void toFilesStreaming(String... filenames) throws IOException {
+        if (CollectionUtils.isNullOrEmpty(filenames)) {
+            throw new NullPointerException("File names is null.");
+        }
+
+        List<File> files = new ArrayList<>();
+        for (String o : filenames) {
+            files.add(new File(o));
+        }
+        toFilesStreaming(files);
+    }
+
+    public void toOutputStreamsStreaming(Iterable<OutputStream> iterable) throws IOException {
+        ObjectUtils.excNull(iterable, "OutputStream iterable is null.");
+
+        Iterator<BufferedImage> images = obtainLazily();
+        Iterator<OutputStream> iter = iterable.iterator();
+        try {
+            while (images.hasNext()) {
+                if (!iter.hasNext()) {
+                    throw new IndexOutOfBoundsException("Not enough OutputStream provided by iterable.");
+                }
+                writeStream(images.next(), iter.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // release the sources when stopped early
+            close(images);
+        }
+    }
+
+    /**
+     * Write the images to the files in pairs. The output formats of all files are
+     * chosen in order at first, and then the images are written concurrently if
+     * necessary.
+     *
+     * @param images The images to write.
+     * @param files The files to write to.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    private void writeFiles(List<BufferedImage> images, List<File> files) throws IOException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            BufferedImage image = images.get(i);
+            File f = choseFormat(files.get(i));
+            tasks.add(() -> {
+                BufferedImageUtils.write(image, formatName, f, writeOptions);
+                return null;
+            });
+        }
+        executeAll(tasks);
+    }
+
     protected void writeFile(BufferedImage image, File file) throws IOException {
         File f = choseFormat(file);
-        BufferedImageUtils.write(image, formatName, f);
+        BufferedImageUtils.write(image, formatName, f, writeOptions);
     }
 
     protected void writeStream(BufferedImage image, OutputStream os) throws IOException {
         if (StringUtils.isEmpty(formatName)) {
             throw new HandlingException("The output format is not set.");
         }
-        if (!ImageIO.write(image, formatName, os)) {
+        if (!BufferedImageUtils.isWritable(formatName)) {
             throw new UnsupportedFormatException(String
                     .format("No appropriate writer is found for: %s.", formatName));
         }
+        BufferedImageUtils.write(image, formatName, os, writeOptions);
+    }
+
+    /**
+     * Whether to handle the independent images concurrently.
+     *
+     * @return Returns true if an executor is specified or the parallelism is
+     * greater than 1.
+     */
+    protected boolean isParallel() {
+        return executor != null || parallelism > 1;
+    }
+
+    /**
+     * Execute all tasks and collect the results in order of the tasks. The tasks are
+     * executed concurrently if {@link AbstractSourceBuilder#isParallel()}, otherwise
+     * they are executed one by one in the current thread.
+     *
+     * @param tasks The tasks to execute.
+     * @param <R> The type of result.
+     * @return The results of the tasks in order.
+     * @throws IOException If some I/O exceptions occurred when executing tasks.
+     */
+    protected <R> List<R> executeAll(List<? extends Callable<R>> tasks) throws IOException {
+        // the specified executor limits the concurrency by itself
+        int workers = executor != null ? tasks.size() : parallelism;
+        return ConcurrentUtils.invokeAll(executor, workers, tasks);
     }
 
     /**
@@ -267,4 +543,56 @@ public abstract class AbstractSourceBuilder<T> {
         return f;
     }
 
+    /**
+     * Close the iterator of images if it holds the resources of sources.
+     */
+    private static void close(Iterator<BufferedImage> images) throws IOException {
+        if (images instanceof Closeable) {
+            ((Closeable) images).close();
+        }
+    }
+
+    /**
+     * An iterator that executes an independent pipe filter for the images pulled
+     * from the upstream iterator one by one.
+     */
+    private static class IndependentFilterIterator implements Iterator<BufferedImage>, Closeable {
+
+        private final Iterator<BufferedImage> upstream;
+
+        private final IndependentPipeFilter filter;
+
+        /**
+         * The final images of the last pulled image which have not been consumed.
+         */
+        private final Deque<BufferedImage> pending = new ArrayDeque<>();
+
+        private IndependentFilterIterator(Iterator<BufferedImage> upstream, IndependentPipeFilter filter) {
+            this.upstream = upstream;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            // a single image may be filtered to none, so keep pulling until any image is available
+            while (pending.isEmpty() && upstream.hasNext()) {
+                pending.addAll(filter.execute(upstream.next()));
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public BufferedImage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        @Override
+        public void close() throws IOException {
+            AbstractSourceBuilder.close(upstream);
+        }
+    }
+
 }
@@ -8,9 +8,9 @@ import cn.core.in.ThisBufferedImageSource;
 import cn.core.utils.CollectionUtils;
 import cn.core.utils.ObjectUtils;
 import cn.core.utils.StringUtils;
-import cn.pipe.in.gif.ByteArrayGifSource;
-import cn.pipe.in.gif.FileGifSource;
-import cn.pipe.in.gif.InputStreamGifSource;
+import cn.pipe.in.gif.IndexedByteArrayGifSource;
+import cn.pipe.in.gif.IndexedFileGifSource;
+import cn.pipe.in.gif.IndexedInputStreamGifSource;
 import cn.pipe.in.pdf.ByteArrayPdfSource;
 import cn.pipe.in.pdf.FilePdfSource;
 import cn.pipe.in.pdf.InputStreamPdfSource;
@@ -138,24 +138,24 @@ public final class ImagePipes {
 
     public static GifSourceBuilder<InputStream> ofGif(InputStream is) {
         ObjectUtils.excNull(is, "Gif InputStream is null.");
-        return new GifSourceBuilder<>(new InputStreamGifSource(is));
+        return new GifSourceBuilder<>(new IndexedInputStreamGifSource(is));
     }
 
     public static GifSourceBuilder<File> ofGif(File gif) {
         ObjectUtils.excNull(gif, "Gif File is null.");
-        return new GifSourceBuilder<>(new FileGifSource(gif));
+        return new GifSourceBuilder<>(new IndexedFileGifSource(gif));
     }
 
     public static GifSourceBuilder<File> ofGif(String filename) {
         if (StringUtils.isEmpty(filename)) {
             throw new InvalidSettingException("Gif file name is null.");
         }
-        return new GifSourceBuilder<>(new FileGifSource(new File(filename)));
+        return new GifSourceBuilder<>(new IndexedFileGifSource(new File(filename)));
     }
 
     public static GifSourceBuilder<byte[]> ofGif(byte[] bytes) {
         ObjectUtils.excNull(bytes, "Gif byte array is null.");
-        return new GifSourceBuilder<>(new ByteArrayGifSource(bytes));
+        return new GifSourceBuilder<>(new IndexedByteArrayGifSource(bytes));
     }
 
 
@@ -8,6 +8,7 @@ import cn.core.utils.ObjectUtils;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -49,4 +50,20 @@ public class EmptySourceBuilder extends AbstractSourceBuilder<EmptySourceBuilder
         return images;
     }
 
+    @Override
+    protected Iterator<BufferedImage> obtainSourceImagesLazily() {
+        checkReadiness();
+        Iterator<ImageGenerator> iter = captors.iterator();
+        return new Iterator<BufferedImage>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            @Override
+            public BufferedImage next() {
+                return iter.next().generate();
+            }
+        };
+    }
+
 }
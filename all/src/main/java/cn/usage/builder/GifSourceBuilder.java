@@ -10,9 +10,13 @@ import cn.core.utils.CollectionUtils;
 import cn.core.utils.StringUtils;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -76,12 +80,62 @@ public class GifSourceBuilder<S> extends AbstractSourceBuilder<GifSourceBuilder<
     protected List<BufferedImage> obtainSourceImages() throws IOException {
         checkReadiness();
 
+        // export all frame
+        if (containsAll) {
+            // the list of a source may decode the frames lazily and be read-only, so the
+            // frames are decoded into a list which can be modified by the pipe
+            try {
+                return new ArrayList<>(source.readAll());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        return source.read(obtainFrameIndexes());
+    }
+
+    @Override
+    protected Iterator<BufferedImage> obtainSourceImagesLazily() throws IOException {
+        checkReadiness();
+
+        Integer[] frameIndexes = obtainFrameIndexes();
+        return new Iterator<BufferedImage>() {
+            private int cursor = 0;
+            @Override
+            public boolean hasNext() {
+                return cursor < frameIndexes.length;
+            }
+            @Override
+            public BufferedImage next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return source.read(frameIndexes[cursor++]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Obtain the indexes of all frames to be extracted.
+     *
+     * @return The frame indexes.
+     * @throws IOException If some I/O exceptions occurred when loading the gif source.
+     */
+    protected Integer[] obtainFrameIndexes() throws IOException {
         // the max frame size index of the gif
         int maxFrameIndex = source.size() - 1;
 
         // export all frame
         if (containsAll) {
-            return source.readAll();
+            Integer[] all = new Integer[maxFrameIndex + 1];
+            for (int i = 0; i <= maxFrameIndex; i++) {
+                all[i] = i;
+            }
+            return all;
         }
 
         // export specified frames
@@ -97,7 +151,7 @@ public class GifSourceBuilder<S> extends AbstractSourceBuilder<GifSourceBuilder<
                     StringUtils.join(invalidPages, ",")));
         }
 
-        return source.read(frames.toArray(new Integer[0]));
+        return frames.toArray(new Integer[0]);
     }
 
     protected void checkReadiness() {
@@ -3,12 +3,17 @@ package cn.usage.builder;
 import cn.usage.AbstractSourceBuilder;
 import cn.core.in.BufferedImageSource;
 import cn.core.ex.HandlingException;
+import cn.core.tool.ReadOptions;
+import cn.core.utils.ObjectUtils;
 import cn.core.utils.StringUtils;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * A source builder which form buffered image source.
@@ -28,6 +33,11 @@ public class ImageSourceBuilder<S> extends AbstractSourceBuilder<ImageSourceBuil
      */
     protected final Iterable<BufferedImageSource<S>> sources;
 
+    /**
+     * The options of reading the images from sources.
+     */
+    protected ReadOptions readOptions = ReadOptions.DEFAULT;
+
     public ImageSourceBuilder(Iterable<BufferedImageSource<S>> sources) {
         this.sources = sources;
     }
@@ -35,11 +45,16 @@ public class ImageSourceBuilder<S> extends AbstractSourceBuilder<ImageSourceBuil
 
     @Override
     protected List<BufferedImage> obtainSourceImages() throws IOException {
-        // obtain the source images
-        List<BufferedImage> originalImages = new ArrayList<>();
-        List<String> formatNames = new ArrayList<>();
+        // obtain the source images, which could be decoded concurrently
+        List<Callable<BufferedImage>> tasks = new ArrayList<>();
+        List<BufferedImageSource<S>> loaded = new ArrayList<>();
         for (BufferedImageSource<S> o : sources) {
-            originalImages.add(o.read());
+            tasks.add(() -> o.read(readOptions));
+            loaded.add(o);
+        }
+        List<BufferedImage> originalImages = executeAll(tasks);
+        List<String> formatNames = new ArrayList<>();
+        for (BufferedImageSource<S> o : loaded) {
             formatNames.add(o.getOriginalFormatName());
         }
         // setting the format name
@@ -58,6 +73,56 @@ public class ImageSourceBuilder<S> extends AbstractSourceBuilder<ImageSourceBuil
         return originalImages;
     }
 
+    @Override
+    protected Iterator<BufferedImage> obtainSourceImagesLazily() {
+        Iterator<BufferedImageSource<S>> iter = sources.iterator();
+        return new Iterator<BufferedImage>() {
+            /**
+             * The original format name of the images that have been read.
+             */
+            private String originalFormat;
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            @Override
+            public BufferedImage next() {
+                BufferedImageSource<S> o = iter.next();
+                BufferedImage image;
+                try {
+                    image = o.read(readOptions);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // setting the format name by the first available original format
+                String format = o.getOriginalFormatName();
+                if (useOriginalFormat && StringUtils.isNotEmpty(format)) {
+                    if (originalFormat == null) {
+                        originalFormat = format;
+                        formatName(format);
+                    } else if (!originalFormat.equals(format)) {
+                        throw new HandlingException(MessageFormat.format("Multiple available original formats found:[{0}].",
+                                StringUtils.join(new String[]{originalFormat, format}, ",")));
+                    }
+                }
+                return image;
+            }
+        };
+    }
+
+    /**
+     * Set the options of reading the images from sources, such as decoding a region
+     * of image or decoding a reduced image for the thumbnails.
+     *
+     * @param readOptions The options of reading.
+     * @return The object of this.
+     */
+    public ImageSourceBuilder<S> readOptions(ReadOptions readOptions) {
+        ObjectUtils.excNull(readOptions, "Read options is null.");
+        this.readOptions = readOptions;
+        return this;
+    }
+
     public ImageSourceBuilder<S> useOriginalFormat() {
         useOriginalFormat = true;
         return this;
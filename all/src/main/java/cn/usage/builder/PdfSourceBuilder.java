@@ -8,6 +8,10 @@ import cn.core.ex.InvalidSettingException;
 import cn.core.tool.Range;
 import cn.core.utils.CollectionUtils;
 import cn.core.utils.StringUtils;
+import cn.pipe.in.AbstractPdfBoxSource;
+import cn.pipe.in.PageImageCache;
+import cn.pipe.in.PdfLoadOptions;
+import cn.pipe.in.PdfDocumentCache;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.text.MessageFormat;
@@ -16,7 +20,8 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
- * A source builder which form PDF source.
+ * A source builder which form PDF source. The pages of {@link AbstractPdfBoxSource}
+ * are rendered concurrently when {@link PdfSourceBuilder#parallelism(int)} is set.
  *
  * @author tracy
  * @since 0.2.1
@@ -61,6 +66,67 @@ public class PdfSourceBuilder<S> extends AbstractSourceBuilder<PdfSourceBuilder<
         return this;
     }
 
+    /**
+     * Share the loaded document by the {@link PdfDocumentCache#shared() shared cache},
+     * so that the pdf is not parsed again by the builders of the same file or content.
+     * It is ignored if the source is not a {@link AbstractPdfBoxSource} or it has been
+     * loaded.
+     *
+     * @return The builder.
+     */
+    public PdfSourceBuilder<S> cacheDocument() {
+        return documentCache(PdfDocumentCache.shared());
+    }
+
+    /**
+     * Share the loaded document by the cache, see {@link PdfSourceBuilder#cacheDocument()}.
+     * The cached document is released rather than closed when the source is released.
+     *
+     * @param cache The cache of documents.
+     * @return The builder.
+     */
+    public PdfSourceBuilder<S> documentCache(PdfDocumentCache cache) {
+        ObjectUtils.excNull(cache, "PdfDocumentCache is null.");
+        if (source instanceof AbstractPdfBoxSource) {
+            ((AbstractPdfBoxSource<S>) source).setCache(cache);
+        }
+        return this;
+    }
+
+    /**
+     * Get the rendered pages from the cache, the pages which are not cached are rendered
+     * and put into the cache. The document is not loaded if all the registered pages are
+     * cached, otherwise it is loaded for checking the page indexes, which can be shared by
+     * {@link PdfSourceBuilder#cacheDocument()}. It is ignored if the source is not a
+     * {@link AbstractPdfBoxSource}.
+     *
+     * @param cache The cache of rendered pages.
+     * @return The builder.
+     */
+    public PdfSourceBuilder<S> pageCache(PageImageCache cache) {
+        ObjectUtils.excNull(cache, "PageImageCache is null.");
+        if (source instanceof AbstractPdfBoxSource) {
+            ((AbstractPdfBoxSource<S>) source).setPageCache(cache);
+        }
+        return this;
+    }
+
+    /**
+     * Set the options of loading the document, such as the budget of main memory and
+     * memory mapping, which bound the memory used by large documents. It is ignored if
+     * the source is not a {@link AbstractPdfBoxSource} or it has been loaded.
+     *
+     * @param options The options of loading.
+     * @return The builder.
+     */
+    public PdfSourceBuilder<S> loadOptions(PdfLoadOptions options) {
+        ObjectUtils.excNull(options, "PdfLoadOptions is null.");
+        if (source instanceof AbstractPdfBoxSource) {
+            ((AbstractPdfBoxSource<S>) source).setLoadOptions(options);
+        }
+        return this;
+    }
+
     public PdfSourceBuilder<S> registerAll() {
         containsAll = true;
         return this;
@@ -110,41 +176,147 @@ public class PdfSourceBuilder<S> extends AbstractSourceBuilder<PdfSourceBuilder<
 
     @Override
     protected List<BufferedImage> obtainSourceImages() throws IOException {
+        // the pages of pdfbox document can be rendered concurrently, and the
+        // parallelism should be set before the document loaded
+        if (parallelism > 1 && source instanceof AbstractPdfBoxSource) {
+            ((AbstractPdfBoxSource<S>) source).setParallelism(parallelism);
+        }
         try {
-            checkReadiness();
+            return source.read(obtainPageIndexes(), obtainDpi());
+        } finally {
+            // Release resources when the pdf source is not-time.
+            if (disposable) {
+                release();
+            }
+        }
+    }
 
-            // the max page index of the pdf
-            int maxPageIndex = source.maxPageNumber() - 1;
+    @Override
+    protected Iterator<BufferedImage> obtainSourceImagesLazily() throws IOException {
+        Integer[] pageIndexes;
+        try {
+            pageIndexes = obtainPageIndexes();
+        } catch (IOException | RuntimeException e) {
+            if (disposable) {
+                release();
+            }
+            throw e;
+        }
+        return new PageIterator(pageIndexes, obtainDpi());
+    }
 
-            float val = dpi <= 0 ? 300 : dpi;
+    /**
+     * Obtain the indexes of all pages to be extracted.
+     *
+     * @return The page indexes.
+     * @throws IOException If some I/O exceptions occurred when loading the pdf source.
+     */
+    protected Integer[] obtainPageIndexes() throws IOException {
+        checkReadiness();
 
-            // export all pages
-            if (containsAll) {
-                for (int index = 0; index <= maxPageIndex; index++) {
-                    pages.add(index);
-                }
+        // the cached pages are in bound, so the document is not loaded for checking them
+        if (!containsAll && source instanceof AbstractPdfBoxSource) {
+            Integer[] pageIndexes = pages.toArray(new Integer[0]);
+            if (((AbstractPdfBoxSource<S>) source).isCached(pageIndexes, obtainDpi())) {
+                return pageIndexes;
             }
+        }
+
+        // the max page index of the pdf
+        int maxPageIndex = source.maxPageNumber() - 1;
 
-            // check all page was in bound
-            Set<String> invalidPages = pages.stream()
-                    .filter(p -> maxPageIndex < p)
-                    .map(Objects::toString)
-                    .collect(Collectors.toSet());
-            if (!CollectionUtils.isNullOrEmpty(invalidPages)) {
-                throw new HandlingException(MessageFormat.format(
-                        "The page indexes:[{0}] has exceeded the max page number of the pdf document.",
-                        StringUtils.join(invalidPages, ",")));
+        // export all pages
+        if (containsAll) {
+            for (int index = 0; index <= maxPageIndex; index++) {
+                pages.add(index);
             }
+        }
 
-            return source.read(pages.toArray(new Integer[0]), val);
-        } finally {
-            // Release resources when the pdf source is not-time.
+        // check all page was in bound
+        Set<String> invalidPages = pages.stream()
+                .filter(p -> maxPageIndex < p)
+                .map(Objects::toString)
+                .collect(Collectors.toSet());
+        if (!CollectionUtils.isNullOrEmpty(invalidPages)) {
+            throw new HandlingException(MessageFormat.format(
+                    "The page indexes:[{0}] has exceeded the max page number of the pdf document.",
+                    StringUtils.join(invalidPages, ",")));
+        }
+
+        return pages.toArray(new Integer[0]);
+    }
+
+    /**
+     * Obtain the DPI to render at, the default DPI is 300.
+     *
+     * @return The DPI to render at.
+     */
+    protected float obtainDpi() {
+        return dpi <= 0 ? 300 : dpi;
+    }
+
+    /**
+     * An iterator that renders the pages one by one. The source is released when the
+     * last page was rendered or failed to render, or when it is closed by the consumer
+     * which stops early.
+     */
+    private class PageIterator implements Iterator<BufferedImage>, Closeable {
+
+        private final Integer[] pageIndexes;
+
+        private final float dpi;
+
+        private int cursor = 0;
+
+        private PageIterator(Integer[] pageIndexes, float dpi) {
+            this.pageIndexes = pageIndexes;
+            this.dpi = dpi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < pageIndexes.length;
+        }
+
+        @Override
+        public BufferedImage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            boolean completed = false;
+            try {
+                BufferedImage page = source.read(pageIndexes[cursor++], dpi);
+                completed = cursor == pageIndexes.length;
+                return page;
+            } catch (IOException e) {
+                completed = true;
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                completed = true;
+                throw e;
+            } finally {
+                // Release resources when the last page was rendered or failed to render.
+                if (completed) {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
             if (disposable) {
-                release();
+                releaseQuietly();
             }
         }
     }
 
+    private void releaseQuietly() {
+        try {
+            release();
+        } catch (IOException e) {
+            LOGGER.warning("Warning: Failed to close a PDF Source.");
+        }
+    }
 
     protected void checkReadiness() {
         if (containsAll) {
@@ -1,8 +1,10 @@
 package cn.usage;
 
+import cn.core.IndependentPipeFilter;
 import cn.core.PipeFilter;
 import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
+import cn.core.tool.WriteOptions;
 import cn.core.utils.BufferedImageUtils;
 import cn.pipe.ypipe.merge.GridMergeHandler;
 import cn.pipe.ypipe.split.GridSplitHandler;
@@ -14,7 +16,15 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("unchecked")
 public class AbstractSourceBuilderTest {
@@ -72,6 +82,64 @@ public class AbstractSourceBuilderTest {
                 ex.getMessage());
     }
 
+    @Test
+    public void test_parallel() {
+        // given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        builder.parallel(executor);
+
+        // then
+        Assert.assertEquals(executor, ReflectionUtils.getFromSuper("executor", builder));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testEx_parallel_null() {
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> builder.parallel(null));
+        Assert.assertEquals("ExecutorService is null.",
+                ex.getMessage());
+    }
+
+    @Test
+    public void test_writeOptions() {
+        // given
+        WriteOptions options = new WriteOptions.Builder().quality(0.5f).build();
+
+        // when
+        builder.writeOptions(options);
+
+        // then
+        Assert.assertSame(options, ReflectionUtils.getFromSuper("writeOptions", builder));
+    }
+
+    @Test
+    public void testEx_writeOptions_null() {
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> builder.writeOptions(null));
+        Assert.assertEquals("Write options is null.",
+                ex.getMessage());
+    }
+
+    @Test
+    public void test_parallelism() {
+        // when
+        builder.parallelism(4);
+
+        // then
+        Assert.assertEquals(4, ReflectionUtils.getFromSuper("parallelism", builder));
+    }
+
+    @Test
+    public void testEx_parallelism_invalid() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> builder.parallelism(0));
+        Assert.assertEquals("Parallelism must be greater than 0.",
+                ex.getMessage());
+    }
+
     @Test
     public void test_addFilter_single() {
         // given
@@ -277,5 +345,146 @@ public class AbstractSourceBuilderTest {
         Assert.assertTrue(BufferedImageComparer.isSame(image3, target.get(3)));
     }
 
+    @Test
+    public void test_obtainLazily() throws IOException {
+        // given
+        AtomicInteger counter = new AtomicInteger();
+        IndependentPipeFilter filter = image -> {
+            counter.incrementAndGet();
+            return Arrays.asList(image, image);
+        };
+        BatchSourceBuilder bsb = new BatchSourceBuilder(3);
+
+        // when
+        Iterator<BufferedImage> target = bsb.addFilter(filter)
+                .obtainLazily();
+
+        // then
+        // The filter is only executed when the images are pulled.
+        Assert.assertEquals(0, counter.get());
+        target.next();
+        Assert.assertEquals(1, counter.get());
+        target.next();
+        Assert.assertEquals(1, counter.get());
+
+        int remaining = 0;
+        while (target.hasNext()) {
+            target.next();
+            remaining++;
+        }
+        Assert.assertEquals(4, remaining);
+        Assert.assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void test_obtainLazily_withMergeFilter() throws IOException {
+        // given
+        GridMergeHandler handler = new GridMergeHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .horizontalNum(2)
+                .fillColor(Color.BLUE)
+                .build();
+        BatchSourceBuilder bsb = new BatchSourceBuilder(3);
+
+        // when
+        Iterator<BufferedImage> target = bsb.addFilter(handler)
+                .obtainLazily();
+
+        // then
+        BufferedImage standard = bsb.obtainBufferedImage();
+        Assert.assertTrue(target.hasNext());
+        Assert.assertTrue(BufferedImageComparer.isSame(standard, target.next()));
+        Assert.assertFalse(target.hasNext());
+    }
+
+    @Test
+    public void testEx_obtainLazily_noImage() {
+        BatchSourceBuilder bsb = new BatchSourceBuilder(0);
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                bsb::obtainLazily);
+        Assert.assertEquals("No images was found.",
+                ex.getMessage());
+    }
+
+    @Test
+    public void test_obtainBufferedImages_parallel() throws IOException {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger counter = new AtomicInteger();
+        // every image is cropped to a different width, so that the order can be checked
+        IndependentPipeFilter filter = image -> {
+            threads.add(Thread.currentThread().getName());
+            int w = counter.incrementAndGet();
+            return Collections.singletonList(image.getSubimage(0, 0, w, image.getHeight()));
+        };
+        IndependentPipeFilter another = image -> Arrays.asList(image, image);
+        BatchSourceBuilder bsb = new BatchSourceBuilder(6);
+
+        // when
+        List<BufferedImage> target;
+        try {
+            target = bsb.addFilter(filter, another)
+                    .parallel(executor)
+                    .obtainBufferedImages();
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        Assert.assertEquals(12, target.size());
+        Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+        for (int i = 0; i < target.size(); i += 2) {
+            Assert.assertEquals(target.get(i), target.get(i + 1));
+        }
+        Set<Integer> widths = new HashSet<>();
+        for (BufferedImage o : target) {
+            widths.add(o.getWidth());
+        }
+        Assert.assertEquals(6, widths.size());
+    }
+
+    @Test
+    public void test_obtainBufferedImages_parallelism() throws IOException {
+        // given
+        int grid_w = 20, grid_h = 30;
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(grid_w).gridHeight(grid_h)
+                .build();
+        IndependentPipeFilter filter = image -> Collections.singletonList(
+                image.getSubimage(0, 0, image.getWidth(), image.getHeight() - 5));
+
+        // when
+        List<BufferedImage> target = builder.addFilter(filter, handler, filter)
+                .parallelism(4)
+                .obtainBufferedImages();
+
+        // then
+        // the first filter crops to 30*40, split into 20*30, 10*30, 20*10, 10*10,
+        // and then the last filter crops each of them
+        Assert.assertEquals(4, target.size());
+        Assert.assertEquals(20, target.get(0).getWidth());
+        Assert.assertEquals(25, target.get(0).getHeight());
+        Assert.assertEquals(10, target.get(1).getWidth());
+        Assert.assertEquals(25, target.get(1).getHeight());
+        Assert.assertEquals(20, target.get(2).getWidth());
+        Assert.assertEquals(5, target.get(2).getHeight());
+        Assert.assertEquals(10, target.get(3).getWidth());
+        Assert.assertEquals(5, target.get(3).getHeight());
+    }
+
+    @Test
+    public void testEx_obtainBufferedImages_parallel_exception() {
+        IndependentPipeFilter filter = image -> {
+            throw new HandlingException("Failed to handle.");
+        };
+        BatchSourceBuilder bsb = new BatchSourceBuilder(3)
+                .parallelism(2)
+                .addFilter(filter);
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                bsb::obtainBufferedImages);
+        Assert.assertEquals("Failed to handle.",
+                ex.getMessage());
+    }
 
-}
\ No newline at end of file
+}
@@ -144,6 +144,28 @@ public class OutputTest {
         Assert.assertEquals("JPEG", TestUtils.getFormatName(new FileInputStream(file3)));
     }
 
+    @Test
+    public void test_toFiles_parallelism() throws IOException {
+        // given
+        File file1 = temporaryFolder.newFile("tmp-1.png");
+        File file2 = temporaryFolder.newFile("tmp-2.bmp");
+        File file3 = temporaryFolder.newFile("tmp-3.png");
+
+        // when
+        builder.parallelism(3)
+                .toFiles(Arrays.asList(file1, file2, file3));
+
+        // then
+        // the format of the first file is used for all files
+        File renamed2 = new File(file2.getAbsolutePath() + ".png");
+        for (File f : Arrays.asList(file1, renamed2, file3)) {
+            BufferedImage reloaded = ImageIO.read(f);
+            Assert.assertEquals(30, reloaded.getWidth());
+            Assert.assertEquals(45, reloaded.getHeight());
+            Assert.assertEquals("png", TestUtils.getFormatName(new FileInputStream(f)));
+        }
+    }
+
     @Test
     public void testEx_toFiles_withFiles_notEnough() throws IOException {
         List<File> files = Arrays.asList(temporaryFolder.newFile("tmp-1.jpg"),
@@ -200,6 +222,74 @@ public class OutputTest {
                 ex.getMessage());
     }
 
+    @Test
+    public void test_toFilesStreaming_withFiles() throws IOException {
+        // given
+        File file1 = temporaryFolder.newFile("tmp-1.png");
+        File file2 = temporaryFolder.newFile("tmp-2.png");
+        File file3 = temporaryFolder.newFile("tmp-3.png");
+
+        // when
+        builder.toFilesStreaming(Arrays.asList(file1, file2, file3));
+
+        // then
+        for (File f : Arrays.asList(file1, file2, file3)) {
+            BufferedImage reloaded = ImageIO.read(f);
+            Assert.assertEquals(30, reloaded.getWidth());
+            Assert.assertEquals(45, reloaded.getHeight());
+            Assert.assertEquals("png", TestUtils.getFormatName(new FileInputStream(f)));
+        }
+    }
+
+    @Test
+    public void test_toFilesStreaming_withFilenames() throws IOException {
+        // given
+        String filename1 = temporaryFolder.newFile("tmp-1.bmp").getAbsolutePath();
+        String filename2 = temporaryFolder.newFile("tmp-2.bmp").getAbsolutePath();
+        String filename3 = temporaryFolder.newFile("tmp-3.bmp").getAbsolutePath();
+
+        // when
+        builder.toFilesStreaming(filename1, filename2, filename3);
+
+        // then
+        for (String fn : Arrays.asList(filename1, filename2, filename3)) {
+            BufferedImage reloaded = ImageIO.read(new File(fn));
+            Assert.assertEquals(30, reloaded.getWidth());
+            Assert.assertEquals(45, reloaded.getHeight());
+            Assert.assertEquals("bmp", TestUtils.getFormatName(new FileInputStream(fn)));
+        }
+    }
+
+    @Test
+    public void testEx_toFilesStreaming_notEnough() throws IOException {
+        List<File> files = Arrays.asList(temporaryFolder.newFile("tmp-1.jpg"),
+                temporaryFolder.newFile("tmp-2.jpg"));
+        IndexOutOfBoundsException ex = Assert.assertThrows(IndexOutOfBoundsException.class,
+                () -> builder.toFilesStreaming(files));
+        Assert.assertEquals("Not enough File provided by iterable.",
+                ex.getMessage());
+    }
+
+    @Test
+    public void test_toOutputStreamsStreaming() throws IOException {
+        // given
+        ByteArrayOutputStream os1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        ByteArrayOutputStream os3 = new ByteArrayOutputStream();
+
+        // when
+        builder.formatName("png")
+                .toOutputStreamsStreaming(Arrays.asList(os1, os2, os3));
+
+        // then
+        for (ByteArrayOutputStream os : Arrays.asList(os1, os2, os3)) {
+            BufferedImage reloaded = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+            Assert.assertEquals(30, reloaded.getWidth());
+            Assert.assertEquals(45, reloaded.getHeight());
+            Assert.assertEquals("png", TestUtils.getFormatName(new ByteArrayInputStream(os.toByteArray())));
+        }
+    }
+
     @Test
     public void test_toOutputStream() throws IOException {
         // given
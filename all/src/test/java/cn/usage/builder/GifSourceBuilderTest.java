@@ -5,22 +5,34 @@ import cn.core.ex.InvalidSettingException;
 import cn.core.in.GifSource;
 import cn.core.tool.Range;
 import cn.pipe.in.gif.InputStreamGifSource;
+import cn.pipe.out.GifOutputStreamEncoder;
 import cn.usage.BufferedImageComparer;
+import cn.usage.ImagePipes;
 import cn.usage.ReflectionUtils;
 import cn.usage.TestUtils;
 import com.madgag.gif.fmsware.GifDecoder;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 @SuppressWarnings("unchecked")
 public class GifSourceBuilderTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     GifSource<InputStream> source;
     @Before
     public void init() throws IOException {
@@ -173,6 +185,42 @@ public class GifSourceBuilderTest {
         }
     }
 
+    @Test
+    public void test_obtainSourceImages_all_indexed() throws IOException {
+        // given
+        GifSourceBuilder<File> builder = ImagePipes.ofGif(TestUtils.copyResourceToTemporaryFile("input/seasons.gif", temporaryFolder));
+
+        // when
+        List<BufferedImage> target = builder.registerAll()
+                .obtainSourceImages();
+
+        // then
+        // the frames are decoded into a list which can be modified
+        Assert.assertEquals(4, target.size());
+        BufferedImage first = target.get(0);
+        Collections.reverse(target);
+        Assert.assertSame(first, target.get(3));
+    }
+
+    @Test
+    public void test_registerAll_reverse() throws IOException {
+        // given
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        // when
+        ImagePipes.ofGif(TestUtils.copyResourceToTemporaryFile("input/seasons.gif", temporaryFolder))
+                .registerAll()
+                .toFile(new GifOutputStreamEncoder.Builder().outputStream(os).reverse().build());
+
+        // then
+        GifDecoder expected = new GifDecoder();
+        expected.read(TestUtils.getResourceStream("input/seasons.gif"));
+        GifDecoder actual = new GifDecoder();
+        actual.read(new ByteArrayInputStream(os.toByteArray()));
+        Assert.assertEquals(4, actual.getFrameCount());
+        Assert.assertEquals(expected.getFrameSize(), actual.getFrameSize());
+    }
+
     @Test
     public void testEx_obtainSourceImages_frameIndexOutOfBound() {
         GifSourceBuilder<InputStream> builder = new GifSourceBuilder<>(source)
@@ -192,4 +240,22 @@ public class GifSourceBuilderTest {
                 ex.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test_obtainSourceImagesLazily() throws IOException {
+        // given
+        GifSourceBuilder<InputStream> builder = new GifSourceBuilder<>(source)
+                .register(1, 3);
+
+        // when
+        Iterator<BufferedImage> target = builder.obtainSourceImagesLazily();
+
+        // then
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(TestUtils.getResourceStream("input/seasons.gif"));
+
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(1), target.next()));
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(3), target.next()));
+        Assert.assertFalse(target.hasNext());
+    }
+
+}
@@ -4,6 +4,7 @@ import cn.core.ex.HandlingException;
 import cn.core.in.BufferedImageSource;
 import cn.core.in.InputStreamImageSource;
 import cn.core.in.ThisBufferedImageSource;
+import cn.core.tool.ReadOptions;
 import cn.usage.BufferedImageComparer;
 import cn.usage.ReflectionUtils;
 import cn.usage.TestUtils;
@@ -65,6 +66,34 @@ public class ImageSourceBuilderTest {
         Assert.assertTrue(BufferedImageComparer.isSame(image1, target.get(1)));
     }
 
+    @Test
+    public void test_obtainSourceImages_withReadOptions() throws IOException {
+        // given
+        ReadOptions options = new ReadOptions.Builder().sourceRegion(0, 0, 20, 10).build();
+        ImageSourceBuilder<InputStream> builder = new ImageSourceBuilder<>(sources)
+                .readOptions(options)
+                .parallelism(2);
+
+        // when
+        List<BufferedImage> target = builder.obtainSourceImages();
+
+        // then
+        Assert.assertSame(options, ReflectionUtils.get("readOptions", builder));
+        Assert.assertEquals(2, target.size());
+        for (BufferedImage o : target) {
+            Assert.assertEquals(20, o.getWidth());
+            Assert.assertEquals(10, o.getHeight());
+        }
+    }
+
+    @Test
+    public void testEx_readOptions_null() {
+        ImageSourceBuilder<InputStream> builder = new ImageSourceBuilder<>(sources);
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> builder.readOptions(null));
+        Assert.assertEquals("Read options is null.", ex.getMessage());
+    }
+
     @Test
     public void testEx_obtainSourceImages_multipleFormats() throws IOException {
 
@@ -99,4 +128,24 @@ public class ImageSourceBuilderTest {
         Assert.assertEquals("No available original format.",
                 ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_obtainSourceImages_parallelism() throws IOException {
+        // given
+        List<BufferedImageSource<BufferedImage>> list = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            list.add(new ThisBufferedImageSource(new BufferedImage(i, 20, BufferedImage.TYPE_INT_RGB)));
+        }
+        ImageSourceBuilder<BufferedImage> builder = new ImageSourceBuilder<>(list)
+                .parallelism(4);
+
+        // when
+        List<BufferedImage> target = builder.obtainSourceImages();
+
+        // then
+        Assert.assertEquals(8, target.size());
+        for (int i = 0; i < target.size(); i++) {
+            Assert.assertEquals(i + 1, target.get(i).getWidth());
+        }
+    }
+}
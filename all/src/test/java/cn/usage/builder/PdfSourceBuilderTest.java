@@ -1,28 +1,44 @@
 package cn.usage.builder;
 
+import cn.core.IndependentPipeFilter;
 import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
 import cn.core.in.PdfSource;
 import cn.core.tool.Range;
+import cn.pipe.in.PdfDocumentCache;
+import cn.pipe.in.TieredPageImageCache;
+import cn.pipe.in.pdf.ByteArrayPdfSource;
 import cn.pipe.in.pdf.InputStreamPdfSource;
 import cn.usage.BufferedImageComparer;
 import cn.usage.ReflectionUtils;
 import cn.usage.TestUtils;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("unchecked")
 public class PdfSourceBuilderTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     PdfSource<InputStream> source;
     @Before
     public void init() throws IOException {
@@ -172,6 +188,121 @@ public class PdfSourceBuilderTest {
         Assert.assertTrue(after);
     }
 
+    @Test
+    public void test_documentCache() throws IOException {
+        // given
+        byte[] content = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        PdfDocumentCache cache = new PdfDocumentCache(1);
+        PdfSourceBuilder<byte[]> first = new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .documentCache(cache)
+                .register(0);
+        PdfSourceBuilder<byte[]> second = new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .documentCache(cache)
+                .register(0);
+
+        // when
+        List<BufferedImage> expected = first.obtainSourceImages();
+        List<BufferedImage> actual = second.obtainSourceImages();
+
+        // then
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(expected.get(0), actual.get(0)));
+    }
+
+    @Test
+    public void testEx_documentCache_null() {
+        PdfSourceBuilder<InputStream> builder = new PdfSourceBuilder<>(source);
+        Assert.assertThrows(NullPointerException.class, () -> builder.documentCache(null));
+    }
+
+    @Test
+    public void test_pageCache() throws IOException {
+        // given
+        byte[] content = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        TieredPageImageCache cache = new TieredPageImageCache(64 * 1024 * 1024);
+        List<BufferedImage> expected = new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .pageCache(cache)
+                .register(1)
+                .dpi(72)
+                .obtainSourceImages();
+        ByteArrayPdfSource cached = new ByteArrayPdfSource(content);
+
+        // when
+        List<BufferedImage> actual = new PdfSourceBuilder<>(cached)
+                .pageCache(cache)
+                .register(1)
+                .dpi(72)
+                .obtainSourceImages();
+
+        // then
+        Assert.assertTrue(BufferedImageComparer.isSame(expected.get(0), actual.get(0)));
+        Assert.assertEquals(cache.getUsedBytes(), (long) actual.get(0).getWidth() * actual.get(0).getHeight() * 4);
+    }
+
+    @Test
+    public void test_pageCache_hitWithoutLoading() throws IOException {
+        // given
+        byte[] content = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        TieredPageImageCache cache = new TieredPageImageCache(64 * 1024 * 1024);
+        List<BufferedImage> expected = new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .pageCache(cache)
+                .register(0, 2)
+                .dpi(72)
+                .obtainSourceImages();
+        AtomicInteger loads = new AtomicInteger();
+        ByteArrayPdfSource cached = new ByteArrayPdfSource(content) {
+            @Override
+            protected PDDocument doLoad() throws IOException {
+                loads.incrementAndGet();
+                return super.doLoad();
+            }
+        };
+
+        // when
+        PdfSourceBuilder<byte[]> builder = new PdfSourceBuilder<>(cached)
+                .pageCache(cache)
+                .register(0, 2)
+                .dpi(72);
+        List<BufferedImage> actual = builder.obtainSourceImages();
+        Iterator<BufferedImage> lazily = builder.obtainSourceImagesLazily();
+        lazily.next();
+        lazily.next();
+
+        // then
+        Assert.assertEquals(0, loads.get());
+        Assert.assertEquals(2, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(expected.get(i), actual.get(i)));
+        }
+    }
+
+    @Test
+    public void test_pageCache_missLoading() throws IOException {
+        // given
+        byte[] content = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        TieredPageImageCache cache = new TieredPageImageCache(64 * 1024 * 1024);
+        new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .pageCache(cache)
+                .register(0)
+                .dpi(72)
+                .obtainSourceImages();
+
+        // when
+        PdfSourceBuilder<byte[]> builder = new PdfSourceBuilder<>(new ByteArrayPdfSource(content))
+                .pageCache(cache)
+                .register(0, 5)
+                .dpi(72);
+
+        // then
+        Assert.assertThrows(HandlingException.class, builder::obtainSourceImages);
+    }
+
+    @Test
+    public void testEx_pageCache_null() {
+        PdfSourceBuilder<InputStream> builder = new PdfSourceBuilder<>(source);
+        Assert.assertThrows(NullPointerException.class, () -> builder.pageCache(null));
+    }
+
     @Test
     public void test_obtainSourceImages_specified() throws IOException {
         // given
@@ -273,4 +404,79 @@ public class PdfSourceBuilderTest {
             Assert.assertTrue(BufferedImageComparer.isSame(image0, target.get(0)));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_obtainSourceImagesLazily() throws IOException {
+        // given
+        PdfSourceBuilder<InputStream> builder = new PdfSourceBuilder<>(source)
+                .register(0, 2)
+                .dpi(270);
+
+        // when
+        Iterator<BufferedImage> target = builder.obtainSourceImagesLazily();
+
+        // then
+        try (PDDocument doc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            BufferedImage image0 = renderer.renderImageWithDPI(0, 270, ImageType.RGB);
+            BufferedImage image2 = renderer.renderImageWithDPI(2, 270, ImageType.RGB);
+
+            Assert.assertTrue(BufferedImageComparer.isSame(image0, target.next()));
+            Assert.assertFalse(source.isClosed());
+            Assert.assertTrue(BufferedImageComparer.isSame(image2, target.next()));
+            // The document is released after the last page is rendered.
+            Assert.assertTrue(source.isClosed());
+            Assert.assertFalse(target.hasNext());
+        }
+    }
+
+    @Test
+    public void testEx_toFilesStreaming_releasedWhenStoppedEarly() throws IOException {
+        // given
+        List<Integer> filtered = new ArrayList<>();
+        IndependentPipeFilter filter = image -> {
+            filtered.add(filtered.size());
+            return Collections.singletonList(image);
+        };
+        PdfSourceBuilder<InputStream> builder = new PdfSourceBuilder<>(source)
+                .register(0, 1, 2)
+                .addFilter(filter)
+                .dpi(30);
+        File file = temporaryFolder.newFile("0.png");
+        // a directory can not be written
+        File directory = temporaryFolder.newFolder("1.png");
+        List<File> files = Arrays.asList(file, directory, temporaryFolder.newFile("2.png"));
+
+        // when
+        Assert.assertThrows(IOException.class, () -> builder.toFilesStreaming(files));
+
+        // then
+        // the last page is not rendered, and the document is released
+        Assert.assertEquals(2, filtered.size());
+        Assert.assertTrue(source.isClosed());
+    }
+
+    @Test
+    public void test_obtainSourceImages_parallelism() throws IOException {
+        // given
+        PdfSourceBuilder<InputStream> builder = new PdfSourceBuilder<>(source)
+                .registerAll()
+                .parallelism(3)
+                .dpi(100);
+
+        // when
+        List<BufferedImage> target = builder.obtainSourceImages();
+
+        // then
+        Assert.assertEquals(3, target.size());
+        Assert.assertEquals(3, ReflectionUtils.getFromSuper("parallelism", source));
+        try (PDDocument doc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            for (int i = 0; i < 3; i++) {
+                BufferedImage page = renderer.renderImageWithDPI(i, 100, ImageType.RGB);
+                Assert.assertTrue(BufferedImageComparer.isSame(page, target.get(i)));
+            }
+        }
+        Assert.assertTrue(source.isClosed());
+    }
+}
@@ -0,0 +1,43 @@
+package cn.core;
+
+import cn.core.utils.ObjectUtils;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pipe filter that handles every image independently of the others.Since
+ * the result of an image never depends on the other images, such a filter
+ * can be executed lazily, pulling one image at a time through the pipe,
+ * without holding all images in memory.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public interface IndependentPipeFilter extends PipeFilter {
+
+    /**
+     * Execute this pipe filter for a single original image.
+     *
+     * @param image The source image.
+     * @return The final images of the source image.
+     */
+    List<BufferedImage> execute(BufferedImage image);
+
+    /**
+     * Execute this pipe filter for each of the original images, and then
+     * collect the final images in order.
+     *
+     * @param images The source images.
+     * @return The final images.
+     */
+    @Override
+    default List<BufferedImage> execute(List<BufferedImage> images) {
+        ObjectUtils.excNull(images, "Source images is null.");
+        List<BufferedImage> tars = new ArrayList<>();
+        for (BufferedImage o : images) {
+            tars.addAll(execute(o));
+        }
+        return tars;
+    }
+}
@@ -1,6 +1,8 @@
 package cn.core.in;
 
 import cn.core.Source;
+import cn.core.tool.ReadOptions;
+import cn.core.tool.SourceInfo;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -21,6 +23,31 @@ public interface BufferedImageSource<S> extends Source<S> {
      */
     BufferedImage read() throws IOException;
 
+    /**
+     * Read an image from the buffered image source with the options. By default, the
+     * options are ignored, the sources which decode images should override this method.
+     *
+     * @param options The options of reading.
+     * @return The read BufferedImage.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    default BufferedImage read(ReadOptions options) throws IOException {
+        return read();
+    }
+
+    /**
+     * Probe the basic information of the image by reading the header only. By default,
+     * the image is read to obtain the information, the sources which decode images
+     * should override this method.
+     *
+     * @return The information of the image.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    default SourceInfo probe() throws IOException {
+        BufferedImage image = read();
+        return new SourceInfo(image.getWidth(), image.getHeight(), getOriginalFormatName(), 1, 0);
+    }
+
     /**
      * Gets the original format name.
      * @return The original format name.
@@ -2,6 +2,8 @@ package cn.core.in;
 
 import cn.core.ex.HandlingException;
 import cn.core.ex.UnsupportedFormatException;
+import cn.core.tool.ReadOptions;
+import cn.core.tool.SourceInfo;
 import cn.core.utils.ObjectUtils;
 import cn.core.utils.StringUtils;
 
@@ -43,6 +45,12 @@ public class FileImageSource implements BufferedImageSource<File> {
 
     @Override
     public BufferedImage read() throws IOException {
+        return read(ReadOptions.DEFAULT);
+    }
+
+    @Override
+    public BufferedImage read(ReadOptions options) throws IOException {
+        ObjectUtils.excNull(options, "Read options is null.");
         if (readCompleted) {
             throw new HandlingException("File reading has already completed.");
         }
@@ -54,7 +62,7 @@ public class FileImageSource implements BufferedImageSource<File> {
         ImageInputStream stream = ImageIO.createImageInputStream(source);
 
         // read from file
-        BufferedImage bi = read(stream);
+        BufferedImage bi = read(stream, options);
 
         // mark the status to completed
         completeRead();
@@ -62,6 +70,10 @@ public class FileImageSource implements BufferedImageSource<File> {
     }
 
     protected BufferedImage read(ImageInputStream stream) throws IOException {
+        return read(stream, ReadOptions.DEFAULT);
+    }
+
+    protected BufferedImage read(ImageInputStream stream, ReadOptions options) throws IOException {
         Iterator<ImageReader> iter = ImageIO.getImageReaders(stream);
         if (!iter.hasNext()) {
             // can not parse input stream
@@ -70,7 +82,6 @@ public class FileImageSource implements BufferedImageSource<File> {
         }
 
         ImageReader reader = iter.next();
-        ImageReadParam param = reader.getDefaultReadParam();
         reader.setInput(stream, true, true);
 
         // set the format
@@ -78,6 +89,7 @@ public class FileImageSource implements BufferedImageSource<File> {
 
         BufferedImage bi;
         try {
+            ImageReadParam param = options.obtainReadParam(reader);
             bi = reader.read(0, param);
         } finally {
             reader.dispose();
@@ -86,6 +98,45 @@ public class FileImageSource implements BufferedImageSource<File> {
         return bi;
     }
 
+    /**
+     * Probe the basic information of the image by reading the header only, the file
+     * can still be read after probing.
+     *
+     * @return The information of the image.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        // check the file is readable
+        if (!source.canRead()) {
+            throw new IIOException("Cannot read the source file.");
+        }
+        return probe(ImageIO.createImageInputStream(source));
+    }
+
+    protected SourceInfo probe(ImageInputStream stream) throws IOException {
+        Iterator<ImageReader> iter = ImageIO.getImageReaders(stream);
+        if (!iter.hasNext()) {
+            // can not parse input stream
+            stream.close();
+            throw new UnsupportedFormatException("No suitable ImageReader found for source file.");
+        }
+
+        ImageReader reader = iter.next();
+        reader.setInput(stream, true, true);
+
+        // set the format
+        originalFormatName = reader.getFormatName();
+
+        try {
+            // the dimensions are read from the header, the image data is not decoded
+            return new SourceInfo(reader.getWidth(0), reader.getHeight(0), originalFormatName, 1, 0);
+        } finally {
+            reader.dispose();
+            stream.close();
+        }
+    }
+
     @Override
     public String getOriginalFormatName() {
         return originalFormatName;
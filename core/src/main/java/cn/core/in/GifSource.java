@@ -1,6 +1,7 @@
 package cn.core.in;
 
 import cn.core.Source;
+import cn.core.tool.SourceInfo;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.List;
@@ -47,4 +48,21 @@ public interface GifSource<S> extends Source<S> {
      * @throws IOException If some I/O exceptions occurred when loading the gif source.
      */
     List<BufferedImage> readAll() throws IOException;
+
+    /**
+     * Probe the basic information of the gif without decoding the frames. By default,
+     * the frames are decoded to obtain the information, the sources which could scan
+     * the blocks of gif should override this method.
+     *
+     * @return The information of the gif.
+     * @throws IOException If some I/O exceptions occurred when loading the gif source.
+     */
+    default SourceInfo probe() throws IOException {
+        int size = size();
+        if (size == 0) {
+            return new SourceInfo(0, 0, "gif", 0, 0);
+        }
+        BufferedImage first = read(0);
+        return new SourceInfo(first.getWidth(), first.getHeight(), "gif", size, 0);
+    }
 }
@@ -1,6 +1,8 @@
 package cn.core.in;
 
 import cn.core.ex.UnsupportedFormatException;
+import cn.core.tool.ReadOptions;
+import cn.core.tool.SourceInfo;
 import cn.core.utils.ObjectUtils;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReadParam;
@@ -32,6 +34,12 @@ public class InputStreamImageSource implements BufferedImageSource<InputStream>
 
     @Override
     public BufferedImage read() throws IOException {
+        return read(ReadOptions.DEFAULT);
+    }
+
+    @Override
+    public BufferedImage read(ReadOptions options) throws IOException {
+        ObjectUtils.excNull(options, "Read options is null.");
         ImageInputStream iis = ImageIO.createImageInputStream(source);
         Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
         if (!readers.hasNext()) {
@@ -41,7 +49,6 @@ public class InputStreamImageSource implements BufferedImageSource<InputStream>
         }
 
         ImageReader reader = readers.next();
-        ImageReadParam param = reader.getDefaultReadParam();
         reader.setInput(iis);
 
         BufferedImage image;
@@ -49,6 +56,7 @@ public class InputStreamImageSource implements BufferedImageSource<InputStream>
             // original format name
             originalFormatName = reader.getFormatName();
             // read image
+            ImageReadParam param = options.obtainReadParam(reader);
             image = reader.read(0, param);
         } finally {
             reader.dispose();
@@ -59,6 +67,46 @@ public class InputStreamImageSource implements BufferedImageSource<InputStream>
         return image;
     }
 
+    /**
+     * Probe the basic information of the image by reading the header only. The input
+     * stream can still be read after probing only if it supports mark, otherwise the
+     * header has been consumed.
+     *
+     * @return The information of the image.
+     * @throws IOException If some I/O exceptions occurred.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        boolean marked = source.markSupported();
+        if (marked) {
+            source.mark(Integer.MAX_VALUE);
+        }
+        // closing the image input stream does not close the source
+        ImageInputStream iis = ImageIO.createImageInputStream(source);
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                // can not parse input stream
+                throw new UnsupportedFormatException("No suitable ImageReader found for source input stream.");
+            }
+
+            ImageReader reader = readers.next();
+            reader.setInput(iis, true, true);
+            try {
+                // original format name
+                originalFormatName = reader.getFormatName();
+                // the dimensions are read from the header, the image data is not decoded
+                return new SourceInfo(reader.getWidth(0), reader.getHeight(0), originalFormatName, 1, 0);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            iis.close();
+            if (marked) {
+                source.reset();
+            }
+        }
+    }
 
     @Override
     public String getOriginalFormatName() {
@@ -2,6 +2,7 @@ package cn.core.in;
 
 import cn.core.Source;
 import cn.core.ex.HandlingException;
+import cn.core.tool.SourceInfo;
 
 import java.awt.image.BufferedImage;
 import java.io.Closeable;
@@ -45,6 +46,17 @@ public interface PdfSource<S> extends Source<S>, Closeable {
      */
     List<BufferedImage> read(Integer[] pageIndexes, float dpi) throws IOException;
 
+    /**
+     * Probe the basic information of the pdf without rendering the pages. By default,
+     * only the page count is obtained, the width and height are 0.
+     *
+     * @return The information of the pdf.
+     * @throws IOException If some I/O exceptions occurred when loading the pdf source.
+     */
+    default SourceInfo probe() throws IOException {
+        return new SourceInfo(0, 0, "pdf", 0, maxPageNumber());
+    }
+
     /**
      * Whether the source is closed.
      *
@@ -1,5 +1,6 @@
 package cn.core.in;
 
+import cn.core.tool.SourceInfo;
 import cn.core.utils.ObjectUtils;
 
 import java.awt.image.BufferedImage;
@@ -29,6 +30,11 @@ public class ThisBufferedImageSource implements BufferedImageSource<BufferedImag
         return image;
     }
 
+    @Override
+    public SourceInfo probe() {
+        return new SourceInfo(image.getWidth(), image.getHeight(), null, 1, 0);
+    }
+
     @Override
     public String getOriginalFormatName() {
         return null;
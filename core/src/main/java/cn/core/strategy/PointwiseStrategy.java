@@ -0,0 +1,12 @@
+package cn.core.strategy;
+
+/**
+ * A mode strategy whose result of every pixel depends only on the pixel itself.
+ * Such a strategy can be executed on any region of an image independently, so that
+ * the regions of an image can be handled concurrently.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public interface PointwiseStrategy extends ModeStrategy {
+}
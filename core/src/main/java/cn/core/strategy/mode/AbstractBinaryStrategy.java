@@ -1,7 +1,11 @@
 package cn.core.strategy.mode;
 
 import cn.core.strategy.ModeStrategy;
+import cn.core.utils.BufferedImageUtils;
+import cn.core.utils.ObjectUtils;
+import cn.core.utils.RasterUtils;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 
 /**
  * Abstract strategy to binary the image.
@@ -11,6 +15,16 @@ import java.awt.image.BufferedImage;
  */
 public abstract class AbstractBinaryStrategy implements ModeStrategy {
 
+    /**
+     * The smaller value of the binarization.
+     */
+    public static final int BINARY_MIN = 0;
+
+    /**
+     * The larger value of the binarization.
+     */
+    public static final int BINARY_MAX = 255;
+
     protected AbstractGrayingStrategy grayingStrategy;
 
     protected AbstractBinaryStrategy(AbstractGrayingStrategy grayingStrategy) {
@@ -30,4 +44,141 @@ public abstract class AbstractBinaryStrategy implements ModeStrategy {
      * @param img The original image.
      */
     public abstract void binaryImage(BufferedImage img);
+
+    /**
+     * Create a compact binary image of {@link BufferedImage#TYPE_BYTE_BINARY} from the
+     * original image, which uses 1 bit per pixel. The pixels of
+     * {@link AbstractBinaryStrategy#BINARY_MAX} are white and the others are black.
+     * This method will not change the original image.
+     *
+     * @param img The original image.
+     * @return The binary image.
+     */
+    public BufferedImage toBinaryImage(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        // execute this mode on a copy of the original image
+        BufferedImage copy = BufferedImageUtils.copy(img);
+        execute(copy);
+
+        BufferedImage tar = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            RasterUtils.getRGB(copy, y, rows, rgbArray);
+            for (int i = 0; i < rows; i++) {
+                for (int x = 0; x < w; x++) {
+                    rgbArray[i * w + x] = (rgbArray[i * w + x] & 0xff) == BINARY_MAX ? 1 : 0;
+                }
+            }
+            packBits(tar, y, rows, rgbArray);
+        }
+        return tar;
+    }
+
+    /**
+     * Read the grayness values from an image which has been grayed, that is the
+     * blue component of every pixel.
+     *
+     * @param img The grayed image.
+     * @return The grayness values in row-major order.
+     */
+    protected static byte[] readGraynessValues(BufferedImage img) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        byte[] grays = new byte[w * h];
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            int offset = w * y;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
+                grays[offset + i] = (byte) rgbArray[i];
+            }
+        }
+        return grays;
+    }
+
+    /**
+     * Write the binary values to the image, every pixel is set to the gray color of
+     * the binary value.
+     *
+     * @param img The image to write.
+     * @param values The binary values in row-major order, which are
+     *               {@link AbstractBinaryStrategy#BINARY_MIN} or
+     *               {@link AbstractBinaryStrategy#BINARY_MAX}.
+     */
+    protected static void writeBinaryValues(BufferedImage img, byte[] values) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            int offset = w * y;
+            for (int i = 0; i < size; i++) {
+                int binaryValue = values[offset + i] & 0xff;
+                rgbArray[i] = (binaryValue << 16) | (binaryValue << 8) | binaryValue;
+            }
+            RasterUtils.setRGB(img, y, rows, rgbArray);
+        }
+    }
+
+    /**
+     * Create a binary image of {@link BufferedImage#TYPE_BYTE_BINARY} from the binary
+     * values.
+     *
+     * @param w The width of image.
+     * @param h The height of image.
+     * @param values The binary values in row-major order, which are
+     *               {@link AbstractBinaryStrategy#BINARY_MIN} or
+     *               {@link AbstractBinaryStrategy#BINARY_MAX}.
+     * @return The binary image.
+     */
+    protected static BufferedImage createBinaryImage(int w, int h, byte[] values) {
+        BufferedImage tar = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_BINARY);
+        int bandRows = RasterUtils.bandRows(w);
+        int[] bits = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            int offset = w * y;
+            for (int i = 0; i < size; i++) {
+                bits[i] = (values[offset + i] & 0xff) == BINARY_MAX ? 1 : 0;
+            }
+            packBits(tar, y, rows, bits);
+        }
+        return tar;
+    }
+
+    /**
+     * Pack the bits into the rows of the binary image.
+     *
+     * @param tar The binary image of {@link BufferedImage#TYPE_BYTE_BINARY}.
+     * @param y The first row.
+     * @param rows The number of rows.
+     * @param bits The bits of pixels, 1 for white and 0 for black.
+     */
+    protected static void packBits(BufferedImage tar, int y, int rows, int[] bits) {
+        int w = tar.getWidth();
+        int stride = (w + 7) >> 3;
+        byte[] data = ((DataBufferByte) tar.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < rows; i++) {
+            int offset = (y + i) * stride;
+            int base = i * w;
+            for (int x = 0; x < w; x += 8) {
+                int packed = 0;
+                int end = Math.min(8, w - x);
+                for (int k = 0; k < end; k++) {
+                    packed |= bits[base + x + k] << (7 - k);
+                }
+                data[offset + (x >> 3)] = (byte) packed;
+            }
+        }
+    }
 }
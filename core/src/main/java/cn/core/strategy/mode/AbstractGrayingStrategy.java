@@ -1,7 +1,8 @@
 package cn.core.strategy.mode;
 
-import cn.core.strategy.ModeStrategy;
+import cn.core.strategy.PointwiseStrategy;
 import cn.core.utils.ObjectUtils;
+import cn.core.utils.RasterUtils;
 import java.awt.image.BufferedImage;
 
 /**
@@ -10,29 +11,62 @@ import java.awt.image.BufferedImage;
  * @author tracy
  * @since 0.2.1
  */
-public abstract class AbstractGrayingStrategy implements ModeStrategy {
+public abstract class AbstractGrayingStrategy implements PointwiseStrategy {
 
     @Override
     public void execute(BufferedImage img) {
         ObjectUtils.excNull(img, "Image is null.");
         int w = img.getWidth();
         int h = img.getHeight();
-        for (int x = 0; x < w; x++) {
-            for (int y = 0; y < h; y++) {
-                int rgb = img.getRGB(x, y);
+        // handle the image row by row, a band of rows at a time
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
+                int rgb = rgbArray[i];
                 int r = (rgb >> 16) & 0xff;
                 int g = (rgb >> 8) & 0xff;
                 int b = rgb & 0xff;
 
                 int grayness = getGraynessValue(r, g, b);
 
-                int grayRgb = (grayness << 16) | (grayness << 8) | grayness;
-                img.setRGB(x, y, grayRgb);
+                rgbArray[i] = (grayness << 16) | (grayness << 8) | grayness;
             }
+            RasterUtils.setRGB(img, y, rows, rgbArray);
         }
     }
 
 
+    /**
+     * Calculate the grayness values of all pixels without changing the image.
+     *
+     * @param img The original image.
+     * @return The grayness values in row-major order, only the lowest 8 bits of
+     * every grayness value are kept.
+     */
+    public byte[] obtainGraynessValues(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        int w = img.getWidth();
+        int h = img.getHeight();
+        byte[] grays = new byte[w * h];
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            int offset = w * y;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
+                int rgb = rgbArray[i];
+                grays[offset + i] = (byte) getGraynessValue((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff);
+            }
+        }
+        return grays;
+    }
+
     /**
      * Calculate the grayness value.
      *
@@ -0,0 +1,324 @@
+package cn.core.tool;
+
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.ObjectUtils;
+import cn.core.utils.RasterUtils;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The pixels of an image stored out of the heap, which are backed by direct buffers or
+ * a memory-mapped file, so that the large images do not take the heap and the garbage
+ * collector never copies them.
+ * <p>
+ * The pixels are stored as the packed integers in the default RGB color model
+ * (TYPE_INT_ARGB), or without alpha. {@link ImageBuffer#asBufferedImage()} returns a
+ * {@link BufferedImage} sharing the pixels, which can be passed to any filter of the
+ * pipe, and the filters accessing the pixels by {@link RasterUtils} read and write the
+ * buffer in bulk.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public final class ImageBuffer implements Closeable {
+
+    /**
+     * The number of pixels of a segment is 2^28, that is 1 GB.
+     */
+    private static final int SEGMENT_SHIFT = 28;
+
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final int width;
+    private final int height;
+    private final boolean alpha;
+
+    private IntBuffer[] segments;
+
+    private ImageBuffer(int width, int height, boolean alpha, IntBuffer[] segments) {
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.segments = segments;
+    }
+
+    /**
+     * Allocate an image buffer backed by direct buffers, the pixels are all zero.
+     *
+     * @param width The width of image.
+     * @param height The height of image.
+     * @param alpha Whether the pixels have alpha.
+     * @return The image buffer.
+     */
+    public static ImageBuffer allocateDirect(int width, int height, boolean alpha) {
+        int count = segmentCount(width, height);
+        IntBuffer[] segments = new IntBuffer[count];
+        long size = (long) width * height;
+        for (int i = 0; i < count; i++) {
+            int pixels = (int) Math.min(SEGMENT_MASK + 1, size - ((long) i << SEGMENT_SHIFT));
+            segments[i] = ByteBuffer.allocateDirect(pixels * 4).asIntBuffer();
+        }
+        return new ImageBuffer(width, height, alpha, segments);
+    }
+
+    /**
+     * Create an image buffer backed by a memory-mapped file, which is created or
+     * resized to 4 bytes per pixel. The existing content of file is kept, so a file
+     * written by an image buffer of the same size can be mapped again.
+     *
+     * @param file The file.
+     * @param width The width of image.
+     * @param height The height of image.
+     * @param alpha Whether the pixels have alpha.
+     * @return The image buffer.
+     * @throws IOException If some I/O exceptions occurred when mapping the file.
+     */
+    public static ImageBuffer map(File file, int width, int height, boolean alpha) throws IOException {
+        ObjectUtils.excNull(file, "Mapped file is null.");
+        int count = segmentCount(width, height);
+        IntBuffer[] segments = new IntBuffer[count];
+        long size = (long) width * height;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size * 4);
+            FileChannel channel = raf.getChannel();
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                long pixels = Math.min(SEGMENT_MASK + 1, size - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start * 4, pixels * 4).asIntBuffer();
+            }
+        }
+        return new ImageBuffer(width, height, alpha, segments);
+    }
+
+    /**
+     * Copy an image into an image buffer backed by direct buffers.
+     *
+     * @param img The image.
+     * @return The image buffer.
+     */
+    public static ImageBuffer copyOf(BufferedImage img) {
+        ObjectUtils.excNull(img, "Source image is null.");
+        ImageBuffer buffer = allocateDirect(img.getWidth(), img.getHeight(), img.getColorModel().hasAlpha());
+        buffer.copyFrom(img);
+        return buffer;
+    }
+
+    /**
+     * Copy an image into an image buffer backed by a memory-mapped file.
+     *
+     * @param img The image.
+     * @param file The file, which is created or resized.
+     * @return The image buffer.
+     * @throws IOException If some I/O exceptions occurred when mapping the file.
+     */
+    public static ImageBuffer copyOf(BufferedImage img, File file) throws IOException {
+        ObjectUtils.excNull(img, "Source image is null.");
+        ImageBuffer buffer = map(file, img.getWidth(), img.getHeight(), img.getColorModel().hasAlpha());
+        buffer.copyFrom(img);
+        return buffer;
+    }
+
+    /**
+     * Get the image buffer which backs an image returned by {@link ImageBuffer#asBufferedImage()}
+     * (or a sub image of it).
+     *
+     * @param img The image.
+     * @return The image buffer, or null if the image is not backed by an image buffer.
+     */
+    public static ImageBuffer backingOf(BufferedImage img) {
+        DataBuffer buffer = img.getRaster().getDataBuffer();
+        return buffer instanceof Data ? ((Data) buffer).owner : null;
+    }
+
+    /**
+     * Get a {@link BufferedImage} sharing the pixels of this buffer, the changes of either
+     * are visible to the other. The type of image is {@link BufferedImage#TYPE_CUSTOM}.
+     *
+     * @return The image.
+     */
+    public BufferedImage asBufferedImage() {
+        checkClosed();
+        ColorModel cm = alpha ? ColorModel.getRGBdefault()
+                : new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
+        WritableRaster raster = Raster.createWritableRaster(
+                cm.createCompatibleSampleModel(width, height), new Data(this), null);
+        return new BufferedImage(cm, raster, false, null);
+    }
+
+    /**
+     * Copy the pixels into an image in the heap, whose type is {@link BufferedImage#TYPE_INT_ARGB}
+     * (or {@link BufferedImage#TYPE_INT_RGB} without alpha).
+     *
+     * @return The image.
+     */
+    public BufferedImage toBufferedImage() {
+        BufferedImage img = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        int bandRows = RasterUtils.bandRows(width);
+        int[] rgb = new int[bandRows * width];
+        for (int y = 0; y < height; y += bandRows) {
+            int rows = Math.min(bandRows, height - y);
+            getRGB(0, y, width, rows, rgb);
+            RasterUtils.setRGB(img, y, rows, rgb);
+        }
+        return img;
+    }
+
+    /**
+     * Read the region as integer pixels in the default RGB color model (TYPE_INT_ARGB).
+     *
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region.
+     * @param rows The number of rows of the region.
+     * @param rgbArray The array to store the pixels, whose length must be at least
+     *                 <code>w * rows</code>.
+     */
+    public void getRGB(int x, int y, int w, int rows, int[] rgbArray) {
+        IntBuffer[] segments = checkClosed();
+        for (int r = 0; r < rows; r++) {
+            transfer(segments, (long) (y + r) * width + x, rgbArray, r * w, w, false);
+        }
+        if (!alpha) {
+            for (int i = 0, size = w * rows; i < size; i++) {
+                rgbArray[i] |= 0xff000000;
+            }
+        }
+    }
+
+    /**
+     * Write the integer pixels in the default RGB color model (TYPE_INT_ARGB) to the region.
+     *
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region.
+     * @param rows The number of rows of the region.
+     * @param rgbArray The pixels to write, whose length must be at least
+     *                 <code>w * rows</code>.
+     */
+    public void setRGB(int x, int y, int w, int rows, int[] rgbArray) {
+        IntBuffer[] segments = checkClosed();
+        int[] row = alpha ? rgbArray : new int[w];
+        for (int r = 0; r < rows; r++) {
+            int offset = r * w;
+            if (!alpha) {
+                for (int i = 0; i < w; i++) {
+                    row[i] = rgbArray[offset + i] & 0xffffff;
+                }
+                offset = 0;
+            }
+            transfer(segments, (long) (y + r) * width + x, row, offset, w, true);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Drop the buffers, the memory is released when they are collected. The images
+     * sharing the pixels can not be used any more.
+     */
+    @Override
+    public synchronized void close() {
+        segments = null;
+    }
+
+    private void copyFrom(BufferedImage img) {
+        int bandRows = RasterUtils.bandRows(width);
+        int[] rgb = new int[bandRows * width];
+        for (int y = 0; y < height; y += bandRows) {
+            int rows = Math.min(bandRows, height - y);
+            RasterUtils.getRGB(img, y, rows, rgb);
+            setRGB(0, y, width, rows, rgb);
+        }
+    }
+
+    private IntBuffer[] checkClosed() {
+        IntBuffer[] segments = this.segments;
+        if (segments == null) {
+            throw new HandlingException("The image buffer has been closed.");
+        }
+        return segments;
+    }
+
+    /**
+     * Transfer the pixels between the buffers and an array, the pixels may span segments.
+     */
+    private static void transfer(IntBuffer[] segments, long index, int[] array, int offset, int length, boolean write) {
+        while (length > 0) {
+            IntBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)].duplicate();
+            int position = (int) (index & SEGMENT_MASK);
+            int n = Math.min(length, segment.limit() - position);
+            // the position of Buffer, which is overridden since Java 9
+            ((Buffer) segment).position(position);
+            if (write) {
+                segment.put(array, offset, n);
+            } else {
+                segment.get(array, offset, n);
+            }
+            index += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private static int segmentCount(int width, int height) {
+        if (width <= 0) {
+            throw new InvalidSettingException("The image width must be greater than 0.");
+        }
+        if (height <= 0) {
+            throw new InvalidSettingException("The image height must be greater than 0.");
+        }
+        long size = (long) width * height;
+        if (size > Integer.MAX_VALUE) {
+            throw new InvalidSettingException("The number of pixels must not be greater than " + Integer.MAX_VALUE + ".");
+        }
+        return (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    /**
+     * The data buffer of the images sharing the pixels, the elements are the pixels.
+     */
+    private static final class Data extends DataBuffer {
+
+        private final ImageBuffer owner;
+
+        private Data(ImageBuffer owner) {
+            super(DataBuffer.TYPE_INT, owner.width * owner.height);
+            this.owner = owner;
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return owner.checkClosed()[i >>> SEGMENT_SHIFT].get(i & SEGMENT_MASK);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            owner.checkClosed()[i >>> SEGMENT_SHIFT].put(i & SEGMENT_MASK, val);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cn.core.tool;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.ex.UnsupportedFormatException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import java.text.MessageFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe pool of image writers keyed by format name. The writers are reused
+ * after reset, so that the lookup of service providers and the creation of writers
+ * are avoided. The idle writers of a format are bounded, the extra writers returned
+ * are disposed.
+ * <p>
+ * An image writer is not thread-safe, so a writer borrowed should be used by one
+ * thread only, and then returned or disposed.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class ImageWriterPool {
+
+    /**
+     * The maximum number of idle writers of a format.
+     */
+    private final int maxIdle;
+
+    /**
+     * The idle writers of every format.
+     */
+    private final ConcurrentMap<String, BlockingQueue<ImageWriter>> idles = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the writers of every format could be found.
+     */
+    private final ConcurrentMap<String, Boolean> supports = new ConcurrentHashMap<>();
+
+    public ImageWriterPool(int maxIdle) {
+        if (maxIdle <= 0) {
+            throw new InvalidSettingException("Max idle writers must be greater than 0.");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Whether there is an image writer for the format.
+     *
+     * @param formatName The format name.
+     * @return Returns true if an image writer could be found.
+     */
+    public boolean isSupported(String formatName) {
+        return supports.computeIfAbsent(keyOf(formatName),
+                k -> ImageIO.getImageWritersByFormatName(k).hasNext());
+    }
+
+    /**
+     * Borrow an image writer of the format. An idle writer is returned if any, otherwise
+     * a new writer is created.
+     *
+     * @param formatName The format name.
+     * @return The image writer.
+     * @throws UnsupportedFormatException If no image writer could be found.
+     */
+    public ImageWriter borrow(String formatName) throws UnsupportedFormatException {
+        String key = keyOf(formatName);
+        ImageWriter writer = queueOf(key).poll();
+        if (writer != null) {
+            return writer;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(key);
+        supports.put(key, writers.hasNext());
+        if (!writers.hasNext()) {
+            throw new UnsupportedFormatException(MessageFormat.format(
+                    "No suitable ImageWriter found for {0}.", formatName));
+        }
+        return writers.next();
+    }
+
+    /**
+     * Return the image writer borrowed from this pool. The writer is reset, and it is
+     * disposed if there are enough idle writers of the format.
+     *
+     * @param formatName The format name.
+     * @param writer The image writer.
+     */
+    public void giveBack(String formatName, ImageWriter writer) {
+        writer.reset();
+        if (!queueOf(keyOf(formatName)).offer(writer)) {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Dispose all idle writers.
+     */
+    public void clear() {
+        for (BlockingQueue<ImageWriter> o : idles.values()) {
+            ImageWriter writer;
+            while ((writer = o.poll()) != null) {
+                writer.dispose();
+            }
+        }
+    }
+
+    /**
+     * Get the number of idle writers of the format.
+     *
+     * @param formatName The format name.
+     * @return The number of idle writers.
+     */
+    public int idleCount(String formatName) {
+        return queueOf(keyOf(formatName)).size();
+    }
+
+    private BlockingQueue<ImageWriter> queueOf(String key) {
+        return idles.computeIfAbsent(key, k -> new ArrayBlockingQueue<>(maxIdle));
+    }
+
+    private static String keyOf(String formatName) {
+        return formatName.toLowerCase(Locale.ROOT);
+    }
+}
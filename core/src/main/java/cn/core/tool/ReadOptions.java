@@ -0,0 +1,138 @@
+package cn.core.tool;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import java.awt.*;
+import java.io.IOException;
+import java.text.MessageFormat;
+
+/**
+ * The options of reading an image, which are the hints for the image reader to
+ * decode only what is needed.
+ * <p>
+ * The source region limits the decoding to a rectangle of the image. The max size
+ * indicates that the image will be reduced to fit within the size later, so that the
+ * image is decoded by the largest subsampling which keeps the image not smaller than
+ * the fitted size. The image reader never materializes the full image in either case.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class ReadOptions {
+
+    /**
+     * The options which keep the default parameters of image reader.
+     */
+    public static final ReadOptions DEFAULT = new Builder().build();
+
+    /**
+     * The maximum width of the image to fit within, 0 means unlimited.
+     */
+    private final int maxWidth;
+
+    /**
+     * The maximum height of the image to fit within, 0 means unlimited.
+     */
+    private final int maxHeight;
+
+    /**
+     * The region of the image to decode, null means the whole image.
+     */
+    private final Rectangle sourceRegion;
+
+    public ReadOptions(Builder bu) {
+        this.maxWidth = bu.maxWidth;
+        this.maxHeight = bu.maxHeight;
+        this.sourceRegion = bu.sourceRegion;
+    }
+
+    /**
+     * Obtain the parameters of image reader with these options. The dimensions of the
+     * first image are read from the header if necessary, so the input of the reader
+     * should have been set.
+     *
+     * @param reader The image reader.
+     * @return The parameters of reading.
+     * @throws IOException If some I/O exceptions occurred when reading the header.
+     */
+    public ImageReadParam obtainReadParam(ImageReader reader) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (sourceRegion == null && maxWidth == 0 && maxHeight == 0) {
+            return param;
+        }
+
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if (sourceRegion != null) {
+            Rectangle region = sourceRegion.intersection(new Rectangle(0, 0, width, height));
+            if (region.isEmpty()) {
+                throw new HandlingException(MessageFormat.format(
+                        "The source region:[{0}, {1}, {2}, {3}] is out of the image range:[{4}, {5}].",
+                        sourceRegion.x, sourceRegion.y, sourceRegion.width, sourceRegion.height,
+                        width, height));
+            }
+            param.setSourceRegion(region);
+            width = region.width;
+            height = region.height;
+        }
+
+        // the image fits within the max size by the smaller scale of both dimensions,
+        // so the subsampling is limited by the larger ratio of both dimensions
+        int subsampling = Math.max(maxWidth == 0 ? 1 : width / maxWidth,
+                maxHeight == 0 ? 1 : height / maxHeight);
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return param;
+    }
+
+
+    public static class Builder implements GenericBuilder<ReadOptions> {
+
+        private int maxWidth;
+        private int maxHeight;
+        private Rectangle sourceRegion;
+
+        public Builder maxWidth(int maxWidth) {
+            this.maxWidth = maxWidth;
+            return this;
+        }
+        public Builder maxHeight(int maxHeight) {
+            this.maxHeight = maxHeight;
+            return this;
+        }
+        public Builder maxSize(int maxWidth, int maxHeight) {
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+            return this;
+        }
+        public Builder sourceRegion(int x, int y, int width, int height) {
+            this.sourceRegion = new Rectangle(x, y, width, height);
+            return this;
+        }
+
+        @Override
+        public ReadOptions build() {
+            if (maxWidth < 0) {
+                throw new InvalidSettingException("The max width must be greater than or equal to 0.");
+            }
+            if (maxHeight < 0) {
+                throw new InvalidSettingException("The max height must be greater than or equal to 0.");
+            }
+            if (sourceRegion != null) {
+                if (sourceRegion.x < 0 || sourceRegion.y < 0) {
+                    throw new InvalidSettingException("The start point of source region must be greater than or equal to 0.");
+                }
+                if (sourceRegion.width <= 0 || sourceRegion.height <= 0) {
+                    throw new InvalidSettingException("The size of source region must be greater than 0.");
+                }
+            }
+
+            return new ReadOptions(this);
+        }
+    }
+}
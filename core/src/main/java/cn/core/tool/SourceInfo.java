@@ -0,0 +1,66 @@
+package cn.core.tool;
+
+/**
+ * The basic information of a source, which is probed from the header of the source
+ * without decoding the images.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class SourceInfo {
+
+    /**
+     * The width of the image, it is the logical screen width of a gif, and the width
+     * of the first page (in points) of a pdf.
+     */
+    private final int width;
+
+    /**
+     * The height of the image, it is the logical screen height of a gif, and the height
+     * of the first page (in points) of a pdf.
+     */
+    private final int height;
+
+    /**
+     * The format name of the source, null if it is unknown.
+     */
+    private final String formatName;
+
+    /**
+     * The number of frames, it is 0 for a pdf.
+     */
+    private final int frameCount;
+
+    /**
+     * The number of pages, it is 0 for an image or a gif.
+     */
+    private final int pageCount;
+
+    public SourceInfo(int width, int height, String formatName, int frameCount, int pageCount) {
+        this.width = width;
+        this.height = height;
+        this.formatName = formatName;
+        this.frameCount = frameCount;
+        this.pageCount = pageCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public String getFormatName() {
+        return formatName;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+}
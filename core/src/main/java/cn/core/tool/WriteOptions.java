@@ -0,0 +1,122 @@
+package cn.core.tool;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.InvalidSettingException;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+
+/**
+ * The options of writing an image, which are applied to the parameters of image
+ * writer. The options that the writer does not support are ignored.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class WriteOptions {
+
+    /**
+     * The options which keep the default parameters of image writer.
+     */
+    public static final WriteOptions DEFAULT = new Builder().build();
+
+    /**
+     * The compression quality of the lossy formats (such as JPEG), from 0 (the highest
+     * compression) to 1 (the highest quality).
+     */
+    private final Float quality;
+
+    /**
+     * The deflate level of PNG, from 0 (no compression and fastest) to 9 (the highest
+     * compression and slowest).
+     */
+    private final Integer compressionLevel;
+
+    /**
+     * Whether to write progressively (interlaced for PNG).
+     */
+    private final boolean progressive;
+
+    /**
+     * Whether to optimize the Huffman tables of JPEG.
+     */
+    private final boolean optimizeHuffman;
+
+    public WriteOptions(Builder bu) {
+        this.quality = bu.quality;
+        this.compressionLevel = bu.compressionLevel;
+        this.progressive = bu.progressive;
+        this.optimizeHuffman = bu.optimizeHuffman;
+    }
+
+    /**
+     * Obtain the parameters of image writer with these options.
+     *
+     * @param writer The image writer.
+     * @param formatName The output format name.
+     * @return The parameters of writing.
+     */
+    public ImageWriteParam obtainWriteParam(ImageWriter writer, String formatName) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        boolean png = "PNG".equalsIgnoreCase(formatName);
+        // the deflate level of PNG writer is calculated by round(9 * (1 - quality))
+        Float q = png ? (compressionLevel == null ? null : (9 - compressionLevel) / 9f) : quality;
+        if (q != null && param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            String[] types = param.getCompressionTypes();
+            if (param.getCompressionType() == null && types != null && types.length > 0) {
+                param.setCompressionType(types[0]);
+            }
+            if (png || !param.isCompressionLossless()) {
+                param.setCompressionQuality(q);
+            } else {
+                param.setCompressionMode(ImageWriteParam.MODE_DEFAULT);
+            }
+        }
+        if (progressive && param.canWriteProgressive()) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        if (optimizeHuffman && param instanceof JPEGImageWriteParam) {
+            ((JPEGImageWriteParam) param).setOptimizeHuffmanTables(true);
+        }
+        return param;
+    }
+
+
+    public static class Builder implements GenericBuilder<WriteOptions> {
+
+        private Float quality;
+        private Integer compressionLevel;
+        private boolean progressive;
+        private boolean optimizeHuffman;
+
+        public Builder quality(float quality) {
+            this.quality = quality;
+            return this;
+        }
+        public Builder compressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+        public Builder progressive(boolean progressive) {
+            this.progressive = progressive;
+            return this;
+        }
+        public Builder optimizeHuffman(boolean optimizeHuffman) {
+            this.optimizeHuffman = optimizeHuffman;
+            return this;
+        }
+
+        @Override
+        public WriteOptions build() {
+            if (quality != null && (quality < 0 || quality > 1)) {
+                throw new InvalidSettingException("The quality out of bounds:[0, 1].");
+            }
+            if (compressionLevel != null && (compressionLevel < 0 || compressionLevel > 9)) {
+                throw new InvalidSettingException("The compression level out of bounds:[0, 9].");
+            }
+
+            return new WriteOptions(this);
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package cn.core.utils;
 
 import cn.core.ex.InvalidSettingException;
-import cn.core.ex.UnsupportedFormatException;
+import cn.core.tool.ImageWriterPool;
+import cn.core.tool.ImageBuffer;
 import cn.core.tool.Range;
+import cn.core.tool.WriteOptions;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.text.MessageFormat;
-import java.util.Iterator;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
 
 /**
  * An util class for buffered image.
@@ -26,6 +32,24 @@ public final class BufferedImageUtils {
 
     private BufferedImageUtils(){}
 
+    /**
+     * The pool of image writers which are reused by all writings.
+     */
+    private static final ImageWriterPool WRITER_POOL =
+            new ImageWriterPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The scratch pixels of every thread, which are reused to convert the images for
+     * writing, they could be reclaimed when the memory is low.
+     */
+    private static final ThreadLocal<SoftReference<int[]>> SCRATCH = new ThreadLocal<>();
+
+    /**
+     * The maximum number of scratch pixels of a thread, the larger images are converted
+     * into the standalone images, so that a thread never keeps an oversized scratch.
+     */
+    private static final int MAX_SCRATCH_PIXELS = 1 << 22;
+
     public static BufferedImage newBackgroundImage(int width, int height, Color fillColor) {
         return newBackgroundImage(1f, width, height, fillColor);
     }
@@ -95,6 +119,29 @@ public final class BufferedImageUtils {
         return image;
     }
 
+    /**
+     * Returns a {@link BufferedImage} with the same color model and raster layout as
+     * the specified image, where the pixels are copied from the raster directly.
+     * Unlike {@link #copy(BufferedImage, int)}, it does not draw the image, so the
+     * copy is exact and works for the custom image type as well. The copy of an image
+     * backed by an {@link ImageBuffer} is backed by a new image buffer as well, which is
+     * filled in bulk and keeps the pixels out of the heap.
+     *
+     * @param source the image to copy
+     * @return target image
+     */
+    public static BufferedImage copy(BufferedImage source) {
+        if (ImageBuffer.backingOf(source) != null) {
+            return ImageBuffer.copyOf(source).asBufferedImage();
+        }
+        ColorModel cm = source.getColorModel();
+        // the raster of a sub image is not located at the origin, so create a new one
+        WritableRaster raster = source.getRaster()
+                .createCompatibleWritableRaster(source.getWidth(), source.getHeight());
+        source.copyData(raster);
+        return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+    }
+
     /**
      * Returns a {@link BufferedImage} with the specified image type, where the
      * graphical content is a copy of the specified image.
@@ -137,39 +184,139 @@ public final class BufferedImageUtils {
     }
 
     public static void write(BufferedImage img, String formatName, File f) throws IOException {
+        write(img, formatName, f, WriteOptions.DEFAULT);
+    }
+
+    /**
+     * Write the image to the file with the options.
+     *
+     * @param img The image to write.
+     * @param formatName The output format name.
+     * @param f The output file.
+     * @param options The options of writing.
+     * @throws IOException If some I/O exceptions occurred when writing.
+     */
+    public static void write(BufferedImage img, String formatName, File f, WriteOptions options) throws IOException {
         ObjectUtils.excNull(img, "Buffered image is null.");
         ObjectUtils.excNull(f, "Output file is null.");
+        ObjectUtils.excNull(options, "Write options is null.");
         if (StringUtils.isEmpty(formatName)) {
             throw new NullPointerException("Output format name is null.");
         }
 
         // check for available writers for the current output format name
-        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
-        if (!writers.hasNext()) {
-            throw new UnsupportedFormatException(MessageFormat.format(
-                    "No suitable ImageWriter found for {0}.", formatName));
+        ImageWriter writer = WRITER_POOL.borrow(formatName);
+        FileOutputStream fos;
+        try {
+            fos = new FileOutputStream(f);
+        } catch (IOException | RuntimeException e) {
+            // the writer is not used yet, so it can be reused
+            WRITER_POOL.giveBack(formatName, writer);
+            throw e;
         }
-        ImageWriter writer = writers.next();
-        ImageWriteParam iwp = writer.getDefaultWriteParam();
-        FileOutputStream fos = new FileOutputStream(f);
-        ImageOutputStream ios = ImageIO.createImageOutputStream(fos);
-
-        // fix the pink background for jpeg/bmp format
-        boolean jpg = "JPG".equalsIgnoreCase(formatName);
-        boolean jpeg = "JPEG".equalsIgnoreCase(formatName);
-        boolean bmp = "BMP".equalsIgnoreCase(formatName);
-        if (jpg || jpeg || bmp) {
-            img = copy(img, BufferedImage.TYPE_INT_RGB);
+        try (FileOutputStream out = fos) {
+            write(img, formatName, out, writer, options);
         }
+    }
 
-        // do write file
-        writer.setOutput(ios);
-        writer.write(null, new IIOImage(img, null, null), iwp);
+    /**
+     * Write the image to the output stream with the options. The output stream is not
+     * closed after written.
+     *
+     * @param img The image to write.
+     * @param formatName The output format name.
+     * @param os The output stream.
+     * @param options The options of writing.
+     * @throws IOException If some I/O exceptions occurred when writing.
+     */
+    public static void write(BufferedImage img, String formatName, OutputStream os, WriteOptions options) throws IOException {
+        ObjectUtils.excNull(img, "Buffered image is null.");
+        ObjectUtils.excNull(os, "Output stream is null.");
+        ObjectUtils.excNull(options, "Write options is null.");
+        if (StringUtils.isEmpty(formatName)) {
+            throw new NullPointerException("Output format name is null.");
+        }
 
-        // release resources
-        writer.dispose();
-        ios.close();
-        fos.close();
+        write(img, formatName, os, WRITER_POOL.borrow(formatName), options);
+    }
+
+    /**
+     * Whether there is an image writer for the format.
+     *
+     * @param formatName The format name.
+     * @return Returns true if an image writer could be found.
+     */
+    public static boolean isWritable(String formatName) {
+        return StringUtils.isNotEmpty(formatName) && WRITER_POOL.isSupported(formatName);
+    }
+
+    /**
+     * Convert the image to an opaque RGB image, as same as drawing it on a black
+     * image of {@link BufferedImage#TYPE_INT_RGB}. The opaque RGB images are returned
+     * directly, and the others are drawn on an image sharing the scratch pixels of the
+     * current thread (unless the image is larger than {@link #MAX_SCRATCH_PIXELS}), so
+     * the result is valid only until the next conversion of the thread. The image has
+     * its own compact raster instead of being a sub image of a larger one.
+     */
+    private static BufferedImage toOpaqueRGB(BufferedImage img) {
+        switch (img.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_BGR:
+            case BufferedImage.TYPE_3BYTE_BGR:
+                return img;
+            default:
+                break;
+        }
+        int w = img.getWidth();
+        int h = img.getHeight();
+        BufferedImage tar;
+        if ((long) w * h > MAX_SCRATCH_PIXELS) {
+            tar = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        } else {
+            SoftReference<int[]> ref = SCRATCH.get();
+            int[] pixels = ref == null ? null : ref.get();
+            if (pixels == null || pixels.length < w * h) {
+                pixels = new int[w * h];
+                SCRATCH.set(new SoftReference<>(pixels));
+            }
+            DirectColorModel cm = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
+            WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, w * h), w, h, w,
+                    cm.getMasks(), null);
+            tar = new BufferedImage(cm, raster, false, null);
+        }
+        Graphics2D g = tar.createGraphics();
+        // clear the content of last conversion
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, w, h);
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+        return tar;
+    }
+
+    private static void write(BufferedImage img, String formatName, OutputStream os,
+                              ImageWriter writer, WriteOptions options) throws IOException {
+        boolean completed = false;
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
+            // fix the pink background for jpeg/bmp format
+            boolean jpg = "JPG".equalsIgnoreCase(formatName);
+            boolean jpeg = "JPEG".equalsIgnoreCase(formatName);
+            boolean bmp = "BMP".equalsIgnoreCase(formatName);
+            if (jpg || jpeg || bmp) {
+                img = toOpaqueRGB(img);
+            }
+
+            // do write
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(img, null, null), options.obtainWriteParam(writer, formatName));
+            completed = true;
+        } finally {
+            // reuse the writer only if it is in a clean state
+            if (completed) {
+                WRITER_POOL.giveBack(formatName, writer);
+            } else {
+                writer.dispose();
+            }
+        }
     }
 
 }
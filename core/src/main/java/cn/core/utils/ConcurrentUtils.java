@@ -0,0 +1,215 @@
+package cn.core.utils;
+
+import cn.core.ex.HandlingException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An util class for concurrent execution.
+ * <p>
+ * The work is run in the current thread if there is at most one worker, otherwise it is
+ * submitted to the specified executor, or to a temporary pool (which is shut down after
+ * the work completed) if the executor is null. The exceptions occurred in the workers are
+ * rethrown as they are, except the checked exceptions other than I/O exception, which are
+ * wrapped as {@link HandlingException}.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public final class ConcurrentUtils {
+    private ConcurrentUtils(){}
+
+    /**
+     * Run the workers which take the indexes in the range from a shared cursor, so that
+     * a worker takes the next index once it finished the previous one. When a worker
+     * failed, the cursor is moved to the end to stop the others taking indexes.
+     *
+     * @param service The executor, or null to use a temporary pool.
+     * @param workers The maximum number of workers, it is limited by the number of indexes.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param worker The worker.
+     * @throws IOException If some I/O exceptions occurred in the workers.
+     */
+    public static void runWorkers(ExecutorService service, int workers, int from, int to, Worker worker)
+            throws IOException {
+        ObjectUtils.excNull(worker, "Worker is null.");
+        Cursor cursor = new Cursor(from, to);
+        int count = Math.min(workers, to - from);
+        List<Callable<Void>> tasks = new ArrayList<>(Math.max(count, 1));
+        for (int i = 0; i < Math.max(count, 1); i++) {
+            int id = i;
+            tasks.add(() -> {
+                try {
+                    worker.run(id, cursor);
+                } catch (IOException | RuntimeException | Error e) {
+                    cursor.stop();
+                    throw e;
+                }
+                return null;
+            });
+        }
+        invokeAll(service, count, tasks);
+    }
+
+    /**
+     * Consume the indexes in the range concurrently.
+     *
+     * @param service The executor, or null to use a temporary pool.
+     * @param workers The maximum number of workers, it is limited by the number of indexes.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param consumer The consumer of indexes.
+     * @throws IOException If some I/O exceptions occurred in the consumer.
+     * @see ConcurrentUtils#runWorkers(ExecutorService, int, int, int, Worker)
+     */
+    public static void forEachIndex(ExecutorService service, int workers, int from, int to, IndexConsumer consumer)
+            throws IOException {
+        ObjectUtils.excNull(consumer, "Index consumer is null.");
+        runWorkers(service, workers, from, to, (id, cursor) -> {
+            int next;
+            while ((next = cursor.next()) >= 0) {
+                consumer.accept(next);
+            }
+        });
+    }
+
+    /**
+     * Execute all tasks and collect the results in order of the tasks.
+     *
+     * @param service The executor, or null to use a temporary pool.
+     * @param workers The maximum number of tasks executed at once, it only limits the
+     *                temporary pool, and the tasks are executed in the current thread if
+     *                it is not greater than 1.
+     * @param tasks The tasks.
+     * @param <R> The type of result.
+     * @return The results of the tasks in order.
+     * @throws IOException If some I/O exceptions occurred in the tasks.
+     */
+    public static <R> List<R> invokeAll(ExecutorService service, int workers, List<? extends Callable<R>> tasks)
+            throws IOException {
+        ObjectUtils.excNull(tasks, "Tasks is null.");
+        List<R> results = new ArrayList<>(tasks.size());
+        int count = Math.min(workers, tasks.size());
+        if (count <= 1) {
+            for (Callable<R> o : tasks) {
+                try {
+                    results.add(o.call());
+                } catch (Exception e) {
+                    throw rethrow(e);
+                }
+            }
+            return results;
+        }
+
+        ExecutorService executor = service != null ? service : Executors.newFixedThreadPool(count);
+        List<Future<R>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<R> o : tasks) {
+                futures.add(executor.submit(o));
+            }
+            for (Future<R> o : futures) {
+                results.add(o.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the tasks to complete.");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            // the tasks which are not started are useless once a task failed
+            for (Future<R> o : futures) {
+                o.cancel(true);
+            }
+            if (executor != service) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Rethrow the exception occurred in a task as it is, or wrap it as a
+     * {@link HandlingException} if it is a checked exception other than I/O exception.
+     */
+    private static IOException rethrow(Throwable e) {
+        if (e instanceof IOException) {
+            return (IOException) e;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw new HandlingException(e);
+    }
+
+    /**
+     * The worker which takes the indexes from a shared cursor.
+     */
+    @FunctionalInterface
+    public interface Worker {
+        /**
+         * Run the worker.
+         *
+         * @param id The id of worker, from 0 to the number of workers (exclusive).
+         * @param cursor The shared cursor.
+         * @throws IOException If some I/O exceptions occurred.
+         */
+        void run(int id, Cursor cursor) throws IOException;
+    }
+
+    /**
+     * The consumer of indexes.
+     */
+    @FunctionalInterface
+    public interface IndexConsumer {
+        /**
+         * Consume the index.
+         *
+         * @param index The index.
+         * @throws IOException If some I/O exceptions occurred.
+         */
+        void accept(int index) throws IOException;
+    }
+
+    /**
+     * The cursor of indexes shared by workers.
+     */
+    public static final class Cursor {
+        private final AtomicInteger next;
+        private final int to;
+
+        private Cursor(int from, int to) {
+            this.next = new AtomicInteger(from);
+            this.to = to;
+        }
+
+        /**
+         * Take the next index.
+         *
+         * @return The next index, or -1 if all indexes were taken or the cursor was stopped.
+         */
+        public int next() {
+            int index = next.getAndIncrement();
+            return index < to ? index : -1;
+        }
+
+        /**
+         * Stop the cursor, so that the workers take no more index.
+         */
+        public void stop() {
+            next.set(to);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package cn.core.utils;
+
+import cn.core.tool.ImageBuffer;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+/**
+ * An util class for accessing the pixels of image by rows.
+ * <p>
+ * For the common image types, the pixels are read or written through the raster
+ * directly, which avoids the color model conversion of every pixel, and the pixels of
+ * the images backed by {@link ImageBuffer} are transferred in bulk. For the other
+ * image types, it falls back to {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}
+ * and {@link BufferedImage#setRGB(int, int, int, int, int[], int, int)}. Either way,
+ * the result is exactly the same as the methods of {@link BufferedImage}.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public final class RasterUtils {
+    private RasterUtils(){}
+
+    /**
+     * The preferred number of pixels of a band.
+     */
+    private static final int BAND_PIXELS = 1 << 16;
+
+    /**
+     * Whether the pixels of the image can be accessed through the raster directly.
+     *
+     * @param img The image.
+     * @return Returns true if the image is one of the types of
+     * {@link BufferedImage#TYPE_INT_RGB}, {@link BufferedImage#TYPE_INT_ARGB},
+     * {@link BufferedImage#TYPE_3BYTE_BGR} and {@link BufferedImage#TYPE_4BYTE_ABGR},
+     * or it is backed by {@link ImageBuffer}.
+     */
+    public static boolean isDirectAccessible(BufferedImage img) {
+        switch (img.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                return true;
+            default:
+                return ImageBuffer.backingOf(img) != null;
+        }
+    }
+
+    /**
+     * Get the number of rows of a band, that is a group of rows handled at once. It
+     * keeps the buffer of band small enough to stay in cache.
+     *
+     * @param width The width of image.
+     * @return The number of rows, at least 1.
+     */
+    public static int bandRows(int width) {
+        return Math.max(1, BAND_PIXELS / Math.max(1, width));
+    }
+
+    /**
+     * Read the rows of image as integer pixels in the default RGB color model
+     * (TYPE_INT_ARGB), same as {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     *
+     * @param img The image.
+     * @param y The first row.
+     * @param rows The number of rows.
+     * @param rgbArray The array to store the pixels, whose length must be at least
+     *                 <code>width * rows</code>.
+     */
+    public static void getRGB(BufferedImage img, int y, int rows, int[] rgbArray) {
+        getRGB(img, 0, y, img.getWidth(), rows, rgbArray);
+    }
+
+    /**
+     * Read the region of image as integer pixels in the default RGB color model
+     * (TYPE_INT_ARGB), same as {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     *
+     * @param img The image.
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region.
+     * @param rows The number of rows of the region.
+     * @param rgbArray The array to store the pixels, whose length must be at least
+     *                 <code>w * rows</code>.
+     */
+    public static void getRGB(BufferedImage img, int x, int y, int w, int rows, int[] rgbArray) {
+        int size = w * rows;
+        WritableRaster raster = img.getRaster();
+        int rx = raster.getMinX() + x;
+        int ry = raster.getMinY() + y;
+        switch (img.getType()) {
+            case BufferedImage.TYPE_INT_RGB: {
+                raster.getDataElements(rx, ry, w, rows, rgbArray);
+                for (int i = 0; i < size; i++) {
+                    rgbArray[i] |= 0xff000000;
+                }
+                break;
+            }
+            case BufferedImage.TYPE_INT_ARGB: {
+                raster.getDataElements(rx, ry, w, rows, rgbArray);
+                break;
+            }
+            case BufferedImage.TYPE_3BYTE_BGR: {
+                // the elements are in order of bands: R, G, B
+                byte[] data = (byte[]) raster.getDataElements(rx, ry, w, rows, null);
+                for (int i = 0, j = 0; i < size; i++, j += 3) {
+                    rgbArray[i] = 0xff000000
+                            | (data[j] & 0xff) << 16
+                            | (data[j + 1] & 0xff) << 8
+                            | (data[j + 2] & 0xff);
+                }
+                break;
+            }
+            case BufferedImage.TYPE_4BYTE_ABGR: {
+                // the elements are in order of bands: R, G, B, A
+                byte[] data = (byte[]) raster.getDataElements(rx, ry, w, rows, null);
+                for (int i = 0, j = 0; i < size; i++, j += 4) {
+                    rgbArray[i] = (data[j + 3] & 0xff) << 24
+                            | (data[j] & 0xff) << 16
+                            | (data[j + 1] & 0xff) << 8
+                            | (data[j + 2] & 0xff);
+                }
+                break;
+            }
+            default: {
+                ImageBuffer buffer = ImageBuffer.backingOf(img);
+                if (buffer != null) {
+                    // the raster of a sub image is translated in the buffer
+                    buffer.getRGB(rx - raster.getSampleModelTranslateX(), ry - raster.getSampleModelTranslateY(),
+                            w, rows, rgbArray);
+                } else {
+                    img.getRGB(x, y, w, rows, rgbArray, 0, w);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the integer pixels in the default RGB color model (TYPE_INT_ARGB) to the
+     * rows of image, same as {@link BufferedImage#setRGB(int, int, int, int, int[], int, int)}.
+     *
+     * @param img The image.
+     * @param y The first row.
+     * @param rows The number of rows.
+     * @param rgbArray The pixels to write, whose length must be at least
+     *                 <code>width * rows</code>.
+     */
+    public static void setRGB(BufferedImage img, int y, int rows, int[] rgbArray) {
+        setRGB(img, 0, y, img.getWidth(), rows, rgbArray);
+    }
+
+    /**
+     * Write the integer pixels in the default RGB color model (TYPE_INT_ARGB) to the
+     * region of image, same as {@link BufferedImage#setRGB(int, int, int, int, int[], int, int)}.
+     *
+     * @param img The image.
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region.
+     * @param rows The number of rows of the region.
+     * @param rgbArray The pixels to write, whose length must be at least
+     *                 <code>w * rows</code>.
+     */
+    public static void setRGB(BufferedImage img, int x, int y, int w, int rows, int[] rgbArray) {
+        int size = w * rows;
+        WritableRaster raster = img.getRaster();
+        int rx = raster.getMinX() + x;
+        int ry = raster.getMinY() + y;
+        switch (img.getType()) {
+            case BufferedImage.TYPE_INT_RGB: {
+                int[] data = new int[size];
+                for (int i = 0; i < size; i++) {
+                    data[i] = rgbArray[i] & 0xffffff;
+                }
+                raster.setDataElements(rx, ry, w, rows, data);
+                break;
+            }
+            case BufferedImage.TYPE_INT_ARGB: {
+                raster.setDataElements(rx, ry, w, rows, rgbArray);
+                break;
+            }
+            case BufferedImage.TYPE_3BYTE_BGR: {
+                byte[] data = new byte[size * 3];
+                for (int i = 0, j = 0; i < size; i++, j += 3) {
+                    int rgb = rgbArray[i];
+                    data[j] = (byte) (rgb >> 16);
+                    data[j + 1] = (byte) (rgb >> 8);
+                    data[j + 2] = (byte) rgb;
+                }
+                raster.setDataElements(rx, ry, w, rows, data);
+                break;
+            }
+            case BufferedImage.TYPE_4BYTE_ABGR: {
+                byte[] data = new byte[size * 4];
+                for (int i = 0, j = 0; i < size; i++, j += 4) {
+                    int rgb = rgbArray[i];
+                    data[j] = (byte) (rgb >> 16);
+                    data[j + 1] = (byte) (rgb >> 8);
+                    data[j + 2] = (byte) rgb;
+                    data[j + 3] = (byte) (rgb >>> 24);
+                }
+                raster.setDataElements(rx, ry, w, rows, data);
+                break;
+            }
+            default: {
+                ImageBuffer buffer = ImageBuffer.backingOf(img);
+                if (buffer != null) {
+                    // the raster of a sub image is translated in the buffer
+                    buffer.setRGB(rx - raster.getSampleModelTranslateX(), ry - raster.getSampleModelTranslateY(),
+                            w, rows, rgbArray);
+                } else {
+                    img.setRGB(x, y, w, rows, rgbArray, 0, w);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package cn.core.in;
 
 import cn.core.TestUtils;
+import cn.core.tool.ReadOptions;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import cn.core.tool.SourceInfo;
 
 public class FileImageSourceTest {
 
@@ -30,6 +33,29 @@ public class FileImageSourceTest {
         Assert.assertTrue(source.isReadCompleted());
     }
 
+    @Test
+    public void test_read_withOptions() throws IOException {
+        // given
+        File inputFile = TestUtils.copyResourceToTemporaryFile(
+                "input/nothing.jpg",
+                temporaryFolder);
+        ReadOptions options = new ReadOptions.Builder()
+                .sourceRegion(10, 20, 100, 60)
+                .maxSize(50, 50)
+                .build();
+
+        // when
+        FileImageSource source = new FileImageSource(inputFile);
+        BufferedImage image = source.read(options);
+
+        // then
+        // the region 100*60 is subsampled by 2
+        Assert.assertEquals(50, image.getWidth());
+        Assert.assertEquals(30, image.getHeight());
+        Assert.assertEquals("JPEG", source.getOriginalFormatName());
+        Assert.assertTrue(source.isReadCompleted());
+    }
+
     @Test
     public void testEx_constructor_nullFile() {
         NullPointerException exception = Assert.assertThrows(NullPointerException.class,
@@ -45,4 +71,27 @@ public class FileImageSourceTest {
         Assert.assertEquals("File name is null.",
                 exception.getMessage());
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        File inputFile = TestUtils.copyResourceToTemporaryFile(
+                "input/nothing.jpg",
+                temporaryFolder);
+
+        // when
+        FileImageSource source = new FileImageSource(inputFile);
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals(154, info.getWidth());
+        Assert.assertEquals(98, info.getHeight());
+        Assert.assertEquals("JPEG", info.getFormatName());
+        Assert.assertEquals(1, info.getFrameCount());
+        Assert.assertEquals(0, info.getPageCount());
+        Assert.assertFalse(source.isReadCompleted());
+        // the file can still be read
+        Assert.assertEquals(154, source.read().getWidth());
+    }
+}
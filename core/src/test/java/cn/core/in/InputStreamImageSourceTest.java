@@ -1,10 +1,14 @@
 package cn.core.in;
 
 import cn.core.TestUtils;
+import cn.core.tool.ReadOptions;
 import org.junit.Assert;
 import org.junit.Test;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import cn.core.tool.SourceInfo;
+import java.io.BufferedInputStream;
 
 public class InputStreamImageSourceTest {
 
@@ -22,6 +26,25 @@ public class InputStreamImageSourceTest {
         Assert.assertTrue(source.isReadCompleted());
     }
 
+    @Test
+    public void test_read_withOptions() throws IOException {
+        // given
+        InputStream inputStream = TestUtils.getResourceStream("input/nothing.jpg");
+        ReadOptions options = new ReadOptions.Builder()
+                .maxWidth(40)
+                .build();
+
+        // when
+        InputStreamImageSource source = new InputStreamImageSource(inputStream);
+        BufferedImage image = source.read(options);
+
+        // then
+        // 154*98 is subsampled by 3
+        Assert.assertEquals(52, image.getWidth());
+        Assert.assertEquals(33, image.getHeight());
+        Assert.assertTrue(source.isReadCompleted());
+    }
+
     @Test
     public void testEx_constructor_nullBufferedImage() {
         NullPointerException exception = Assert.assertThrows(NullPointerException.class,
@@ -30,4 +53,25 @@ public class InputStreamImageSourceTest {
                 exception.getMessage());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        InputStream inputStream = new BufferedInputStream(TestUtils.getResourceStream("input/nothing.jpg"));
+
+        // when
+        InputStreamImageSource source = new InputStreamImageSource(inputStream);
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals(154, info.getWidth());
+        Assert.assertEquals(98, info.getHeight());
+        Assert.assertEquals("JPEG", info.getFormatName());
+        Assert.assertEquals(1, info.getFrameCount());
+        Assert.assertFalse(source.isReadCompleted());
+        // the input stream is reset since it supports mark
+        BufferedImage image = source.read();
+        Assert.assertEquals(154, image.getWidth());
+        Assert.assertEquals(98, image.getHeight());
+    }
+}
@@ -0,0 +1,112 @@
+package cn.core.tool;
+
+import cn.core.TestUtils;
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+public class ImageBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int[] pixels(BufferedImage img) {
+        return img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
+    }
+
+    @Test
+    public void test_copyOf() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+
+        // when
+        try (ImageBuffer buffer = ImageBuffer.copyOf(source)) {
+            BufferedImage view = buffer.asBufferedImage();
+            BufferedImage copied = buffer.toBufferedImage();
+
+            // then
+            Assert.assertEquals(154, buffer.getWidth());
+            Assert.assertEquals(98, buffer.getHeight());
+            Assert.assertFalse(buffer.hasAlpha());
+            Assert.assertSame(buffer, ImageBuffer.backingOf(view));
+            Assert.assertNull(ImageBuffer.backingOf(copied));
+            Assert.assertEquals(BufferedImage.TYPE_INT_RGB, copied.getType());
+            Assert.assertArrayEquals(pixels(source), pixels(view));
+            Assert.assertArrayEquals(pixels(source), pixels(copied));
+        }
+    }
+
+    @Test
+    public void test_asBufferedImage_shared() {
+        // given
+        try (ImageBuffer buffer = ImageBuffer.allocateDirect(4, 3, true)) {
+            BufferedImage view = buffer.asBufferedImage();
+
+            // when
+            view.setRGB(1, 2, 0x80102030);
+            Graphics2D g = view.createGraphics();
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, 2, 1);
+            g.dispose();
+            buffer.setRGB(3, 0, 1, 1, new int[]{0xff405060});
+
+            // then
+            int[] rgb = new int[4 * 3];
+            buffer.getRGB(0, 0, 4, 3, rgb);
+            Assert.assertEquals(0x80102030, rgb[9]);
+            Assert.assertEquals(Color.RED.getRGB(), rgb[1]);
+            Assert.assertEquals(0, rgb[2]);
+            Assert.assertEquals(0xff405060, view.getRGB(3, 0));
+            // the sub image shares the buffer as well
+            BufferedImage sub = view.getSubimage(1, 1, 2, 2);
+            Assert.assertSame(buffer, ImageBuffer.backingOf(sub));
+            Assert.assertEquals(0x80102030, sub.getRGB(0, 1));
+        }
+    }
+
+    @Test
+    public void test_map() throws IOException {
+        // given
+        File file = folder.newFile();
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        ImageBuffer.copyOf(source, file).close();
+
+        // when
+        try (ImageBuffer buffer = ImageBuffer.map(file, 154, 98, false)) {
+
+            // then
+            Assert.assertEquals(154 * 98 * 4, file.length());
+            Assert.assertArrayEquals(pixels(source), pixels(buffer.asBufferedImage()));
+        }
+    }
+
+    @Test
+    public void testEx_closed() {
+        ImageBuffer buffer = ImageBuffer.allocateDirect(2, 2, true);
+        BufferedImage view = buffer.asBufferedImage();
+        buffer.close();
+        HandlingException ex = Assert.assertThrows(HandlingException.class, () -> view.getRGB(0, 0));
+        Assert.assertEquals("The image buffer has been closed.", ex.getMessage());
+        Assert.assertThrows(HandlingException.class, buffer::asBufferedImage);
+    }
+
+    @Test
+    public void testEx_allocateDirect_invalidSize() {
+        InvalidSettingException ex1 = Assert.assertThrows(InvalidSettingException.class,
+                () -> ImageBuffer.allocateDirect(0, 1, true));
+        Assert.assertEquals("The image width must be greater than 0.", ex1.getMessage());
+        InvalidSettingException ex2 = Assert.assertThrows(InvalidSettingException.class,
+                () -> ImageBuffer.allocateDirect(1, -1, true));
+        Assert.assertEquals("The image height must be greater than 0.", ex2.getMessage());
+        InvalidSettingException ex3 = Assert.assertThrows(InvalidSettingException.class,
+                () -> ImageBuffer.allocateDirect(65536, 65536, true));
+        Assert.assertEquals("The number of pixels must not be greater than 2147483647.", ex3.getMessage());
+    }
+}
@@ -0,0 +1,67 @@
+package cn.core.tool;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.ex.UnsupportedFormatException;
+import org.junit.Assert;
+import org.junit.Test;
+import javax.imageio.ImageWriter;
+
+public class ImageWriterPoolTest {
+
+    @Test
+    public void test_borrow_reuse() throws UnsupportedFormatException {
+        // given
+        ImageWriterPool pool = new ImageWriterPool(1);
+        ImageWriter writer = pool.borrow("png");
+
+        // when
+        pool.giveBack("PNG", writer);
+
+        // then
+        Assert.assertEquals(1, pool.idleCount("png"));
+        Assert.assertSame(writer, pool.borrow("png"));
+        Assert.assertEquals(0, pool.idleCount("png"));
+    }
+
+    @Test
+    public void test_giveBack_bounded() throws UnsupportedFormatException {
+        // given
+        ImageWriterPool pool = new ImageWriterPool(2);
+        ImageWriter w1 = pool.borrow("jpg");
+        ImageWriter w2 = pool.borrow("jpg");
+        ImageWriter w3 = pool.borrow("jpg");
+
+        // when
+        pool.giveBack("jpg", w1);
+        pool.giveBack("jpg", w2);
+        pool.giveBack("jpg", w3);
+
+        // then
+        Assert.assertNotSame(w1, w2);
+        Assert.assertEquals(2, pool.idleCount("jpg"));
+        pool.clear();
+        Assert.assertEquals(0, pool.idleCount("jpg"));
+    }
+
+    @Test
+    public void test_isSupported() {
+        ImageWriterPool pool = new ImageWriterPool(1);
+        Assert.assertTrue(pool.isSupported("png"));
+        Assert.assertFalse(pool.isSupported("any-format"));
+    }
+
+    @Test
+    public void testEx_borrow_unsupportedFormat() {
+        ImageWriterPool pool = new ImageWriterPool(1);
+        UnsupportedFormatException ex = Assert.assertThrows(UnsupportedFormatException.class,
+                () -> pool.borrow("any-format"));
+        Assert.assertEquals("No suitable ImageWriter found for any-format.", ex.getMessage());
+    }
+
+    @Test
+    public void testEx_constructor_invalidMaxIdle() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new ImageWriterPool(0));
+        Assert.assertEquals("Max idle writers must be greater than 0.", ex.getMessage());
+    }
+}
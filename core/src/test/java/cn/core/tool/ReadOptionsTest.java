@@ -0,0 +1,121 @@
+package cn.core.tool;
+
+import cn.core.TestUtils;
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.io.IOException;
+
+public class ReadOptionsTest {
+
+    private ImageInputStream stream;
+    private ImageReader reader;
+
+    @Before
+    public void init() throws IOException {
+        // the image is 154*98
+        stream = ImageIO.createImageInputStream(TestUtils.getResourceStream("input/nothing.jpg"));
+        reader = ImageIO.getImageReaders(stream).next();
+        reader.setInput(stream);
+    }
+
+    @After
+    public void release() throws IOException {
+        reader.dispose();
+        stream.close();
+    }
+
+    @Test
+    public void test_obtainReadParam_default() throws IOException {
+        // when
+        ImageReadParam param = ReadOptions.DEFAULT.obtainReadParam(reader);
+
+        // then
+        Assert.assertNull(param.getSourceRegion());
+        Assert.assertEquals(1, param.getSourceXSubsampling());
+        Assert.assertEquals(1, param.getSourceYSubsampling());
+    }
+
+    @Test
+    public void test_obtainReadParam_maxSize() throws IOException {
+        // when
+        ImageReadParam param1 = new ReadOptions.Builder().maxSize(50, 50).build().obtainReadParam(reader);
+        ImageReadParam param2 = new ReadOptions.Builder().maxHeight(30).build().obtainReadParam(reader);
+        ImageReadParam param3 = new ReadOptions.Builder().maxWidth(100).build().obtainReadParam(reader);
+
+        // then
+        // fit within 50*50 by the width: 154 / 50 = 3
+        Assert.assertEquals(3, param1.getSourceXSubsampling());
+        Assert.assertEquals(3, param1.getSourceYSubsampling());
+        // 98 / 30 = 3
+        Assert.assertEquals(3, param2.getSourceXSubsampling());
+        // 154 / 100 = 1
+        Assert.assertEquals(1, param3.getSourceXSubsampling());
+    }
+
+    @Test
+    public void test_obtainReadParam_sourceRegion() throws IOException {
+        // when
+        ReadOptions options = new ReadOptions.Builder()
+                .sourceRegion(100, 40, 100, 100)
+                .maxSize(10, 10)
+                .build();
+        ImageReadParam param = options.obtainReadParam(reader);
+
+        // then
+        // the region is limited in the image, and the subsampling is based on it
+        Assert.assertEquals(new Rectangle(100, 40, 54, 58), param.getSourceRegion());
+        Assert.assertEquals(5, param.getSourceXSubsampling());
+        Assert.assertEquals(5, param.getSourceYSubsampling());
+    }
+
+    @Test
+    public void testEx_obtainReadParam_regionOutOfImage() {
+        ReadOptions options = new ReadOptions.Builder()
+                .sourceRegion(200, 0, 10, 10)
+                .build();
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                () -> options.obtainReadParam(reader));
+        Assert.assertEquals("The source region:[200, 0, 10, 10] is out of the image range:[154, 98].",
+                ex.getMessage());
+    }
+
+
+    public static class BuilderTest {
+
+        @Test
+        public void testEx_build_invalidParam() {
+            // max width < 0
+            ReadOptions.Builder builder1 = new ReadOptions.Builder().maxWidth(-1);
+            InvalidSettingException e1 = Assert.assertThrows(InvalidSettingException.class,
+                    builder1::build);
+            Assert.assertEquals("The max width must be greater than or equal to 0.", e1.getMessage());
+
+            // max height < 0
+            ReadOptions.Builder builder2 = new ReadOptions.Builder().maxHeight(-1);
+            InvalidSettingException e2 = Assert.assertThrows(InvalidSettingException.class,
+                    builder2::build);
+            Assert.assertEquals("The max height must be greater than or equal to 0.", e2.getMessage());
+
+            // start point of region < 0
+            ReadOptions.Builder builder3 = new ReadOptions.Builder().sourceRegion(-1, 0, 10, 10);
+            InvalidSettingException e3 = Assert.assertThrows(InvalidSettingException.class,
+                    builder3::build);
+            Assert.assertEquals("The start point of source region must be greater than or equal to 0.", e3.getMessage());
+
+            // size of region <= 0
+            ReadOptions.Builder builder4 = new ReadOptions.Builder().sourceRegion(0, 0, 0, 10);
+            InvalidSettingException e4 = Assert.assertThrows(InvalidSettingException.class,
+                    builder4::build);
+            Assert.assertEquals("The size of source region must be greater than 0.", e4.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cn.core.tool;
+
+import cn.core.ex.InvalidSettingException;
+import org.junit.Assert;
+import org.junit.Test;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+
+public class WriteOptionsTest {
+
+    private static ImageWriter writerOf(String formatName) {
+        return ImageIO.getImageWritersByFormatName(formatName).next();
+    }
+
+    @Test
+    public void test_obtainWriteParam_jpeg() {
+        // given
+        WriteOptions options = new WriteOptions.Builder()
+                .quality(0.6f)
+                .compressionLevel(3)
+                .progressive(true)
+                .optimizeHuffman(true)
+                .build();
+
+        // when
+        ImageWriteParam param = options.obtainWriteParam(writerOf("jpg"), "jpg");
+
+        // then
+        Assert.assertEquals(ImageWriteParam.MODE_EXPLICIT, param.getCompressionMode());
+        Assert.assertEquals(0.6f, param.getCompressionQuality(), 0.0001f);
+        Assert.assertEquals(ImageWriteParam.MODE_DEFAULT, param.getProgressiveMode());
+        Assert.assertTrue(((JPEGImageWriteParam) param).getOptimizeHuffmanTables());
+    }
+
+    @Test
+    public void test_obtainWriteParam_png() {
+        // given
+        WriteOptions options = new WriteOptions.Builder()
+                .quality(0.6f)
+                .compressionLevel(0)
+                .build();
+
+        // when
+        ImageWriteParam param = options.obtainWriteParam(writerOf("png"), "png");
+
+        // then
+        // the compression level is used for png, instead of the quality
+        if (param.canWriteCompressed()) {
+            Assert.assertEquals(ImageWriteParam.MODE_EXPLICIT, param.getCompressionMode());
+            Assert.assertEquals(1f, param.getCompressionQuality(), 0.0001f);
+        }
+    }
+
+    @Test
+    public void test_obtainWriteParam_default() {
+        // when
+        ImageWriteParam param = WriteOptions.DEFAULT.obtainWriteParam(writerOf("jpg"), "jpg");
+
+        // then
+        Assert.assertNotEquals(ImageWriteParam.MODE_EXPLICIT, param.getCompressionMode());
+        Assert.assertNotEquals(ImageWriteParam.MODE_DEFAULT, param.getProgressiveMode());
+        Assert.assertFalse(((JPEGImageWriteParam) param).getOptimizeHuffmanTables());
+    }
+
+
+    public static class BuilderTest {
+
+        @Test
+        public void testEx_build_invalidParam() {
+            // quality out of bounds
+            WriteOptions.Builder builder1 = new WriteOptions.Builder().quality(1.5f);
+            InvalidSettingException e1 = Assert.assertThrows(InvalidSettingException.class,
+                    builder1::build);
+            Assert.assertEquals("The quality out of bounds:[0, 1].", e1.getMessage());
+
+            // compression level out of bounds
+            WriteOptions.Builder builder2 = new WriteOptions.Builder().compressionLevel(10);
+            InvalidSettingException e2 = Assert.assertThrows(InvalidSettingException.class,
+                    builder2::build);
+            Assert.assertEquals("The compression level out of bounds:[0, 9].", e2.getMessage());
+        }
+    }
+}
@@ -3,14 +3,25 @@ package cn.core.utils;
 import cn.core.TestUtils;
 import cn.core.ex.InvalidSettingException;
 import cn.core.ex.UnsupportedFormatException;
+import cn.core.tool.ImageBuffer;
+import cn.core.tool.ImageWriterPool;
+import cn.core.tool.WriteOptions;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Random;
 
 public class BufferedImageUtilsTest {
 
@@ -98,6 +109,65 @@ public class BufferedImageUtilsTest {
     }
 
 
+    @Test
+    public void test_copy_imageBuffer() {
+        // given
+        BufferedImage source = new BufferedImage(30, 20, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 20; y++) {
+                source.setRGB(x, y, (x * 8) << 24 | (y * 12) << 16 | (x + y) << 8 | x * y);
+            }
+        }
+
+        try (ImageBuffer buffer = ImageBuffer.copyOf(source)) {
+            // when
+            BufferedImage target = BufferedImageUtils.copy(buffer.asBufferedImage().getSubimage(5, 4, 20, 10));
+
+            // then
+            ImageBuffer copied = ImageBuffer.backingOf(target);
+            Assert.assertNotNull(copied);
+            Assert.assertNotSame(buffer, copied);
+            Assert.assertTrue(target.getColorModel().hasAlpha());
+            Assert.assertEquals(20, target.getWidth());
+            Assert.assertEquals(10, target.getHeight());
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y < 10; y++) {
+                    Assert.assertEquals(source.getRGB(5 + x, 4 + y), target.getRGB(x, y));
+                }
+            }
+            // the copy is independent of the source
+            target.setRGB(0, 0, 0);
+            Assert.assertEquals(source.getRGB(5, 4), buffer.asBufferedImage().getRGB(5, 4));
+        }
+    }
+
+    @Test
+    public void test_copy_sameRaster() {
+        // given
+        BufferedImage source = new BufferedImage(30, 20, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 20; y++) {
+                source.setRGB(x, y, (x * 8) << 24 | (y * 12) << 16 | (x + y) << 8 | x * y);
+            }
+        }
+
+        // when
+        BufferedImage target = BufferedImageUtils.copy(source.getSubimage(5, 4, 20, 10));
+
+        // then
+        Assert.assertEquals(source.getType(), target.getType());
+        Assert.assertEquals(20, target.getWidth());
+        Assert.assertEquals(10, target.getHeight());
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 10; y++) {
+                Assert.assertEquals(source.getRGB(5 + x, 4 + y), target.getRGB(x, y));
+            }
+        }
+        // the copy is independent of the source
+        target.setRGB(0, 0, 0);
+        Assert.assertNotEquals(0, source.getRGB(5, 4));
+    }
+
     @Test
     public void test_write_correctUsage_withFilename() throws IOException {
         // given
@@ -154,6 +224,103 @@ public class BufferedImageUtilsTest {
         Assert.assertTrue(targetFile.exists());
     }
 
+    @Test
+    public void test_write_withOptions() throws IOException {
+        // given
+        BufferedImage image = TestUtils.getImageFromResource("input/nothing.jpg");
+        File low = temporaryFolder.newFile("low.jpg");
+        File high = temporaryFolder.newFile("high.jpg");
+
+        // when
+        BufferedImageUtils.write(image, "jpg", low, new WriteOptions.Builder().quality(0.1f).build());
+        BufferedImageUtils.write(image, "jpg", high, new WriteOptions.Builder().quality(1f).build());
+
+        // then
+        Assert.assertTrue(low.length() > 0);
+        Assert.assertTrue(low.length() < high.length());
+    }
+
+    @Test
+    public void test_write_toOutputStream() throws IOException {
+        // given
+        BufferedImage image = BufferedImageUtils.newBackgroundImage(0.5f, 40, 30, Color.RED);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+
+        // when
+        BufferedImageUtils.write(image, "png", stored, new WriteOptions.Builder().compressionLevel(0).build());
+        BufferedImageUtils.write(image, "png", deflated, new WriteOptions.Builder().compressionLevel(9).build());
+
+        // then
+        BufferedImage reloaded = ImageIO.read(new ByteArrayInputStream(stored.toByteArray()));
+        Assert.assertEquals(40, reloaded.getWidth());
+        Assert.assertEquals(image.getRGB(0, 0), reloaded.getRGB(0, 0));
+        Assert.assertTrue(deflated.size() < stored.size());
+    }
+
+    @Test
+    public void test_write_jpegWithoutAlpha() throws IOException {
+        // given
+        Random random = new Random(41);
+        BufferedImage large = new BufferedImage(60, 50, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage small = new BufferedImage(30, 45, BufferedImage.TYPE_4BYTE_ABGR);
+        BufferedImage opaque = new BufferedImage(30, 20, BufferedImage.TYPE_3BYTE_BGR);
+        for (BufferedImage o : Arrays.asList(large, small, opaque)) {
+            for (int x = 0; x < o.getWidth(); x++) {
+                for (int y = 0; y < o.getHeight(); y++) {
+                    o.setRGB(x, y, random.nextInt());
+                }
+            }
+        }
+
+        for (BufferedImage o : Arrays.asList(large, small, opaque)) {
+            // when
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            BufferedImageUtils.write(o, "jpg", os, WriteOptions.DEFAULT);
+
+            // then
+            // same as writing a copy without alpha, even if the scratch image is reused
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            ImageIO.write(BufferedImageUtils.copy(o, BufferedImage.TYPE_INT_RGB), "jpg", expected);
+            Assert.assertArrayEquals(expected.toByteArray(), os.toByteArray());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_write_jpeg_scratchBounded() throws Exception {
+        // given
+        Method toOpaqueRGB = BufferedImageUtils.class.getDeclaredMethod("toOpaqueRGB", BufferedImage.class);
+        toOpaqueRGB.setAccessible(true);
+        Field scratchField = BufferedImageUtils.class.getDeclaredField("SCRATCH");
+        scratchField.setAccessible(true);
+        ThreadLocal<SoftReference<int[]>> scratch = (ThreadLocal<SoftReference<int[]>>) scratchField.get(null);
+        Field maxField = BufferedImageUtils.class.getDeclaredField("MAX_SCRATCH_PIXELS");
+        maxField.setAccessible(true);
+        int max = maxField.getInt(null);
+        BufferedImage large = new BufferedImage(60, 50, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage small = new BufferedImage(30, 20, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage oversized = new BufferedImage(max + 1, 1, BufferedImage.TYPE_INT_ARGB);
+        scratch.remove();
+
+        // when
+        toOpaqueRGB.invoke(null, large);
+        int[] pixels = scratch.get().get();
+        BufferedImage converted = (BufferedImage) toOpaqueRGB.invoke(null, small);
+        BufferedImage standalone = (BufferedImage) toOpaqueRGB.invoke(null, oversized);
+
+        // then
+        // the converted image has a compact raster at the origin, not a sub image
+        Assert.assertEquals(BufferedImage.TYPE_INT_RGB, converted.getType());
+        Assert.assertNull(converted.getRaster().getParent());
+        Assert.assertEquals(30, converted.getRaster().getSampleModel().getWidth());
+        Assert.assertSame(pixels, scratch.get().get());
+        // the oversized image never grows the scratch
+        Assert.assertEquals(BufferedImage.TYPE_INT_RGB, standalone.getType());
+        Assert.assertSame(pixels, scratch.get().get());
+        Assert.assertEquals(60 * 50, pixels.length);
+    }
+
     @Test
     public void testEx_write_withNullParameter() throws IOException {
         BufferedImage image = TestUtils.getImageFromResource("input/nothing.jpg");
@@ -178,6 +345,23 @@ public class BufferedImageUtilsTest {
                 nullFileException.getMessage());
     }
 
+    @Test
+    public void testEx_write_openFailed() throws Exception {
+        BufferedImage image = TestUtils.getImageFromResource("input/nothing.jpg");
+        BufferedImageUtils.write(image, "PNG", temporaryFolder.newFile("output.png"), WriteOptions.DEFAULT);
+        Field field = BufferedImageUtils.class.getDeclaredField("WRITER_POOL");
+        field.setAccessible(true);
+        ImageWriterPool pool = (ImageWriterPool) field.get(null);
+        int idles = pool.idleCount("PNG");
+
+        // the output file is a directory
+        Assert.assertThrows(IOException.class,
+                () -> BufferedImageUtils.write(image, "PNG", temporaryFolder.getRoot(), WriteOptions.DEFAULT));
+
+        // the writer borrowed is returned to the pool
+        Assert.assertEquals(idles, pool.idleCount("PNG"));
+    }
+
     @Test
     public void testEx_write_wrongFormat() throws IOException {
         BufferedImage image = TestUtils.getImageFromResource("input/nothing.jpg");
@@ -0,0 +1,179 @@
+package cn.core.utils;
+
+import cn.core.ex.HandlingException;
+import org.junit.Assert;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+public class ConcurrentUtilsTest {
+
+    @Test
+    public void test_forEachIndex_sequential() throws IOException {
+        List<Integer> indexes = new ArrayList<>();
+        String thread = Thread.currentThread().getName();
+
+        ConcurrentUtils.forEachIndex(null, 1, 2, 6, i -> {
+            Assert.assertEquals(thread, Thread.currentThread().getName());
+            indexes.add(i);
+        });
+
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5), indexes);
+    }
+
+    @Test
+    public void test_forEachIndex_parallel() throws IOException {
+        Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+
+        ConcurrentUtils.forEachIndex(null, 4, 0, 100, indexes::add);
+
+        Assert.assertEquals(100, indexes.size());
+    }
+
+    @Test
+    public void test_forEachIndex_emptyRange() throws IOException {
+        AtomicInteger count = new AtomicInteger();
+
+        ConcurrentUtils.forEachIndex(null, 4, 3, 3, i -> count.incrementAndGet());
+
+        Assert.assertEquals(0, count.get());
+    }
+
+    @Test
+    public void test_forEachIndex_executorNotShutdown() throws IOException {
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+
+            ConcurrentUtils.forEachIndex(service, 2, 0, 10, indexes::add);
+            ConcurrentUtils.forEachIndex(service, 2, 10, 20, indexes::add);
+
+            Assert.assertEquals(20, indexes.size());
+            Assert.assertFalse(service.isShutdown());
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEx_forEachIndex_failed() {
+        AtomicInteger count = new AtomicInteger();
+
+        IOException ex = Assert.assertThrows(IOException.class,
+                () -> ConcurrentUtils.forEachIndex(null, 2, 0, 1000, i -> {
+                    count.incrementAndGet();
+                    if (i == 0) {
+                        throw new IOException("Failed.");
+                    }
+                    LockSupport.parkNanos(1_000_000);
+                }));
+
+        Assert.assertEquals("Failed.", ex.getMessage());
+        // the other worker stops taking indexes
+        Assert.assertTrue(count.get() < 1000);
+    }
+
+    @Test
+    public void test_runWorkers_ids() throws IOException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch started = new CountDownLatch(3);
+
+        ConcurrentUtils.runWorkers(null, 3, 0, 10, (id, cursor) -> {
+            ids.add(id);
+            started.countDown();
+            try {
+                // make sure every worker is running
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            while (cursor.next() >= 0) {
+                Thread.yield();
+            }
+        });
+
+        Assert.assertEquals(3, ids.size());
+        Assert.assertTrue(ids.containsAll(Arrays.asList(0, 1, 2)));
+    }
+
+    @Test
+    public void testEx_runWorkers_workerFailed() {
+        AtomicInteger count = new AtomicInteger();
+
+        IllegalStateException ex = Assert.assertThrows(IllegalStateException.class,
+                () -> ConcurrentUtils.runWorkers(null, 2, 0, 1000, (id, cursor) -> {
+                    if (id == 1) {
+                        throw new IllegalStateException("Worker failed.");
+                    }
+                    while (cursor.next() >= 0) {
+                        count.incrementAndGet();
+                        LockSupport.parkNanos(1_000_000);
+                    }
+                }));
+
+        Assert.assertEquals("Worker failed.", ex.getMessage());
+        Assert.assertTrue(count.get() < 1000);
+    }
+
+    @Test
+    public void test_invokeAll_inOrder() throws IOException {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int n = i;
+            tasks.add(() -> n * n);
+        }
+
+        List<Integer> results = ConcurrentUtils.invokeAll(null, 3, tasks);
+
+        Assert.assertEquals(Arrays.asList(0, 1, 4, 9, 16, 25, 36, 49, 64, 81), results);
+    }
+
+    @Test
+    public void test_invokeAll_empty() throws IOException {
+        List<Integer> results = ConcurrentUtils.invokeAll(null, 3, Collections.<Callable<Integer>>emptyList());
+        Assert.assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testEx_invokeAll_checkedException() {
+        List<Callable<Integer>> tasks = Arrays.asList(() -> 1, () -> {
+            throw new Exception("Checked.");
+        });
+
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                () -> ConcurrentUtils.invokeAll(null, 2, tasks));
+
+        Assert.assertEquals("Checked.", ex.getCause().getMessage());
+    }
+
+    @Test
+    public void testEx_invokeAll_sequential_ioException() {
+        List<Callable<Integer>> tasks = Collections.singletonList(() -> {
+            throw new IOException("Failed.");
+        });
+
+        IOException ex = Assert.assertThrows(IOException.class,
+                () -> ConcurrentUtils.invokeAll(null, 1, tasks));
+
+        Assert.assertEquals("Failed.", ex.getMessage());
+    }
+
+    @Test
+    public void testEx_forEachIndex_nullConsumer() {
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> ConcurrentUtils.forEachIndex(null, 1, 0, 1, null));
+        Assert.assertEquals("Index consumer is null.", ex.getMessage());
+    }
+}
@@ -0,0 +1,186 @@
+package cn.core.utils;
+
+import cn.core.tool.ImageBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.Random;
+
+public class RasterUtilsTest {
+
+    private static final int[] TYPES = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            // the next types are handled by the fallback
+            BufferedImage.TYPE_INT_ARGB_PRE,
+            BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_USHORT_565_RGB
+    };
+
+    private static BufferedImage newRandomImage(int w, int h, int type, Random random) {
+        BufferedImage img = new BufferedImage(w, h, type);
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                img.setRGB(x, y, random.nextInt());
+            }
+        }
+        return img;
+    }
+
+    private static void assertSameRaster(BufferedImage expected, BufferedImage actual) {
+        Raster r0 = expected.getData();
+        Raster r1 = actual.getData();
+        for (int x = 0; x < expected.getWidth(); x++) {
+            for (int y = 0; y < expected.getHeight(); y++) {
+                Assert.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+                Assert.assertArrayEquals(r0.getPixel(x, y, (int[]) null), r1.getPixel(x, y, (int[]) null));
+            }
+        }
+    }
+
+    @Test
+    public void test_isDirectAccessible() {
+        Assert.assertTrue(RasterUtils.isDirectAccessible(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB)));
+        Assert.assertTrue(RasterUtils.isDirectAccessible(new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR)));
+        Assert.assertFalse(RasterUtils.isDirectAccessible(new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY)));
+        try (ImageBuffer buffer = ImageBuffer.allocateDirect(1, 1, true)) {
+            Assert.assertTrue(RasterUtils.isDirectAccessible(buffer.asBufferedImage()));
+        }
+    }
+
+    @Test
+    public void test_imageBuffer() {
+        Random random = new Random(23);
+        for (boolean alpha : new boolean[]{true, false}) {
+            // given
+            BufferedImage expected = newRandomImage(20, 15, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB, random);
+            try (ImageBuffer buffer = ImageBuffer.copyOf(expected)) {
+                BufferedImage img = buffer.asBufferedImage().getSubimage(4, 2, 10, 12);
+                int[] rgbArray = new int[7 * 3];
+                for (int i = 0; i < rgbArray.length; i++) {
+                    rgbArray[i] = random.nextInt();
+                }
+
+                // when
+                int[] target = new int[9 * 5];
+                RasterUtils.getRGB(img, 1, 4, 9, 5, target);
+                RasterUtils.setRGB(img, 2, 6, 7, 3, rgbArray);
+
+                // then
+                Assert.assertArrayEquals(expected.getRGB(5, 6, 9, 5, null, 0, 9), target);
+                expected.setRGB(6, 8, 7, 3, rgbArray, 0, 7);
+                Assert.assertArrayEquals(expected.getRGB(0, 0, 20, 15, null, 0, 20),
+                        buffer.toBufferedImage().getRGB(0, 0, 20, 15, null, 0, 20));
+            }
+        }
+    }
+
+    @Test
+    public void test_bandRows() {
+        Assert.assertEquals(1, RasterUtils.bandRows(100000));
+        Assert.assertEquals(65536, RasterUtils.bandRows(1));
+        Assert.assertEquals(256, RasterUtils.bandRows(256));
+    }
+
+    @Test
+    public void test_getRGB() {
+        Random random = new Random(7);
+        for (int type : TYPES) {
+            // given
+            BufferedImage img = newRandomImage(13, 9, type, random);
+
+            // when
+            int[] target = new int[13 * 4];
+            RasterUtils.getRGB(img, 3, 4, target);
+
+            // then
+            int[] expected = img.getRGB(0, 3, 13, 4, null, 0, 13);
+            Assert.assertArrayEquals("type: " + type, expected, target);
+        }
+    }
+
+    @Test
+    public void test_getRGB_subimage() {
+        Random random = new Random(11);
+        for (int type : TYPES) {
+            // given
+            BufferedImage img = newRandomImage(20, 15, type, random).getSubimage(3, 5, 11, 7);
+
+            // when
+            int[] target = new int[11 * 7];
+            RasterUtils.getRGB(img, 0, 7, target);
+
+            // then
+            int[] expected = img.getRGB(0, 0, 11, 7, null, 0, 11);
+            Assert.assertArrayEquals("type: " + type, expected, target);
+        }
+    }
+
+    @Test
+    public void test_getRGB_region() {
+        Random random = new Random(17);
+        for (int type : TYPES) {
+            // given
+            BufferedImage img = newRandomImage(20, 15, type, random);
+
+            // when
+            int[] target = new int[9 * 5];
+            RasterUtils.getRGB(img, 6, 4, 9, 5, target);
+
+            // then
+            int[] expected = img.getRGB(6, 4, 9, 5, null, 0, 9);
+            Assert.assertArrayEquals("type: " + type, expected, target);
+        }
+    }
+
+    @Test
+    public void test_setRGB_region() {
+        Random random = new Random(19);
+        for (int type : TYPES) {
+            // given
+            BufferedImage img = newRandomImage(20, 15, type, random);
+            BufferedImage expected = new BufferedImage(20, 15, type);
+            expected.setData(img.getData());
+            int[] rgbArray = new int[7 * 3];
+            for (int i = 0; i < rgbArray.length; i++) {
+                rgbArray[i] = random.nextInt();
+            }
+
+            // when
+            RasterUtils.setRGB(img, 8, 10, 7, 3, rgbArray);
+
+            // then
+            expected.setRGB(8, 10, 7, 3, rgbArray, 0, 7);
+            assertSameRaster(expected, img);
+        }
+    }
+
+    @Test
+    public void test_setRGB() {
+        Random random = new Random(13);
+        for (int type : TYPES) {
+            // given
+            BufferedImage img = newRandomImage(20, 15, type, random);
+            BufferedImage expected = new BufferedImage(20, 15, type);
+            expected.setData(img.getData());
+            int[] rgbArray = new int[20 * 6];
+            for (int i = 0; i < rgbArray.length; i++) {
+                rgbArray[i] = random.nextInt();
+            }
+
+            // when
+            RasterUtils.setRGB(img.getSubimage(4, 2, 10, 12), 5, 6, rgbArray);
+
+            // then
+            for (int y = 0; y < 6; y++) {
+                for (int x = 0; x < 10; x++) {
+                    expected.setRGB(4 + x, 2 + 5 + y, rgbArray[y * 10 + x]);
+                }
+            }
+            assertSameRaster(expected, img);
+        }
+    }
+}
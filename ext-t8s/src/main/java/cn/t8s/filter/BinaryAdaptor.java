@@ -0,0 +1,36 @@
+package cn.t8s.filter;
+
+import cn.core.strategy.mode.AbstractBinaryStrategy;
+import cn.core.utils.ObjectUtils;
+import net.coobird.thumbnailator.filters.ImageFilter;
+import java.awt.image.BufferedImage;
+
+/**
+ * An image filter that converts the image to a compact binary image of
+ * {@link BufferedImage#TYPE_BYTE_BINARY}.At the same time, it is also an adapter
+ * that maintains a binary strategy internally.
+ * <p>
+ * Different from {@link ModeAdaptor}, the original image is not changed, and the
+ * final image uses only 1 bit per pixel.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class BinaryAdaptor implements ImageFilter {
+
+    /**
+     * The binary strategy which apply to the image.
+     */
+    private final AbstractBinaryStrategy binaryStrategy;
+
+    public BinaryAdaptor(AbstractBinaryStrategy strategy) {
+        ObjectUtils.excNull(strategy, "Binary strategy is null.");
+        this.binaryStrategy = strategy;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage img) {
+        return binaryStrategy.toBinaryImage(img);
+    }
+}
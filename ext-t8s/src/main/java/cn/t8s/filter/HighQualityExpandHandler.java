@@ -5,11 +5,13 @@ import cn.core.ex.InvalidSettingException;
 import cn.core.GenericBuilder;
 import cn.core.utils.ObjectUtils;
 import net.coobird.thumbnailator.filters.ImageFilter;
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * An image filter that can enlarge an image lossless.
+ * An image filter that can enlarge an image lossless. The image is resampled on the
+ * raster by the kernel, which is {@link ResampleKernel#NEAREST} by default, and the
+ * large image is resampled concurrently in the common pool.
  *
  * @author tracy
  * @since 0.2.1
@@ -24,34 +26,38 @@ public class HighQualityExpandHandler implements ImageFilter {
     /**
      * The final width after expanded.
      */
-    private int finalWidth;
+    private final int finalWidth;
 
     /**
      * The final height after expanded.
      */
-    private int finalHeight;
+    private final int finalHeight;
+
+    /**
+     * The kernel of resampling.
+     */
+    private final ResampleKernel kernel;
 
     public HighQualityExpandHandler(Builder bu) {
         this.keepAspectRatio = bu.keepAspectRatio;
         this.finalWidth = bu.finalWidth;
         this.finalHeight = bu.finalHeight;
+        this.kernel = bu.kernel;
     }
 
     @Override
     public BufferedImage apply(BufferedImage img) {
         ObjectUtils.excNull(img, "Original image is null.");
 
-        adjust(img.getWidth(), img.getHeight());
+        // keep the handler unchanged so that it could be applied to several images concurrently
+        int[] size = adjust(img.getWidth(), img.getHeight());
         // expand and write to new image
-        Image tmp = img.getScaledInstance(finalWidth, finalHeight, Image.SCALE_FAST);
-        BufferedImage tar = new BufferedImage(tmp.getWidth(null), tmp.getHeight(null), img.getType());
-        Graphics2D g2d = tar.createGraphics();
-        g2d.drawImage(tmp, 0, 0, null);
-        g2d.dispose();
-        return tar;
+        return Resampler.resample(img, size[0], size[1], kernel, ForkJoinPool.commonPool());
     }
 
-    private void adjust(int originalWidth, int originalHeight) {
+    private int[] adjust(int originalWidth, int originalHeight) {
+        int finalWidth = this.finalWidth;
+        int finalHeight = this.finalHeight;
         // calculate the scale of expand
         float radioW = (float) finalWidth / (float) originalWidth;
         float radioH = (float) finalHeight / (float) originalHeight;
@@ -75,12 +81,14 @@ public class HighQualityExpandHandler implements ImageFilter {
             throw new HandlingException(String.format("The final height(%s) is less than the original height(%s).",
                     finalHeight, originalHeight));
         }
+        return new int[]{finalWidth, finalHeight};
     }
 
     public static class Builder implements GenericBuilder<HighQualityExpandHandler> {
         private boolean keepAspectRatio = true;
         private int finalWidth;
         private int finalHeight;
+        private ResampleKernel kernel;
 
         public Builder keepAspectRatio(boolean keepAspectRatio) {
             this.keepAspectRatio = keepAspectRatio;
@@ -97,6 +105,11 @@ public class HighQualityExpandHandler implements ImageFilter {
             return this;
         }
 
+        public Builder kernel(ResampleKernel kernel) {
+            this.kernel = kernel;
+            return this;
+        }
+
         @Override
         public HighQualityExpandHandler build() {
             if (finalWidth < 0) {
@@ -119,6 +132,9 @@ public class HighQualityExpandHandler implements ImageFilter {
                 }
             }
 
+            // the default kernel is the nearest neighbor
+            kernel = kernel == null ? ResampleKernel.NEAREST : kernel;
+
             return new HighQualityExpandHandler(this);
         }
 
@@ -0,0 +1,35 @@
+package cn.t8s.filter;
+
+import cn.core.IndependentPipeFilter;
+import cn.core.utils.ObjectUtils;
+import net.coobird.thumbnailator.filters.ImageFilter;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A pipe filter that applies an image filter to every image independently.At the
+ * same time, it is also an adapter that maintains an image filter internally, so
+ * that the image filters can take part in the pipe of imglib.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class ImageFilterAdaptor implements IndependentPipeFilter {
+
+    /**
+     * The image filter which apply to every image.
+     */
+    private final ImageFilter imageFilter;
+
+    public ImageFilterAdaptor(ImageFilter filter) {
+        ObjectUtils.excNull(filter, "ImageFilter is null.");
+        this.imageFilter = filter;
+    }
+
+    @Override
+    public List<BufferedImage> execute(BufferedImage image) {
+        ObjectUtils.excNull(image, "Source image is null.");
+        return Collections.singletonList(imageFilter.apply(image));
+    }
+}
@@ -0,0 +1,215 @@
+package cn.t8s.filter;
+
+import cn.core.utils.ColorUtils;
+import cn.core.utils.RasterUtils;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The engine of mosaic, which fills the cells of a region row by row.
+ * <p>
+ * A row of cells is called a cell band. For each cell band, only the rows of the
+ * region are read from the source image, then the colors of cells are written to
+ * the raster of target image directly. For the image types which could not be
+ * accessed directly, the cells are filled through {@link Graphics} instead, so that
+ * the result is exactly the same as before.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+final class MosaicEngine {
+    private MosaicEngine(){}
+
+    /**
+     * Add a mosaic for the region of image. The source and the target could be the
+     * same image, since every cell band is read completely before written.
+     *
+     * @param src The image to read the colors of cells.
+     * @param tar The image to fill the cells.
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region, which must be limited in the image.
+     * @param h The height of the region, which must be limited in the image.
+     * @param sideLength The side length of the cell.
+     * @param averageColor If true, fill a cell with the average color of it, otherwise
+     *                     with the color of its center.
+     */
+    static void mosaic(BufferedImage src, BufferedImage tar, int x, int y, int w, int h,
+                       int sideLength, boolean averageColor) {
+        mosaic(src, 0, 0, tar, x, y, w, h, sideLength, averageColor, null);
+    }
+
+    /**
+     * Add a mosaic for the region of image, the pixels which have been filled are
+     * skipped, so that the overlapping regions never fill a pixel twice.
+     *
+     * @param src The image to read the colors of cells, which covers the region at least.
+     * @param srcX The x coordinate of the source image in the target image.
+     * @param srcY The y coordinate of the source image in the target image.
+     * @param tar The image to fill the cells.
+     * @param x The x coordinate of the upper left corner of the region.
+     * @param y The y coordinate of the upper left corner of the region.
+     * @param w The width of the region, which must be limited in the image.
+     * @param h The height of the region, which must be limited in the image.
+     * @param sideLength The side length of the cell.
+     * @param averageColor If true, fill a cell with the average color of it, otherwise
+     *                     with the color of its center.
+     * @param filled The pixels which have been filled, indexed by <code>y * width + x</code>
+     *               of the target image, the pixels filled by this region are set. No pixel
+     *               is skipped if it is null.
+     */
+    static void mosaic(BufferedImage src, int srcX, int srcY, BufferedImage tar, int x, int y, int w, int h,
+                       int sideLength, boolean averageColor, BitSet filled) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        int[] colors = new int[(w + sideLength - 1) / sideLength];
+        boolean direct = RasterUtils.isDirectAccessible(tar);
+        Graphics g = direct ? null : tar.getGraphics();
+        try {
+            for (int currentY = y; currentY < y + h; currentY += sideLength) {
+                int rows = Math.min(sideLength, y + h - currentY);
+                if (averageColor) {
+                    obtainAverageColors(src, x - srcX, currentY - srcY, w, rows, sideLength, colors);
+                } else {
+                    obtainCenterColors(src, x - srcX, currentY - srcY, w, rows, sideLength, colors);
+                }
+                if (filled != null) {
+                    fillUnfilled(tar, g, x, currentY, w, rows, sideLength, colors, filled);
+                } else if (direct) {
+                    fillCellBand(tar, x, currentY, w, rows, sideLength, colors);
+                } else {
+                    for (int i = 0; i < colors.length; i++) {
+                        int currentX = x + i * sideLength;
+                        g.setColor(ColorUtils.ofRGB(colors[i]));
+                        g.fillRect(currentX, currentY, Math.min(sideLength, x + w - currentX), rows);
+                    }
+                }
+            }
+        } finally {
+            if (g != null) {
+                g.dispose();
+            }
+        }
+    }
+
+    /**
+     * Obtain the colors of the centers of cells, same as
+     * {@link ColorUtils#obtainRectCenterRGB(BufferedImage, int, int, int, int)}.
+     * Only the center row of the cell band is read.
+     */
+    private static void obtainCenterColors(BufferedImage src, int x, int y, int w, int rows,
+                                           int sideLength, int[] colors) {
+        int[] row = new int[w];
+        RasterUtils.getRGB(src, x, y + rows / 2, w, 1, row);
+        for (int i = 0; i < colors.length; i++) {
+            int offset = i * sideLength;
+            colors[i] = row[offset + Math.min(sideLength, w - offset) / 2];
+        }
+    }
+
+    /**
+     * Obtain the average colors of cells by the summed-area table of the cell band.
+     * Since every cell covers all rows of the band, only the bottom row of the table
+     * is kept, so the sum of a cell is the difference of two entries.
+     */
+    private static void obtainAverageColors(BufferedImage src, int x, int y, int w, int rows,
+                                            int sideLength, int[] colors) {
+        long[] red = new long[w + 1];
+        long[] green = new long[w + 1];
+        long[] blue = new long[w + 1];
+        int bandRows = Math.min(rows, RasterUtils.bandRows(w));
+        int[] band = new int[w * bandRows];
+        for (int currentY = y; currentY < y + rows; currentY += bandRows) {
+            int n = Math.min(bandRows, y + rows - currentY);
+            RasterUtils.getRGB(src, x, currentY, w, n, band);
+            for (int i = 0, size = w * n; i < size; i++) {
+                int rgb = band[i];
+                int column = i % w + 1;
+                red[column] += (rgb >> 16) & 0xff;
+                green[column] += (rgb >> 8) & 0xff;
+                blue[column] += rgb & 0xff;
+            }
+        }
+        // accumulate the sums of columns into the bottom row of summed-area table
+        for (int i = 1; i <= w; i++) {
+            red[i] += red[i - 1];
+            green[i] += green[i - 1];
+            blue[i] += blue[i - 1];
+        }
+        for (int i = 0; i < colors.length; i++) {
+            int start = i * sideLength;
+            int end = Math.min(start + sideLength, w);
+            long count = (long) (end - start) * rows;
+            colors[i] = average(red[end] - red[start], count) << 16
+                    | average(green[end] - green[start], count) << 8
+                    | average(blue[end] - blue[start], count);
+        }
+    }
+
+    private static int average(long sum, long count) {
+        return (int) ((sum + count / 2) / count);
+    }
+
+    /**
+     * Fill the cell band by writing the raster directly. The colors are opaque, same
+     * as filling through {@link Graphics}.
+     */
+    private static void fillCellBand(BufferedImage tar, int x, int y, int w, int rows,
+                                     int sideLength, int[] colors) {
+        int bandRows = Math.min(rows, RasterUtils.bandRows(w));
+        int[] band = new int[w * bandRows];
+        for (int i = 0; i < w; i++) {
+            band[i] = 0xff000000 | colors[i / sideLength];
+        }
+        for (int i = 1; i < bandRows; i++) {
+            System.arraycopy(band, 0, band, i * w, w);
+        }
+        for (int currentY = y; currentY < y + rows; currentY += bandRows) {
+            RasterUtils.setRGB(tar, x, currentY, w, Math.min(bandRows, y + rows - currentY), band);
+        }
+    }
+
+    /**
+     * Fill the pixels of the cell band which have not been filled, row by row. The
+     * raster is written directly if the graphics is null.
+     */
+    private static void fillUnfilled(BufferedImage tar, Graphics g, int x, int y, int w, int rows,
+                                     int sideLength, int[] colors, BitSet filled) {
+        int width = tar.getWidth();
+        int[] row = g == null ? new int[w] : null;
+        for (int currentY = y; currentY < y + rows; currentY++) {
+            int start = currentY * width + x;
+            int end = start + w;
+            if (filled.nextClearBit(start) >= end) {
+                continue;
+            }
+            if (row != null) {
+                RasterUtils.getRGB(tar, x, currentY, w, 1, row);
+            }
+            for (int i = filled.nextClearBit(start); i < end; i = filled.nextClearBit(i)) {
+                int next = filled.nextSetBit(i);
+                next = next < 0 ? end : Math.min(next, end);
+                filled.set(i, next);
+                // split the run of unfilled pixels by the cells
+                for (int px = i - start; px < next - start; ) {
+                    int cell = px / sideLength;
+                    int cellEnd = Math.min((cell + 1) * sideLength, next - start);
+                    if (row != null) {
+                        Arrays.fill(row, px, cellEnd, 0xff000000 | colors[cell]);
+                    } else {
+                        g.setColor(ColorUtils.ofRGB(colors[cell]));
+                        g.fillRect(x + px, currentY, cellEnd - px, 1);
+                    }
+                    px = cellEnd;
+                }
+            }
+            if (row != null) {
+                RasterUtils.setRGB(tar, x, currentY, w, 1, row);
+            }
+        }
+    }
+}
@@ -3,10 +3,8 @@ package cn.t8s.filter;
 import cn.core.ex.InvalidSettingException;
 import cn.core.GenericBuilder;
 import cn.core.utils.BufferedImageUtils;
-import cn.core.utils.ColorUtils;
 import cn.core.utils.ObjectUtils;
 import net.coobird.thumbnailator.filters.ImageFilter;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.text.MessageFormat;
 
@@ -36,12 +34,23 @@ public class MosaicHandler implements ImageFilter {
     /**
      * The x coordinate of the down right corner of the mosaic region.
      */
-    private int endX;
+    private final int endX;
 
     /**
      * The y coordinate of the down right corner of the mosaic region.
      */
-    private int endY;
+    private final int endY;
+
+    /**
+     * If true, add the mosaic to the original image directly instead of a copy of it.
+     */
+    private final boolean inPlace;
+
+    /**
+     * If true, fill a mosaic block with the average color of it, otherwise with the
+     * color of its center.
+     */
+    private final boolean averageColor;
 
     public MosaicHandler(Builder bu) {
         this.sideLength = bu.sideLength;
@@ -49,46 +58,32 @@ public class MosaicHandler implements ImageFilter {
         this.startY = bu.startY;
         this.endX = bu.startX + bu.width;
         this.endY = bu.startY + bu.height;
+        this.inPlace = bu.inPlace;
+        this.averageColor = bu.averageColor;
     }
 
     @Override
     public BufferedImage apply(BufferedImage img) {
         ObjectUtils.excNull(img, "Original image is null.");
-        adjustRect(img.getWidth(), img.getHeight());
-        // copy an image from original image
-        BufferedImage tar = BufferedImageUtils.copy(img, img.getType());
-        Graphics g = tar.getGraphics();
-
-        int currentX = startX;
-        while (currentX < endX) {
-            int nextWidth = Math.min(sideLength, endX - currentX);
-            int currentY = startY;
-            while (currentY < endY) {
-                int nextHeight = Math.min(sideLength, endY - currentY);
-                // obtain RGB of color of the center
-                int centerRgb = ColorUtils.obtainRectCenterRGB(img, currentX, currentY, nextWidth, nextHeight);
-                g.setColor(ColorUtils.ofRGB(centerRgb));
-                // painting rectangle
-                g.fillRect(currentX, currentY, nextWidth, nextHeight);
-                currentY += sideLength;
-            }
-            currentX += sideLength;
-        }
-
-        g.dispose();
+        checkStartingPoint(img.getWidth(), img.getHeight());
+        // the mosaic region is limited in the image, keep the handler unchanged so
+        // that it could be applied to several images concurrently
+        int endX = Math.min(img.getWidth(), this.endX);
+        int endY = Math.min(img.getHeight(), this.endY);
+        // copy an image from original image unless handling it in place
+        BufferedImage tar = inPlace ? img : BufferedImageUtils.copy(img);
+        MosaicEngine.mosaic(img, tar, startX, startY, endX - startX, endY - startY,
+                sideLength, averageColor);
         return tar;
     }
 
-    private void adjustRect(int originalWidth, int originalHeight) {
+    private void checkStartingPoint(int originalWidth, int originalHeight) {
         if (startX > originalWidth || startY > originalHeight) {
             throw new InvalidSettingException(MessageFormat.format(
                     "The starting point:[{0}, {1}] are not in image range:[{2}, {3}].",
                     startX, startY,
                     originalWidth, originalHeight));
         }
-
-        endX = Math.min(originalWidth, endX);
-        endY = Math.min(originalHeight, endY);
     }
 
 
@@ -99,6 +94,8 @@ public class MosaicHandler implements ImageFilter {
         private int startY;
         private Integer width;
         private Integer height;
+        private boolean inPlace;
+        private boolean averageColor;
 
         public Builder sideLength(int sideLength) {
             this.sideLength = sideLength;
@@ -120,6 +117,14 @@ public class MosaicHandler implements ImageFilter {
             this.height = height;
             return this;
         }
+        public Builder inPlace(boolean inPlace) {
+            this.inPlace = inPlace;
+            return this;
+        }
+        public Builder averageColor(boolean averageColor) {
+            this.averageColor = averageColor;
+            return this;
+        }
 
         @Override
         public MosaicHandler build() {
@@ -0,0 +1,185 @@
+package cn.t8s.filter;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.BufferedImageUtils;
+import cn.core.utils.CollectionUtils;
+import cn.core.utils.ObjectUtils;
+import net.coobird.thumbnailator.filters.ImageFilter;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An image filter that can add a mosaic for several regions of image at once.
+ * <p>
+ * Unlike chaining several {@link MosaicHandler}, the image is copied only once and
+ * every pixel of the regions is handled only once. Before handling, the regions are
+ * limited in the image and sorted from top to bottom, then from left to right. The
+ * pixels where the regions overlap are filled by the first region of them, and the
+ * later regions skip them, so that the result never depends on the order of regions
+ * and the pixels out of the regions are never changed. The regions out of the image
+ * are ignored.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class MultiMosaicHandler implements ImageFilter {
+
+    /**
+     * The side length of the mosaic block.
+     */
+    private final int sideLength;
+
+    /**
+     * The mosaic regions.
+     */
+    private final List<Rectangle> regions;
+
+    /**
+     * If true, add the mosaic to the original image directly instead of a copy of it.
+     */
+    private final boolean inPlace;
+
+    /**
+     * If true, fill a mosaic block with the average color of it, otherwise with the
+     * color of its center.
+     */
+    private final boolean averageColor;
+
+    public MultiMosaicHandler(Builder bu) {
+        this.sideLength = bu.sideLength;
+        this.regions = Collections.unmodifiableList(new ArrayList<>(bu.regions));
+        this.inPlace = bu.inPlace;
+        this.averageColor = bu.averageColor;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage img) {
+        ObjectUtils.excNull(img, "Original image is null.");
+        List<Rectangle> rs = limitRegions(img.getWidth(), img.getHeight());
+        // copy an image from original image unless handling it in place
+        BufferedImage tar = inPlace ? img : BufferedImageUtils.copy(img);
+        if (!overlaps(rs)) {
+            for (Rectangle r : rs) {
+                MosaicEngine.mosaic(img, tar, r.x, r.y, r.width, r.height, sideLength, averageColor);
+            }
+            return tar;
+        }
+        // the colors of cells are read from the original pixels, which are changed by
+        // the former regions when handling in place, so only the bounds of regions are copied
+        Rectangle bounds = inPlace ? union(rs) : new Rectangle(0, 0, img.getWidth(), img.getHeight());
+        BufferedImage src = inPlace
+                ? BufferedImageUtils.copy(img.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height))
+                : img;
+        BitSet filled = new BitSet(img.getWidth() * img.getHeight());
+        for (Rectangle r : rs) {
+            MosaicEngine.mosaic(src, bounds.x, bounds.y, tar, r.x, r.y, r.width, r.height,
+                    sideLength, averageColor, filled);
+        }
+        return tar;
+    }
+
+    /**
+     * Limit the regions in the image, and sort them from top to bottom, then from left
+     * to right.
+     */
+    private List<Rectangle> limitRegions(int originalWidth, int originalHeight) {
+        Rectangle bounds = new Rectangle(0, 0, originalWidth, originalHeight);
+        List<Rectangle> rs = new ArrayList<>(regions.size());
+        for (Rectangle r : regions) {
+            Rectangle limited = r.intersection(bounds);
+            if (!limited.isEmpty()) {
+                rs.add(limited);
+            }
+        }
+        rs.sort(Comparator.<Rectangle>comparingInt(r -> r.y).thenComparingInt(r -> r.x)
+                .thenComparingInt(r -> r.height).thenComparingInt(r -> r.width));
+        return rs;
+    }
+
+    /**
+     * Get the smallest rectangle which contains all the regions.
+     */
+    private static Rectangle union(List<Rectangle> rs) {
+        Rectangle bounds = new Rectangle(rs.get(0));
+        for (Rectangle r : rs) {
+            bounds.add(r);
+        }
+        return bounds;
+    }
+
+    private static boolean overlaps(List<Rectangle> rs) {
+        for (int i = 0; i < rs.size(); i++) {
+            for (int j = i + 1; j < rs.size(); j++) {
+                if (rs.get(i).intersects(rs.get(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    public static class Builder implements GenericBuilder<MultiMosaicHandler> {
+
+        private int sideLength;
+        private final List<Rectangle> regions = new ArrayList<>();
+        private boolean inPlace;
+        private boolean averageColor;
+
+        public Builder sideLength(int sideLength) {
+            this.sideLength = sideLength;
+            return this;
+        }
+        public Builder region(int x, int y, int width, int height) {
+            this.regions.add(new Rectangle(x, y, width, height));
+            return this;
+        }
+        public Builder regions(List<Rectangle> regions) {
+            ObjectUtils.excNull(regions, "Mosaic regions is null.");
+            for (Rectangle r : regions) {
+                ObjectUtils.excNull(r, "Mosaic region is null.");
+                this.regions.add(new Rectangle(r));
+            }
+            return this;
+        }
+        public Builder inPlace(boolean inPlace) {
+            this.inPlace = inPlace;
+            return this;
+        }
+        public Builder averageColor(boolean averageColor) {
+            this.averageColor = averageColor;
+            return this;
+        }
+
+        @Override
+        public MultiMosaicHandler build() {
+            if (sideLength <= 0) {
+                throw new InvalidSettingException("Side length must be greater than 0.");
+            }
+            CollectionUtils.excEmpty(regions, "Mosaic regions is empty.");
+            for (Rectangle r : regions) {
+                if (r.x < 0) {
+                    throw new InvalidSettingException("The start point's X must be greater than 0.");
+                }
+                if (r.y < 0) {
+                    throw new InvalidSettingException("The start point's Y must be greater than 0.");
+                }
+                if (r.width <= 0) {
+                    throw new InvalidSettingException("The rectangle's width must be greater than 0.");
+                }
+                if (r.height <= 0) {
+                    throw new InvalidSettingException("The rectangle's height must be greater than 0.");
+                }
+            }
+
+            return new MultiMosaicHandler(this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cn.t8s.filter;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.InvalidSettingException;
+import cn.core.strategy.PointwiseStrategy;
+import cn.core.utils.ObjectUtils;
+import net.coobird.thumbnailator.filters.ImageFilter;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An image filter that can apply some pointwise mode concurrently. The image is split
+ * into bands of rows, and every band is handled by the mode strategy in a fork join
+ * pool. The image which is not larger than the cutoff is handled in the current
+ * thread, as same as {@link ModeAdaptor}.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class ParallelModeAdaptor implements ImageFilter {
+
+    /**
+     * The minimum number of pixels of a band.
+     */
+    private static final int MIN_BAND_PIXELS = 1 << 18;
+
+    /**
+     * The mode strategy which apply to the image.
+     */
+    private final PointwiseStrategy modeStrategy;
+
+    /**
+     * The pool which handles the bands.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The maximum number of pixels of the image which is handled in the current thread.
+     */
+    private final int cutoff;
+
+    public ParallelModeAdaptor(Builder bu) {
+        this.modeStrategy = bu.modeStrategy;
+        this.pool = bu.pool;
+        this.cutoff = bu.cutoff;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage img) {
+        ObjectUtils.excNull(img, "Original image is null.");
+        long pixels = (long) img.getWidth() * img.getHeight();
+        if (pixels <= cutoff || pool.getParallelism() <= 1) {
+            modeStrategy.execute(img);
+        } else {
+            // split into bands which are more than the workers, to balance the load
+            long bandPixels = Math.max(MIN_BAND_PIXELS, pixels / (pool.getParallelism() * 4L));
+            int bandRows = (int) Math.max(1, bandPixels / img.getWidth());
+            pool.invoke(new BandAction(img, 0, img.getHeight(), bandRows));
+        }
+        return img;
+    }
+
+    /**
+     * An action that handles the rows of image, it will be split into two halves
+     * until the rows are no more than the band rows.
+     */
+    private class BandAction extends RecursiveAction {
+
+        private final BufferedImage img;
+
+        private final int startRow;
+
+        private final int endRow;
+
+        private final int bandRows;
+
+        private BandAction(BufferedImage img, int startRow, int endRow, int bandRows) {
+            this.img = img;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = endRow - startRow;
+            if (rows <= bandRows) {
+                // the sub image shares the raster with the original image
+                modeStrategy.execute(img.getSubimage(0, startRow, img.getWidth(), rows));
+                return;
+            }
+            int middleRow = startRow + rows / 2;
+            invokeAll(new BandAction(img, startRow, middleRow, bandRows),
+                    new BandAction(img, middleRow, endRow, bandRows));
+        }
+    }
+
+
+    public static class Builder implements GenericBuilder<ParallelModeAdaptor> {
+
+        private PointwiseStrategy modeStrategy;
+        private ForkJoinPool pool;
+        private int cutoff;
+
+        public Builder modeStrategy(PointwiseStrategy modeStrategy) {
+            this.modeStrategy = modeStrategy;
+            return this;
+        }
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+        public Builder cutoff(int cutoff) {
+            this.cutoff = cutoff;
+            return this;
+        }
+
+        @Override
+        public ParallelModeAdaptor build() {
+            ObjectUtils.excNull(modeStrategy, "Mode strategy is null.");
+            if (cutoff < 0) {
+                throw new InvalidSettingException("Cutoff must be greater than or equal to 0.");
+            }
+            // the default pool is the common pool
+            pool = pool == null ? ForkJoinPool.commonPool() : pool;
+            // the default cutoff is 1 million pixels
+            cutoff = cutoff == 0 ? 1 << 20 : cutoff;
+
+            return new ParallelModeAdaptor(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package cn.t8s.filter;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The kernel of resampling, which gives the weight of a source pixel by its distance
+ * to the sampling position. The distance is measured in the source pixels when
+ * enlarging, and it is stretched by the scale when reducing.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public interface ResampleKernel {
+
+    /**
+     * Get the radius of the kernel, the weight is 0 out of <code>[-radius, radius]</code>.
+     * The kernel whose radius is 0 samples the nearest pixel only.
+     *
+     * @return The radius.
+     */
+    double radius();
+
+    /**
+     * Get the weight of the source pixel.
+     *
+     * @param distance The distance to the sampling position.
+     * @return The weight, which need not be normalized.
+     */
+    double weight(double distance);
+
+    /**
+     * Create a kernel.
+     *
+     * @param radius The radius of the kernel.
+     * @param weight The function to calculate the weight by distance.
+     * @return The kernel.
+     */
+    static ResampleKernel of(double radius, DoubleUnaryOperator weight) {
+        return new ResampleKernel() {
+            @Override
+            public double radius() {
+                return radius;
+            }
+
+            @Override
+            public double weight(double distance) {
+                return weight.applyAsDouble(distance);
+            }
+        };
+    }
+
+    /**
+     * The nearest neighbor, same as {@link java.awt.Image#SCALE_FAST}.
+     */
+    ResampleKernel NEAREST = of(0, d -> 1);
+
+    /**
+     * The bilinear (triangle) kernel.
+     */
+    ResampleKernel BILINEAR = of(1, d -> {
+        d = Math.abs(d);
+        return d < 1 ? 1 - d : 0;
+    });
+
+    /**
+     * The bicubic kernel of Catmull-Rom spline (a = -0.5).
+     */
+    ResampleKernel BICUBIC = of(2, d -> {
+        d = Math.abs(d);
+        if (d < 1) {
+            return (1.5 * d - 2.5) * d * d + 1;
+        }
+        if (d < 2) {
+            return ((-0.5 * d + 2.5) * d - 4) * d + 2;
+        }
+        return 0;
+    });
+
+    /**
+     * The Lanczos kernel of 3 lobes.
+     */
+    ResampleKernel LANCZOS3 = of(3, d -> {
+        d = Math.abs(d);
+        if (d < 1e-8) {
+            return 1;
+        }
+        if (d >= 3) {
+            return 0;
+        }
+        double x = Math.PI * d;
+        return 3 * Math.sin(x) * Math.sin(x / 3) / (x * x);
+    });
+}
@@ -0,0 +1,310 @@
+package cn.t8s.filter;
+
+import cn.core.utils.RasterUtils;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The engine of resampling, which scales an image by a {@link ResampleKernel}.
+ * <p>
+ * The convolution is separable: the weights of columns and rows are calculated once,
+ * then the rows of a band are convolved horizontally, and the result is convolved
+ * vertically. The bands of rows are handled in a fork join pool when the image is
+ * large. The pixels are read and written through {@link RasterUtils}, and the color
+ * channels are premultiplied by alpha while convolving, so that the transparent
+ * pixels never bleed into the others.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+final class Resampler {
+    private Resampler(){}
+
+    /**
+     * The minimum number of pixels of a band.
+     */
+    private static final int MIN_BAND_PIXELS = 1 << 18;
+
+    /**
+     * The maximum number of pixels of the image which is handled in the current thread.
+     */
+    private static final int CUTOFF = 1 << 20;
+
+    /**
+     * Scale the image.
+     *
+     * @param img The original image.
+     * @param width The final width.
+     * @param height The final height.
+     * @param kernel The kernel of resampling.
+     * @param pool The pool which handles the bands.
+     * @return The scaled image, which has the same color model and raster layout as the
+     * original image.
+     */
+    static BufferedImage resample(BufferedImage img, int width, int height,
+                                  ResampleKernel kernel, ForkJoinPool pool) {
+        ColorModel cm = img.getColorModel();
+        BufferedImage tar = new BufferedImage(cm, img.getRaster().createCompatibleWritableRaster(width, height),
+                cm.isAlphaPremultiplied(), null);
+        Weights columns = Weights.of(img.getWidth(), width, kernel);
+        Weights rows = Weights.of(img.getHeight(), height, kernel);
+        boolean alpha = cm.hasAlpha();
+
+        long pixels = (long) width * height;
+        if (pixels <= CUTOFF || pool.getParallelism() <= 1) {
+            // keep the buffers of a band small even in the current thread
+            int bandRows = Math.max(1, MIN_BAND_PIXELS / width);
+            for (int y = 0; y < height; y += bandRows) {
+                resampleRows(img, tar, columns, rows, alpha, y, Math.min(height, y + bandRows));
+            }
+        } else {
+            // split into bands which are more than the workers, to balance the load
+            long bandPixels = Math.max(MIN_BAND_PIXELS, pixels / (pool.getParallelism() * 4L));
+            int bandRows = (int) Math.max(1, bandPixels / width);
+            pool.invoke(new BandAction(img, tar, columns, rows, alpha, 0, height, bandRows));
+        }
+        return tar;
+    }
+
+    /**
+     * Resample the rows of target image.
+     */
+    private static void resampleRows(BufferedImage img, BufferedImage tar, Weights columns, Weights rows,
+                                     boolean alpha, int startRow, int endRow) {
+        int srcWidth = img.getWidth();
+        int width = tar.getWidth();
+        // the source rows which the band depends on
+        int firstRow = rows.first[startRow];
+        int lastRow = firstRow;
+        for (int y = startRow; y < endRow; y++) {
+            lastRow = Math.max(lastRow, rows.first[y] + rows.taps - 1);
+        }
+        lastRow = Math.min(lastRow, img.getHeight() - 1);
+        int srcRows = lastRow - firstRow + 1;
+
+        if (columns.nearest && rows.nearest && !RasterUtils.isDirectAccessible(img)) {
+            // copy the elements of the nearest pixels, which is exact for any type
+            WritableRaster src = img.getRaster();
+            WritableRaster dst = tar.getRaster();
+            Object pixel = null;
+            for (int y = startRow; y < endRow; y++) {
+                int sy = src.getMinY() + rows.first[y];
+                for (int x = 0; x < width; x++) {
+                    pixel = src.getDataElements(src.getMinX() + columns.first[x], sy, pixel);
+                    dst.setDataElements(x, y, pixel);
+                }
+            }
+            return;
+        }
+
+        int[] srcPixels = new int[srcWidth * srcRows];
+        RasterUtils.getRGB(img, 0, firstRow, srcWidth, srcRows, srcPixels);
+        int[] tarPixels = new int[width * (endRow - startRow)];
+
+        if (columns.nearest && rows.nearest) {
+            // copy the nearest pixels exactly
+            for (int y = startRow, i = 0; y < endRow; y++) {
+                int offset = (rows.first[y] - firstRow) * srcWidth;
+                for (int x = 0; x < width; x++) {
+                    tarPixels[i++] = srcPixels[offset + columns.first[x]];
+                }
+            }
+            RasterUtils.setRGB(tar, 0, startRow, width, endRow - startRow, tarPixels);
+            return;
+        }
+
+        // convolve horizontally, the channels are stored in order of A, R, G, B
+        float[] horizontal = new float[width * srcRows * 4];
+        float[] pixel = new float[4];
+        for (int r = 0, j = 0; r < srcRows; r++) {
+            int offset = r * srcWidth;
+            for (int x = 0; x < width; x++, j += 4) {
+                float a = 0, red = 0, green = 0, blue = 0;
+                int first = offset + columns.first[x];
+                int w = x * columns.taps;
+                for (int t = 0; t < columns.taps; t++) {
+                    float weight = columns.weights[w + t];
+                    if (weight == 0) {
+                        continue;
+                    }
+                    toChannels(srcPixels[first + t], alpha, pixel);
+                    a += weight * pixel[0];
+                    red += weight * pixel[1];
+                    green += weight * pixel[2];
+                    blue += weight * pixel[3];
+                }
+                horizontal[j] = a;
+                horizontal[j + 1] = red;
+                horizontal[j + 2] = green;
+                horizontal[j + 3] = blue;
+            }
+        }
+
+        // convolve vertically
+        for (int y = startRow, i = 0; y < endRow; y++) {
+            int first = rows.first[y] - firstRow;
+            int w = y * rows.taps;
+            for (int x = 0; x < width; x++) {
+                float a = 0, red = 0, green = 0, blue = 0;
+                for (int t = 0; t < rows.taps; t++) {
+                    float weight = rows.weights[w + t];
+                    if (weight == 0) {
+                        continue;
+                    }
+                    int j = ((first + t) * width + x) * 4;
+                    a += weight * horizontal[j];
+                    red += weight * horizontal[j + 1];
+                    green += weight * horizontal[j + 2];
+                    blue += weight * horizontal[j + 3];
+                }
+                tarPixels[i++] = toRGB(a, red, green, blue, alpha);
+            }
+        }
+        RasterUtils.setRGB(tar, 0, startRow, width, endRow - startRow, tarPixels);
+    }
+
+    private static void toChannels(int rgb, boolean alpha, float[] pixel) {
+        float a = alpha ? (rgb >>> 24) : 255;
+        float ratio = a / 255;
+        pixel[0] = a;
+        pixel[1] = ((rgb >> 16) & 0xff) * ratio;
+        pixel[2] = ((rgb >> 8) & 0xff) * ratio;
+        pixel[3] = (rgb & 0xff) * ratio;
+    }
+
+    private static int toRGB(float a, float red, float green, float blue, boolean alpha) {
+        int ia = alpha ? clamp(a) : 255;
+        if (ia == 0) {
+            return 0;
+        }
+        float ratio = alpha ? 255 / a : 1;
+        return ia << 24 | clamp(red * ratio) << 16 | clamp(green * ratio) << 8 | clamp(blue * ratio);
+    }
+
+    private static int clamp(float value) {
+        int v = (int) (value + 0.5f);
+        return v < 0 ? 0 : (v > 255 ? 255 : v);
+    }
+
+    /**
+     * The weights of convolution in one dimension. The target pixel <code>i</code>
+     * depends on the source pixels from <code>first[i]</code>, and the weights of them
+     * are from <code>weights[i * taps]</code>.
+     */
+    private static class Weights {
+
+        private final int[] first;
+
+        private final float[] weights;
+
+        private final int taps;
+
+        /**
+         * Whether every target pixel is the nearest source pixel.
+         */
+        private final boolean nearest;
+
+        private Weights(int[] first, float[] weights, int taps, boolean nearest) {
+            this.first = first;
+            this.weights = weights;
+            this.taps = taps;
+            this.nearest = nearest;
+        }
+
+        private static Weights of(int srcLength, int length, ResampleKernel kernel) {
+            int[] first = new int[length];
+            if (kernel.radius() <= 0) {
+                // same as the ReplicateScaleFilter, which samples the center of pixel
+                for (int i = 0; i < length; i++) {
+                    first[i] = (int) (((2L * i + 1) * srcLength) / (2L * length));
+                }
+                return new Weights(first, new float[length], 1, true);
+            }
+
+            double scale = (double) srcLength / length;
+            // stretch the kernel when reducing
+            double stretch = Math.max(1, scale);
+            double radius = kernel.radius() * stretch;
+            int taps = Math.min(srcLength, (int) Math.ceil(radius) * 2 + 1);
+            float[] weights = new float[length * taps];
+            double[] sums = new double[taps];
+            for (int i = 0; i < length; i++) {
+                double center = (i + 0.5) * scale - 0.5;
+                int left = (int) Math.ceil(center - radius);
+                int right = (int) Math.floor(center + radius);
+                int start = Math.max(0, Math.min(left, srcLength - taps));
+                first[i] = start;
+
+                Arrays.fill(sums, 0);
+                double total = 0;
+                for (int j = left; j <= right; j++) {
+                    double weight = kernel.weight((j - center) / stretch);
+                    // the pixels out of the image are replicated by the edge
+                    sums[Math.max(0, Math.min(srcLength - 1, j)) - start] += weight;
+                    total += weight;
+                }
+                if (total == 0) {
+                    int nearest = Math.max(0, Math.min(srcLength - 1, (int) Math.round(center))) - start;
+                    sums[Math.max(0, Math.min(taps - 1, nearest))] = 1;
+                    total = 1;
+                }
+                for (int t = 0; t < taps; t++) {
+                    weights[i * taps + t] = (float) (sums[t] / total);
+                }
+            }
+            return new Weights(first, weights, taps, false);
+        }
+    }
+
+    /**
+     * An action that resamples the rows of target image, it will be split into two
+     * halves until the rows are no more than the band rows.
+     */
+    private static class BandAction extends RecursiveAction {
+
+        private final BufferedImage img;
+
+        private final BufferedImage tar;
+
+        private final Weights columns;
+
+        private final Weights rows;
+
+        private final boolean alpha;
+
+        private final int startRow;
+
+        private final int endRow;
+
+        private final int bandRows;
+
+        private BandAction(BufferedImage img, BufferedImage tar, Weights columns, Weights rows,
+                           boolean alpha, int startRow, int endRow, int bandRows) {
+            this.img = img;
+            this.tar = tar;
+            this.columns = columns;
+            this.rows = rows;
+            this.alpha = alpha;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            int n = endRow - startRow;
+            if (n <= bandRows) {
+                resampleRows(img, tar, columns, rows, alpha, startRow, endRow);
+                return;
+            }
+            int middleRow = startRow + n / 2;
+            invokeAll(new BandAction(img, tar, columns, rows, alpha, startRow, middleRow, bandRows),
+                    new BandAction(img, tar, columns, rows, alpha, middleRow, endRow, bandRows));
+        }
+    }
+}
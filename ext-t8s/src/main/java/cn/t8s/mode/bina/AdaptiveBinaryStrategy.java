@@ -0,0 +1,210 @@
+package cn.t8s.mode.bina;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.InvalidSettingException;
+import cn.core.strategy.mode.AbstractBinaryStrategy;
+import cn.core.strategy.mode.AbstractGrayingStrategy;
+import cn.core.tool.Range;
+import cn.core.utils.ObjectUtils;
+import cn.t8s.mode.graying.AvgGrayingStrategy;
+import java.awt.image.BufferedImage;
+
+/**
+ * An adaptive binary strategy. The threshold value of every pixel is calculated from
+ * the mean and the standard deviation of gray values in the window around it, view
+ * {@link AdaptiveOption} for all options, and the default option is
+ * {@link AdaptiveOption#SAUVOLA}.
+ * <p>
+ * The sums of the window are maintained by the running sums of columns, so the cost
+ * of every pixel is constant regardless of the window size.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class AdaptiveBinaryStrategy extends AbstractBinaryStrategy {
+
+    /**
+     * The side length of the window.
+     */
+    private final int windowSize;
+
+    /**
+     * The option to calculate the threshold value.
+     */
+    private final AdaptiveOption option;
+
+    /**
+     * The sensitivity of the option.
+     */
+    private final double sensitivity;
+
+    public AdaptiveBinaryStrategy(Builder bu) {
+        super(bu.grayingStrategy);
+        this.windowSize = bu.windowSize;
+        this.option = bu.option;
+        this.sensitivity = bu.sensitivity;
+    }
+
+    /**
+     * Execute graying and binarization without writing the gray values back.
+     *
+     * @param img The original image.
+     */
+    @Override
+    public void execute(BufferedImage img) {
+        byte[] values = grayingStrategy.obtainGraynessValues(img);
+        writeBinaryValues(img, binary(values, img.getWidth(), img.getHeight()));
+    }
+
+    @Override
+    public void binaryImage(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        byte[] values = readGraynessValues(img);
+        writeBinaryValues(img, binary(values, img.getWidth(), img.getHeight()));
+    }
+
+    @Override
+    public BufferedImage toBinaryImage(BufferedImage img) {
+        byte[] values = grayingStrategy.obtainGraynessValues(img);
+        int w = img.getWidth();
+        int h = img.getHeight();
+        return createBinaryImage(w, h, binary(values, w, h));
+    }
+
+    /**
+     * Convert the gray values to binary values.
+     *
+     * @param grays The gray values in row-major order.
+     * @param w The width of image.
+     * @param h The height of image.
+     * @return The binary values in row-major order.
+     */
+    private byte[] binary(byte[] grays, int w, int h) {
+        int radius = windowSize / 2;
+        byte[] tars = new byte[grays.length];
+        // the sums of every column in the rows of window
+        long[] colSums = new long[w];
+        long[] colSquares = new long[w];
+        // the prefix sums of the columns, used to get the sums of window in a row
+        long[] prefixSums = new long[w + 1];
+        long[] prefixSquares = new long[w + 1];
+
+        for (int y = 0; y <= Math.min(radius, h - 1); y++) {
+            addRow(grays, y * w, w, colSums, colSquares, 1);
+        }
+        for (int y = 0; y < h; y++) {
+            // slide the window down
+            if (y > 0) {
+                if (y + radius < h) {
+                    addRow(grays, (y + radius) * w, w, colSums, colSquares, 1);
+                }
+                if (y - radius - 1 >= 0) {
+                    addRow(grays, (y - radius - 1) * w, w, colSums, colSquares, -1);
+                }
+            }
+            int rows = Math.min(h - 1, y + radius) - Math.max(0, y - radius) + 1;
+            for (int x = 0; x < w; x++) {
+                prefixSums[x + 1] = prefixSums[x] + colSums[x];
+                prefixSquares[x + 1] = prefixSquares[x] + colSquares[x];
+            }
+
+            int offset = y * w;
+            for (int x = 0; x < w; x++) {
+                int x1 = Math.max(0, x - radius);
+                int x2 = Math.min(w - 1, x + radius);
+                double count = (double) (x2 - x1 + 1) * rows;
+                double mean = (prefixSums[x2 + 1] - prefixSums[x1]) / count;
+                double variance = (prefixSquares[x2 + 1] - prefixSquares[x1]) / count - mean * mean;
+                double deviation = Math.sqrt(Math.max(0, variance));
+
+                double threshold = option.threshold(mean, deviation, sensitivity);
+                tars[offset + x] = (byte) ((grays[offset + x] & 0xff) > threshold ? BINARY_MAX : BINARY_MIN);
+            }
+        }
+        return tars;
+    }
+
+    private static void addRow(byte[] grays, int offset, int w, long[] colSums, long[] colSquares, int sign) {
+        for (int x = 0; x < w; x++) {
+            int v = grays[offset + x] & 0xff;
+            colSums[x] += sign * v;
+            colSquares[x] += sign * v * v;
+        }
+    }
+
+
+    public interface AdaptiveOption {
+
+        /**
+         * Calculate the threshold value of a pixel.
+         *
+         * @param mean The mean of gray values in the window.
+         * @param deviation The standard deviation of gray values in the window.
+         * @param sensitivity The sensitivity.
+         * @return The threshold value.
+         */
+        double threshold(double mean, double deviation, double sensitivity);
+
+        /**
+         * Bradley's method, the pixel is black if it is darker than the mean by the
+         * percentage of sensitivity.
+         */
+        AdaptiveOption BRADLEY = (mean, deviation, sensitivity) -> mean * (1 - sensitivity);
+
+        /**
+         * Sauvola's method, the threshold value is lower in the region of low contrast,
+         * which suits document images.
+         */
+        AdaptiveOption SAUVOLA = (mean, deviation, sensitivity) ->
+                mean * (1 + sensitivity * (deviation / 128 - 1));
+    }
+
+    public static class Builder implements GenericBuilder<AdaptiveBinaryStrategy> {
+        private static final Range<Double> SENSITIVITY_RANGE = Range.ofDouble(0D, 1D);
+
+        protected AbstractGrayingStrategy grayingStrategy;
+        protected int windowSize;
+        protected AdaptiveOption option;
+        protected Double sensitivity;
+
+        public Builder grayingStrategy(AbstractGrayingStrategy grayingStrategy) {
+            this.grayingStrategy = grayingStrategy;
+            return this;
+        }
+        public Builder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+        public Builder option(AdaptiveOption option) {
+            this.option = option;
+            return this;
+        }
+        public Builder sensitivity(double sensitivity) {
+            this.sensitivity = sensitivity;
+            return this;
+        }
+
+        @Override
+        public AdaptiveBinaryStrategy build() {
+            if (windowSize < 0) {
+                throw new InvalidSettingException("Window size must be greater than 0.");
+            }
+            if (sensitivity != null && SENSITIVITY_RANGE.notWithin(sensitivity)) {
+                throw new InvalidSettingException("The sensitivity out of bounds:[0, 1].");
+            }
+            // the default window size is 15
+            windowSize = windowSize == 0 ? 15 : windowSize;
+            // the default option is sauvola
+            option = option == null ? AdaptiveOption.SAUVOLA : option;
+            // the default sensitivity depends on the option
+            if (sensitivity == null) {
+                sensitivity = option == AdaptiveOption.BRADLEY ? 0.15D : 0.34D;
+            }
+            // the default graying strategy is average
+            grayingStrategy = grayingStrategy == null ? new AvgGrayingStrategy() : grayingStrategy;
+
+            return new AdaptiveBinaryStrategy(this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package cn.t8s.mode.bina;
+
+import cn.core.GenericBuilder;
+import cn.core.strategy.mode.AbstractBinaryStrategy;
+import cn.core.strategy.mode.AbstractGrayingStrategy;
+import cn.core.utils.ObjectUtils;
+import cn.t8s.mode.graying.AvgGrayingStrategy;
+import java.awt.image.BufferedImage;
+
+/**
+ * An Otsu binary strategy. The threshold value is chosen automatically from the
+ * histogram of gray values, so that the variance between the two classes of pixels
+ * is maximal. Any pixel whose gray value is greater than the threshold value will
+ * be set as the {@link OtsuBinaryStrategy#BINARY_MAX}, otherwise it will be set as
+ * the {@link OtsuBinaryStrategy#BINARY_MIN}.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class OtsuBinaryStrategy extends AbstractBinaryStrategy {
+
+    public OtsuBinaryStrategy(Builder bu) {
+        super(bu.grayingStrategy);
+    }
+
+    /**
+     * Execute graying and binarization without writing the gray values back.
+     *
+     * @param img The original image.
+     */
+    @Override
+    public void execute(BufferedImage img) {
+        byte[] values = grayingStrategy.obtainGraynessValues(img);
+        binary(values);
+        writeBinaryValues(img, values);
+    }
+
+    @Override
+    public void binaryImage(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        byte[] values = readGraynessValues(img);
+        binary(values);
+        writeBinaryValues(img, values);
+    }
+
+    @Override
+    public BufferedImage toBinaryImage(BufferedImage img) {
+        byte[] values = grayingStrategy.obtainGraynessValues(img);
+        binary(values);
+        return createBinaryImage(img.getWidth(), img.getHeight(), values);
+    }
+
+    /**
+     * Obtain the threshold value of the image.
+     *
+     * @param img The original image.
+     * @return The threshold value.
+     */
+    public int obtainThreshold(BufferedImage img) {
+        return obtainThreshold(histogram(grayingStrategy.obtainGraynessValues(img)));
+    }
+
+    /**
+     * Convert the gray values to binary values in place.
+     *
+     * @param values The gray values.
+     */
+    private void binary(byte[] values) {
+        int threshold = obtainThreshold(histogram(values));
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) ((values[i] & 0xff) > threshold ? BINARY_MAX : BINARY_MIN);
+        }
+    }
+
+    private static int[] histogram(byte[] values) {
+        int[] histogram = new int[256];
+        for (byte v : values) {
+            histogram[v & 0xff]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Obtain the threshold value which maximizes the between-class variance.
+     *
+     * @param histogram The histogram of 256 gray values.
+     * @return The threshold value.
+     */
+    protected static int obtainThreshold(int[] histogram) {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            total += histogram[i];
+            sum += (double) i * histogram[i];
+        }
+
+        int threshold = 0;
+        double maxVariance = -1;
+        long backgroundWeight = 0;
+        double backgroundSum = 0;
+        for (int t = 0; t < histogram.length; t++) {
+            backgroundWeight += histogram[t];
+            if (backgroundWeight == 0) {
+                continue;
+            }
+            long foregroundWeight = total - backgroundWeight;
+            if (foregroundWeight == 0) {
+                break;
+            }
+            backgroundSum += (double) t * histogram[t];
+            double backgroundMean = backgroundSum / backgroundWeight;
+            double foregroundMean = (sum - backgroundSum) / foregroundWeight;
+            double diff = backgroundMean - foregroundMean;
+            double variance = (double) backgroundWeight * foregroundWeight * diff * diff;
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                threshold = t;
+            }
+        }
+        return threshold;
+    }
+
+    public static class Builder implements GenericBuilder<OtsuBinaryStrategy> {
+        protected AbstractGrayingStrategy grayingStrategy;
+
+        public Builder grayingStrategy(AbstractGrayingStrategy grayingStrategy) {
+            this.grayingStrategy = grayingStrategy;
+            return this;
+        }
+
+        @Override
+        public OtsuBinaryStrategy build() {
+            // the default graying strategy is average
+            grayingStrategy = grayingStrategy == null ? new AvgGrayingStrategy() : grayingStrategy;
+
+            return new OtsuBinaryStrategy(this);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package cn.t8s.mode.bina;
 
 import cn.core.ex.InvalidSettingException;
+import cn.core.strategy.PointwiseStrategy;
 import cn.core.strategy.mode.AbstractBinaryStrategy;
 import cn.t8s.mode.graying.AvgGrayingStrategy;
 import cn.core.strategy.mode.AbstractGrayingStrategy;
 import cn.core.GenericBuilder;
 import cn.core.tool.Range;
+import cn.core.utils.ObjectUtils;
+import cn.core.utils.RasterUtils;
 import java.awt.image.BufferedImage;
 
 /**
@@ -17,17 +20,7 @@ import java.awt.image.BufferedImage;
  * @author tracy
  * @since 0.2.1
  */
-public class SimpleBinaryStrategy extends AbstractBinaryStrategy {
-
-    /**
-     * The larger value of the binarization.
-     */
-    public static final int BINARY_MIN = 0;
-
-    /**
-     * The smaller value of the binarization.
-     */
-    public static final int BINARY_MAX = 255;
+public class SimpleBinaryStrategy extends AbstractBinaryStrategy implements PointwiseStrategy {
 
     /**
      * The threshold value.
@@ -43,16 +36,97 @@ public class SimpleBinaryStrategy extends AbstractBinaryStrategy {
     public void binaryImage (BufferedImage img) {
         int w = img.getWidth();
         int h = img.getHeight();
-        for (int x = 0; x < w; x++) {
-            for (int y = 0; y < h; y++) {
+        // handle the image row by row, a band of rows at a time
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
 
-                int currentGraynessValue = img.getRGB(x, y) & 0xff;
+                int currentGraynessValue = rgbArray[i] & 0xff;
                 int binaryValue = currentGraynessValue > threshold ? BINARY_MAX : BINARY_MIN;
 
-                int binaryRgb = (binaryValue << 16) | (binaryValue << 8) | binaryValue;
-                img.setRGB(x, y, binaryRgb);
+                rgbArray[i] = (binaryValue << 16) | (binaryValue << 8) | binaryValue;
+            }
+            RasterUtils.setRGB(img, y, rows, rgbArray);
+        }
+    }
+
+    /**
+     * Execute graying and binarization in one traversal, the gray value of every
+     * pixel is compared with the threshold directly without being written back.
+     * It falls back to two traversals for the image which can not be accessed
+     * directly, since the gray value may be changed when written to such image.
+     *
+     * @param img The original image.
+     */
+    @Override
+    public void execute(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        if (!RasterUtils.isDirectAccessible(img)) {
+            super.execute(img);
+            return;
+        }
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
+                int binaryValue = binaryValueOf(rgbArray[i]);
+                rgbArray[i] = (binaryValue << 16) | (binaryValue << 8) | binaryValue;
+            }
+            RasterUtils.setRGB(img, y, rows, rgbArray);
+        }
+    }
+
+    /**
+     * Create a compact binary image in one traversal, the original image is only read.
+     *
+     * @param img The original image.
+     * @return The binary image.
+     */
+    @Override
+    public BufferedImage toBinaryImage(BufferedImage img) {
+        ObjectUtils.excNull(img, "Image is null.");
+        if (!RasterUtils.isDirectAccessible(img)) {
+            return super.toBinaryImage(img);
+        }
+        BufferedImage tar = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.min(bandRows, h)];
+        for (int y = 0; y < h; y += bandRows) {
+            int rows = Math.min(bandRows, h - y);
+            int size = w * rows;
+            RasterUtils.getRGB(img, y, rows, rgbArray);
+            for (int i = 0; i < size; i++) {
+                rgbArray[i] = binaryValueOf(rgbArray[i]) == BINARY_MAX ? 1 : 0;
             }
+            packBits(tar, y, rows, rgbArray);
         }
+        return tar;
+    }
+
+    /**
+     * Calculate the binary value of a pixel. Only the lowest 8 bits of the gray value
+     * are compared, as same as the gray value read back from the grayed image.
+     *
+     * @param rgb The RGB value of the original pixel.
+     * @return The binary value.
+     */
+    private int binaryValueOf(int rgb) {
+        int r = (rgb >> 16) & 0xff;
+        int g = (rgb >> 8) & 0xff;
+        int b = rgb & 0xff;
+        int graynessValue = grayingStrategy.getGraynessValue(r, g, b) & 0xff;
+        return graynessValue > threshold ? BINARY_MAX : BINARY_MIN;
     }
 
     public static class Builder implements GenericBuilder<SimpleBinaryStrategy> {
@@ -25,16 +25,35 @@ public class WeightGrayingStrategy extends AbstractGrayingStrategy {
      */
     private final double greenWeight;
 
+    /**
+     * The lookup tables of the weighted components, indexed by the component value.
+     */
+    private final double[] redTable = new double[256];
+    private final double[] greenTable = new double[256];
+    private final double[] blueTable = new double[256];
+
     public WeightGrayingStrategy(Builder bu) {
         this.redWeight = bu.redWeight;
         this.greenWeight = bu.greenWeight;
+        // precompute the weighted components, which are exactly the same as the products
+        double blueWeight = 1.0 - redWeight - greenWeight;
+        for (int i = 0; i < 256; i++) {
+            redTable[i] = redWeight * i;
+            greenTable[i] = greenWeight * i;
+            blueTable[i] = blueWeight * i;
+        }
     }
 
     @Override
     public int getGraynessValue(int r, int g, int b) {
-        double blueWeight = 1.0 - redWeight - greenWeight;
-        // calculate the graying value
-        int target = (int)(redWeight * r + greenWeight * g + blueWeight * b);
+        // calculate the graying value, look up the tables if the components are valid
+        int target;
+        if (((r | g | b) & ~0xff) == 0) {
+            target = (int)(redTable[r] + greenTable[g] + blueTable[b]);
+        } else {
+            double blueWeight = 1.0 - redWeight - greenWeight;
+            target = (int)(redWeight * r + greenWeight * g + blueWeight * b);
+        }
         // ensure the graying value are within the range
         target = Math.min(target, 255);
         return target;
@@ -0,0 +1,36 @@
+package cn.t8s.filter;
+
+import cn.t8s.TestUtils;
+import cn.t8s.mode.bina.SimpleBinaryStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class BinaryAdaptorTest {
+
+    @Test
+    public void test_apply() throws IOException {
+        // given
+        SimpleBinaryStrategy strategy = new SimpleBinaryStrategy.Builder()
+                .threshold(120)
+                .build();
+        BinaryAdaptor adaptor = new BinaryAdaptor(strategy);
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+
+        // when
+        BufferedImage target = adaptor.apply(source);
+
+        // then
+        Assert.assertEquals(BufferedImage.TYPE_BYTE_BINARY, target.getType());
+        Assert.assertEquals(source.getWidth(), target.getWidth());
+        Assert.assertEquals(source.getHeight(), target.getHeight());
+    }
+
+    @Test
+    public void testEx_constructor_null() {
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> new BinaryAdaptor(null));
+        Assert.assertEquals("Binary strategy is null.", ex.getMessage());
+    }
+}
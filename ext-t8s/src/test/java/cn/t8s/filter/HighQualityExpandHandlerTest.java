@@ -41,6 +41,26 @@ public class HighQualityExpandHandlerTest {
         Assert.assertTrue(BufferedImageComparer.isSame(image, target));
     }
 
+    @Test
+    public void test_apply_withKernel() throws IOException {
+        // given
+        HighQualityExpandHandler handler = new HighQualityExpandHandler.Builder()
+                .keepAspectRatio(false)
+                .finalWidth(300)
+                .finalHeight(200)
+                .kernel(ResampleKernel.BICUBIC)
+                .build();
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        Assert.assertEquals(300, target.getWidth());
+        Assert.assertEquals(200, target.getHeight());
+        Assert.assertEquals(source.getType(), target.getType());
+    }
+
     @Test
     public void testEx_apply_nullImage() {
         HighQualityExpandHandler handler = new HighQualityExpandHandler.Builder()
@@ -101,6 +121,7 @@ public class HighQualityExpandHandlerTest {
             Assert.assertFalse((Boolean) ReflectionUtils.get("keepAspectRatio", handler));
             Assert.assertEquals(fw, ReflectionUtils.get("finalWidth", handler));
             Assert.assertEquals(fh, ReflectionUtils.get("finalHeight", handler));
+            Assert.assertSame(ResampleKernel.NEAREST, ReflectionUtils.get("kernel", handler));
         }
 
         @Test
@@ -0,0 +1,69 @@
+package cn.t8s.filter;
+
+import cn.t8s.BufferedImageComparer;
+import cn.t8s.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class ImageFilterAdaptorTest {
+
+    @Test
+    public void test_execute_single() throws IOException {
+        // given
+        BorderHandler handler = new BorderHandler.Builder()
+                .vMargins(3)
+                .hMargins(7)
+                .fillColor(Color.BLUE)
+                .build();
+        ImageFilterAdaptor adaptor = new ImageFilterAdaptor(handler);
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+
+        // when
+        List<BufferedImage> target = adaptor.execute(source);
+
+        // then
+        Assert.assertEquals(1, target.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(handler.apply(source), target.get(0)));
+    }
+
+    @Test
+    public void test_execute_list() throws IOException {
+        // given
+        BorderHandler handler = new BorderHandler.Builder()
+                .vMargins(3)
+                .hMargins(7)
+                .fillColor(Color.BLUE)
+                .build();
+        ImageFilterAdaptor adaptor = new ImageFilterAdaptor(handler);
+        BufferedImage source0 = TestUtils.getImageFromResource("input/nothing.jpg");
+        BufferedImage source1 = new BufferedImage(20, 30, BufferedImage.TYPE_INT_RGB);
+
+        // when
+        List<BufferedImage> target = adaptor.execute(Arrays.asList(source0, source1));
+
+        // then
+        Assert.assertEquals(2, target.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(handler.apply(source0), target.get(0)));
+        Assert.assertTrue(BufferedImageComparer.isSame(handler.apply(source1), target.get(1)));
+    }
+
+    @Test
+    public void testEx_constructor_null() {
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> new ImageFilterAdaptor(null));
+        Assert.assertEquals("ImageFilter is null.", ex.getMessage());
+    }
+
+    @Test
+    public void testEx_execute_nullImage() {
+        ImageFilterAdaptor adaptor = new ImageFilterAdaptor(img -> img);
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> adaptor.execute((BufferedImage) null));
+        Assert.assertEquals("Source image is null.", ex.getMessage());
+    }
+}
@@ -1,6 +1,7 @@
 package cn.t8s.filter;
 
 import cn.core.ex.InvalidSettingException;
+import cn.core.tool.ImageBuffer;
 import cn.core.utils.BufferedImageUtils;
 import cn.core.utils.ColorUtils;
 import cn.t8s.BufferedImageComparer;
@@ -11,6 +12,7 @@ import org.junit.Test;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Random;
 
 public class MosaicHandlerTest {
 
@@ -51,6 +53,198 @@ public class MosaicHandlerTest {
         Assert.assertTrue(BufferedImageComparer.isSame(image, target));
     }
 
+    @Test
+    public void test_apply_differentTypes() {
+        int[] types = {
+                BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR,
+                BufferedImage.TYPE_BYTE_GRAY
+        };
+        Random random = new Random(23);
+        for (int type : types) {
+            // given
+            int side = 7, x = 3, y = 5, w = 30, h = 40;
+            MosaicHandler handler = new MosaicHandler.Builder()
+                    .sideLength(side)
+                    .startX(x)
+                    .startY(y)
+                    .width(w)
+                    .height(h)
+                    .build();
+            BufferedImage source = new BufferedImage(31, 37, type);
+            for (int i = 0; i < source.getWidth(); i++) {
+                for (int j = 0; j < source.getHeight(); j++) {
+                    source.setRGB(i, j, random.nextInt());
+                }
+            }
+
+            // when
+            BufferedImage target = handler.apply(source);
+
+            // then
+            // the pixels out of the region are copied exactly, even if translucent
+            BufferedImage image = BufferedImageUtils.copy(source);
+            Graphics g = image.getGraphics();
+            for (int i = x; i < source.getWidth(); i += side) {
+                int rw = Math.min(side, source.getWidth() - i);
+                for (int j = y; j < source.getHeight(); j += side) {
+                    int rh = Math.min(side, source.getHeight() - j);
+                    g.setColor(ColorUtils.ofRGB(ColorUtils.obtainRectCenterRGB(source, i, j, rw, rh)));
+                    g.fillRect(i, j, rw, rh);
+                }
+            }
+            g.dispose();
+
+            Assert.assertTrue("type: " + type, BufferedImageComparer.isSame(image, target));
+        }
+    }
+
+    @Test
+    public void test_apply_inPlace() {
+        // given
+        MosaicHandler handler = new MosaicHandler.Builder()
+                .sideLength(4)
+                .startX(2)
+                .startY(2)
+                .width(8)
+                .height(8)
+                .inPlace(true)
+                .build();
+        BufferedImage source = new BufferedImage(12, 12, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 12; j++) {
+                source.setRGB(i, j, i * 20 << 16 | j * 20);
+            }
+        }
+        int centerRgb = source.getRGB(4, 4);
+        int outsideRgb = source.getRGB(1, 1);
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        Assert.assertSame(source, target);
+        Assert.assertEquals(centerRgb, source.getRGB(2, 2));
+        Assert.assertEquals(centerRgb, source.getRGB(5, 5));
+        Assert.assertEquals(outsideRgb, source.getRGB(1, 1));
+    }
+
+    @Test
+    public void test_apply_imageBuffer() throws IOException {
+        // given
+        MosaicHandler.Builder builder = new MosaicHandler.Builder()
+                .sideLength(10)
+                .startX(55)
+                .startY(35)
+                .width(60)
+                .height(39)
+                .averageColor(true);
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        BufferedImage expected = builder.build().apply(BufferedImageUtils.copy(source, BufferedImage.TYPE_INT_RGB));
+
+        try (ImageBuffer buffer = ImageBuffer.copyOf(source)) {
+            // when
+            BufferedImage view = buffer.asBufferedImage();
+            BufferedImage target = builder.inPlace(true).build().apply(view);
+
+            // then
+            Assert.assertSame(view, target);
+            Assert.assertArrayEquals(expected.getRGB(0, 0, 154, 98, null, 0, 154),
+                    buffer.toBufferedImage().getRGB(0, 0, 154, 98, null, 0, 154));
+        }
+    }
+
+    @Test
+    public void test_apply_imageBuffer_copied() throws IOException {
+        // given
+        MosaicHandler handler = new MosaicHandler.Builder()
+                .sideLength(10)
+                .startX(55)
+                .startY(35)
+                .width(60)
+                .height(39)
+                .averageColor(true)
+                .build();
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        BufferedImage expected = handler.apply(BufferedImageUtils.copy(source, BufferedImage.TYPE_INT_RGB));
+
+        try (ImageBuffer buffer = ImageBuffer.copyOf(source)) {
+            // when
+            BufferedImage view = buffer.asBufferedImage();
+            BufferedImage target = handler.apply(view);
+
+            // then
+            Assert.assertNotSame(view, target);
+            Assert.assertNotNull(ImageBuffer.backingOf(target));
+            Assert.assertArrayEquals(expected.getRGB(0, 0, 154, 98, null, 0, 154),
+                    target.getRGB(0, 0, 154, 98, null, 0, 154));
+            // the source is unchanged
+            Assert.assertArrayEquals(BufferedImageUtils.copy(source, BufferedImage.TYPE_INT_RGB).getRGB(0, 0, 154, 98, null, 0, 154),
+                    buffer.toBufferedImage().getRGB(0, 0, 154, 98, null, 0, 154));
+        }
+    }
+
+    @Test
+    public void test_apply_averageColor() {
+        // given
+        MosaicHandler handler = new MosaicHandler.Builder()
+                .sideLength(2)
+                .startX(0)
+                .startY(0)
+                .width(3)
+                .height(2)
+                .averageColor(true)
+                .build();
+        BufferedImage source = new BufferedImage(4, 2, BufferedImage.TYPE_INT_ARGB);
+        source.setRGB(0, 0, 0xff000000);
+        source.setRGB(1, 0, 0xff0a1420);
+        source.setRGB(0, 1, 0xff141e28);
+        source.setRGB(1, 1, 0xff1e2831);
+        source.setRGB(2, 0, 0x80ff0000);
+        source.setRGB(2, 1, 0x800000ff);
+        source.setRGB(3, 0, 0x12345678);
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        // (0 + 10 + 20 + 30) / 4 = 15, (0 + 20 + 30 + 40) / 4 = 22.5, (0 + 32 + 40 + 49) / 4 = 30.25
+        Assert.assertEquals(0xff0f171e, target.getRGB(0, 0));
+        Assert.assertEquals(0xff0f171e, target.getRGB(1, 1));
+        Assert.assertEquals(0xff800080, target.getRGB(2, 0));
+        Assert.assertEquals(0xff800080, target.getRGB(2, 1));
+        Assert.assertEquals(0x12345678, target.getRGB(3, 0));
+        // the original image is unchanged
+        Assert.assertEquals(0xff000000, source.getRGB(0, 0));
+    }
+
+    @Test
+    public void test_apply_differentSizes() {
+        // given
+        MosaicHandler handler = new MosaicHandler.Builder()
+                .sideLength(10)
+                .startX(0)
+                .startY(0)
+                .width(60)
+                .height(60)
+                .build();
+        BufferedImage small = BufferedImageUtils.newColoredImage(20, 20, 1.0f, Color.RED);
+        BufferedImage large = BufferedImageUtils.newColoredImage(80, 80, 1.0f, Color.RED);
+
+        // when
+        handler.apply(small);
+        BufferedImage target = handler.apply(large);
+
+        // then
+        // the region is limited by the small image only when handling the small one
+        Assert.assertEquals(60, ReflectionUtils.get("endX", handler));
+        Assert.assertEquals(60, ReflectionUtils.get("endY", handler));
+        Assert.assertEquals(80, target.getWidth());
+        Assert.assertEquals(80, target.getHeight());
+    }
+
     @Test
     public void testEx_apply_nullImage() {
         MosaicHandler handler = new MosaicHandler.Builder()
@@ -89,6 +283,8 @@ public class MosaicHandlerTest {
             Assert.assertEquals(30, ReflectionUtils.get("startY", handler));
             Assert.assertEquals(60, ReflectionUtils.get("endX", handler));
             Assert.assertEquals(80, ReflectionUtils.get("endY", handler));
+            Assert.assertEquals(false, ReflectionUtils.get("inPlace", handler));
+            Assert.assertEquals(false, ReflectionUtils.get("averageColor", handler));
         }
 
         @Test
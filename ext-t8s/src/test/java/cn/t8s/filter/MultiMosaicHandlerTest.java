@@ -0,0 +1,320 @@
+package cn.t8s.filter;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.BufferedImageUtils;
+import cn.t8s.BufferedImageComparer;
+import cn.t8s.ReflectionUtils;
+import cn.t8s.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class MultiMosaicHandlerTest {
+
+    private static MosaicHandler newMosaicHandler(int side, int x, int y, int w, int h) {
+        return new MosaicHandler.Builder()
+                .sideLength(side)
+                .startX(x)
+                .startY(y)
+                .width(w)
+                .height(h)
+                .build();
+    }
+
+    @Test
+    public void test_apply_disjointRegions() throws IOException {
+        // given
+        MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                .sideLength(10)
+                .region(100, 60, 30, 25)
+                .region(5, 5, 40, 40)
+                .region(60, 10, 17, 33)
+                .build();
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        BufferedImage image = source;
+        image = newMosaicHandler(10, 5, 5, 40, 40).apply(image);
+        image = newMosaicHandler(10, 60, 10, 17, 33).apply(image);
+        image = newMosaicHandler(10, 100, 60, 30, 25).apply(image);
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+    }
+
+    @Test
+    public void test_apply_overlappingRegions() {
+        // given
+        MultiMosaicHandler.Builder builder = new MultiMosaicHandler.Builder()
+                .sideLength(4)
+                .region(25, 15, 10, 15)
+                .region(10, 10, 20, 10)
+                .region(2, 2, 4, 4);
+        BufferedImage source = new BufferedImage(50, 40, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 40; y++) {
+                source.setRGB(x, y, x * 5 << 16 | y * 6 << 8 | (x + y));
+            }
+        }
+
+        // when
+        BufferedImage target = builder.build().apply(source);
+
+        // then
+        // the overlapping pixels are filled by the upper region
+        Rectangle upper = new Rectangle(10, 10, 20, 10);
+        Rectangle lower = new Rectangle(25, 15, 10, 15);
+        BufferedImage upperImage = newMosaicHandler(4, 10, 10, 20, 10).apply(source);
+        BufferedImage lowerImage = newMosaicHandler(4, 25, 15, 10, 15).apply(source);
+        BufferedImage image = newMosaicHandler(4, 2, 2, 4, 4).apply(source);
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 40; y++) {
+                if (upper.contains(x, y)) {
+                    image.setRGB(x, y, upperImage.getRGB(x, y));
+                } else if (lower.contains(x, y)) {
+                    image.setRGB(x, y, lowerImage.getRGB(x, y));
+                }
+            }
+        }
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+        // the result never depends on the order of regions, or handling in place
+        BufferedImage reordered = new MultiMosaicHandler.Builder()
+                .sideLength(4)
+                .region(2, 2, 4, 4)
+                .region(10, 10, 20, 10)
+                .region(25, 15, 10, 15)
+                .build()
+                .apply(source);
+        Assert.assertTrue(BufferedImageComparer.isSame(image, reordered));
+        BufferedImage inPlace = builder.inPlace(true).build()
+                .apply(BufferedImageUtils.copy(source));
+        Assert.assertTrue(BufferedImageComparer.isSame(image, inPlace));
+    }
+
+    @Test
+    public void test_apply_overlappingRegions_outsideUntouched() {
+        // given
+        MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                .sideLength(3)
+                .region(0, 0, 10, 4)
+                .region(6, 2, 4, 8)
+                .averageColor(true)
+                .build();
+        Rectangle first = new Rectangle(0, 0, 10, 4);
+        Rectangle second = new Rectangle(6, 2, 4, 8);
+        // the raster is written directly, or through graphics
+        for (int type : new int[]{BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_USHORT_565_RGB}) {
+            BufferedImage source = new BufferedImage(12, 12, type);
+            for (int x = 0; x < 12; x++) {
+                for (int y = 0; y < 12; y++) {
+                    source.setRGB(x, y, x * 20 << 16 | y * 20 << 8 | x * y);
+                }
+            }
+
+            // when
+            BufferedImage target = handler.apply(source);
+
+            // then
+            for (int x = 0; x < 12; x++) {
+                for (int y = 0; y < 12; y++) {
+                    if (!first.contains(x, y) && !second.contains(x, y)) {
+                        Assert.assertEquals(source.getRGB(x, y), target.getRGB(x, y));
+                    }
+                }
+            }
+            // the bounding rectangle of the regions is not pixelated
+            Assert.assertNotEquals(target.getRGB(0, 4), target.getRGB(0, 5));
+            // the overlapping pixels are filled by the upper region
+            Assert.assertEquals(target.getRGB(6, 0), target.getRGB(8, 2));
+            Assert.assertEquals(target.getRGB(6, 4), target.getRGB(8, 4));
+        }
+    }
+
+    @Test
+    public void test_apply_overlappingRegions_inPlace() {
+        // given
+        MultiMosaicHandler.Builder builder = new MultiMosaicHandler.Builder()
+                .sideLength(3)
+                .region(20, 12, 9, 7)
+                .region(14, 8, 10, 8)
+                .averageColor(true);
+        for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_USHORT_565_RGB}) {
+            BufferedImage source = new BufferedImage(40, 30, type);
+            for (int x = 0; x < 40; x++) {
+                for (int y = 0; y < 30; y++) {
+                    source.setRGB(x, y, x * 6 << 16 | y * 8 << 8 | x * y % 256);
+                }
+            }
+            BufferedImage expected = builder.inPlace(false).build().apply(source);
+
+            // when
+            // the colors are read from the copy of regions, which is located at (14, 8)
+            BufferedImage target = builder.inPlace(true).build().apply(source);
+
+            // then
+            Assert.assertSame(source, target);
+            Assert.assertTrue(BufferedImageComparer.isSame(expected, target));
+        }
+    }
+
+    @Test
+    public void test_apply_regionsOutOfImage() {
+        // given
+        MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                .sideLength(5)
+                .region(100, 100, 10, 10)
+                .region(15, 10, 20, 20)
+                .build();
+        BufferedImage source = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                source.setRGB(x, y, 0xff000000 | x * 10 << 8 | y * 10);
+            }
+        }
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        BufferedImage image = newMosaicHandler(5, 15, 10, 20, 20).apply(source);
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+    }
+
+    @Test
+    public void test_apply_inPlace() {
+        // given
+        MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                .sideLength(2)
+                .region(0, 0, 2, 2)
+                .region(4, 4, 2, 2)
+                .inPlace(true)
+                .build();
+        BufferedImage source = new BufferedImage(6, 6, BufferedImage.TYPE_3BYTE_BGR);
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 6; y++) {
+                source.setRGB(x, y, x * 40 << 16 | y * 40);
+            }
+        }
+        int first = source.getRGB(1, 1);
+        int second = source.getRGB(5, 5);
+        int outside = source.getRGB(3, 3);
+
+        // when
+        BufferedImage target = handler.apply(source);
+
+        // then
+        Assert.assertSame(source, target);
+        Assert.assertEquals(first, source.getRGB(0, 0));
+        Assert.assertEquals(second, source.getRGB(4, 4));
+        Assert.assertEquals(outside, source.getRGB(3, 3));
+    }
+
+    @Test
+    public void testEx_apply_nullImage() {
+        MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                .sideLength(10)
+                .region(0, 0, 60, 50)
+                .build();
+
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> handler.apply(null));
+        Assert.assertEquals("Original image is null.", ex.getMessage());
+    }
+
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_correctUsage() {
+            // given
+            List<Rectangle> regions = Arrays.asList(new Rectangle(1, 2, 3, 4), new Rectangle(5, 6, 7, 8));
+
+            // when
+            MultiMosaicHandler handler = new MultiMosaicHandler.Builder()
+                    .sideLength(10)
+                    .regions(regions)
+                    .region(9, 10, 11, 12)
+                    .averageColor(true)
+                    .build();
+
+            // then
+            Assert.assertEquals(10, ReflectionUtils.get("sideLength", handler));
+            Assert.assertEquals(Arrays.asList(new Rectangle(1, 2, 3, 4), new Rectangle(5, 6, 7, 8),
+                    new Rectangle(9, 10, 11, 12)), ReflectionUtils.get("regions", handler));
+            Assert.assertEquals(false, ReflectionUtils.get("inPlace", handler));
+            Assert.assertEquals(true, ReflectionUtils.get("averageColor", handler));
+        }
+
+        @Test
+        public void testEx_build_nullParam() {
+            // null regions
+            NullPointerException e1 = Assert.assertThrows(NullPointerException.class,
+                    () -> new MultiMosaicHandler.Builder().regions(null));
+            Assert.assertEquals("Mosaic regions is null.", e1.getMessage());
+
+            // null region
+            NullPointerException e2 = Assert.assertThrows(NullPointerException.class,
+                    () -> new MultiMosaicHandler.Builder().regions(Arrays.asList(new Rectangle(), null)));
+            Assert.assertEquals("Mosaic region is null.", e2.getMessage());
+
+            // empty regions
+            MultiMosaicHandler.Builder builder3 = new MultiMosaicHandler.Builder().sideLength(10);
+            InvalidSettingException e3 = Assert.assertThrows(InvalidSettingException.class,
+                    builder3::build);
+            Assert.assertEquals("Mosaic regions is empty.", e3.getMessage());
+        }
+
+        @Test
+        public void testEx_build_invalidParam() {
+            // side length < 0
+            MultiMosaicHandler.Builder builder1 = new MultiMosaicHandler.Builder()
+                    .sideLength(-1)
+                    .region(0, 0, 60, 50);
+            InvalidSettingException e1 = Assert.assertThrows(InvalidSettingException.class,
+                    builder1::build);
+            Assert.assertEquals("Side length must be greater than 0.",
+                    e1.getMessage());
+
+            // width < 0
+            MultiMosaicHandler.Builder builder2 = new MultiMosaicHandler.Builder()
+                    .sideLength(10)
+                    .region(0, 0, -5, 50);
+            InvalidSettingException e2 = Assert.assertThrows(InvalidSettingException.class,
+                    builder2::build);
+            Assert.assertEquals("The rectangle's width must be greater than 0.",
+                    e2.getMessage());
+
+            // height < 0
+            MultiMosaicHandler.Builder builder3 = new MultiMosaicHandler.Builder()
+                    .sideLength(10)
+                    .region(0, 0, 40, -5);
+            InvalidSettingException e3 = Assert.assertThrows(InvalidSettingException.class,
+                    builder3::build);
+            Assert.assertEquals("The rectangle's height must be greater than 0.",
+                    e3.getMessage());
+
+            // start_x < 0
+            MultiMosaicHandler.Builder builder4 = new MultiMosaicHandler.Builder()
+                    .sideLength(10)
+                    .region(-20, 0, 40, 50);
+            InvalidSettingException e4 = Assert.assertThrows(InvalidSettingException.class,
+                    builder4::build);
+            Assert.assertEquals("The start point's X must be greater than 0.",
+                    e4.getMessage());
+
+            // start_y < 0
+            MultiMosaicHandler.Builder builder5 = new MultiMosaicHandler.Builder()
+                    .sideLength(10)
+                    .region(20, -30, 40, 50);
+            InvalidSettingException e5 = Assert.assertThrows(InvalidSettingException.class,
+                    builder5::build);
+            Assert.assertEquals("The start point's Y must be greater than 0.",
+                    e5.getMessage());
+        }
+    }
+}
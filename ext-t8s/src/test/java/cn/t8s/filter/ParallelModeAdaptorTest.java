@@ -0,0 +1,144 @@
+package cn.t8s.filter;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.strategy.PointwiseStrategy;
+import cn.core.utils.BufferedImageUtils;
+import cn.t8s.BufferedImageComparer;
+import cn.t8s.ReflectionUtils;
+import cn.t8s.mode.bina.SimpleBinaryStrategy;
+import cn.t8s.mode.graying.WeightGrayingStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelModeAdaptorTest {
+
+    private static BufferedImage newRandomImage(int w, int h) {
+        Random random = new Random(3);
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        int[] rgbArray = new int[w * h];
+        for (int i = 0; i < rgbArray.length; i++) {
+            rgbArray[i] = random.nextInt();
+        }
+        img.setRGB(0, 0, w, h, rgbArray, 0, w);
+        return img;
+    }
+
+    @Test
+    public void test_apply_parallel() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Integer> bandHeights = Collections.synchronizedList(new ArrayList<>());
+        WeightGrayingStrategy graying = new WeightGrayingStrategy.Builder().build();
+        PointwiseStrategy strategy = img -> {
+            bandHeights.add(img.getHeight());
+            graying.execute(img);
+        };
+        ParallelModeAdaptor adaptor = new ParallelModeAdaptor.Builder()
+                .modeStrategy(strategy)
+                .pool(pool)
+                .cutoff(1)
+                .build();
+        BufferedImage source = newRandomImage(1024, 1024);
+        BufferedImage image = BufferedImageUtils.copy(source, source.getType());
+
+        // when
+        BufferedImage target = adaptor.apply(source);
+
+        // then
+        graying.execute(image);
+        Assert.assertSame(source, target);
+        Assert.assertTrue(bandHeights.size() > 1);
+        Assert.assertEquals(1024, bandHeights.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_apply_binary() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(3);
+        SimpleBinaryStrategy strategy = new SimpleBinaryStrategy.Builder()
+                .threshold(100)
+                .build();
+        ParallelModeAdaptor adaptor = new ParallelModeAdaptor.Builder()
+                .modeStrategy(strategy)
+                .pool(pool)
+                .cutoff(1)
+                .build();
+        BufferedImage source = newRandomImage(700, 900);
+        BufferedImage image = BufferedImageUtils.copy(source, source.getType());
+
+        // when
+        BufferedImage target = adaptor.apply(source);
+
+        // then
+        strategy.execute(image);
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_apply_belowCutoff() {
+        // given
+        List<Integer> bandHeights = new ArrayList<>();
+        ParallelModeAdaptor adaptor = new ParallelModeAdaptor.Builder()
+                .modeStrategy(img -> bandHeights.add(img.getHeight()))
+                .pool(new ForkJoinPool(4))
+                .build();
+
+        // when
+        adaptor.apply(newRandomImage(200, 100));
+
+        // then
+        Assert.assertEquals(Collections.singletonList(100), bandHeights);
+    }
+
+    @Test
+    public void testEx_apply_nullImage() {
+        ParallelModeAdaptor adaptor = new ParallelModeAdaptor.Builder()
+                .modeStrategy(new WeightGrayingStrategy.Builder().build())
+                .build();
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> adaptor.apply(null));
+        Assert.assertEquals("Original image is null.", ex.getMessage());
+    }
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_defaultValue() {
+            // when
+            ParallelModeAdaptor adaptor = new ParallelModeAdaptor.Builder()
+                    .modeStrategy(new WeightGrayingStrategy.Builder().build())
+                    .build();
+
+            // then
+            Assert.assertEquals(ForkJoinPool.commonPool(), ReflectionUtils.get("pool", adaptor));
+            Assert.assertEquals(1 << 20, ReflectionUtils.get("cutoff", adaptor));
+        }
+
+        @Test
+        public void testEx_build_nullParam() {
+            ParallelModeAdaptor.Builder builder = new ParallelModeAdaptor.Builder();
+            NullPointerException ex = Assert.assertThrows(NullPointerException.class, builder::build);
+            Assert.assertEquals("Mode strategy is null.", ex.getMessage());
+        }
+
+        @Test
+        public void testEx_build_invalidParam() {
+            ParallelModeAdaptor.Builder builder = new ParallelModeAdaptor.Builder()
+                    .modeStrategy(new WeightGrayingStrategy.Builder().build())
+                    .cutoff(-1);
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class, builder::build);
+            Assert.assertEquals("Cutoff must be greater than or equal to 0.", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cn.t8s.filter;
+
+import cn.t8s.BufferedImageComparer;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ResamplerTest {
+
+    private static final ResampleKernel[] KERNELS = {
+            ResampleKernel.NEAREST,
+            ResampleKernel.BILINEAR,
+            ResampleKernel.BICUBIC,
+            ResampleKernel.LANCZOS3
+    };
+
+    private static BufferedImage newRandomImage(int w, int h, int type, Random random) {
+        BufferedImage img = new BufferedImage(w, h, type);
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                img.setRGB(x, y, random.nextInt());
+            }
+        }
+        return img;
+    }
+
+    @Test
+    public void test_resample_nearest() {
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_USHORT_565_RGB};
+        Random random = new Random(29);
+        for (int type : types) {
+            // given
+            BufferedImage source = newRandomImage(17, 11, type, random);
+
+            // when
+            BufferedImage target = Resampler.resample(source, 40, 29, ResampleKernel.NEAREST,
+                    ForkJoinPool.commonPool());
+
+            // then
+            Image tmp = source.getScaledInstance(40, 29, Image.SCALE_FAST);
+            BufferedImage image = new BufferedImage(40, 29, type);
+            Graphics g = image.getGraphics();
+            g.drawImage(tmp, 0, 0, null);
+            g.dispose();
+            Assert.assertTrue("type: " + type, BufferedImageComparer.isSame(image, target));
+        }
+    }
+
+    @Test
+    public void test_resample_nearest_exactElements() {
+        // given
+        BufferedImage source = newRandomImage(9, 6, BufferedImage.TYPE_BYTE_GRAY, new Random(37));
+
+        // when
+        BufferedImage target = Resampler.resample(source, 20, 15, ResampleKernel.NEAREST,
+                ForkJoinPool.commonPool());
+
+        // then
+        Assert.assertEquals(BufferedImage.TYPE_BYTE_GRAY, target.getType());
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 15; y++) {
+                int sx = (2 * x + 1) * 9 / 40;
+                int sy = (2 * y + 1) * 6 / 30;
+                Assert.assertEquals(source.getRaster().getSample(sx, sy, 0), target.getRaster().getSample(x, y, 0));
+            }
+        }
+    }
+
+    @Test
+    public void test_resample_bilinear() {
+        // given
+        BufferedImage source = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        source.setRGB(0, 0, 0x000000);
+        source.setRGB(1, 0, 0xffffff);
+
+        // when
+        BufferedImage target = Resampler.resample(source, 4, 1, ResampleKernel.BILINEAR,
+                ForkJoinPool.commonPool());
+
+        // then
+        // the centers of target pixels are at -0.25, 0.25, 0.75 and 1.25 in the source
+        Assert.assertEquals(0xff000000, target.getRGB(0, 0));
+        Assert.assertEquals(0xff404040, target.getRGB(1, 0));
+        Assert.assertEquals(0xffbfbfbf, target.getRGB(2, 0));
+        Assert.assertEquals(0xffffffff, target.getRGB(3, 0));
+    }
+
+    @Test
+    public void test_resample_uniformColor() {
+        for (ResampleKernel kernel : KERNELS) {
+            // given
+            BufferedImage source = new BufferedImage(13, 7, BufferedImage.TYPE_4BYTE_ABGR);
+            for (int x = 0; x < 13; x++) {
+                for (int y = 0; y < 7; y++) {
+                    source.setRGB(x, y, 0xc0336699);
+                }
+            }
+
+            // when
+            BufferedImage enlarged = Resampler.resample(source, 50, 31, kernel, ForkJoinPool.commonPool());
+            BufferedImage reduced = Resampler.resample(source, 5, 3, kernel, ForkJoinPool.commonPool());
+
+            // then
+            for (int x = 0; x < 50; x++) {
+                for (int y = 0; y < 31; y++) {
+                    Assert.assertEquals(0xc0336699, enlarged.getRGB(x, y));
+                }
+            }
+            for (int x = 0; x < 5; x++) {
+                for (int y = 0; y < 3; y++) {
+                    Assert.assertEquals(0xc0336699, reduced.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_resample_transparentNeverBleeds() {
+        // given
+        BufferedImage source = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+        source.setRGB(0, 0, 0x00ff0000);
+        source.setRGB(0, 1, 0x00ff0000);
+        source.setRGB(1, 0, 0xff0000ff);
+        source.setRGB(1, 1, 0xff0000ff);
+
+        // when
+        BufferedImage target = Resampler.resample(source, 8, 8, ResampleKernel.BILINEAR,
+                ForkJoinPool.commonPool());
+
+        // then
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                int rgb = target.getRGB(x, y);
+                if (rgb >>> 24 != 0) {
+                    Assert.assertEquals(0x0000ff, rgb & 0xffffff);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_resample_concurrently() {
+        // given
+        BufferedImage source = newRandomImage(300, 200, BufferedImage.TYPE_INT_ARGB, new Random(31));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        try {
+            for (ResampleKernel kernel : KERNELS) {
+                // when
+                BufferedImage target = Resampler.resample(source, 1500, 1000, kernel, pool);
+
+                // then
+                BufferedImage image = Resampler.resample(source, 1500, 1000, kernel, single);
+                Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+            }
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+    }
+}
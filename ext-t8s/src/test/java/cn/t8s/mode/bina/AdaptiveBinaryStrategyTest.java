@@ -0,0 +1,159 @@
+package cn.t8s.mode.bina;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.strategy.mode.AbstractGrayingStrategy;
+import cn.t8s.ReflectionUtils;
+import cn.t8s.mode.graying.AvgGrayingStrategy;
+import cn.t8s.mode.graying.FixedGrayingStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class AdaptiveBinaryStrategyTest {
+
+    private static BufferedImage newRandomGrayImage(int w, int h) {
+        Random random = new Random(17);
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                int v = random.nextInt(256);
+                img.setRGB(x, y, (v << 16) | (v << 8) | v);
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Calculate the binary value of a pixel from the window directly.
+     */
+    private static int binaryValueOf(BufferedImage img, int x, int y, int windowSize,
+                                     AdaptiveBinaryStrategy.AdaptiveOption option, double sensitivity) {
+        int radius = windowSize / 2;
+        double sum = 0, squares = 0;
+        int count = 0;
+        for (int i = Math.max(0, x - radius); i <= Math.min(img.getWidth() - 1, x + radius); i++) {
+            for (int j = Math.max(0, y - radius); j <= Math.min(img.getHeight() - 1, y + radius); j++) {
+                int v = img.getRGB(i, j) & 0xff;
+                sum += v;
+                squares += v * v;
+                count++;
+            }
+        }
+        double mean = sum / count;
+        double deviation = Math.sqrt(Math.max(0, squares / count - mean * mean));
+        int gray = img.getRGB(x, y) & 0xff;
+        return gray > option.threshold(mean, deviation, sensitivity) ?
+                AdaptiveBinaryStrategy.BINARY_MAX : AdaptiveBinaryStrategy.BINARY_MIN;
+    }
+
+    private static void test_execute(AdaptiveBinaryStrategy.AdaptiveOption option) {
+        // given
+        int windowSize = 5;
+        double sensitivity = 0.2;
+        BufferedImage source = newRandomGrayImage(23, 17);
+        BufferedImage target = newRandomGrayImage(23, 17);
+        AdaptiveBinaryStrategy strategy = new AdaptiveBinaryStrategy.Builder()
+                .windowSize(windowSize)
+                .option(option)
+                .sensitivity(sensitivity)
+                .build();
+
+        // when
+        strategy.execute(target);
+
+        // then
+        for (int x = 0; x < source.getWidth(); x++) {
+            for (int y = 0; y < source.getHeight(); y++) {
+                int expected = binaryValueOf(source, x, y, windowSize, option, sensitivity);
+                Assert.assertEquals(expected, target.getRGB(x, y) & 0xff);
+            }
+        }
+    }
+
+    @Test
+    public void test_execute_bradley() {
+        test_execute(AdaptiveBinaryStrategy.AdaptiveOption.BRADLEY);
+    }
+
+    @Test
+    public void test_execute_sauvola() {
+        test_execute(AdaptiveBinaryStrategy.AdaptiveOption.SAUVOLA);
+    }
+
+    @Test
+    public void test_toBinaryImage() {
+        // given
+        BufferedImage source = newRandomGrayImage(31, 9);
+        BufferedImage image = newRandomGrayImage(31, 9);
+        AdaptiveBinaryStrategy strategy = new AdaptiveBinaryStrategy.Builder()
+                .windowSize(7)
+                .build();
+
+        // when
+        BufferedImage target = strategy.toBinaryImage(source);
+
+        // then
+        strategy.execute(image);
+        Assert.assertEquals(BufferedImage.TYPE_BYTE_BINARY, target.getType());
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                int expected = (image.getRGB(x, y) & 0xff) == AdaptiveBinaryStrategy.BINARY_MAX ? 0xffffffff : 0xff000000;
+                Assert.assertEquals(expected, target.getRGB(x, y));
+            }
+        }
+    }
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_correctUsage() {
+            // given
+            AbstractGrayingStrategy grayingStrategy = new FixedGrayingStrategy();
+
+            // when
+            AdaptiveBinaryStrategy strategy = new AdaptiveBinaryStrategy.Builder()
+                    .grayingStrategy(grayingStrategy)
+                    .windowSize(31)
+                    .option(AdaptiveBinaryStrategy.AdaptiveOption.BRADLEY)
+                    .sensitivity(0.1)
+                    .build();
+
+            // then
+            Assert.assertEquals(grayingStrategy, ReflectionUtils.getFromSuper("grayingStrategy", strategy));
+            Assert.assertEquals(31, ReflectionUtils.get("windowSize", strategy));
+            Assert.assertEquals(AdaptiveBinaryStrategy.AdaptiveOption.BRADLEY, ReflectionUtils.get("option", strategy));
+            Assert.assertEquals(0.1, ReflectionUtils.get("sensitivity", strategy));
+        }
+
+        @Test
+        public void test_build_defaultParam() {
+            // when
+            AdaptiveBinaryStrategy sauvola = new AdaptiveBinaryStrategy.Builder()
+                    .build();
+            AdaptiveBinaryStrategy bradley = new AdaptiveBinaryStrategy.Builder()
+                    .option(AdaptiveBinaryStrategy.AdaptiveOption.BRADLEY)
+                    .build();
+
+            // then
+            Assert.assertTrue(ReflectionUtils.getFromSuper("grayingStrategy", sauvola) instanceof AvgGrayingStrategy);
+            Assert.assertEquals(15, ReflectionUtils.get("windowSize", sauvola));
+            Assert.assertEquals(AdaptiveBinaryStrategy.AdaptiveOption.SAUVOLA, ReflectionUtils.get("option", sauvola));
+            Assert.assertEquals(0.34, ReflectionUtils.get("sensitivity", sauvola));
+            Assert.assertEquals(0.15, ReflectionUtils.get("sensitivity", bradley));
+        }
+
+        @Test
+        public void testEx_build_invalidParam() {
+            AdaptiveBinaryStrategy.Builder builder0 = new AdaptiveBinaryStrategy.Builder()
+                    .windowSize(-1);
+            InvalidSettingException ex0 = Assert.assertThrows(InvalidSettingException.class, builder0::build);
+            Assert.assertEquals("Window size must be greater than 0.", ex0.getMessage());
+
+            AdaptiveBinaryStrategy.Builder builder1 = new AdaptiveBinaryStrategy.Builder()
+                    .sensitivity(1.5);
+            InvalidSettingException ex1 = Assert.assertThrows(InvalidSettingException.class, builder1::build);
+            Assert.assertEquals("The sensitivity out of bounds:[0, 1].", ex1.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package cn.t8s.mode.bina;
+
+import cn.core.strategy.mode.AbstractGrayingStrategy;
+import cn.core.utils.BufferedImageUtils;
+import cn.t8s.BufferedImageComparer;
+import cn.t8s.ReflectionUtils;
+import cn.t8s.TestUtils;
+import cn.t8s.mode.graying.AvgGrayingStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class OtsuBinaryStrategyTest {
+
+    /**
+     * Create an image whose left half is dark and right half is bright.
+     */
+    private static BufferedImage newBimodalImage() {
+        BufferedImage img = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        Graphics g = img.getGraphics();
+        g.setColor(new Color(50, 50, 50));
+        g.fillRect(0, 0, 20, 30);
+        g.setColor(new Color(200, 200, 200));
+        g.fillRect(20, 0, 20, 30);
+        g.dispose();
+        return img;
+    }
+
+    @Test
+    public void test_obtainThreshold() {
+        // given
+        OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder().build();
+
+        // when
+        int threshold = strategy.obtainThreshold(newBimodalImage());
+
+        // then
+        Assert.assertTrue(threshold >= 50 && threshold < 200);
+    }
+
+    @Test
+    public void test_obtainThreshold_histogram() {
+        // given
+        int[] histogram = new int[256];
+        histogram[10] = 100;
+        histogram[20] = 100;
+        histogram[240] = 50;
+
+        // when
+        int threshold = OtsuBinaryStrategy.obtainThreshold(histogram);
+
+        // then
+        Assert.assertTrue(threshold >= 20 && threshold < 240);
+    }
+
+    @Test
+    public void test_execute() {
+        // given
+        BufferedImage img = newBimodalImage();
+        OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder().build();
+
+        // when
+        strategy.execute(img);
+
+        // then
+        Assert.assertEquals(OtsuBinaryStrategy.BINARY_MIN, img.getRGB(5, 5) & 0xff);
+        Assert.assertEquals(OtsuBinaryStrategy.BINARY_MAX, img.getRGB(35, 25) & 0xff);
+    }
+
+    @Test
+    public void test_execute_sameAsBinaryImage() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        AvgGrayingStrategy grayingStrategy = new AvgGrayingStrategy();
+        OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder().grayingStrategy(grayingStrategy).build();
+        BufferedImage target = BufferedImageUtils.copy(source, source.getType());
+
+        // when
+        strategy.execute(target);
+
+        // then
+        BufferedImage image = BufferedImageUtils.copy(source, source.getType());
+        grayingStrategy.execute(image);
+        strategy.binaryImage(image);
+
+        Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+    }
+
+    @Test
+    public void test_toBinaryImage() {
+        // given
+        BufferedImage img = newBimodalImage();
+        OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder().build();
+
+        // when
+        BufferedImage target = strategy.toBinaryImage(img);
+
+        // then
+        Assert.assertEquals(BufferedImage.TYPE_BYTE_BINARY, target.getType());
+        Assert.assertEquals(0xff000000, target.getRGB(5, 5));
+        Assert.assertEquals(0xffffffff, target.getRGB(35, 25));
+        Assert.assertEquals(new Color(50, 50, 50).getRGB(), img.getRGB(5, 5));
+    }
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_correctUsage() {
+            // given
+            AbstractGrayingStrategy grayingStrategy = new AvgGrayingStrategy();
+
+            // when
+            OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder()
+                    .grayingStrategy(grayingStrategy)
+                    .build();
+
+            // then
+            Assert.assertEquals(grayingStrategy, ReflectionUtils.getFromSuper("grayingStrategy", strategy));
+        }
+
+        @Test
+        public void test_build_defaultParam() {
+            // when
+            OtsuBinaryStrategy strategy = new OtsuBinaryStrategy.Builder().build();
+
+            // then
+            Assert.assertTrue(ReflectionUtils.getFromSuper("grayingStrategy", strategy) instanceof AvgGrayingStrategy);
+        }
+    }
+}
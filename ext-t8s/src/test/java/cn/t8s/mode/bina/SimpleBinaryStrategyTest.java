@@ -52,6 +52,65 @@ public class SimpleBinaryStrategyTest {
         Assert.assertTrue(BufferedImageComparer.isSame(image, target));
     }
 
+    @Test
+    public void test_execute() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY};
+        AbstractGrayingStrategy grayingStrategy = new AvgGrayingStrategy();
+        SimpleBinaryStrategy binaryStrategy = new SimpleBinaryStrategy.Builder()
+                .grayingStrategy(grayingStrategy)
+                .threshold(100)
+                .build();
+
+        for (int type : types) {
+            BufferedImage target = BufferedImageUtils.copy(source, type);
+
+            // when
+            binaryStrategy.execute(target);
+
+            // then
+            // the result of single traversal is the same as graying first and then binary
+            BufferedImage image = BufferedImageUtils.copy(source, type);
+            grayingStrategy.execute(image);
+            binaryStrategy.binaryImage(image);
+
+            Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+        }
+    }
+
+    @Test
+    public void test_toBinaryImage() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY};
+        SimpleBinaryStrategy binaryStrategy = new SimpleBinaryStrategy.Builder()
+                .threshold(120)
+                .build();
+
+        for (int type : types) {
+            BufferedImage original = BufferedImageUtils.copy(source, type);
+            BufferedImage unchanged = BufferedImageUtils.copy(source, type);
+
+            // when
+            BufferedImage target = binaryStrategy.toBinaryImage(original);
+
+            // then
+            Assert.assertEquals(BufferedImage.TYPE_BYTE_BINARY, target.getType());
+            Assert.assertTrue(BufferedImageComparer.isSame(unchanged, original));
+
+            BufferedImage image = BufferedImageUtils.copy(source, type);
+            binaryStrategy.execute(image);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    int expected = (image.getRGB(x, y) & 0xff) == SimpleBinaryStrategy.BINARY_MAX ? 0xffffffff : 0xff000000;
+                    Assert.assertEquals(expected, target.getRGB(x, y));
+                }
+            }
+        }
+    }
+
     public static class BuilderTest {
 
         @Test
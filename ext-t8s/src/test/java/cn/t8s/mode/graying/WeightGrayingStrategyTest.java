@@ -1,9 +1,14 @@
 package cn.t8s.mode.graying;
 
 import cn.core.ex.InvalidSettingException;
+import cn.core.utils.BufferedImageUtils;
+import cn.t8s.BufferedImageComparer;
 import cn.t8s.ReflectionUtils;
+import cn.t8s.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 
 public class WeightGrayingStrategyTest {
 
@@ -27,6 +32,33 @@ public class WeightGrayingStrategyTest {
         Assert.assertEquals((int) val, graynessValue);
     }
 
+    @Test
+    public void test_execute() throws IOException {
+        // given
+        WeightGrayingStrategy strategy = new WeightGrayingStrategy.Builder().build();
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY};
+
+        for (int type : types) {
+            BufferedImage target = BufferedImageUtils.copy(source, type);
+
+            // when
+            strategy.execute(target);
+
+            // then
+            BufferedImage image = BufferedImageUtils.copy(source, type);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    int rgb = image.getRGB(x, y);
+                    int grayness = strategy.getGraynessValue((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff);
+                    image.setRGB(x, y, (grayness << 16) | (grayness << 8) | grayness);
+                }
+            }
+            Assert.assertTrue(BufferedImageComparer.isSame(image, target));
+        }
+    }
+
     public static class BuilderTest {
 
         @Test
@@ -2,9 +2,12 @@ package cn.pipe.in;
 
 import cn.core.ex.HandlingException;
 import cn.core.in.GifSource;
+import cn.core.tool.SourceInfo;
 import com.madgag.gif.fmsware.GifDecoder;
+import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,6 +20,11 @@ import java.util.List;
  */
 public abstract class AbstractGifSource<T> implements GifSource<T> {
 
+    /**
+     * The format name of gif.
+     */
+    protected static final String FORMAT_NAME = "gif";
+
     /**
      * The source.
      */
@@ -70,6 +78,32 @@ public abstract class AbstractGifSource<T> implements GifSource<T> {
         return res;
     }
 
+    /**
+     * Probe the basic information of the gif. If the gif has been loaded, the
+     * information is obtained from the decoder, otherwise the blocks of the source are
+     * scanned without decoding the frames.
+     *
+     * @return The information of the gif.
+     * @throws IOException If some I/O exceptions occurred when reading the gif source.
+     * @throws HandlingException If the source is not a gif.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        if (!readCompleted) {
+            InputStream in = openStream();
+            if (in != null) {
+                try {
+                    return scan(in);
+                } finally {
+                    in.close();
+                }
+            }
+            loadIfNot();
+        }
+        Dimension size = decoder.getFrameSize();
+        return new SourceInfo(size.width, size.height, FORMAT_NAME, decoder.getFrameCount(), 0);
+    }
+
     @Override
     public T getSource() {
         return source;
@@ -109,4 +143,30 @@ public abstract class AbstractGifSource<T> implements GifSource<T> {
      * @throws IOException If some I/O exceptions occurred when loading the gif source.
      */
     protected abstract int doLoad() throws IOException;
+
+    /**
+     * Open a new input stream of the source for probing, which will be closed after
+     * probing.
+     *
+     * @return The input stream, or null if the source can not be read again, then the
+     * gif is loaded for probing.
+     * @throws IOException If some I/O exceptions occurred when opening the gif source.
+     */
+    protected InputStream openStream() throws IOException {
+        return null;
+    }
+
+    /**
+     * Scan the blocks of a gif, the frames are counted by the image descriptors, and
+     * the image data is skipped without decoding.
+     *
+     * @param in The input stream of gif, it is read to the trailer.
+     * @return The information of the gif.
+     * @throws IOException If some I/O exceptions occurred when reading the gif.
+     * @throws HandlingException If the input stream is not a gif or it is truncated.
+     */
+    protected static SourceInfo scan(InputStream in) throws IOException {
+        GifIndex index = GifIndex.build(in);
+        return new SourceInfo(index.width, index.height, FORMAT_NAME, index.size(), 0);
+    }
 }
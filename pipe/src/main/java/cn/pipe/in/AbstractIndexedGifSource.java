@@ -0,0 +1,242 @@
+package cn.pipe.in;
+
+import cn.core.ex.HandlingException;
+import cn.core.in.GifSource;
+import cn.core.tool.SourceInfo;
+import cn.core.utils.BufferedImageUtils;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An abstract superclass of gif source which decodes frames lazily.
+ * <p>
+ * Unlike {@link AbstractGifSource} which decodes and keeps all frames when loading,
+ * this source only builds an index of frame offsets by scanning the blocks of gif.
+ * A frame is decoded when it is read, from the nearest key frame through the frames
+ * it depends on. The last decoded frames are kept for composing the next frames, so
+ * reading frames in order decodes every frame once. The frames read are the copies,
+ * which are same as the frames decoded by {@link com.madgag.gif.fmsware.GifDecoder}.
+ * </p>
+ *
+ * @param <T> The type of gif source.
+ * @author tracy
+ * @since 0.2.10
+ */
+public abstract class AbstractIndexedGifSource<T> implements GifSource<T> {
+
+    /**
+     * The number of the last decoded frames which are kept, a frame depends on the
+     * previous frame or the frame before previous.
+     */
+    private static final int KEPT_FRAMES = 2;
+
+    /**
+     * The source.
+     */
+    protected final T source;
+
+    /**
+     * The flag that indicating the completion of indexing.
+     */
+    protected boolean readCompleted = false;
+
+    /**
+     * The index of gif.
+     */
+    private GifIndex index;
+
+    /**
+     * The frame decoder.
+     */
+    private final GifFrameDecoder decoder = new GifFrameDecoder();
+
+    /**
+     * The indexes of the last decoded frames, in order of decoding.
+     */
+    private final int[] keptIndexes = new int[KEPT_FRAMES];
+
+    /**
+     * The last decoded frames, which are never exposed.
+     */
+    private final BufferedImage[] keptFrames = new BufferedImage[KEPT_FRAMES];
+
+    protected AbstractIndexedGifSource(T source) {
+        this.source = source;
+    }
+
+    @Override
+    public int size() throws IOException {
+        loadIfNot();
+        return index.size();
+    }
+
+    /**
+     * Get a single frame image.
+     *
+     * @param frameIndex The frame index.
+     * @return The frame image, or null if the index is out of bounds, as same as
+     * {@link com.madgag.gif.fmsware.GifDecoder#getFrame(int)}.
+     * @throws IOException If some I/O exceptions occurred when reading the gif source.
+     * @throws HandlingException If the frame can not be decoded.
+     */
+    @Override
+    public BufferedImage read(int frameIndex) throws IOException {
+        loadIfNot();
+        if (frameIndex < 0 || frameIndex >= index.size()) {
+            return null;
+        }
+        return BufferedImageUtils.copy(decode(frameIndex));
+    }
+
+    @Override
+    public List<BufferedImage> read(Integer[] frameIndexes) throws IOException {
+        loadIfNot();
+        List<BufferedImage> res = new ArrayList<>();
+        for (Integer frameIndex : frameIndexes) {
+            res.add(read(frameIndex));
+        }
+        return res;
+    }
+
+    /**
+     * Get all frame images of this gif source. The frames are decoded when they are
+     * got from the list, and they are not retained by the list, so that iterating the
+     * list in order holds only the last frames in memory.
+     *
+     * @return The list of all frame images.
+     * @throws IOException If some I/O exceptions occurred when indexing the gif source.
+     * @throws UncheckedIOException If some I/O exceptions occurred when getting a frame.
+     */
+    @Override
+    public List<BufferedImage> readAll() throws IOException {
+        loadIfNot();
+        int size = index.size();
+        return new AbstractList<BufferedImage>() {
+            @Override
+            public BufferedImage get(int i) {
+                if (i < 0 || i >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                }
+                try {
+                    return read(i);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Probe the basic information of the gif from the index, the index is built if
+     * it has not been built.
+     *
+     * @return The information of the gif.
+     * @throws IOException If some I/O exceptions occurred when reading the gif source.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        loadIfNot();
+        return new SourceInfo(index.width, index.height, AbstractGifSource.FORMAT_NAME, index.size(), 0);
+    }
+
+    @Override
+    public T getSource() {
+        return source;
+    }
+
+    @Override
+    public boolean isReadCompleted() {
+        return readCompleted;
+    }
+
+    /**
+     * Build the index of gif if it has not been built.
+     *
+     * @throws IOException If some I/O exceptions occurred when reading the gif source.
+     * @throws HandlingException If the source is not a gif or it is truncated.
+     */
+    protected void loadIfNot() throws IOException {
+        if (readCompleted) {
+            return;
+        }
+        try (InputStream in = openStream(0)) {
+            index = GifIndex.build(in);
+        }
+        readCompleted = true;
+    }
+
+    /**
+     * Open a new input stream of the source, which starts from the position.
+     *
+     * @param position The offset from the beginning of the source.
+     * @return The input stream, which will be closed after reading.
+     * @throws IOException If some I/O exceptions occurred when opening the gif source.
+     */
+    protected abstract InputStream openStream(long position) throws IOException;
+
+    /**
+     * Decode a frame, the frames which it depends on are decoded from the nearest key
+     * frame or the last decoded frame.
+     */
+    private BufferedImage decode(int frameIndex) throws IOException {
+        BufferedImage kept = kept(frameIndex);
+        if (kept != null) {
+            return kept;
+        }
+
+        // the frames to decode in order, the last one is the requested frame
+        Deque<Integer> chain = new ArrayDeque<>();
+        BufferedImage base = null;
+        int i = frameIndex;
+        while (true) {
+            chain.push(i);
+            i = index.frames.get(i).dependency;
+            if (i < 0) {
+                break;
+            }
+            base = kept(i);
+            if (base != null) {
+                break;
+            }
+        }
+
+        BufferedImage frame = null;
+        for (int n : chain) {
+            try (InputStream in = openStream(index.frames.get(n).position)) {
+                frame = decoder.decode(index, n, base, in);
+            }
+            keep(n, frame);
+            base = frame;
+        }
+        return frame;
+    }
+
+    private BufferedImage kept(int frameIndex) {
+        for (int i = 0; i < KEPT_FRAMES; i++) {
+            if (keptFrames[i] != null && keptIndexes[i] == frameIndex) {
+                return keptFrames[i];
+            }
+        }
+        return null;
+    }
+
+    private void keep(int frameIndex, BufferedImage frame) {
+        // drop the oldest one
+        System.arraycopy(keptIndexes, 1, keptIndexes, 0, KEPT_FRAMES - 1);
+        System.arraycopy(keptFrames, 1, keptFrames, 0, KEPT_FRAMES - 1);
+        keptIndexes[KEPT_FRAMES - 1] = frameIndex;
+        keptFrames[KEPT_FRAMES - 1] = frame;
+    }
+}
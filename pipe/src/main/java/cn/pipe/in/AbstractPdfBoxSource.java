@@ -1,12 +1,21 @@
 package cn.pipe.in;
 
+import cn.core.ex.InvalidSettingException;
 import cn.core.in.PdfSource;
+import cn.core.tool.SourceInfo;
+import cn.core.utils.ConcurrentUtils;
+import cn.core.utils.ObjectUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,6 +27,11 @@ import java.util.List;
  */
 public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
 
+    /**
+     * The format name of pdf.
+     */
+    protected static final String FORMAT_NAME = "pdf";
+
     /**
      * The source.
      */
@@ -47,6 +61,31 @@ public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
      */
     protected boolean closed = true;
 
+    /**
+     * The number of workers which render pages concurrently, it is also the maximum
+     * number of pages being rendered at the same time.
+     */
+    protected int parallelism = 1;
+
+    /**
+     * The options of loading the document.
+     */
+    protected PdfLoadOptions loadOptions = PdfLoadOptions.DEFAULT;
+
+    /**
+     * The cache which shares the loaded documents, null if the document is not shared.
+     */
+    protected PdfDocumentCache cache;
+
+    /**
+     * The cache of the rendered pages, null if the pages are always rendered.
+     */
+    protected PageImageCache pageCache;
+
+    /**
+     * The handle of the shared document, null if the document is owned by this source.
+     */
+    private PdfDocumentCache.Handle handle;
 
     protected AbstractPdfBoxSource(T source) {
         this.source = source;
@@ -55,14 +94,82 @@ public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
     @Override
     public int maxPageNumber() throws IOException {
         loadIfNot();
-        return pdf.getNumberOfPages();
+        synchronized (pdf) {
+            return pdf.getNumberOfPages();
+        }
     }
 
+    /**
+     * Probe the basic information of the pdf without rendering the pages. The page
+     * count is read from the root of page tree, and the width and height are the size
+     * of the first page rendered at 72 DPI. If the pdf document has not been loaded,
+     * a temporary document is loaded from the source and closed after probing, the
+     * objects of which are parsed lazily. If the document is cached, it is acquired from
+     * the cache and released after probing.
+     *
+     * @return The information of the pdf.
+     * @throws IOException If some I/O exceptions occurred when loading the pdf source.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        if (readCompleted && !closed) {
+            synchronized (pdf) {
+                return probe(pdf);
+            }
+        }
+        Object key = cache == null ? null : cacheKey();
+        if (key != null) {
+            try (PdfDocumentCache.Handle shared = cache.acquire(key, this::doLoad)) {
+                synchronized (shared.getDocument()) {
+                    return probe(shared.getDocument());
+                }
+            }
+        }
+        try (PDDocument doc = doLoad()) {
+            return probe(doc);
+        }
+    }
+
+    private static SourceInfo probe(PDDocument doc) {
+        int pageCount = doc.getNumberOfPages();
+        if (pageCount == 0) {
+            return new SourceInfo(0, 0, FORMAT_NAME, 0, 0);
+        }
+        PDPage page = doc.getPage(0);
+        PDRectangle box = page.getCropBox();
+        // same as the PDFRenderer, which renders the crop box with the rotation
+        int width = (int) Math.max(Math.floor(box.getWidth()), 1);
+        int height = (int) Math.max(Math.floor(box.getHeight()), 1);
+        if (page.getRotation() % 180 != 0) {
+            return new SourceInfo(height, width, FORMAT_NAME, 0, pageCount);
+        }
+        return new SourceInfo(width, height, FORMAT_NAME, 0, pageCount);
+    }
+
+    /**
+     * Render a page, the page is got from the cache of pages if it has been rendered.
+     */
     @Override
     public BufferedImage read(int pageIndex, float dpi) throws IOException {
+        Object key = pageCache == null ? null : cacheKey();
+        if (key != null) {
+            BufferedImage cached = pageCache.get(key, pageIndex, dpi);
+            if (cached != null) {
+                return cached;
+            }
+        }
         loadIfNot();
-        PDFRenderer renderer = new PDFRenderer(pdf);
-        return renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+        BufferedImage page;
+        // the document may be shared by other sources
+        synchronized (pdf) {
+            PDFRenderer renderer = new PDFRenderer(pdf);
+            page = renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+            releaseRenderedResources(pdf);
+        }
+        if (key != null) {
+            pageCache.put(key, pageIndex, dpi, page);
+        }
+        return page;
     }
 
     @Override
@@ -70,18 +177,156 @@ public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
         return source;
     }
 
+    /**
+     * Render pages, the pages which have been rendered are got from the cache of pages,
+     * and the others are rendered.
+     */
     @Override
     public List<BufferedImage> read(Integer[] pageIndexes, float dpi) throws IOException {
-        loadIfNot();
-        PDFRenderer renderer = new PDFRenderer(pdf);
+        Object key = pageCache == null ? null : cacheKey();
+        if (key == null) {
+            return render(pageIndexes, dpi);
+        }
+        BufferedImage[] tars = new BufferedImage[pageIndexes.length];
+        // the positions of pages which are not cached
+        List<Integer> missed = new ArrayList<>();
+        for (int i = 0; i < pageIndexes.length; i++) {
+            tars[i] = pageCache.get(key, pageIndexes[i], dpi);
+            if (tars[i] == null) {
+                missed.add(i);
+            }
+        }
+        if (!missed.isEmpty()) {
+            Integer[] missedIndexes = missed.stream().map(o -> pageIndexes[o]).toArray(Integer[]::new);
+            List<BufferedImage> rendered = render(missedIndexes, dpi);
+            for (int i = 0; i < missedIndexes.length; i++) {
+                tars[missed.get(i)] = rendered.get(i);
+                pageCache.put(key, missedIndexes[i], dpi, rendered.get(i));
+            }
+        }
+        return new ArrayList<>(Arrays.asList(tars));
+    }
 
+    private List<BufferedImage> render(Integer[] pageIndexes, float dpi) throws IOException {
+        loadIfNot();
+        if (parallelism > 1 && pageIndexes.length > 1 && isReloadable()) {
+            return readConcurrently(pageIndexes, dpi);
+        }
         List<BufferedImage> tars = new ArrayList<>();
-        for (Integer pIndex : pageIndexes) {
-            tars.add(renderer.renderImageWithDPI(pIndex, dpi, ImageType.RGB));
+        synchronized (pdf) {
+            PDFRenderer renderer = new PDFRenderer(pdf);
+            for (Integer pIndex : pageIndexes) {
+                tars.add(renderer.renderImageWithDPI(pIndex, dpi, ImageType.RGB));
+                releaseRenderedResources(pdf);
+            }
         }
         return tars;
     }
 
+    /**
+     * Render pages concurrently. Since a pdf document can not be rendered by multiple
+     * threads, every worker renders pages with its own document which reloaded from
+     * the source, except the first one which uses the loaded (or shared) document. The workers
+     * take the next page in order once they finished the previous one, so there are
+     * at most {@link AbstractPdfBoxSource#parallelism} pages being rendered.
+     *
+     * @param pageIndexes The page indexes.
+     * @param dpi The DPI (dots per inch) to render at.
+     * @return The images which pages indicated by the indexes.
+     * @throws IOException If some I/O exceptions occurred when loading the pdf source.
+     */
+    private List<BufferedImage> readConcurrently(Integer[] pageIndexes, float dpi) throws IOException {
+        BufferedImage[] tars = new BufferedImage[pageIndexes.length];
+        ConcurrentUtils.runWorkers(null, parallelism, 0, pageIndexes.length, (id, cursor) -> {
+            boolean reloaded = id > 0;
+            PDDocument doc = reloaded ? doReload() : pdf;
+            try {
+                synchronized (doc) {
+                    PDFRenderer renderer = new PDFRenderer(doc);
+                    int next;
+                    while ((next = cursor.next()) >= 0) {
+                        tars[next] = renderer.renderImageWithDPI(pageIndexes[next], dpi, ImageType.RGB);
+                        releaseRenderedResources(doc);
+                    }
+                }
+            } finally {
+                if (reloaded) {
+                    doc.close();
+                }
+            }
+        });
+        return new ArrayList<>(Arrays.asList(tars));
+    }
+
+    /**
+     * Set the number of workers which render pages concurrently when reading multiple
+     * pages. Every worker except the first one holds a reloaded document, so the
+     * memory used by documents grows with the parallelism.
+     *
+     * @param parallelism The number of workers, it is 1 by default which means
+     *                    rendering pages one by one.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new InvalidSettingException("Parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the options of loading the document, it should be set before loading.
+     *
+     * @param loadOptions The options of loading.
+     */
+    public void setLoadOptions(PdfLoadOptions loadOptions) {
+        ObjectUtils.excNull(loadOptions, "PdfLoadOptions is null.");
+        this.loadOptions = loadOptions;
+    }
+
+    /**
+     * Set the cache which shares the loaded documents with other sources of the same
+     * content, it should be set before loading. The source is not cached if it has
+     * no key, see {@link AbstractPdfBoxSource#cacheKey()}.
+     *
+     * @param cache The cache, null if the document is owned by this source.
+     */
+    public void setCache(PdfDocumentCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Set the cache of the rendered pages, the pages which have been rendered at the
+     * same DPI are got from the cache without loading or rendering the document. The
+     * pages are not cached if the source has no key, see {@link AbstractPdfBoxSource#cacheKey()}.
+     *
+     * @param pageCache The cache of pages, null if the pages are always rendered.
+     */
+    public void setPageCache(PageImageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Whether all the pages have been rendered at the DPI and cached, so that they can
+     * be read without loading the document.
+     *
+     * @param pageIndexes The page indexes.
+     * @param dpi The DPI (dots per inch) to render at.
+     * @return Returns true if all the pages are in the cache of pages.
+     * @throws IOException If some I/O exceptions occurred when reading the cache.
+     */
+    public boolean isCached(Integer[] pageIndexes, float dpi) throws IOException {
+        Object key = pageCache == null ? null : cacheKey();
+        if (key == null) {
+            return false;
+        }
+        for (Integer pageIndex : pageIndexes) {
+            if (!pageCache.contains(key, pageIndex, dpi)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean isReadCompleted() {
         return readCompleted;
@@ -95,11 +340,38 @@ public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
         if (readCompleted) {
             return;
         }
-        pdf = doLoad();
+        Object key = cache == null ? null : cacheKey();
+        if (key != null) {
+            handle = cache.acquire(key, this::doLoad);
+            pdf = handle.getDocument();
+        } else {
+            pdf = doLoad();
+        }
         readCompleted = true;
         closed = false;
     }
 
+    /**
+     * Obtain the setting of memory usage for loading a document with the options. The
+     * budget of main memory is divided among the documents of workers when rendering
+     * pages concurrently.
+     *
+     * @return The setting of memory usage.
+     */
+    protected MemoryUsageSetting obtainMemoryUsageSetting() {
+        return loadOptions.obtainMemoryUsageSetting(parallelism);
+    }
+
+    /**
+     * Drop the resources cached by the document after rendering a page if the option
+     * is set, the resources are loaded again when they are used by the next pages.
+     */
+    private void releaseRenderedResources(PDDocument doc) {
+        if (loadOptions.isReleaseRenderedResources()) {
+            doc.setResourceCache(new DefaultResourceCache());
+        }
+    }
+
     /**
      * Load the pdf source.
      * @return The object of loaded GIF.
@@ -108,12 +380,55 @@ public abstract class AbstractPdfBoxSource<T> implements PdfSource<T> {
     protected abstract PDDocument doLoad() throws IOException;
 
     /**
-     * Free resources and reset status.
+     * Load another pdf document from the source, which is used by the worker when
+     * rendering pages concurrently. By default, it is loaded as same as
+     * {@link AbstractPdfBoxSource#doLoad()}.
+     *
+     * @return The object of reloaded pdf document.
+     * @throws IOException If some I/O exceptions occurred when loading the pdf source.
+     */
+    protected PDDocument doReload() throws IOException {
+        return doLoad();
+    }
+
+    /**
+     * Get the key of the content of source, the document and the rendered pages are
+     * shared by the sources of the same key when the caches are set. By default, it is
+     * null which means the document can not be shared.
+     *
+     * @return The key of the content, null if the source can not be cached.
+     * @throws IOException If some I/O exceptions occurred when reading the source.
+     */
+    protected Object cacheKey() throws IOException {
+        return null;
+    }
+
+    /**
+     * Whether the pdf document can be reloaded from the source.
+     *
+     * @return Returns true if the pdf document can be reloaded, otherwise the pages
+     * are always rendered one by one.
+     */
+    protected boolean isReloadable() {
+        return true;
+    }
+
+    /**
+     * Free resources and reset status. A shared document is released to the cache
+     * instead of being closed, and it is acquired again when the source is read later.
      *
      * @throws IOException If some I/O exceptions occurred when loading the pdf source.
      */
     @Override
     public void close() throws IOException {
+        if (handle != null) {
+            handle.close();
+            handle = null;
+            pdf = null;
+            readCompleted = false;
+            closed = true;
+            return;
+        }
         if (pdf != null && !pdf.getDocument().isClosed()) {
             // release the object of PDDocument
             pdf.close();
@@ -0,0 +1,86 @@
+package cn.pipe.in;
+
+import cn.core.ex.HandlingException;
+import com.madgag.gif.fmsware.GifDecoder;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+
+/**
+ * A gif decoder which decodes a single frame from the offset of its image descriptor.
+ * The state of decoder is restored from the {@link GifIndex}, and the frame is composed
+ * on the frame it depends on, so that the frame is same as the one decoded by
+ * {@link GifDecoder} from the beginning. The decoded frames are not retained.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+final class GifFrameDecoder extends GifDecoder {
+
+    /**
+     * The index of the frame which the current frame is composed on.
+     */
+    private int baseIndex = -1;
+
+    /**
+     * The frame which the current frame is composed on.
+     */
+    private BufferedImage base;
+
+    /**
+     * Decode a frame.
+     *
+     * @param index The index of gif.
+     * @param frameIndex The frame index.
+     * @param base The decoded frame which this frame depends on, null for a key frame.
+     * @param is The input stream which starts from the image descriptor of the frame.
+     * @return The frame image.
+     * @throws HandlingException If the frame can not be decoded.
+     */
+    BufferedImage decode(GifIndex index, int frameIndex, BufferedImage base, InputStream is) {
+        GifIndex.Frame frame = index.frames.get(frameIndex);
+        init();
+        in = is instanceof BufferedInputStream ? (BufferedInputStream) is : new BufferedInputStream(is);
+        width = index.width;
+        height = index.height;
+        // the decoder modifies the color table of transparency temporarily
+        gct = index.globalColorTable == null ? null : index.globalColorTable.clone();
+        bgIndex = index.bgIndex;
+
+        bgColor = frame.bgColor;
+        dispose = frame.dispose;
+        transparency = frame.transparency;
+        transIndex = frame.transIndex;
+        delay = frame.delay;
+        lastDispose = frame.lastDispose;
+        lastRect = frame.lastRect;
+        lastBgColor = frame.lastBgColor;
+
+        this.baseIndex = base == null ? -1 : frame.dependency;
+        this.base = base;
+        lastImage = base;
+        // the frame count is increased before composing, as same as the frame index
+        frameCount = frameIndex;
+        try {
+            readImage();
+            if (err() || frameCount != frameIndex + 1) {
+                throw new HandlingException(GifIndex.FORMAT_ERROR);
+            }
+            return image;
+        } finally {
+            // release the references of frames
+            frames.clear();
+            this.base = null;
+            lastImage = null;
+            image = null;
+        }
+    }
+
+    /**
+     * Get the frame which is restored when the previous frame is disposed to the previous.
+     */
+    @Override
+    public BufferedImage getFrame(int n) {
+        return n == baseIndex ? base : null;
+    }
+}
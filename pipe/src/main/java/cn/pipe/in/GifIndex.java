@@ -0,0 +1,294 @@
+package cn.pipe.in;
+
+import cn.core.ex.HandlingException;
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The index of a gif, which is built by scanning the blocks of the gif without
+ * decoding the image data.
+ * <p>
+ * Every frame records the offset of its image descriptor and the state of
+ * {@link com.madgag.gif.fmsware.GifDecoder} before the frame is decoded, so that a
+ * frame can be decoded alone from the offset and the frame it depends on. A frame
+ * depends on the previous frame (or the frame before previous when the previous one
+ * is disposed to the previous), unless it is a key frame: the first frame, the frame
+ * after a frame without disposal, or the opaque frame which covers the whole screen.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+final class GifIndex {
+
+    /**
+     * The message of format error, same as the decoder.
+     */
+    static final String FORMAT_ERROR = "Error decoding file (may be partially decoded).";
+
+    /**
+     * The logical screen width.
+     */
+    final int width;
+
+    /**
+     * The logical screen height.
+     */
+    final int height;
+
+    /**
+     * The global color table of 256 colors, null if there is no global color table.
+     */
+    final int[] globalColorTable;
+
+    /**
+     * The background color index.
+     */
+    final int bgIndex;
+
+    /**
+     * The frames in order.
+     */
+    final List<Frame> frames;
+
+    private GifIndex(int width, int height, int[] globalColorTable, int bgIndex, List<Frame> frames) {
+        this.width = width;
+        this.height = height;
+        this.globalColorTable = globalColorTable;
+        this.bgIndex = bgIndex;
+        this.frames = frames;
+    }
+
+    int size() {
+        return frames.size();
+    }
+
+    /**
+     * Build the index of a gif.
+     *
+     * @param in The input stream of gif, it is read to the trailer.
+     * @return The index.
+     * @throws IOException If some I/O exceptions occurred when reading the gif.
+     * @throws HandlingException If the input stream is not a gif or it is truncated.
+     */
+    static GifIndex build(InputStream in) throws IOException {
+        return new Scanner(in).scan();
+    }
+
+    /**
+     * A frame of gif, the fields are the state of the decoder before it reads the image
+     * descriptor of this frame.
+     */
+    static final class Frame {
+
+        /**
+         * The offset of the image descriptor, which is after the image separator.
+         */
+        long position;
+
+        int dispose;
+        boolean transparency;
+        int transIndex;
+        int delay;
+        int bgColor;
+        int lastDispose;
+        Rectangle lastRect;
+        int lastBgColor;
+
+        /**
+         * The index of the frame which this frame is composed on, -1 for a key frame.
+         */
+        int dependency;
+    }
+
+    /**
+     * The scanner which tracks the state of the decoder.
+     */
+    private static final class Scanner {
+
+        private final InputStream in;
+
+        private long position;
+
+        // same as the decoder
+        private int dispose = 0;
+        private boolean transparency = false;
+        private int transIndex;
+        private int delay = 0;
+        private int bgColor;
+        private int lastDispose = 0;
+        private Rectangle lastRect;
+        private int lastBgColor;
+
+        private Scanner(InputStream in) {
+            this.in = in;
+        }
+
+        private GifIndex scan() throws IOException {
+            // header: GIF87a or GIF89a
+            byte[] header = new byte[6];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = (byte) read();
+            }
+            if (header[0] != 'G' || header[1] != 'I' || header[2] != 'F') {
+                throw new HandlingException(FORMAT_ERROR);
+            }
+
+            // logical screen descriptor
+            int width = readShort();
+            int height = readShort();
+            int packed = readByte();
+            int bgIndex = readByte();
+            // pixel aspect ratio
+            skip(1);
+            int[] gct = null;
+            if ((packed & 0x80) != 0) {
+                gct = readColorTable(2 << (packed & 0x07));
+                bgColor = gct[bgIndex];
+            }
+
+            List<Frame> frames = new ArrayList<>();
+            while (true) {
+                int code = read();
+                if (code == 0x2C) {
+                    frames.add(scanImage(frames.size(), width, height, gct, bgIndex));
+                } else if (code == 0x21) {
+                    if (readByte() == 0xF9) {
+                        scanGraphicControlExt();
+                    } else {
+                        skipSubBlocks();
+                    }
+                } else if (code == 0x3B) {
+                    // trailer
+                    break;
+                } else if (code != 0x00) {
+                    // the bad byte 0x00 is skipped as same as the decoder, others (including
+                    // the end of stream) are format errors
+                    throw new HandlingException(FORMAT_ERROR);
+                }
+            }
+            return new GifIndex(width, height, gct, bgIndex, Collections.unmodifiableList(frames));
+        }
+
+        private void scanGraphicControlExt() throws IOException {
+            // block size
+            skip(1);
+            int packed = readByte();
+            dispose = (packed & 0x1c) >> 2;
+            if (dispose == 0) {
+                // the decoder keeps the old image if discretionary
+                dispose = 1;
+            }
+            transparency = (packed & 1) != 0;
+            delay = readShort() * 10;
+            transIndex = readByte();
+            // block terminator
+            skip(1);
+        }
+
+        private Frame scanImage(int index, int width, int height, int[] gct, int bgIndex) throws IOException {
+            Frame frame = new Frame();
+            frame.position = position;
+            frame.dispose = dispose;
+            frame.transparency = transparency;
+            frame.transIndex = transIndex;
+            frame.delay = delay;
+            frame.bgColor = bgColor;
+            frame.lastDispose = lastDispose;
+            frame.lastRect = lastRect;
+            frame.lastBgColor = lastBgColor;
+
+            int ix = readShort();
+            int iy = readShort();
+            int iw = readShort();
+            int ih = readShort();
+            int packed = readByte();
+            if ((packed & 0x80) != 0) {
+                // local color table
+                skip(3L << ((packed & 0x07) + 1));
+            } else {
+                if (gct == null) {
+                    // no color table defined
+                    throw new HandlingException(FORMAT_ERROR);
+                }
+                if (bgIndex == transIndex) {
+                    bgColor = 0;
+                }
+            }
+            // LZW minimum code size and image data
+            skip(1);
+            skipSubBlocks();
+
+            boolean covered = ix == 0 && iy == 0 && iw >= width && ih >= height && !transparency;
+            if (lastDispose == 0 || covered) {
+                frame.dependency = -1;
+            } else if (lastDispose == 3) {
+                // the decoder restores the frame before previous, there is nothing
+                // to restore for the second frame
+                frame.dependency = index >= 2 ? index - 2 : -1;
+            } else {
+                frame.dependency = index - 1;
+            }
+
+            // same as resetting the frame in the decoder
+            lastDispose = dispose;
+            lastRect = new Rectangle(ix, iy, iw, ih);
+            lastBgColor = bgColor;
+            return frame;
+        }
+
+        private int[] readColorTable(int colors) throws IOException {
+            int[] table = new int[256];
+            for (int i = 0; i < colors; i++) {
+                table[i] = 0xff000000 | readByte() << 16 | readByte() << 8 | readByte();
+            }
+            return table;
+        }
+
+        private void skipSubBlocks() throws IOException {
+            int size;
+            while ((size = read()) > 0) {
+                skip(size);
+            }
+        }
+
+        private int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        private int readByte() throws IOException {
+            int b = read();
+            if (b < 0) {
+                throw new HandlingException(FORMAT_ERROR);
+            }
+            return b;
+        }
+
+        private int readShort() throws IOException {
+            // little endian
+            return readByte() | readByte() << 8;
+        }
+
+        private void skip(long n) throws IOException {
+            while (n > 0) {
+                long skipped = in.skip(n);
+                if (skipped > 0) {
+                    position += skipped;
+                    n -= skipped;
+                } else {
+                    // the stream may not support skipping, read a byte to check the end
+                    readByte();
+                    n--;
+                }
+            }
+        }
+    }
+}
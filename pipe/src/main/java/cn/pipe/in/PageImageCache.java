@@ -0,0 +1,53 @@
+package cn.pipe.in;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * A cache of the images rendered from the pages of documents, which is keyed by the
+ * document, the page index and the DPI. The pdf sources look up the cache before
+ * rendering, and put the rendered pages into it.
+ *
+ * @author tracy
+ * @since 0.2.10
+ * @see TieredPageImageCache
+ */
+public interface PageImageCache {
+
+    /**
+     * Get the cached image of a page.
+     *
+     * @param documentKey The key of the content of document, see {@link AbstractPdfBoxSource#cacheKey()}.
+     * @param pageIndex The page index.
+     * @param dpi The DPI (dots per inch) rendered at.
+     * @return The image which can be modified by the caller, or null if it is not cached.
+     * @throws IOException If some I/O exceptions occurred when reading the cache.
+     */
+    BufferedImage get(Object documentKey, int pageIndex, float dpi) throws IOException;
+
+    /**
+     * Whether the image of a page is cached. By default, it gets the image, the caches
+     * which can tell it without reading the image should override it.
+     *
+     * @param documentKey The key of the content of document.
+     * @param pageIndex The page index.
+     * @param dpi The DPI (dots per inch) rendered at.
+     * @return Returns true if the image is cached.
+     * @throws IOException If some I/O exceptions occurred when reading the cache.
+     */
+    default boolean contains(Object documentKey, int pageIndex, float dpi) throws IOException {
+        return get(documentKey, pageIndex, dpi) != null;
+    }
+
+    /**
+     * Put the rendered image of a page.
+     *
+     * @param documentKey The key of the content of document.
+     * @param pageIndex The page index.
+     * @param dpi The DPI (dots per inch) rendered at.
+     * @param image The image, which may be modified by the caller later, so it should
+     *              be copied if it is kept.
+     * @throws IOException If some I/O exceptions occurred when writing the cache.
+     */
+    void put(Object documentKey, int pageIndex, float dpi, BufferedImage image) throws IOException;
+}
@@ -0,0 +1,241 @@
+package cn.pipe.in;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.ObjectUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A size-bounded cache of loaded pdf documents, which are shared by the pdf sources
+ * of the same content, so that a pdf is parsed once when its pages are requested
+ * repeatedly.
+ * <p>
+ * The documents are evicted in LRU (least recently used) order when there are more
+ * than {@link PdfDocumentCache#capacity} documents. A document is referenced by the
+ * handles acquired, it is closed only when it is evicted (or the cache is cleared)
+ * and all handles are closed.
+ * </p>
+ * <p>
+ * A pdf document can not be rendered by multiple threads at the same time, so the
+ * users of a shared document should synchronize on the document, as same as
+ * {@link AbstractPdfBoxSource}.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class PdfDocumentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(PdfDocumentCache.class.getName());
+
+    /**
+     * The cache shared in the process.
+     */
+    private static final PdfDocumentCache SHARED = new PdfDocumentCache(16);
+
+    /**
+     * The entries in access order, the eldest one is the least recently used.
+     */
+    private final Map<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum number of documents cached.
+     */
+    private int capacity;
+
+    public PdfDocumentCache(int capacity) {
+        checkCapacity(capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the cache shared in the process, which caches 16 documents by default.
+     *
+     * @return The shared cache.
+     */
+    public static PdfDocumentCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquire the document of the key, it is loaded if it is not cached. The document
+     * is loaded without holding the lock of cache, if the same key is loaded by other
+     * threads at the same time, the document loaded first is kept.
+     *
+     * @param key The key of the content of pdf, such as the path and the last modified
+     *            time of file.
+     * @param loader The loader which loads the document if it is not cached.
+     * @return The handle of document, which should be closed after using.
+     * @throws IOException If some I/O exceptions occurred when loading the document.
+     */
+    public Handle acquire(Object key, Loader loader) throws IOException {
+        ObjectUtils.excNull(key, "Key is null.");
+        ObjectUtils.excNull(loader, "Loader is null.");
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.refs++;
+                return new Handle(entry);
+            }
+        }
+
+        PDDocument loaded = loader.load();
+        Entry entry;
+        boolean duplicated = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key, loaded);
+                entry.refs++;
+                entries.put(key, entry);
+                evict();
+            } else {
+                entry.refs++;
+                duplicated = true;
+            }
+        }
+        if (duplicated) {
+            loaded.close();
+        }
+        return new Handle(entry);
+    }
+
+    /**
+     * Set the maximum number of documents cached, the least recently used documents
+     * are evicted if there are more.
+     *
+     * @param capacity The maximum number of documents.
+     */
+    public synchronized void setCapacity(int capacity) {
+        checkCapacity(capacity);
+        this.capacity = capacity;
+        evict();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of documents cached.
+     *
+     * @return The number of documents.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evict all documents, the documents being used are closed when they are released.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.evict();
+        }
+        entries.clear();
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            entry.evict();
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.refs--;
+        if (entry.evicted) {
+            entry.closeIfUnused();
+        }
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new InvalidSettingException("Capacity must be greater than 0.");
+        }
+    }
+
+    /**
+     * The loader of pdf document.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Load the pdf document.
+         *
+         * @return The loaded document.
+         * @throws IOException If some I/O exceptions occurred when loading the document.
+         */
+        PDDocument load() throws IOException;
+    }
+
+    /**
+     * The handle of a cached document, the document is released when the handle is closed.
+     */
+    public final class Handle implements Closeable {
+
+        private final Entry entry;
+
+        private boolean released = false;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        public PDDocument getDocument() {
+            return entry.document;
+        }
+
+        /**
+         * Release the document, it is closed if it has been evicted and it is not used
+         * by others. Closing a handle more than once has no effect.
+         */
+        @Override
+        public void close() {
+            synchronized (PdfDocumentCache.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(entry);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object key;
+        private final PDDocument document;
+        private int refs = 0;
+        private boolean evicted = false;
+
+        private Entry(Object key, PDDocument document) {
+            this.key = key;
+            this.document = document;
+        }
+
+        private void evict() {
+            evicted = true;
+            closeIfUnused();
+        }
+
+        private void closeIfUnused() {
+            if (refs > 0) {
+                return;
+            }
+            try {
+                document.close();
+            } catch (IOException e) {
+                LOGGER.warning("Warning: Failed to close the cached PDF document of " + key + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package cn.pipe.in;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.ObjectUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import java.io.File;
+
+/**
+ * The options of loading a pdf document, which bound the memory used by large documents.
+ * <ul>
+ *     <li>The budget of main memory: the buffers of pdfbox (such as the content of an
+ *     input stream and the decoded streams) are kept in main memory up to the budget,
+ *     and spilled to the temporary files beyond it. The content of an input stream
+ *     whose pages are rendered concurrently is copied to a temporary file as well.</li>
+ *     <li>Memory mapping: a pdf file is read through memory mapping rather than reading
+ *     into the buffers of heap, it is only used for the file sources.</li>
+ *     <li>Releasing rendered resources: the resources (such as fonts and images) cached
+ *     by the document are dropped after every page is rendered, which is useful when
+ *     the pages are rendered one by one and never rendered again.</li>
+ * </ul>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class PdfLoadOptions {
+
+    /**
+     * The options which load the document as same as the default of pdfbox.
+     */
+    public static final PdfLoadOptions DEFAULT = new Builder().build();
+
+    /**
+     * The maximum bytes of main memory, -1 means unrestricted without temporary files.
+     */
+    private final long maxMainMemoryBytes;
+
+    /**
+     * The directory of temporary files, null means the default temporary directory.
+     */
+    private final File tempDir;
+
+    /**
+     * Whether to read the pdf file through memory mapping.
+     */
+    private final boolean memoryMapped;
+
+    /**
+     * Whether to release the resources cached by the document after rendering a page.
+     */
+    private final boolean releaseRenderedResources;
+
+    public PdfLoadOptions(Builder bu) {
+        this.maxMainMemoryBytes = bu.maxMainMemoryBytes;
+        this.tempDir = bu.tempDir;
+        this.memoryMapped = bu.memoryMapped;
+        this.releaseRenderedResources = bu.releaseRenderedResources;
+    }
+
+    /**
+     * Obtain the setting of memory usage of pdfbox with these options.
+     *
+     * @param parallelism The number of documents loaded at the same time, the budget of
+     *                    main memory is divided among them.
+     * @return The setting of memory usage.
+     */
+    public MemoryUsageSetting obtainMemoryUsageSetting(int parallelism) {
+        if (maxMainMemoryBytes < 0) {
+            return MemoryUsageSetting.setupMainMemoryOnly();
+        }
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes).setTempDir(tempDir);
+        return parallelism > 1 ? setting.getPartitionedCopy(parallelism) : setting;
+    }
+
+    public long getMaxMainMemoryBytes() {
+        return maxMainMemoryBytes;
+    }
+
+    public File getTempDir() {
+        return tempDir;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public boolean isReleaseRenderedResources() {
+        return releaseRenderedResources;
+    }
+
+
+    public static class Builder implements GenericBuilder<PdfLoadOptions> {
+
+        private long maxMainMemoryBytes = -1;
+        private File tempDir;
+        private boolean memoryMapped = false;
+        private boolean releaseRenderedResources = false;
+
+        /**
+         * Set the budget of main memory, the buffers beyond it are spilled to temporary files.
+         *
+         * @param maxMainMemoryBytes The maximum bytes of main memory.
+         * @return The builder.
+         */
+        public Builder maxMainMemoryBytes(long maxMainMemoryBytes) {
+            if (maxMainMemoryBytes < 0) {
+                throw new InvalidSettingException("The maximum bytes of main memory must be greater than or equal to 0.");
+            }
+            this.maxMainMemoryBytes = maxMainMemoryBytes;
+            return this;
+        }
+
+        /**
+         * Set the directory of temporary files, which is used with the budget of main memory.
+         *
+         * @param tempDir The directory.
+         * @return The builder.
+         */
+        public Builder tempDir(File tempDir) {
+            ObjectUtils.excNull(tempDir, "Temporary directory is null.");
+            this.tempDir = tempDir;
+            return this;
+        }
+
+        public Builder memoryMapped() {
+            this.memoryMapped = true;
+            return this;
+        }
+
+        public Builder releaseRenderedResources() {
+            this.releaseRenderedResources = true;
+            return this;
+        }
+
+        @Override
+        public PdfLoadOptions build() {
+            if (tempDir != null && maxMainMemoryBytes < 0) {
+                throw new InvalidSettingException("The temporary directory is only used with the budget of main memory.");
+            }
+            return new PdfLoadOptions(this);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package cn.pipe.in;
+
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import cn.core.utils.BufferedImageUtils;
+import cn.core.utils.ObjectUtils;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link PageImageCache} with an in-memory tier and an optional on-disk tier.
+ * <ul>
+ *     <li>The in-memory tier is bounded by the bytes of the pixels, the least recently
+ *     used images are evicted when there are more bytes than
+ *     {@link TieredPageImageCache#maxBytes}. An image larger than the bound is not kept
+ *     in memory.</li>
+ *     <li>The on-disk tier stores the images as PNG files in the directory, every image
+ *     put is written through, and the images read from disk are kept in memory again.
+ *     The files are not evicted, they are deleted by {@link TieredPageImageCache#clear()}.</li>
+ * </ul>
+ * The images read from disk are decoded as {@link BufferedImage#TYPE_INT_RGB} (or
+ * {@link BufferedImage#TYPE_INT_ARGB} with alpha), as same as the pages rendered by pdfbox.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class TieredPageImageCache implements PageImageCache {
+
+    /**
+     * The prefix of the names of files in the on-disk tier.
+     */
+    private static final String FILE_PREFIX = "page-";
+
+    /**
+     * The suffix of the names of files in the on-disk tier.
+     */
+    private static final String FILE_SUFFIX = ".png";
+
+    /**
+     * The images in memory, in access order.
+     */
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum bytes of the images in memory.
+     */
+    private final long maxBytes;
+
+    /**
+     * The directory of the on-disk tier, null if there is no on-disk tier.
+     */
+    private final File directory;
+
+    /**
+     * The bytes of the images in memory.
+     */
+    private long usedBytes = 0;
+
+    /**
+     * Create a cache without the on-disk tier.
+     *
+     * @param maxBytes The maximum bytes of the images in memory.
+     */
+    public TieredPageImageCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Create a cache with the on-disk tier.
+     *
+     * @param maxBytes The maximum bytes of the images in memory.
+     * @param directory The directory of the on-disk tier, it is created when the first
+     *                  image is written. Null if there is no on-disk tier.
+     */
+    public TieredPageImageCache(long maxBytes, File directory) {
+        if (maxBytes <= 0) {
+            throw new InvalidSettingException("The maximum bytes must be greater than 0.");
+        }
+        if (directory != null && directory.exists() && !directory.isDirectory()) {
+            throw new InvalidSettingException("The cache directory is not a directory.");
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    @Override
+    public BufferedImage get(Object documentKey, int pageIndex, float dpi) throws IOException {
+        ObjectUtils.excNull(documentKey, "Document key is null.");
+        Key key = new Key(documentKey, pageIndex, dpi);
+        synchronized (this) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return BufferedImageUtils.copy(image);
+            }
+        }
+        if (directory == null) {
+            return null;
+        }
+        File file = fileOf(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            return null;
+        }
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (image.getType() != type) {
+            image = BufferedImageUtils.copy(image, type);
+        }
+        keep(key, BufferedImageUtils.copy(image));
+        return image;
+    }
+
+    @Override
+    public boolean contains(Object documentKey, int pageIndex, float dpi) {
+        ObjectUtils.excNull(documentKey, "Document key is null.");
+        Key key = new Key(documentKey, pageIndex, dpi);
+        synchronized (this) {
+            if (images.containsKey(key)) {
+                return true;
+            }
+        }
+        return directory != null && fileOf(key).isFile();
+    }
+
+    @Override
+    public void put(Object documentKey, int pageIndex, float dpi, BufferedImage image) throws IOException {
+        ObjectUtils.excNull(documentKey, "Document key is null.");
+        ObjectUtils.excNull(image, "Buffered image is null.");
+        Key key = new Key(documentKey, pageIndex, dpi);
+        keep(key, BufferedImageUtils.copy(image));
+        if (directory == null) {
+            return;
+        }
+        File file = fileOf(key);
+        if (file.isFile()) {
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+        // write to a temporary file, so that a partial file is never read
+        Path temp = Files.createTempFile(directory.toPath(), FILE_PREFIX, ".tmp");
+        try {
+            BufferedImageUtils.write(image, "png", temp.toFile());
+            try {
+                Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Get the bytes of the images in memory.
+     *
+     * @return The bytes of images.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Remove the images in memory and delete the files of the on-disk tier.
+     *
+     * @throws IOException If some I/O exceptions occurred when deleting files.
+     */
+    public void clear() throws IOException {
+        synchronized (this) {
+            images.clear();
+            usedBytes = 0;
+        }
+        if (directory == null || !directory.isDirectory()) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory.toPath(),
+                FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private synchronized void keep(Key key, BufferedImage image) {
+        long bytes = sizeOf(image);
+        BufferedImage old = images.remove(key);
+        if (old != null) {
+            usedBytes -= sizeOf(old);
+        }
+        if (bytes > maxBytes) {
+            return;
+        }
+        images.put(key, image);
+        usedBytes += bytes;
+
+        // evict the least recently used images
+        Iterator<BufferedImage> it = images.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= sizeOf(it.next());
+            it.remove();
+        }
+    }
+
+    private File fileOf(Key key) {
+        String name = key.documentKey + "#" + key.pageIndex + "@" + Float.floatToIntBits(key.dpi);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return new File(directory, FILE_PREFIX + String.format("%064x", new BigInteger(1, digest)) + FILE_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new HandlingException(e);
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static final class Key {
+
+        private final Object documentKey;
+        private final int pageIndex;
+        private final float dpi;
+
+        private Key(Object documentKey, int pageIndex, float dpi) {
+            this.documentKey = documentKey;
+            this.pageIndex = pageIndex;
+            this.dpi = dpi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return pageIndex == key.pageIndex
+                    && Float.compare(dpi, key.dpi) == 0
+                    && documentKey.equals(key.documentKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentKey, pageIndex, dpi);
+        }
+    }
+}
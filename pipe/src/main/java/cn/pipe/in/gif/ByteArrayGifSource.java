@@ -3,6 +3,7 @@ package cn.pipe.in.gif;
 import cn.pipe.in.AbstractGifSource;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * A gif source that from byte array.
@@ -20,4 +21,9 @@ public class ByteArrayGifSource extends AbstractGifSource<byte[]> {
     protected int doLoad() throws IOException {
         return decoder.read(new ByteArrayInputStream(source));
     }
+
+    @Override
+    protected InputStream openStream() {
+        return new ByteArrayInputStream(source);
+    }
 }
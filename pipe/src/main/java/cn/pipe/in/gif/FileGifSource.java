@@ -2,9 +2,11 @@ package cn.pipe.in.gif;
 
 import cn.pipe.in.AbstractGifSource;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * A gif source that from file.
@@ -22,4 +24,9 @@ public class FileGifSource extends AbstractGifSource<File> {
     protected int doLoad() throws IOException {
         return decoder.read(new FileInputStream(source));
     }
+
+    @Override
+    protected InputStream openStream() throws IOException {
+        return new BufferedInputStream(new FileInputStream(source));
+    }
 }
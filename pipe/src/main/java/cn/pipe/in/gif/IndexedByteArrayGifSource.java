@@ -0,0 +1,24 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.in.AbstractIndexedGifSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * A gif source that from byte array, which decodes frames lazily.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class IndexedByteArrayGifSource extends AbstractIndexedGifSource<byte[]> {
+
+    public IndexedByteArrayGifSource(byte[] source) {
+        super(source);
+    }
+
+    @Override
+    protected InputStream openStream(long position) {
+        int offset = (int) Math.min(position, source.length);
+        return new ByteArrayInputStream(source, offset, source.length - offset);
+    }
+}
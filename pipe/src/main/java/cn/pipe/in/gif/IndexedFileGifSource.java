@@ -0,0 +1,33 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.in.AbstractIndexedGifSource;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A gif source that from file, which decodes frames lazily.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class IndexedFileGifSource extends AbstractIndexedGifSource<File> {
+
+    public IndexedFileGifSource(File source) {
+        super(source);
+    }
+
+    @Override
+    protected InputStream openStream(long position) throws IOException {
+        FileInputStream in = new FileInputStream(source);
+        try {
+            in.getChannel().position(position);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new BufferedInputStream(in);
+    }
+}
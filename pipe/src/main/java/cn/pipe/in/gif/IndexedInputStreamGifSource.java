@@ -0,0 +1,45 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.in.AbstractIndexedGifSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A gif source that from input stream, which decodes frames lazily.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class IndexedInputStreamGifSource extends AbstractIndexedGifSource<InputStream> {
+
+    /**
+     * The content of the input stream. Since the input stream can only be read once,
+     * it is buffered for decoding the frames from their offsets.
+     */
+    private byte[] content;
+
+    public IndexedInputStreamGifSource(InputStream source) {
+        super(source);
+    }
+
+    @Override
+    protected InputStream openStream(long position) throws IOException {
+        if (content == null) {
+            content = readAll(source);
+        }
+        int offset = (int) Math.min(position, content.length);
+        return new ByteArrayInputStream(content, offset, content.length - offset);
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            os.write(buffer, 0, n);
+        }
+        return os.toByteArray();
+    }
+}
@@ -1,5 +1,6 @@
 package cn.pipe.in.gif;
 
+import cn.core.tool.SourceInfo;
 import cn.pipe.in.AbstractGifSource;
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,4 +21,25 @@ public class InputStreamGifSource extends AbstractGifSource<InputStream> {
     protected int doLoad() throws IOException {
         return decoder.read(source);
     }
+
+    /**
+     * Probe the basic information of the gif. The blocks of the input stream are
+     * scanned only if it supports mark, so that it can be reset for loading, otherwise
+     * the gif is loaded for probing.
+     *
+     * @return The information of the gif.
+     * @throws IOException If some I/O exceptions occurred when reading the gif source.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        if (readCompleted || !source.markSupported()) {
+            return super.probe();
+        }
+        source.mark(Integer.MAX_VALUE);
+        try {
+            return scan(source);
+        } finally {
+            source.reset();
+        }
+    }
 }
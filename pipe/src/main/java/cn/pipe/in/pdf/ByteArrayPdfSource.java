@@ -1,9 +1,12 @@
 package cn.pipe.in.pdf;
 
+import cn.core.ex.HandlingException;
 import cn.pipe.in.AbstractPdfBoxSource;
 import org.apache.pdfbox.pdmodel.PDDocument;
 
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * A pdf source that from byte array.
@@ -13,12 +16,37 @@ import java.io.IOException;
  */
 public class ByteArrayPdfSource extends AbstractPdfBoxSource<byte[]> {
 
+    /**
+     * The key of the content in the cache of documents.
+     */
+    private String key;
+
     public ByteArrayPdfSource(byte[] source) {
         super(source);
     }
 
     @Override
     protected PDDocument doLoad() throws IOException {
-        return PDDocument.load(source);
+        return PDDocument.load(source, "", null, null, obtainMemoryUsageSetting());
+    }
+
+    /**
+     * The key is the SHA-256 digest of the content, which is computed once.
+     */
+    @Override
+    protected Object cacheKey() {
+        if (key == null) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(source);
+                StringBuilder builder = new StringBuilder("sha256:");
+                for (byte b : digest) {
+                    builder.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+                }
+                key = builder.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new HandlingException(e);
+            }
+        }
+        return key;
     }
 }
@@ -1,6 +1,10 @@
 package cn.pipe.in.pdf;
 
 import cn.pipe.in.AbstractPdfBoxSource;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import java.io.File;
 import java.io.IOException;
@@ -17,8 +21,37 @@ public class FilePdfSource extends AbstractPdfBoxSource<File> {
         super(source);
     }
 
+    /**
+     * Load the pdf file with the options, it is read through memory mapping if the
+     * option is set.
+     */
     @Override
     protected PDDocument doLoad() throws IOException {
-        return PDDocument.load(source);
+        MemoryUsageSetting setting = obtainMemoryUsageSetting();
+        if (!loadOptions.isMemoryMapped()) {
+            return PDDocument.load(source, setting);
+        }
+        // as same as loading from the file, the mapped file is closed with the document
+        MappedFileAccess access = new MappedFileAccess(source);
+        ScratchFile scratchFile = null;
+        try {
+            scratchFile = new ScratchFile(setting);
+            PDFParser parser = new PDFParser(access, "", scratchFile);
+            parser.parse();
+            return parser.getPDDocument();
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(scratchFile);
+            access.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The key is the canonical path with the last modified time and the length of file,
+     * so that a modified file is loaded again.
+     */
+    @Override
+    protected Object cacheKey() throws IOException {
+        return "file:" + source.getCanonicalPath() + ":" + source.lastModified() + ":" + source.length();
     }
 }
@@ -1,10 +1,15 @@
 package cn.pipe.in.pdf;
 
+import cn.core.tool.SourceInfo;
 import cn.pipe.in.AbstractPdfBoxSource;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * A pdf source that from input stream.
@@ -14,12 +19,93 @@ import java.io.InputStream;
  */
 public class InputStreamPdfSource extends AbstractPdfBoxSource<InputStream> {
 
+    /**
+     * The content of the input stream. Since the input stream can only be read once,
+     * it is buffered for reloading the pdf document when rendering pages concurrently.
+     */
+    private byte[] content;
+
+    /**
+     * The temporary file of the content of the input stream, which is used instead of
+     * buffering the content in the heap when the budget of main memory is set.
+     */
+    private File spilled;
+
     public InputStreamPdfSource(InputStream source) {
         super(source);
     }
 
     @Override
     protected PDDocument doLoad() throws IOException {
-        return PDDocument.load(source);
+        if (parallelism > 1) {
+            if (loadOptions.getMaxMainMemoryBytes() >= 0) {
+                spilled = spill();
+                return PDDocument.load(spilled, obtainMemoryUsageSetting());
+            }
+            content = IOUtils.toByteArray(source);
+            return PDDocument.load(content, "", null, null, obtainMemoryUsageSetting());
+        }
+        // the content is buffered by pdfbox, which is spilled to the temporary files
+        // beyond the budget of main memory
+        return PDDocument.load(source, obtainMemoryUsageSetting());
+    }
+
+    /**
+     * Since the input stream can only be read once, the pdf document is loaded and
+     * kept for rendering pages later.
+     */
+    @Override
+    public SourceInfo probe() throws IOException {
+        loadIfNot();
+        return super.probe();
+    }
+
+    @Override
+    protected PDDocument doReload() throws IOException {
+        if (spilled != null) {
+            return PDDocument.load(spilled, obtainMemoryUsageSetting());
+        }
+        return PDDocument.load(content, "", null, null, obtainMemoryUsageSetting());
+    }
+
+    /**
+     * The pdf document can be reloaded only if the content of input stream is
+     * buffered, which means the parallelism should be set before loading.
+     */
+    @Override
+    protected boolean isReloadable() {
+        return content != null || spilled != null;
+    }
+
+    /**
+     * Free resources, and delete the temporary file of the content.
+     *
+     * @throws IOException If some I/O exceptions occurred when closing resource.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (spilled != null) {
+                Files.deleteIfExists(spilled.toPath());
+                spilled = null;
+            }
+        }
+    }
+
+    /**
+     * Copy the content of input stream to a temporary file in the directory of the
+     * load options.
+     */
+    private File spill() throws IOException {
+        File file = File.createTempFile("imglib-pdf-", ".pdf", loadOptions.getTempDir());
+        try {
+            Files.copy(source, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+        return file;
     }
 }
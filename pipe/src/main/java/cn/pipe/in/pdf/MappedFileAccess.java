@@ -0,0 +1,162 @@
+package cn.pipe.in.pdf;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link RandomAccessRead} of file, which reads the file through memory mapping.
+ * The file is mapped in segments, so that a file larger than 2 GB can be read. The
+ * pages of file are loaded by the operating system when they are read, rather than
+ * being copied to the buffers of heap.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+final class MappedFileAccess implements RandomAccessRead {
+
+    /**
+     * The size of a mapped segment is 1 GB.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final long length;
+
+    private MappedByteBuffer[] segments;
+
+    private long position = 0;
+
+    MappedFileAccess(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            length = channel.size();
+            int count = (int) ((length + SEGMENT_MASK) >> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length - start, SEGMENT_MASK + 1));
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (position >= length) {
+            return -1;
+        }
+        int b = segments[(int) (position >> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK)) & 0xff;
+        position++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int total = (int) Math.min(len, length - position);
+        int done = 0;
+        while (done < total) {
+            MappedByteBuffer segment = segments[(int) (position >> SEGMENT_SHIFT)];
+            int offset = (int) (position & SEGMENT_MASK);
+            int n = Math.min(total - done, segment.limit() - offset);
+            // the position of Buffer, which is overridden since Java 9
+            ((Buffer) segment).position(offset);
+            segment.get(b, off + done, n);
+            done += n;
+            position += n;
+        }
+        return total;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException("Invalid position " + position);
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return segments == null;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        int b = read();
+        if (b != -1) {
+            rewind(1);
+        }
+        return b;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int len) throws IOException {
+        byte[] b = new byte[len];
+        if (len > 0 && read(b, 0, len) < len) {
+            throw new EOFException("Premature end of file");
+        }
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return position >= length;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return (int) Math.max(0, Math.min(length - position, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Drop the mapped segments, which are unmapped when they are collected.
+     */
+    @Override
+    public void close() {
+        segments = null;
+    }
+
+    private void checkClosed() throws IOException {
+        if (segments == null) {
+            throw new IOException("The mapped file has been closed.");
+        }
+    }
+}
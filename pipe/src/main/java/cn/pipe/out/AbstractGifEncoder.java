@@ -2,17 +2,24 @@ package cn.pipe.out;
 
 import cn.core.BufferedImageEncoder;
 import cn.core.GenericBuilder;
+import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
 import cn.core.utils.CollectionUtils;
 import cn.core.utils.ObjectUtils;
 import com.madgag.gif.fmsware.AnimatedGifEncoder;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
+import java.util.ListIterator;
 
 /**
  * An abstract superclass of encoder for buffered image that can encode image to GIF format.
+ * <p>
+ * Besides encoding a list of images, the frames can be encoded one by one as they are
+ * produced, by {@link AbstractGifEncoder#open()}, {@link AbstractGifEncoder#addFrame(BufferedImage)}
+ * and {@link AbstractGifEncoder#finish()}, so that the frames need not be in memory
+ * at the same time.
+ * </p>
  *
  * @author tracy
  * @since 0.2.1
@@ -41,9 +48,17 @@ public abstract class AbstractGifEncoder implements BufferedImageEncoder {
     protected boolean reverse;
 
     protected AbstractGifEncoder(AbstractBuilder builder) {
-        this.encoder = builder.encoder == null
-                ? new AnimatedGifEncoder()
-                : builder.encoder;
+        if (builder.encoder != null) {
+            this.encoder = builder.encoder;
+        } else {
+            if (builder.paletteSamples > 0 || builder.frameDelta) {
+                this.encoder = new OptimizedGifEncoder(builder.paletteSamples, builder.frameDelta);
+            } else if (builder.parallelism > 1) {
+                this.encoder = new ConcurrentGifEncoder(builder.parallelism);
+            } else {
+                this.encoder = new AnimatedGifEncoder();
+            }
+        }
         this.delay = builder.delay;
         this.repeat = builder.repeat;
         this.reverse = builder.reverse;
@@ -59,6 +74,39 @@ public abstract class AbstractGifEncoder implements BufferedImageEncoder {
         ObjectUtils.excNull(sources, "Images to be encoded is null.");
         CollectionUtils.excEmpty(sources, "Images to be encoded is empty.");
 
+        open();
+
+        try {
+            // the global palette is sampled from all frames rather than the first frames
+            if (encoder instanceof OptimizedGifEncoder) {
+                ((OptimizedGifEncoder) encoder).preparePalette(sources);
+            }
+
+            // walk the images backwards to reverse the order, the list is not modified
+            ListIterator<BufferedImage> frames = sources.listIterator(reverse ? sources.size() : 0);
+            while (reverse ? frames.hasPrevious() : frames.hasNext()) {
+                addFrame(reverse ? frames.previous() : frames.next());
+            }
+        } catch (IOException | RuntimeException e) {
+            // close the output and release the workers of encoder
+            try {
+                encoder.finish();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        finish();
+    }
+
+    /**
+     * Start encoding frames one by one. The frames are written in the order they are
+     * added, the option of reversing is only applied to {@link AbstractGifEncoder#encode(List)}.
+     *
+     * @throws IOException If the output can not be opened.
+     */
+    public void open() throws IOException {
         if (delay >= 0) {
             encoder.setDelay(delay);
         }
@@ -67,17 +115,42 @@ public abstract class AbstractGifEncoder implements BufferedImageEncoder {
         }
 
         setOutput();
-
-        // reverse the images order
-        if (reverse) {
-            Collections.reverse(sources);
+        if (!encoder.isStarted()) {
+            throw new IOException("Failed to open the output of gif.");
         }
+    }
 
-        for (BufferedImage frame : sources) {
-            encoder.addFrame(frame);
+    /**
+     * Add the next frame. The frame may be written later, for example the frames are
+     * quantized concurrently by {@link ConcurrentGifEncoder}.
+     *
+     * @param frame The frame.
+     * @throws IOException If some I/O exceptions occurred when writing frames.
+     * @throws HandlingException If the encoding has not been opened.
+     */
+    public void addFrame(BufferedImage frame) throws IOException {
+        ObjectUtils.excNull(frame, "Frame is null.");
+        if (!encoder.isStarted()) {
+            throw new HandlingException("The gif encoding has not been opened.");
         }
+        if (!encoder.addFrame(frame)) {
+            throw new IOException("Failed to write the frame of gif.");
+        }
+    }
 
-        encoder.finish();
+    /**
+     * Write the pending frames and finish encoding.
+     *
+     * @throws IOException If some I/O exceptions occurred when writing frames.
+     * @throws HandlingException If the encoding has not been opened.
+     */
+    public void finish() throws IOException {
+        if (!encoder.isStarted()) {
+            throw new HandlingException("The gif encoding has not been opened.");
+        }
+        if (!encoder.finish()) {
+            throw new IOException("Failed to finish writing the gif.");
+        }
     }
 
     /**
@@ -91,6 +164,9 @@ public abstract class AbstractGifEncoder implements BufferedImageEncoder {
         protected int delay;
         protected int repeat;
         protected boolean reverse = false;
+        protected int parallelism = 1;
+        protected int paletteSamples = 0;
+        protected boolean frameDelta = false;
 
         public AbstractBuilder encoder(AnimatedGifEncoder encoder) {
             this.encoder = encoder;
@@ -118,5 +194,53 @@ public abstract class AbstractGifEncoder implements BufferedImageEncoder {
             this.reverse = true;
             return this;
         }
+
+        /**
+         * Set the number of workers which quantize the colors of frames concurrently,
+         * it is ignored when the encoder is set.
+         *
+         * @param parallelism The number of workers, it is 1 by default which means
+         *                    encoding frames one by one.
+         * @return The builder.
+         */
+        public AbstractBuilder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            if (parallelism <= 0) {
+                throw new InvalidSettingException("Parallelism must be greater than 0.");
+            }
+            return this;
+        }
+
+        /**
+         * Use one global palette for all frames, which is quantized from the sampled frames,
+         * instead of quantizing every frame. It is ignored when the encoder is set, and the
+         * parallelism is ignored when it is used.
+         *
+         * @param samples The number of frames sampled. When encoding frames one by one, the
+         *                first frames are sampled, and they are buffered until the palette is
+         *                quantized.
+         * @return The builder.
+         * @see OptimizedGifEncoder
+         */
+        public AbstractBuilder globalPalette(int samples) {
+            this.paletteSamples = samples;
+            if (samples <= 0) {
+                throw new InvalidSettingException("The number of sampled frames must be greater than 0.");
+            }
+            return this;
+        }
+
+        /**
+         * Write only the region changed from the previous frame, the unchanged pixels are
+         * transparent. It is ignored when the encoder is set, and the parallelism is ignored
+         * when it is used.
+         *
+         * @return The builder.
+         * @see OptimizedGifEncoder
+         */
+        public AbstractBuilder frameDelta() {
+            this.frameDelta = true;
+            return this;
+        }
     }
 }
@@ -0,0 +1,269 @@
+package cn.pipe.out;
+
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import com.madgag.gif.fmsware.AnimatedGifEncoder;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An {@link AnimatedGifEncoder} which quantizes the colors of frames concurrently.
+ * <p>
+ * The color quantization (NeuQuant) of a frame is much slower than the LZW encoding.
+ * When a frame is added, it is quantized by a worker, meanwhile the frames quantized
+ * are encoded and written in order by the thread which adds frames. There are at most
+ * {@link ConcurrentGifEncoder#parallelism} frames being quantized, the thread which
+ * adds frames waits for the earliest one when there are more. The output is same as
+ * the one of {@link AnimatedGifEncoder}.
+ * </p>
+ * <p>
+ * Since the frames are quantized asynchronously, a frame should not be modified after
+ * it is added. The workers are released when {@link ConcurrentGifEncoder#finish()} is
+ * called.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class ConcurrentGifEncoder extends AnimatedGifEncoder {
+
+    /**
+     * The number of workers which quantize frames concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * The frames being quantized, in order of adding.
+     */
+    private final Deque<Future<QuantizedFrame>> pending = new ArrayDeque<>();
+
+    /**
+     * The workers, which are created when the first frame is added.
+     */
+    private ExecutorService service;
+
+    /**
+     * Whether some I/O exceptions occurred when writing frames.
+     */
+    private boolean failed = false;
+
+    public ConcurrentGifEncoder(int parallelism) {
+        if (parallelism <= 0) {
+            throw new InvalidSettingException("Parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean start(OutputStream os) {
+        failed = false;
+        return super.start(os);
+    }
+
+    /**
+     * Adds next GIF frame, the frame is quantized concurrently and written after the
+     * frames added before.
+     *
+     * @param im BufferedImage containing frame to write.
+     * @return false if the encoder is not started or writing failed.
+     * @throws HandlingException If the thread is interrupted when waiting for a frame, the
+     * pending frames are dropped and the workers are released.
+     */
+    @Override
+    public boolean addFrame(BufferedImage im) {
+        if ((im == null) || !started || failed) {
+            return false;
+        }
+        if (!sizeSet) {
+            // use first frame's size
+            setSize(im.getWidth(), im.getHeight());
+        }
+        // the settings of the frame are captured since they may be changed for the next frames
+        Quantizer quantizer = new Quantizer(im, width, height, sample, delay, dispose,
+                transparent, transparentExactMatch, background);
+        if (service == null) {
+            service = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread thread = new Thread(r, "gif-quantizer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pending.add(service.submit(quantizer::quantize));
+
+        // write the quantized frames without waiting, unless there are too many pending
+        try {
+            while (!pending.isEmpty() && (pending.size() > parallelism || pending.peek().isDone())) {
+                writeFrame(take());
+            }
+        } catch (RuntimeException | Error e) {
+            // the encoding can not go on, so the other frames are dropped
+            failed = true;
+            release();
+            throw e;
+        }
+        return !failed;
+    }
+
+    /**
+     * Writes the pending frames, and then flushes any pending data and closes output
+     * file. The workers are released.
+     *
+     * @return true if all frames are written.
+     * @throws HandlingException If the thread is interrupted when waiting for a frame.
+     */
+    @Override
+    public boolean finish() {
+        if (!started) {
+            return false;
+        }
+        try {
+            while (!pending.isEmpty()) {
+                writeFrame(take());
+            }
+        } finally {
+            release();
+        }
+        return super.finish() && !failed;
+    }
+
+    /**
+     * Cancel the frames being quantized and release the workers.
+     */
+    private void release() {
+        pending.forEach(o -> o.cancel(true));
+        pending.clear();
+        if (service != null) {
+            service.shutdownNow();
+            service = null;
+        }
+    }
+
+    private QuantizedFrame take() {
+        Future<QuantizedFrame> future = pending.poll();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HandlingException("Interrupted while quantizing frames.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HandlingException(cause);
+        }
+    }
+
+    /**
+     * Write a quantized frame, as same as {@link AnimatedGifEncoder#addFrame(BufferedImage)}.
+     */
+    private void writeFrame(QuantizedFrame frame) {
+        if (failed) {
+            return;
+        }
+        // the current settings are for the next frames
+        int currentDelay = delay;
+        int currentDispose = dispose;
+        Color currentTransparent = transparent;
+
+        delay = frame.delay;
+        dispose = frame.dispose;
+        transparent = frame.transparent;
+        colorTab = frame.colorTab;
+        indexedPixels = frame.indexedPixels;
+        System.arraycopy(frame.usedEntry, 0, usedEntry, 0, usedEntry.length);
+        if (transparent != null) {
+            // otherwise the transparent index is kept as same as the encoder
+            transIndex = frame.transIndex;
+        }
+        colorDepth = 8;
+        palSize = 7;
+        try {
+            if (firstFrame) {
+                writeLSD(); // logical screen descriptior
+                writePalette(); // global color table
+                if (repeat >= 0) {
+                    // use NS app extension to indicate reps
+                    writeNetscapeExt();
+                }
+            }
+            writeGraphicCtrlExt(); // write graphic control extension
+            writeImageDesc(); // image descriptor
+            if (!firstFrame) {
+                writePalette(); // local color table
+            }
+            writePixels(); // encode and write pixel data
+            firstFrame = false;
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            indexedPixels = null;
+            delay = currentDelay;
+            dispose = currentDispose;
+            transparent = currentTransparent;
+        }
+    }
+
+    /**
+     * A frame whose colors are quantized, with the settings which are used when writing.
+     */
+    private static class QuantizedFrame {
+
+        private final int delay;
+        private final int dispose;
+        private final Color transparent;
+        private final byte[] colorTab;
+        private final byte[] indexedPixels;
+        private final boolean[] usedEntry;
+        private final int transIndex;
+
+        private QuantizedFrame(int delay, int dispose, Color transparent, byte[] colorTab,
+                               byte[] indexedPixels, boolean[] usedEntry, int transIndex) {
+            this.delay = delay;
+            this.dispose = dispose;
+            this.transparent = transparent;
+            this.colorTab = colorTab;
+            this.indexedPixels = indexedPixels;
+            this.usedEntry = usedEntry;
+            this.transIndex = transIndex;
+        }
+    }
+
+    /**
+     * An encoder which only quantizes a frame, as same as {@link AnimatedGifEncoder}.
+     */
+    private static class Quantizer extends AnimatedGifEncoder {
+
+        private Quantizer(BufferedImage im, int width, int height, int sample, int delay, int dispose,
+                          Color transparent, boolean transparentExactMatch, Color background) {
+            setSize(width, height);
+            setQuality(sample);
+            setTransparent(transparent, transparentExactMatch);
+            setBackground(background);
+            this.image = im;
+            this.delay = delay;
+            this.dispose = dispose;
+        }
+
+        private QuantizedFrame quantize() {
+            getImagePixels(); // convert to correct format if necessary
+            analyzePixels(); // build color table & map pixels
+            QuantizedFrame frame = new QuantizedFrame(delay, dispose, transparent, colorTab,
+                    indexedPixels, usedEntry.clone(), transIndex);
+            image = null;
+            indexedPixels = null;
+            return frame;
+        }
+    }
+}
@@ -63,6 +63,21 @@ public class GifFileEncoder extends AbstractGifEncoder {
             return (Builder) super.reverse();
         }
 
+        @Override
+        public Builder parallelism(int parallelism) {
+            return (Builder) super.parallelism(parallelism);
+        }
+
+        @Override
+        public Builder globalPalette(int samples) {
+            return (Builder) super.globalPalette(samples);
+        }
+
+        @Override
+        public Builder frameDelta() {
+            return (Builder) super.frameDelta();
+        }
+
         @Override
         public AbstractGifEncoder build() {
             if (StringUtils.isEmpty(filename)) {
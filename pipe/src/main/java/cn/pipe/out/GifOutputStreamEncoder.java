@@ -56,6 +56,21 @@ public class GifOutputStreamEncoder extends AbstractGifEncoder {
             return (Builder) super.reverse();
         }
 
+        @Override
+        public Builder parallelism(int parallelism) {
+            return (Builder) super.parallelism(parallelism);
+        }
+
+        @Override
+        public Builder globalPalette(int samples) {
+            return (Builder) super.globalPalette(samples);
+        }
+
+        @Override
+        public Builder frameDelta() {
+            return (Builder) super.frameDelta();
+        }
+
         @Override
         public AbstractGifEncoder build() {
             ObjectUtils.excNull(stream, "OutputStream has not been set.");
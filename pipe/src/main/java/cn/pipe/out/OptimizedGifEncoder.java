@@ -0,0 +1,466 @@
+package cn.pipe.out;
+
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import com.madgag.gif.fmsware.AnimatedGifEncoder;
+import com.madgag.gif.fmsware.NeuQuant;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An {@link AnimatedGifEncoder} which reduces the size of gif and the cost of encoding,
+ * for the frames which share colors and change in small regions, such as the frames of
+ * screenshots or pdf pages.
+ * <ul>
+ *     <li>Global palette: the colors of frames are quantized once, from the sampled frames.
+ *     The palette is written as the global color table, and the frames are mapped to it
+ *     without local color tables. The first frames added are buffered until there are
+ *     enough samples, unless the palette is prepared by
+ *     {@link OptimizedGifEncoder#preparePalette(List)}.</li>
+ *     <li>Frame delta: only the bounding rectangle of the pixels changed from the previous
+ *     frame is written, the unchanged pixels in it are transparent. The frames are not
+ *     disposed, so a color index is reserved for transparency, and the transparent color
+ *     and the disposal code set to the encoder are ignored.</li>
+ * </ul>
+ * Without both of them, the frames are written as same as {@link AnimatedGifEncoder}.
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class OptimizedGifEncoder extends AnimatedGifEncoder {
+
+    /**
+     * The disposal code of the frames which are composed on the previous frames.
+     */
+    private static final int DO_NOT_DISPOSE = 1;
+
+    /**
+     * The number of frames sampled for the global palette, 0 if every frame has its own palette.
+     */
+    private final int paletteSamples;
+
+    /**
+     * Whether to write only the changed region of frames.
+     */
+    private final boolean frameDelta;
+
+    /**
+     * The frames which wait for the global palette.
+     */
+    private final List<Frame> buffered = new ArrayList<>();
+
+    /**
+     * The quantizer of the global palette.
+     */
+    private NeuQuant globalQuant;
+
+    /**
+     * The global palette (RGB).
+     */
+    private byte[] globalColorTab;
+
+    /**
+     * The index reserved for transparency in the frame delta mode, -1 if not reserved.
+     */
+    private int reservedIndex = -1;
+
+    /**
+     * The index which is used instead of the reserved index, it is the closest color.
+     */
+    private int replacedIndex;
+
+    /**
+     * The pixels (BGR) of the previous frame.
+     */
+    private byte[] previous;
+
+    /**
+     * Whether some I/O exceptions occurred when writing frames.
+     */
+    private boolean failed = false;
+
+    /**
+     * Create an encoder.
+     *
+     * @param paletteSamples The number of frames sampled for the global palette, 0 if every
+     *                       frame has its own palette.
+     * @param frameDelta Whether to write only the changed region of frames.
+     */
+    public OptimizedGifEncoder(int paletteSamples, boolean frameDelta) {
+        if (paletteSamples < 0) {
+            throw new InvalidSettingException("The number of sampled frames cannot be less than 0.");
+        }
+        this.paletteSamples = paletteSamples;
+        this.frameDelta = frameDelta;
+    }
+
+    @Override
+    public boolean start(OutputStream os) {
+        reset();
+        return super.start(os);
+    }
+
+    /**
+     * Prepare the global palette from the frames, before adding frames. At most
+     * {@link OptimizedGifEncoder#paletteSamples} frames are sampled evenly, it does nothing
+     * if the encoder does not use a global palette.
+     *
+     * @param frames The frames to be added.
+     * @throws HandlingException If the encoder is not started or some frames have been added.
+     */
+    public void preparePalette(List<BufferedImage> frames) {
+        if (paletteSamples == 0 || frames == null || frames.isEmpty()) {
+            return;
+        }
+        if (!started || globalColorTab != null || !buffered.isEmpty()) {
+            throw new HandlingException("The palette must be prepared before adding frames.");
+        }
+        if (!sizeSet) {
+            // use first frame's size
+            setSize(frames.get(0).getWidth(), frames.get(0).getHeight());
+        }
+        int count = Math.min(paletteSamples, frames.size());
+        List<byte[]> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(pixelsOf(frames.get((int) ((long) i * frames.size() / count))));
+        }
+        buildPalette(samples);
+    }
+
+    /**
+     * Adds next GIF frame. The frame is buffered if there are not enough frames sampled
+     * for the global palette.
+     *
+     * @param im BufferedImage containing frame to write.
+     * @return false if the encoder is not started or writing failed.
+     */
+    @Override
+    public boolean addFrame(BufferedImage im) {
+        if ((im == null) || !started || failed) {
+            return false;
+        }
+        if (!sizeSet) {
+            // use first frame's size
+            setSize(im.getWidth(), im.getHeight());
+        }
+        // the settings of the frame are captured since they may be changed for the next frames
+        Frame frame = new Frame(pixelsOf(im), delay, dispose, transparent, transparentExactMatch);
+        if (paletteSamples > 0 && globalColorTab == null) {
+            buffered.add(frame);
+            if (buffered.size() >= paletteSamples) {
+                flushBuffered();
+            }
+        } else {
+            writeFrame(frame);
+        }
+        return !failed;
+    }
+
+    /**
+     * Writes the buffered frames, and then flushes any pending data and closes output file.
+     *
+     * @return true if all frames are written.
+     */
+    @Override
+    public boolean finish() {
+        if (!started) {
+            return false;
+        }
+        try {
+            if (!buffered.isEmpty()) {
+                flushBuffered();
+            }
+            return super.finish() && !failed;
+        } finally {
+            reset();
+        }
+    }
+
+    private void reset() {
+        buffered.clear();
+        globalQuant = null;
+        globalColorTab = null;
+        reservedIndex = -1;
+        previous = null;
+        failed = false;
+    }
+
+    /**
+     * Get the pixels (BGR) of a frame in the size of gif.
+     */
+    private byte[] pixelsOf(BufferedImage im) {
+        image = im;
+        getImagePixels(); // convert to correct format if necessary
+        // the pixels of the frame itself are copied, since they are kept
+        byte[] res = image == im ? pixels.clone() : pixels;
+        image = null;
+        pixels = null;
+        return res;
+    }
+
+    private void flushBuffered() {
+        List<byte[]> samples = new ArrayList<>(buffered.size());
+        for (Frame frame : buffered) {
+            samples.add(frame.pixels);
+        }
+        buildPalette(samples);
+        for (Frame frame : buffered) {
+            writeFrame(frame);
+        }
+        buffered.clear();
+    }
+
+    private void buildPalette(List<byte[]> samples) {
+        byte[] all;
+        if (samples.size() == 1) {
+            all = samples.get(0);
+        } else {
+            all = new byte[samples.stream().mapToInt(o -> o.length).sum()];
+            int offset = 0;
+            for (byte[] sample : samples) {
+                System.arraycopy(sample, 0, all, offset, sample.length);
+                offset += sample.length;
+            }
+        }
+        globalQuant = new NeuQuant(all, all.length, sample);
+        globalColorTab = toRGB(globalQuant.process());
+        reserve(globalColorTab);
+    }
+
+    /**
+     * Write a frame, the unchanged region is skipped in the frame delta mode.
+     */
+    private void writeFrame(Frame frame) {
+        if (failed) {
+            return;
+        }
+        Rectangle rect = new Rectangle(0, 0, width, height);
+        byte[] unchanged = null;
+        if (frameDelta && previous != null) {
+            rect = changedRect(previous, frame.pixels);
+            unchanged = previous;
+        }
+
+        NeuQuant quant = globalQuant;
+        byte[] table = globalColorTab;
+        if (quant == null) {
+            // the local palette of the region
+            byte[] region = crop(frame.pixels, rect);
+            quant = new NeuQuant(region, region.length, sample);
+            table = toRGB(quant.process());
+            if (frameDelta) {
+                reserve(table);
+            }
+        }
+
+        Arrays.fill(usedEntry, globalQuant != null);
+        colorTab = table;
+        indexedPixels = map(quant, frame.pixels, unchanged, rect);
+        colorDepth = 8;
+        palSize = 7;
+
+        int disposal;
+        boolean transparency;
+        if (frameDelta) {
+            disposal = DO_NOT_DISPOSE;
+            transparency = true;
+            transIndex = reservedIndex;
+        } else {
+            // as same as the encoder
+            transparency = frame.transparent != null;
+            disposal = frame.dispose >= 0 ? frame.dispose & 7 : (transparency ? 2 : 0);
+            if (transparency) {
+                transIndex = frame.transparentExactMatch ? findExact(frame.transparent) : findClosest(frame.transparent);
+            }
+        }
+
+        try {
+            if (firstFrame) {
+                writeLSD(); // logical screen descriptior
+                writePalette(); // global color table
+                if (repeat >= 0) {
+                    // use NS app extension to indicate reps
+                    writeNetscapeExt();
+                }
+            }
+            writeGraphicCtrlExt(disposal, transparency, frame.delay);
+            // the global color table is used by the first frame or all frames
+            boolean localTable = !firstFrame && globalColorTab == null;
+            writeImageDesc(rect, localTable);
+            if (localTable) {
+                writePalette(); // local color table
+            }
+            writePixels(rect);
+            firstFrame = false;
+            previous = frame.pixels;
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            indexedPixels = null;
+        }
+    }
+
+    /**
+     * Get the bounding rectangle of the changed pixels, a pixel at the top left corner if
+     * nothing is changed, since a frame has one pixel at least.
+     */
+    private Rectangle changedRect(byte[] before, byte[] after) {
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < height; y++) {
+            int k = y * width * 3;
+            for (int x = 0; x < width; x++, k += 3) {
+                if (before[k] != after[k] || before[k + 1] != after[k + 1] || before[k + 2] != after[k + 2]) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+        if (maxX < 0) {
+            return new Rectangle(0, 0, 1, 1);
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Copy the pixels (BGR) in the region.
+     */
+    private byte[] crop(byte[] src, Rectangle rect) {
+        if (rect.width == width && rect.height == height) {
+            return src;
+        }
+        byte[] res = new byte[rect.width * rect.height * 3];
+        for (int y = 0; y < rect.height; y++) {
+            System.arraycopy(src, ((rect.y + y) * width + rect.x) * 3, res, y * rect.width * 3, rect.width * 3);
+        }
+        return res;
+    }
+
+    /**
+     * Map the pixels in the region to the palette, the unchanged pixels are mapped to
+     * the reserved index.
+     */
+    private byte[] map(NeuQuant quant, byte[] src, byte[] unchanged, Rectangle rect) {
+        byte[] res = new byte[rect.width * rect.height];
+        int i = 0;
+        for (int y = rect.y; y < rect.y + rect.height; y++) {
+            int k = (y * width + rect.x) * 3;
+            for (int x = 0; x < rect.width; x++, k += 3) {
+                int index;
+                if (unchanged != null && unchanged[k] == src[k]
+                        && unchanged[k + 1] == src[k + 1] && unchanged[k + 2] == src[k + 2]) {
+                    index = reservedIndex;
+                } else {
+                    index = quant.map(src[k] & 0xff, src[k + 1] & 0xff, src[k + 2] & 0xff);
+                    if (index == reservedIndex) {
+                        index = replacedIndex;
+                    }
+                    usedEntry[index] = true;
+                }
+                res[i++] = (byte) index;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Reserve an index for transparency, it is one of the closest two colors, so that the
+     * colors lost are the least.
+     */
+    private void reserve(byte[] table) {
+        if (!frameDelta) {
+            return;
+        }
+        int colors = table.length / 3;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < colors; i++) {
+            for (int j = i + 1; j < colors; j++) {
+                int dr = (table[i * 3] & 0xff) - (table[j * 3] & 0xff);
+                int dg = (table[i * 3 + 1] & 0xff) - (table[j * 3 + 1] & 0xff);
+                int db = (table[i * 3 + 2] & 0xff) - (table[j * 3 + 2] & 0xff);
+                int d = dr * dr + dg * dg + db * db;
+                if (d < min) {
+                    min = d;
+                    replacedIndex = i;
+                    reservedIndex = j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert the color map from BGR to RGB.
+     */
+    private static byte[] toRGB(byte[] table) {
+        for (int i = 0; i < table.length; i += 3) {
+            byte temp = table[i];
+            table[i] = table[i + 2];
+            table[i + 2] = temp;
+        }
+        return table;
+    }
+
+    private void writeGraphicCtrlExt(int disposal, boolean transparency, int frameDelay) throws IOException {
+        out.write(0x21); // extension introducer
+        out.write(0xf9); // GCE label
+        out.write(4); // data block size
+        // packed fields: disposal and transparency flag
+        out.write(disposal << 2 | (transparency ? 1 : 0));
+        writeShort(frameDelay); // delay x 1/100 sec
+        out.write(transIndex); // transparent color index
+        out.write(0); // block terminator
+    }
+
+    private void writeImageDesc(Rectangle rect, boolean localTable) throws IOException {
+        out.write(0x2c); // image separator
+        writeShort(rect.x);
+        writeShort(rect.y);
+        writeShort(rect.width);
+        writeShort(rect.height);
+        // packed fields: local color table flag and size
+        out.write(localTable ? 0x80 | palSize : 0);
+    }
+
+    private void writePixels(Rectangle rect) throws IOException {
+        // the LZW encoder encodes the pixels in the size of encoder
+        int screenWidth = width;
+        int screenHeight = height;
+        width = rect.width;
+        height = rect.height;
+        try {
+            writePixels();
+        } finally {
+            width = screenWidth;
+            height = screenHeight;
+        }
+    }
+
+    /**
+     * A frame with the settings which are used when writing.
+     */
+    private static class Frame {
+
+        private final byte[] pixels;
+        private final int delay;
+        private final int dispose;
+        private final Color transparent;
+        private final boolean transparentExactMatch;
+
+        private Frame(byte[] pixels, int delay, int dispose, Color transparent, boolean transparentExactMatch) {
+            this.pixels = pixels;
+            this.delay = delay;
+            this.dispose = dispose;
+            this.transparent = transparent;
+            this.transparentExactMatch = transparentExactMatch;
+        }
+    }
+}
@@ -1,17 +1,58 @@
 package cn.pipe.ypipe.merge;
 
 import cn.core.GenericBuilder;
+import cn.core.ex.HandlingException;
+import cn.core.tool.ImageBuffer;
 import cn.core.tool.Range;
+import cn.core.utils.CollectionUtils;
+import cn.core.utils.ConcurrentUtils;
 import cn.core.utils.ObjectUtils;
+import cn.core.utils.RasterUtils;
 import cn.pipe.ypipe.AbstractMergeFilter;
 import cn.core.ex.InvalidSettingException;
 import cn.core.utils.BufferedImageUtils;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A merge handler which based on grid implementation.
+ * <p>
+ * In the fast mode, when all the images have the same type and fit in the grid, the
+ * final image has the type of them and the images are copied into its raster row by
+ * row rather than being drawn, and the grids can be copied concurrently since they are
+ * disjoint. The images backed by {@link ImageBuffer} are copied by rows in bulk as
+ * the images of {@link BufferedImage#TYPE_INT_ARGB} (or {@link BufferedImage#TYPE_INT_RGB}).
+ * Otherwise, the images are drawn into an ARGB image as usual.
+ * </p>
+ * <p>
+ * For the very large final images, {@link GridMergeHandler#mergeStreaming(List)} renders
+ * the final image band by band (a band is a row of grids) when the bands are requested,
+ * so that an encoder pulling the rows (such as PNG of ImageIO) never needs the whole image.
+ * </p>
+ * <p>
+ * For the final images larger than the heap, {@link GridMergeHandler#mergeMapped(List, File)}
+ * paints the images into a {@link MappedCanvas} stored in a file.
+ * </p>
  *
  * @author tracy
  * @since 0.2.1
@@ -55,6 +96,16 @@ public class GridMergeHandler extends AbstractMergeFilter {
      */
     private final Color fillColor;
 
+    /**
+     * Whether to copy the rasters of images when possible.
+     */
+    private final boolean fast;
+
+    /**
+     * The number of workers which copy the grids concurrently in the fast mode.
+     */
+    private final int parallelism;
+
     public GridMergeHandler(Builder bu) {
         this.autoAdapts = bu.autoAdapts;
         this.gridWidth = bu.gridWidth;
@@ -63,48 +114,360 @@ public class GridMergeHandler extends AbstractMergeFilter {
         this.alpha = bu.alpha;
         this.alignCenter = bu.alignCenter;
         this.fillColor = bu.fillColor;
+        this.fast = bu.fast;
+        this.parallelism = bu.parallelism;
     }
 
     @Override
     protected BufferedImage merge(List<BufferedImage> images) {
         // adjust the parameters
-        adjustHorizontalNumIfNecessary(images.size());
-        if (autoAdapts) {
-            adjustGridSize(images);
-        }
+        adjust(images);
         // define the final image
         int rows = getRows(images.size());
         int w = horizontalNum * gridWidth;
         int h = rows * gridHeight;
-        BufferedImage tar = BufferedImageUtils.newBackgroundImage(alpha, w, h, fillColor);
-        Graphics2D g2d = tar.createGraphics();
-
-        int alreadyCopyIndex = 0;
-        while (alreadyCopyIndex < images.size()) {
-            // point of start
-            int startX = (alreadyCopyIndex % horizontalNum) * gridWidth;
-            int startY = (alreadyCopyIndex / horizontalNum) * gridHeight;
-            // align center
-            int x = startX;
-            int y = startY;
-            if (alignCenter) {
-                // horizontally
-                int cw = images.get(alreadyCopyIndex).getWidth();
-                if (cw < gridWidth) {
-                    x += ((gridWidth - cw) >> 1);
+        int type = rasterType(images);
+        BufferedImage tar = newCanvas(type, w, h);
+        paint(tar, images, type, 0, null);
+        return tar;
+    }
+
+    /**
+     * Merge the images lazily, the final image is rendered band by band when its data
+     * is requested, and only the latest band is kept. The images should not be modified
+     * until the final image is no longer used.
+     * <p>
+     * Write the final image with an encoder which pulls the rows, such as
+     * {@code ImageIO.write(image, "png", file)}, to bound the memory to a band. The
+     * encoders which request the whole data (such as JPEG) still render the whole image.
+     * The grids of a band are copied in the common pool if the parallelism is greater than 1.
+     * </p>
+     *
+     * @param images The source images.
+     * @return The final image.
+     */
+    public RenderedImage mergeStreaming(List<BufferedImage> images) {
+        ObjectUtils.excNull(images, "Source images is null.");
+        CollectionUtils.excEmpty(images, "Not any source image was found.");
+        adjust(images);
+        return new BandedImage(new ArrayList<>(images), rasterType(images));
+    }
+
+    /**
+     * Merge the images into a canvas whose pixels are stored in the file through memory
+     * mapping, the images are painted band by band (a band is a row of grids), so the
+     * final image can be larger than the heap, and the images can be released after
+     * merging. The canvas should be closed when it is no longer used, and the file is
+     * not deleted.
+     * <p>
+     * Write the canvas with an encoder which pulls the rows, such as
+     * {@code ImageIO.write(canvas, "png", file)}, to bound the memory to a row.
+     * </p>
+     *
+     * @param images The source images.
+     * @param file The raw file of pixels, which is created or truncated. It takes 4 bytes
+     *             per pixel.
+     * @return The canvas.
+     * @throws IOException If some I/O exceptions occurred when mapping the file.
+     */
+    public MappedCanvas mergeMapped(List<BufferedImage> images, File file) throws IOException {
+        ObjectUtils.excNull(images, "Source images is null.");
+        CollectionUtils.excEmpty(images, "Not any source image was found.");
+        ObjectUtils.excNull(file, "Canvas file is null.");
+        adjust(images);
+        int rows = getRows(images.size());
+        int type = rasterType(images);
+        boolean hasAlpha = newCanvas(type, 1, 1).getColorModel().hasAlpha();
+        MappedCanvas canvas = new MappedCanvas(file, horizontalNum * gridWidth, rows * gridHeight, gridHeight, hasAlpha);
+        // share a pool by all bands
+        ExecutorService service = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        try {
+            for (int i = 0; i < rows; i++) {
+                canvas.setRows(i * gridHeight, renderBand(images, type, i, service));
+            }
+        } catch (RuntimeException | Error e) {
+            canvas.close();
+            throw e;
+        } finally {
+            if (service != null) {
+                service.shutdownNow();
+            }
+        }
+        return canvas;
+    }
+
+    /**
+     * Render a band of the final image, which is a row of grids.
+     */
+    private BufferedImage renderBand(List<BufferedImage> images, int type, int index, ExecutorService service) {
+        BufferedImage canvas = newCanvas(type, horizontalNum * gridWidth, gridHeight);
+        paint(canvas, images, type, index * gridHeight, service);
+        return canvas;
+    }
+
+    /**
+     * Adjust the parameters before merging.
+     */
+    private void adjust(List<BufferedImage> images) {
+        adjustHorizontalNumIfNecessary(images.size());
+        if (autoAdapts) {
+            adjustGridSize(images);
+        }
+    }
+
+    /**
+     * Paint the images into the canvas, the canvas is located at the offset of the
+     * final image vertically and consists of whole rows of grids. The images are copied
+     * by the executor, or a temporary pool if it is null.
+     */
+    private void paint(BufferedImage canvas, List<BufferedImage> images, int type, int offsetY,
+                       ExecutorService service) {
+        if (type != BufferedImage.TYPE_CUSTOM) {
+            // the images fit in the grids
+            int from = offsetY / gridHeight * horizontalNum;
+            int to = Math.min(from + canvas.getHeight() / gridHeight * horizontalNum, images.size());
+            copyAll(canvas, images, from, to, offsetY, service);
+            return;
+        }
+        Graphics2D g2d = canvas.createGraphics();
+        for (int i = 0; i < images.size(); i++) {
+            Point p = locate(images, i);
+            // skip the images out of the canvas
+            if (p.y >= offsetY + canvas.getHeight() || p.y + images.get(i).getHeight() <= offsetY) {
+                continue;
+            }
+            // paint current grid
+            g2d.drawImage(images.get(i), p.x, p.y - offsetY, null);
+        }
+        g2d.dispose();
+    }
+
+    /**
+     * Get the location of an image in the final image.
+     */
+    private Point locate(List<BufferedImage> images, int index) {
+        // point of start
+        int x = (index % horizontalNum) * gridWidth;
+        int y = (index / horizontalNum) * gridHeight;
+        // align center
+        if (alignCenter) {
+            // horizontally
+            int cw = images.get(index).getWidth();
+            if (cw < gridWidth) {
+                x += ((gridWidth - cw) >> 1);
+            }
+            // vertically
+            int ch = images.get(index).getHeight();
+            if (ch < gridHeight) {
+                y += ((gridHeight - ch) >> 1);
+            }
+        }
+        return new Point(x, y);
+    }
+
+    /**
+     * Get the type of the final image whose rasters can be copied from the images, or
+     * {@link BufferedImage#TYPE_CUSTOM} if the images should be drawn. Copying is the
+     * same as drawing only if the images are opaque on an opaque background, or the
+     * images have alpha on a fully transparent background.
+     */
+    private int rasterType(List<BufferedImage> images) {
+        if (!fast) {
+            return BufferedImage.TYPE_CUSTOM;
+        }
+        int type = typeOf(images.get(0));
+        if (type == BufferedImage.TYPE_CUSTOM
+                || type == BufferedImage.TYPE_BYTE_BINARY
+                || type == BufferedImage.TYPE_BYTE_INDEXED) {
+            return BufferedImage.TYPE_CUSTOM;
+        }
+        for (BufferedImage o : images) {
+            // the overlapped images are drawn in order
+            if (typeOf(o) != type || o.getWidth() > gridWidth || o.getHeight() > gridHeight) {
+                return BufferedImage.TYPE_CUSTOM;
+            }
+        }
+        boolean opaque = !images.get(0).getColorModel().hasAlpha();
+        // the gaps of a transparent background stay transparent only if the type has alpha
+        if ((!opaque && alpha == 0) || (opaque && alpha == 1 && fillColor.getAlpha() == 255)) {
+            return type;
+        }
+        return BufferedImage.TYPE_CUSTOM;
+    }
+
+    /**
+     * Get the type of an image, the images backed by {@link ImageBuffer} are as same as
+     * {@link BufferedImage#TYPE_INT_ARGB} (or {@link BufferedImage#TYPE_INT_RGB}).
+     */
+    private static int typeOf(BufferedImage img) {
+        if (ImageBuffer.backingOf(img) != null) {
+            return img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        }
+        return img.getType();
+    }
+
+    /**
+     * Create the canvas filled with the background.
+     */
+    private BufferedImage newCanvas(int type, int w, int h) {
+        if (type == BufferedImage.TYPE_CUSTOM) {
+            return BufferedImageUtils.newBackgroundImage(alpha, w, h, fillColor);
+        }
+        BufferedImage canvas = new BufferedImage(w, h, type);
+        if (alpha != 0) {
+            WritableRaster raster = canvas.getRaster();
+            Object pixel = canvas.getColorModel().getDataElements(fillColor.getRGB(), null);
+            for (int x = 0; x < w; x++) {
+                raster.setDataElements(x, 0, pixel);
+            }
+            Object row = raster.getDataElements(0, 0, w, 1, null);
+            for (int y = 1; y < h; y++) {
+                raster.setDataElements(0, y, w, 1, row);
+            }
+        }
+        return canvas;
+    }
+
+    /**
+     * Copy the rasters of the images in the range into the canvas, concurrently if the
+     * parallelism is greater than 1.
+     */
+    private void copyAll(BufferedImage canvas, List<BufferedImage> images, int from, int to, int offsetY,
+                         ExecutorService service) {
+        try {
+            ConcurrentUtils.forEachIndex(service, parallelism, from, to, next -> {
+                Point p = locate(images, next);
+                BufferedImage img = images.get(next);
+                if (ImageBuffer.backingOf(img) != null) {
+                    copyBuffered(img, canvas, p.x, p.y - offsetY);
+                } else {
+                    copy(img.getRaster(), canvas.getRaster(), p.x, p.y - offsetY);
                 }
-                // vertically
-                int ch = images.get(alreadyCopyIndex).getHeight();
-                if (ch < gridHeight) {
-                    y += ((gridHeight - ch) >> 1);
+            });
+        } catch (IOException e) {
+            // copying throws no I/O exception, so it is only interrupted
+            throw new HandlingException("Interrupted while merging images.", e);
+        }
+    }
+
+    /**
+     * Copy the raster of an image into the canvas at the location, the rows out of the
+     * canvas are skipped. The rows are copied by {@link System#arraycopy} if both of the
+     * rasters have the same layout, otherwise they are copied by the data elements.
+     */
+    private static void copy(Raster src, WritableRaster dst, int x, int y) {
+        int top = Math.max(y, 0);
+        int bottom = Math.min(y + src.getHeight(), dst.getHeight());
+        if (top >= bottom) {
+            return;
+        }
+        int w = src.getWidth();
+        Object srcData = dataOf(src);
+        Object dstData = dataOf(dst);
+        int pixelStride = pixelStrideOf(src.getSampleModel());
+        if (srcData == null || dstData == null || srcData.getClass() != dstData.getClass()
+                || pixelStride <= 0 || !sameLayout(src.getSampleModel(), dst.getSampleModel())) {
+            dst.setDataElements(x, top, w, bottom - top, src.getDataElements(0, top - y, w, bottom - top, null));
+            return;
+        }
+        int srcStride = scanlineStrideOf(src.getSampleModel());
+        int dstStride = scanlineStrideOf(dst.getSampleModel());
+        int srcIndex = indexOf(src, 0, top - y, srcStride, pixelStride);
+        int dstIndex = indexOf(dst, x, top, dstStride, pixelStride);
+        int length = w * pixelStride;
+        for (int row = top; row < bottom; row++) {
+            System.arraycopy(srcData, srcIndex, dstData, dstIndex, length);
+            srcIndex += srcStride;
+            dstIndex += dstStride;
+        }
+    }
+
+    /**
+     * Copy an image backed by {@link ImageBuffer} into the canvas at the location by
+     * bands of rows, the rows out of the canvas are skipped.
+     */
+    private static void copyBuffered(BufferedImage src, BufferedImage dst, int x, int y) {
+        int top = Math.max(y, 0);
+        int bottom = Math.min(y + src.getHeight(), dst.getHeight());
+        int w = src.getWidth();
+        int bandRows = RasterUtils.bandRows(w);
+        int[] rgbArray = new int[w * Math.max(1, Math.min(bandRows, bottom - top))];
+        for (int row = top; row < bottom; row += bandRows) {
+            int rows = Math.min(bandRows, bottom - row);
+            RasterUtils.getRGB(src, 0, row - y, w, rows, rgbArray);
+            RasterUtils.setRGB(dst, x, row, w, rows, rgbArray);
+        }
+    }
+
+    /**
+     * Get the array of the data buffer with a single bank, or null if it is not supported.
+     */
+    private static Object dataOf(Raster raster) {
+        DataBuffer buffer = raster.getDataBuffer();
+        if (buffer.getNumBanks() != 1) {
+            return null;
+        }
+        if (buffer instanceof DataBufferInt) {
+            return ((DataBufferInt) buffer).getData();
+        }
+        if (buffer instanceof DataBufferByte) {
+            return ((DataBufferByte) buffer).getData();
+        }
+        if (buffer instanceof DataBufferUShort) {
+            return ((DataBufferUShort) buffer).getData();
+        }
+        return null;
+    }
+
+    private static boolean sameLayout(SampleModel a, SampleModel b) {
+        if (a.getClass() != b.getClass() || a.getDataType() != b.getDataType()) {
+            return false;
+        }
+        if (a instanceof SinglePixelPackedSampleModel) {
+            return Arrays.equals(((SinglePixelPackedSampleModel) a).getBitMasks(),
+                    ((SinglePixelPackedSampleModel) b).getBitMasks());
+        }
+        ComponentSampleModel ca = (ComponentSampleModel) a;
+        ComponentSampleModel cb = (ComponentSampleModel) b;
+        return ca.getPixelStride() == cb.getPixelStride()
+                && Arrays.equals(ca.getBandOffsets(), cb.getBandOffsets())
+                && Arrays.equals(ca.getBankIndices(), cb.getBankIndices());
+    }
+
+    /**
+     * Get the number of data elements of a pixel, or -1 if the layout is not supported.
+     */
+    private static int pixelStrideOf(SampleModel sm) {
+        if (sm instanceof SinglePixelPackedSampleModel) {
+            return 1;
+        }
+        if (sm instanceof ComponentSampleModel) {
+            ComponentSampleModel csm = (ComponentSampleModel) sm;
+            // the bands of a pixel are interleaved in the pixel stride
+            for (int offset : csm.getBandOffsets()) {
+                if (offset < 0 || offset >= csm.getPixelStride()) {
+                    return -1;
                 }
             }
-            // paint current grid
-            g2d.drawImage(images.get(alreadyCopyIndex++), x, y, null);
+            return csm.getPixelStride();
         }
+        return -1;
+    }
 
-        g2d.dispose();
-        return tar;
+    private static int scanlineStrideOf(SampleModel sm) {
+        if (sm instanceof SinglePixelPackedSampleModel) {
+            return ((SinglePixelPackedSampleModel) sm).getScanlineStride();
+        }
+        return ((ComponentSampleModel) sm).getScanlineStride();
+    }
+
+    /**
+     * Get the index of the first data element of a pixel in the array of data buffer.
+     */
+    private static int indexOf(Raster raster, int x, int y, int scanlineStride, int pixelStride) {
+        return raster.getDataBuffer().getOffset()
+                + (y - raster.getSampleModelTranslateY()) * scanlineStride
+                + (x - raster.getSampleModelTranslateX()) * pixelStride;
     }
 
     /**
@@ -144,6 +507,168 @@ public class GridMergeHandler extends AbstractMergeFilter {
         return (imageNum + horizontalNum - 1) / horizontalNum;
     }
 
+    /**
+     * The final image which is rendered band by band, a band is a row of grids.
+     */
+    private final class BandedImage implements RenderedImage {
+
+        private final List<BufferedImage> images;
+        private final int type;
+        private final int width;
+        private final int height;
+        private final ColorModel colorModel;
+        private final SampleModel sampleModel;
+
+        /**
+         * The index and raster of the latest band.
+         */
+        private int bandIndex = -1;
+        private WritableRaster band;
+
+        private BandedImage(List<BufferedImage> images, int type) {
+            this.images = images;
+            this.type = type;
+            this.width = horizontalNum * gridWidth;
+            this.height = getRows(images.size()) * gridHeight;
+            BufferedImage sample = newCanvas(type, 1, 1);
+            this.colorModel = sample.getColorModel();
+            this.sampleModel = sample.getSampleModel().createCompatibleSampleModel(width, gridHeight);
+        }
+
+        /**
+         * Render a band, whose raster is located at the band in the final image.
+         */
+        private synchronized Raster band(int index) {
+            if (index != bandIndex) {
+                band = renderBand(images, type, index, ForkJoinPool.commonPool()).getRaster()
+                        .createWritableTranslatedChild(0, index * gridHeight);
+                bandIndex = index;
+            }
+            return band;
+        }
+
+        @Override
+        public Vector<RenderedImage> getSources() {
+            return null;
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return Image.UndefinedProperty;
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return null;
+        }
+
+        @Override
+        public ColorModel getColorModel() {
+            return colorModel;
+        }
+
+        @Override
+        public SampleModel getSampleModel() {
+            return sampleModel;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int getMinX() {
+            return 0;
+        }
+
+        @Override
+        public int getMinY() {
+            return 0;
+        }
+
+        @Override
+        public int getNumXTiles() {
+            return 1;
+        }
+
+        @Override
+        public int getNumYTiles() {
+            return height / gridHeight;
+        }
+
+        @Override
+        public int getMinTileX() {
+            return 0;
+        }
+
+        @Override
+        public int getMinTileY() {
+            return 0;
+        }
+
+        @Override
+        public int getTileWidth() {
+            return width;
+        }
+
+        @Override
+        public int getTileHeight() {
+            return gridHeight;
+        }
+
+        @Override
+        public int getTileGridXOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getTileGridYOffset() {
+            return 0;
+        }
+
+        @Override
+        public Raster getTile(int tileX, int tileY) {
+            return band(tileY);
+        }
+
+        @Override
+        public Raster getData() {
+            return getData(new Rectangle(0, 0, width, height));
+        }
+
+        @Override
+        public Raster getData(Rectangle rect) {
+            WritableRaster raster = Raster.createWritableRaster(
+                    sampleModel.createCompatibleSampleModel(rect.width, rect.height), rect.getLocation());
+            return copyData(raster);
+        }
+
+        @Override
+        public WritableRaster copyData(WritableRaster raster) {
+            if (raster == null) {
+                raster = Raster.createWritableRaster(
+                        sampleModel.createCompatibleSampleModel(width, height), null);
+            }
+            int first = Math.max(raster.getMinY(), 0) / gridHeight;
+            int last = Math.min(raster.getMinY() + raster.getHeight(), height) - 1;
+            for (int i = first; i * gridHeight <= last; i++) {
+                Raster band = band(i);
+                Rectangle r = raster.getBounds().intersection(band.getBounds());
+                if (!r.isEmpty()) {
+                    raster.setDataElements(r.x, r.y, r.width, r.height,
+                            band.getDataElements(r.x, r.y, r.width, r.height, null));
+                }
+            }
+            return raster;
+        }
+    }
+
     public static class Builder implements GenericBuilder<GridMergeHandler> {
         private boolean autoAdapts;
         private int gridWidth;
@@ -152,6 +677,8 @@ public class GridMergeHandler extends AbstractMergeFilter {
         private boolean alignCenter = false;
         private float alpha = 1.0f;
         private Color fillColor;
+        private boolean fast = false;
+        private int parallelism = 1;
 
         public Builder autoAdapts() {
             this.autoAdapts = true;
@@ -188,6 +715,31 @@ public class GridMergeHandler extends AbstractMergeFilter {
             return this;
         }
 
+        /**
+         * Copy the rasters of the images rather than drawing them when possible, the
+         * final image has the type of the images in this case.
+         *
+         * @return The builder.
+         */
+        public Builder fast() {
+            this.fast = true;
+            return this;
+        }
+
+        /**
+         * Set the number of workers which copy the grids concurrently in the fast mode.
+         *
+         * @param parallelism The number of workers, it is 1 by default.
+         * @return The builder.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new InvalidSettingException("Parallelism must be greater than 0.");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
         @Override
         public GridMergeHandler build() {
             // invalid setting
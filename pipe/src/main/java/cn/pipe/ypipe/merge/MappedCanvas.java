@@ -0,0 +1,255 @@
+package cn.pipe.ypipe.merge;
+
+import cn.core.ex.HandlingException;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Vector;
+
+/**
+ * An image whose pixels are stored in a raw file through memory mapping rather than in
+ * the heap, so that an image larger than 2 GB can be composed and encoded.
+ * <p>
+ * The pixels are stored as the packed ARGB (or RGB) integers row by row. The file is
+ * mapped in segments of whole rows, and the rows are read when the data is requested,
+ * so an encoder pulling the rows (such as PNG of ImageIO) only keeps a row in the heap.
+ * The tiles of the image are the bands of rows.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class MappedCanvas implements RenderedImage, Closeable {
+
+    /**
+     * The maximum bytes of a mapped segment is 1 GB.
+     */
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final File file;
+    private final int width;
+    private final int height;
+    private final int bandHeight;
+    private final ColorModel colorModel;
+    private final int rowsPerSegment;
+
+    private IntBuffer[] segments;
+
+    /**
+     * Create a canvas, the file is created or truncated.
+     *
+     * @param file The raw file of pixels.
+     * @param width The width of image.
+     * @param height The height of image.
+     * @param bandHeight The height of the tiles.
+     * @param alpha Whether the pixels have alpha.
+     * @throws IOException If some I/O exceptions occurred when mapping the file.
+     */
+    MappedCanvas(File file, int width, int height, int bandHeight, boolean alpha) throws IOException {
+        this.file = file;
+        this.width = width;
+        this.height = height;
+        this.bandHeight = bandHeight;
+        this.colorModel = alpha ? ColorModel.getRGBdefault()
+                : new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
+        long rowBytes = (long) width * 4;
+        this.rowsPerSegment = (int) Math.max(1, SEGMENT_BYTES / rowBytes);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.setLength(rowBytes * height);
+            FileChannel channel = raf.getChannel();
+            int count = (height + rowsPerSegment - 1) / rowsPerSegment;
+            segments = new IntBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i * rowsPerSegment * rowBytes;
+                long size = Math.min(rowsPerSegment, height - (long) i * rowsPerSegment) * rowBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size).asIntBuffer();
+            }
+        }
+    }
+
+    /**
+     * Write the rows of a band into the canvas.
+     *
+     * @param y The row of the canvas where the band starts.
+     * @param band The band, whose width is as same as the canvas.
+     */
+    void setRows(int y, BufferedImage band) {
+        int rows = Math.min(band.getHeight(), height - y);
+        int[] row = new int[width];
+        for (int r = 0; r < rows; r++) {
+            band.getRGB(0, r, width, 1, row, 0, width);
+            rowOf(y + r, 0).put(row);
+        }
+    }
+
+    /**
+     * Get the raw file of pixels.
+     *
+     * @return The file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Unmap the file, the file is not deleted. The segments are unmapped when they are
+     * collected.
+     */
+    @Override
+    public synchronized void close() {
+        segments = null;
+    }
+
+    /**
+     * Get a buffer located at a pixel, which is independent of other threads.
+     */
+    private IntBuffer rowOf(int y, int x) {
+        IntBuffer[] segments = this.segments;
+        if (segments == null) {
+            throw new HandlingException("The mapped canvas has been closed.");
+        }
+        IntBuffer buffer = segments[y / rowsPerSegment].duplicate();
+        // the position of Buffer, which is overridden since Java 9
+        ((Buffer) buffer).position((y % rowsPerSegment) * width + x);
+        return buffer;
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return colorModel.createCompatibleSampleModel(width, bandHeight);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return (height + bandHeight - 1) / bandHeight;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return width;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return bandHeight;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        int y = tileY * bandHeight;
+        return getData(new Rectangle(0, y, width, Math.min(bandHeight, height - y)));
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, width, height));
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        Rectangle r = rect.intersection(new Rectangle(0, 0, width, height));
+        if (r.isEmpty()) {
+            throw new IllegalArgumentException("The rectangle is out of the image.");
+        }
+        int[] data = new int[r.width * r.height];
+        for (int i = 0; i < r.height; i++) {
+            rowOf(r.y + i, r.x).get(data, i * r.width, r.width);
+        }
+        SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel) colorModel.createCompatibleSampleModel(r.width, r.height);
+        return Raster.createWritableRaster(sm, new DataBufferInt(data, data.length), r.getLocation());
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        if (raster == null) {
+            return (WritableRaster) getData();
+        }
+        Rectangle r = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+        if (!r.isEmpty()) {
+            raster.setPixels(r.x, r.y, r.width, r.height,
+                    getData(r).getPixels(r.x, r.y, r.width, r.height, (int[]) null));
+        }
+        return raster;
+    }
+}
@@ -2,14 +2,29 @@ package cn.pipe.ypipe.split;
 
 import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
+import cn.core.tool.WriteOptions;
+import cn.core.utils.BufferedImageUtils;
+import cn.core.utils.ConcurrentUtils;
+import cn.core.utils.ObjectUtils;
+import cn.core.utils.StringUtils;
 import cn.pipe.ypipe.AbstractSplitFilter;
 import cn.core.GenericBuilder;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A split handler which based on grid implementation.
+ * <p>
+ * The tiles are the sub images which share the raster of the source image by default,
+ * which are zero-copy but keep the whole source image in memory (the tiles of an image
+ * backed by {@link cn.core.tool.ImageBuffer} stay out of the heap as well). The tiles can be
+ * compacted into the standalone images, and they can be handed to a consumer one by
+ * one (and concurrently) by {@link GridSplitHandler#forEachTile(BufferedImage, TileConsumer)}
+ * without collecting all of them.
+ * </p>
  *
  * @author tracy
  * @since 0.2.1
@@ -26,9 +41,21 @@ public class GridSplitHandler extends AbstractSplitFilter {
      */
     private int gridHeight;
 
+    /**
+     * Whether to copy the tiles into the standalone images.
+     */
+    private final boolean compact;
+
+    /**
+     * The number of workers which handle the tiles concurrently.
+     */
+    private final int parallelism;
+
     public GridSplitHandler(Builder bu) {
         this.gridWidth = bu.gridWidth;
         this.gridHeight = bu.gridHeight;
+        this.compact = bu.compact;
+        this.parallelism = bu.parallelism;
     }
 
     @Override
@@ -54,13 +81,56 @@ public class GridSplitHandler extends AbstractSplitFilter {
                 int y = r * gridHeight;
                 int w = Math.min(gridWidth, (originalWidth - gridWidth * c));
 
-                tars.add(img.getSubimage(x, y, w, h));
+                tars.add(tile(img, x, y, w, h));
             }
         }
 
         return tars;
     }
 
+    /**
+     * Split the image and hand the tiles to the consumer one by one, the tiles are not
+     * collected. If the parallelism is greater than 1, the tiles are handed to the
+     * consumer concurrently in no particular order, so the consumer should be thread-safe.
+     *
+     * @param img The source image.
+     * @param consumer The consumer of tiles, such as {@link TileConsumer#writer(File, String, WriteOptions)}.
+     * @throws IOException If some I/O exceptions occurred when consuming tiles, the
+     * remaining tiles are not handed to the consumer.
+     */
+    public void forEachTile(BufferedImage img, TileConsumer consumer) throws IOException {
+        ObjectUtils.excNull(img, "Source image is null.");
+        ObjectUtils.excNull(consumer, "Tile consumer is null.");
+        int originalWidth = img.getWidth();
+        int originalHeight = img.getHeight();
+
+        // adjust the parameters
+        adjustGridIfNecessary(originalWidth, originalHeight);
+        int tileWidth = gridWidth;
+        int tileHeight = gridHeight;
+        int rows = (originalHeight + tileHeight - 1) / tileHeight;
+        int cols = (originalWidth + tileWidth - 1) / tileWidth;
+
+        ConcurrentUtils.forEachIndex(null, parallelism, 0, rows * cols, next -> {
+            int r = next / cols;
+            int c = next % cols;
+            int x = c * tileWidth;
+            int y = r * tileHeight;
+            int w = Math.min(tileWidth, originalWidth - x);
+            int h = Math.min(tileHeight, originalHeight - y);
+            consumer.accept(r, c, tile(img, x, y, w, h));
+        });
+    }
+
+    /**
+     * Get a tile, which is a sub image sharing the raster of source image, or a
+     * standalone copy of it in the compact mode.
+     */
+    private BufferedImage tile(BufferedImage img, int x, int y, int w, int h) {
+        BufferedImage sub = img.getSubimage(x, y, w, h);
+        return compact ? BufferedImageUtils.copy(sub) : sub;
+    }
+
     /**
      * Adjust the width and height of the grid if necessary.
      *
@@ -80,9 +150,47 @@ public class GridSplitHandler extends AbstractSplitFilter {
     }
 
 
+    /**
+     * The consumer of the tiles.
+     */
+    @FunctionalInterface
+    public interface TileConsumer {
+
+        /**
+         * Consume a tile.
+         *
+         * @param row The row of the tile, starts from 0.
+         * @param col The column of the tile, starts from 0.
+         * @param tile The tile.
+         * @throws IOException If some I/O exceptions occurred when consuming the tile.
+         */
+        void accept(int row, int col, BufferedImage tile) throws IOException;
+
+        /**
+         * Get a consumer which writes the tiles to the directory, the files are named
+         * as "{row}_{col}.{formatName}". It is thread-safe.
+         *
+         * @param directory The directory, which should exist.
+         * @param formatName The output format name.
+         * @param options The options of writing.
+         * @return The consumer.
+         */
+        static TileConsumer writer(File directory, String formatName, WriteOptions options) {
+            ObjectUtils.excNull(directory, "Output directory is null.");
+            ObjectUtils.excNull(options, "Write options is null.");
+            if (StringUtils.isEmpty(formatName)) {
+                throw new NullPointerException("Output format name is null.");
+            }
+            return (row, col, tile) -> BufferedImageUtils.write(tile, formatName,
+                    new File(directory, row + "_" + col + "." + formatName), options);
+        }
+    }
+
     public static class Builder implements GenericBuilder<GridSplitHandler> {
         private int gridWidth;
         private int gridHeight;
+        private boolean compact = false;
+        private int parallelism = 1;
 
         public Builder gridWidth(int gridWidth) {
             this.gridWidth = gridWidth;
@@ -94,6 +202,32 @@ public class GridSplitHandler extends AbstractSplitFilter {
             return this;
         }
 
+        /**
+         * Copy the tiles into the standalone images, which do not keep the source image
+         * in memory, and they are written faster than the sub images.
+         *
+         * @return The builder.
+         */
+        public Builder compact() {
+            this.compact = true;
+            return this;
+        }
+
+        /**
+         * Set the number of workers which hand the tiles to the consumer concurrently
+         * in {@link GridSplitHandler#forEachTile(BufferedImage, TileConsumer)}.
+         *
+         * @param parallelism The number of workers, it is 1 by default.
+         * @return The builder.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new InvalidSettingException("Parallelism must be greater than 0.");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
         @Override
         public GridSplitHandler build() {
             if (gridWidth < 0) {
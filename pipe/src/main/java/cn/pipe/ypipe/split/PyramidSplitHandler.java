@@ -0,0 +1,281 @@
+package cn.pipe.ypipe.split;
+
+import cn.core.GenericBuilder;
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import cn.core.tool.WriteOptions;
+import cn.core.utils.BufferedImageUtils;
+import cn.core.utils.ObjectUtils;
+import cn.core.utils.StringUtils;
+import cn.pipe.ypipe.AbstractSplitFilter;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A split handler which generates a tile pyramid (such as Deep Zoom), every level is a
+ * 2x box reduction of the next level and split into the tiles as same as
+ * {@link GridSplitHandler}.
+ * <p>
+ * The levels are numbered as Deep Zoom: the level of the full resolution is the
+ * maximum level, and the level 0 is 1x1. All levels are generated in one pass over the
+ * rows of the source image, every level keeps a band of one tile row and the tiles are
+ * handed to the sink once the band is filled, so the memory used is bounded to a few
+ * tile rows rather than the whole pyramid.
+ * </p>
+ *
+ * @author tracy
+ * @since 0.2.10
+ */
+public class PyramidSplitHandler extends AbstractSplitFilter {
+
+    /**
+     * The width and height of the tiles.
+     */
+    private final int tileSize;
+
+    public PyramidSplitHandler(Builder bu) {
+        this.tileSize = bu.tileSize;
+    }
+
+    /**
+     * Split the image into the tiles of all levels, which are in the order of being
+     * generated. Prefer {@link PyramidSplitHandler#forEachTile(BufferedImage, TileSink)}
+     * for the large images, which does not collect the tiles.
+     *
+     * @param img The source image.
+     * @return The tiles of all levels.
+     */
+    @Override
+    public List<BufferedImage> split(BufferedImage img) {
+        List<BufferedImage> tars = new ArrayList<>();
+        try {
+            forEachTile(img, (level, row, col, tile) -> tars.add(tile));
+        } catch (IOException e) {
+            throw new HandlingException(e);
+        }
+        return tars;
+    }
+
+    /**
+     * Generate the pyramid and hand the tiles to the sink once they are produced. The
+     * tiles of a level are handed in row-major order, and the tiles of the smaller
+     * levels are interleaved with them.
+     *
+     * @param img The source image.
+     * @param sink The sink of tiles, such as {@link TileSink#writer(File, String, WriteOptions)}.
+     * @throws IOException If some I/O exceptions occurred when consuming tiles.
+     */
+    public void forEachTile(BufferedImage img, TileSink sink) throws IOException {
+        ObjectUtils.excNull(img, "Source image is null.");
+        ObjectUtils.excNull(sink, "Tile sink is null.");
+        int width = img.getWidth();
+        int height = img.getHeight();
+        int type = img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        int count = levelCount(width, height);
+        Level[] levels = new Level[count];
+        for (int l = count - 1, w = width, h = height; l >= 0; l--, w = (w + 1) / 2, h = (h + 1) / 2) {
+            levels[l] = new Level(l, w, h, l > 0 ? (w + 1) / 2 : 0);
+        }
+
+        // read the source image strip by strip
+        int[] strip = new int[Math.min(tileSize, height) * width];
+        for (int y = 0; y < height; y += tileSize) {
+            int n = Math.min(tileSize, height - y);
+            img.getRGB(0, y, width, n, strip, 0, width);
+            for (int i = 0; i < n; i++) {
+                push(levels, count - 1, strip, i * width, type, sink);
+            }
+        }
+    }
+
+    /**
+     * Get the number of levels of the pyramid of an image, the maximum level is one less.
+     *
+     * @param width The width of image.
+     * @param height The height of image.
+     * @return The number of levels.
+     */
+    public static int levelCount(int width, int height) {
+        int count = 1;
+        for (int m = Math.max(width, height); m > 1; m = (m + 1) / 2) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Push a row into the band of a level, hand the tiles to the sink when the band is
+     * filled, and push the reduced row into the smaller level every two rows.
+     */
+    private void push(Level[] levels, int l, int[] src, int off, int type, TileSink sink) throws IOException {
+        Level lv = levels[l];
+        System.arraycopy(src, off, lv.band, lv.bandRows * lv.width, lv.width);
+        lv.bandRows++;
+        lv.rows++;
+        boolean last = lv.rows == lv.height;
+        if (lv.bandRows == tileSize || last) {
+            emit(lv, type, sink);
+        }
+        if (l == 0) {
+            return;
+        }
+        if (lv.pending) {
+            lv.pending = false;
+            reduce(lv, lv.previous, 0, src, off);
+        } else if (last) {
+            // the last row of an odd height is reduced alone
+            reduce(lv, src, off, src, off);
+        } else {
+            System.arraycopy(src, off, lv.previous, 0, lv.width);
+            lv.pending = true;
+            return;
+        }
+        push(levels, l - 1, lv.reduced, 0, type, sink);
+    }
+
+    /**
+     * Reduce two rows into one row with half the width, every pixel is the average of
+     * a 2x2 box, the pixels out of the bounds are replaced by the nearest ones.
+     */
+    private static void reduce(Level lv, int[] top, int topOff, int[] bottom, int bottomOff) {
+        int last = lv.width - 1;
+        for (int x = 0; x < lv.reduced.length; x++) {
+            int x0 = x * 2;
+            int x1 = Math.min(x0 + 1, last);
+            int p0 = top[topOff + x0];
+            int p1 = top[topOff + x1];
+            int p2 = bottom[bottomOff + x0];
+            int p3 = bottom[bottomOff + x1];
+            int pixel = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                int sum = ((p0 >>> shift) & 0xff) + ((p1 >>> shift) & 0xff)
+                        + ((p2 >>> shift) & 0xff) + ((p3 >>> shift) & 0xff);
+                pixel |= ((sum + 2) >> 2) << shift;
+            }
+            lv.reduced[x] = pixel;
+        }
+    }
+
+    /**
+     * Split the band of a level into the tiles and hand them to the sink.
+     */
+    private void emit(Level lv, int type, TileSink sink) throws IOException {
+        for (int c = 0, x = 0; x < lv.width; c++, x += tileSize) {
+            int w = Math.min(tileSize, lv.width - x);
+            BufferedImage tile = new BufferedImage(w, lv.bandRows, type);
+            tile.setRGB(0, 0, w, lv.bandRows, lv.band, x, lv.width);
+            sink.accept(lv.level, lv.bandIndex, c, tile);
+        }
+        lv.bandIndex++;
+        lv.bandRows = 0;
+    }
+
+    /**
+     * The state of a level during the generation.
+     */
+    private final class Level {
+
+        private final int level;
+        private final int width;
+        private final int height;
+
+        /**
+         * The rows of current tile row.
+         */
+        private final int[] band;
+
+        /**
+         * The previous row waiting for the reduction.
+         */
+        private final int[] previous;
+
+        /**
+         * The reduced row pushed to the smaller level.
+         */
+        private final int[] reduced;
+
+        private int bandRows = 0;
+        private int bandIndex = 0;
+        private int rows = 0;
+        private boolean pending = false;
+
+        private Level(int level, int width, int height, int reducedWidth) {
+            this.level = level;
+            this.width = width;
+            this.height = height;
+            this.band = new int[Math.min(tileSize, height) * width];
+            this.previous = reducedWidth > 0 ? new int[width] : null;
+            this.reduced = new int[reducedWidth];
+        }
+    }
+
+    /**
+     * The sink of the tiles of pyramid.
+     */
+    @FunctionalInterface
+    public interface TileSink {
+
+        /**
+         * Consume a tile.
+         *
+         * @param level The level of the tile, the level of the full resolution is the maximum.
+         * @param row The row of the tile in the level, starts from 0.
+         * @param col The column of the tile in the level, starts from 0.
+         * @param tile The tile.
+         * @throws IOException If some I/O exceptions occurred when consuming the tile.
+         */
+        void accept(int level, int row, int col, BufferedImage tile) throws IOException;
+
+        /**
+         * Get a sink which writes the tiles in the layout of Deep Zoom, the files are
+         * named as "{level}/{col}_{row}.{formatName}" in the directory.
+         *
+         * @param directory The directory of tiles, such as "{name}_files".
+         * @param formatName The output format name.
+         * @param options The options of writing.
+         * @return The sink.
+         */
+        static TileSink writer(File directory, String formatName, WriteOptions options) {
+            ObjectUtils.excNull(directory, "Output directory is null.");
+            ObjectUtils.excNull(options, "Write options is null.");
+            if (StringUtils.isEmpty(formatName)) {
+                throw new NullPointerException("Output format name is null.");
+            }
+            return (level, row, col, tile) -> {
+                File dir = new File(directory, String.valueOf(level));
+                Files.createDirectories(dir.toPath());
+                BufferedImageUtils.write(tile, formatName, new File(dir, col + "_" + row + "." + formatName), options);
+            };
+        }
+    }
+
+
+    public static class Builder implements GenericBuilder<PyramidSplitHandler> {
+
+        private int tileSize = 256;
+
+        /**
+         * Set the width and height of the tiles.
+         *
+         * @param tileSize The size of tiles, it is 256 by default.
+         * @return The builder.
+         */
+        public Builder tileSize(int tileSize) {
+            if (tileSize <= 0) {
+                throw new InvalidSettingException("The size of the tile must be greater than 0.");
+            }
+            this.tileSize = tileSize;
+            return this;
+        }
+
+        @Override
+        public PyramidSplitHandler build() {
+            return new PyramidSplitHandler(this);
+        }
+    }
+}
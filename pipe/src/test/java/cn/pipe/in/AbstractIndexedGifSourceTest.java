@@ -0,0 +1,156 @@
+package cn.pipe.in;
+
+import cn.core.ex.HandlingException;
+import cn.core.tool.SourceInfo;
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.TestUtils;
+import cn.pipe.in.gif.IndexedByteArrayGifSource;
+import com.madgag.gif.fmsware.AnimatedGifEncoder;
+import com.madgag.gif.fmsware.GifDecoder;
+import org.apache.pdfbox.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class AbstractIndexedGifSourceTest {
+
+    /**
+     * Create a gif whose frames are partially transparent, the frames are disposed by
+     * the methods in turn, so that the frames depend on the previous ones.
+     */
+    private static byte[] createGif(int frames, int... disposes) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        AnimatedGifEncoder encoder = new AnimatedGifEncoder();
+        encoder.start(os);
+        encoder.setRepeat(0);
+        encoder.setTransparent(Color.WHITE, true);
+        for (int i = 0; i < frames; i++) {
+            BufferedImage frame = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = frame.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 40, 30);
+            g.setColor(new Color(i * 40 % 256, 255 - i * 30 % 256, i * 70 % 256));
+            g.fillRect(i * 4, i * 3, 12, 9);
+            g.dispose();
+            encoder.setDispose(disposes[i % disposes.length]);
+            encoder.addFrame(frame);
+        }
+        encoder.finish();
+        return os.toByteArray();
+    }
+
+    private static GifDecoder decode(byte[] gif) {
+        GifDecoder decoder = new GifDecoder();
+        Assert.assertEquals(GifDecoder.STATUS_OK, decoder.read(new ByteArrayInputStream(gif)));
+        return decoder;
+    }
+
+    @Test
+    public void test_read_inOrder() throws IOException {
+        // given
+        byte[] gif = createGif(9, 1, 2, 3, 0);
+        GifDecoder decoder = decode(gif);
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(gif);
+
+        // when
+        List<BufferedImage> frames = source.readAll();
+
+        // then
+        Assert.assertEquals(decoder.getFrameCount(), frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(i), frames.get(i)));
+        }
+    }
+
+    @Test
+    public void test_read_randomly() throws IOException {
+        // given
+        byte[] gif = createGif(9, 3, 1, 2);
+        GifDecoder decoder = decode(gif);
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(gif);
+
+        // when
+        List<BufferedImage> frames = source.read(new Integer[]{8, 2, 5, 4, 0, 7, 7, 1});
+
+        // then
+        int[] indexes = {8, 2, 5, 4, 0, 7, 7, 1};
+        for (int i = 0; i < indexes.length; i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(indexes[i]), frames.get(i)));
+        }
+    }
+
+    @Test
+    public void test_read_eachFrameAlone() throws IOException {
+        // given
+        byte[] gif = IOUtils.toByteArray(TestUtils.getResourceStream("input/seasons.gif"));
+        GifDecoder decoder = decode(gif);
+
+        for (int i = 0; i < decoder.getFrameCount(); i++) {
+            // when
+            BufferedImage frame = new IndexedByteArrayGifSource(gif).read(i);
+
+            // then
+            Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(i), frame));
+        }
+    }
+
+    @Test
+    public void test_read_copies() throws IOException {
+        // given
+        byte[] gif = createGif(3, 1);
+        GifDecoder decoder = decode(gif);
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(gif);
+
+        // when
+        BufferedImage first = source.read(0);
+        Graphics2D g = first.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, 40, 30);
+        g.dispose();
+        BufferedImage second = source.read(1);
+
+        // then
+        // the frame read is not the one which the next frame is composed on
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(1), second));
+        Assert.assertNotSame(source.read(1), second);
+    }
+
+    @Test
+    public void test_read_outOfBounds() throws IOException {
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(createGif(2, 1));
+        Assert.assertNull(source.read(2));
+        Assert.assertNull(source.read(-1));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> source.readAll().get(2));
+    }
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(createGif(5, 2));
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals(40, info.getWidth());
+        Assert.assertEquals(30, info.getHeight());
+        Assert.assertEquals("gif", info.getFormatName());
+        Assert.assertEquals(5, info.getFrameCount());
+        Assert.assertEquals(5, source.size());
+        Assert.assertTrue(source.isReadCompleted());
+    }
+
+    @Test
+    public void testEx_size_notGif() throws IOException {
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(bytes);
+        HandlingException ex = Assert.assertThrows(HandlingException.class, source::size);
+        Assert.assertEquals("Error decoding file (may be partially decoded).", ex.getMessage());
+    }
+}
@@ -1,8 +1,10 @@
 package cn.pipe.in;
 
+import cn.core.ex.InvalidSettingException;
 import cn.pipe.BufferedImageComparer;
 import cn.pipe.TestUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.junit.Assert;
@@ -120,6 +122,97 @@ public class AbstractPdfBoxSourceTest {
         pdfDoc.close();
     }
 
+    @Test
+    public void test_read_withMultipart_parallel() throws IOException {
+        // given
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource();
+        source.setParallelism(2);
+
+        // when
+        List<BufferedImage> target = source.read(new Integer[]{2, 0, 1}, 100);
+
+        // then
+        PDDocument pdfDoc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"));
+        PDFRenderer pdfRenderer = new PDFRenderer(pdfDoc);
+
+        Assert.assertEquals(3, target.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(
+                pdfRenderer.renderImageWithDPI(2, 100, ImageType.RGB), target.get(0)));
+        Assert.assertTrue(BufferedImageComparer.isSame(
+                pdfRenderer.renderImageWithDPI(0, 100, ImageType.RGB), target.get(1)));
+        Assert.assertTrue(BufferedImageComparer.isSame(
+                pdfRenderer.renderImageWithDPI(1, 100, ImageType.RGB), target.get(2)));
+
+        // finally
+        source.close();
+        pdfDoc.close();
+    }
+
+    @Test
+    public void testEx_read_withMultipart_parallel_outOfBound() {
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource();
+        source.setParallelism(3);
+        Assert.assertThrows(IndexOutOfBoundsException.class,
+                () -> source.read(new Integer[]{0, 1, 5}, 100));
+    }
+
+    @Test
+    public void testEx_read_withMultipart_parallel_reloadFailed() throws IOException {
+        // given
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource() {
+            @Override
+            protected PDDocument doReload() throws IOException {
+                throw new IOException("Reload failed.");
+            }
+        };
+        source.setParallelism(2);
+
+        // when
+        IOException ex = Assert.assertThrows(IOException.class,
+                () -> source.read(new Integer[]{0, 1, 2, 0, 1, 2}, 72));
+
+        // then
+        Assert.assertEquals("Reload failed.", ex.getMessage());
+        Assert.assertNotNull(source.read(0, 72));
+
+        // finally
+        source.close();
+    }
+
+    @Test
+    public void testEx_setParallelism_invalid() {
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource();
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> source.setParallelism(0));
+        Assert.assertEquals("Parallelism must be greater than 0.", ex.getMessage());
+    }
+
+    @Test
+    public void test_read_releaseRenderedResources() throws IOException {
+        // given
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource();
+        source.setLoadOptions(new PdfLoadOptions.Builder().releaseRenderedResources().build());
+        source.loadIfNot();
+        ResourceCache before = source.pdf.getResourceCache();
+
+        // when
+        source.read(0, 72);
+
+        // then
+        Assert.assertNotSame(before, source.pdf.getResourceCache());
+
+        // finally
+        source.close();
+    }
+
+    @Test
+    public void testEx_setLoadOptions_null() {
+        FixedTemplatePdfSource source = new FixedTemplatePdfSource();
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> source.setLoadOptions(null));
+        Assert.assertEquals("PdfLoadOptions is null.", ex.getMessage());
+    }
+
     @Test
     public void test_close() throws IOException {
         // given
@@ -0,0 +1,143 @@
+package cn.pipe.in;
+
+import cn.core.ex.InvalidSettingException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.Assert;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PdfDocumentCacheTest {
+
+    /**
+     * The loader which records the documents loaded.
+     */
+    private static class RecordedLoader implements PdfDocumentCache.Loader {
+
+        private final List<PDDocument> loaded = new ArrayList<>();
+
+        @Override
+        public PDDocument load() {
+            PDDocument doc = new PDDocument();
+            doc.addPage(new PDPage());
+            loaded.add(doc);
+            return doc;
+        }
+    }
+
+    private static boolean isClosed(PDDocument doc) {
+        return doc.getDocument().isClosed();
+    }
+
+    @Test
+    public void test_acquire_shared() throws IOException {
+        // given
+        PdfDocumentCache cache = new PdfDocumentCache(2);
+        RecordedLoader loader = new RecordedLoader();
+
+        // when
+        PdfDocumentCache.Handle first = cache.acquire("a", loader);
+        PdfDocumentCache.Handle second = cache.acquire("a", loader);
+
+        // then
+        Assert.assertEquals(1, loader.loaded.size());
+        Assert.assertSame(first.getDocument(), second.getDocument());
+        first.close();
+        second.close();
+        // the document is kept after released
+        Assert.assertEquals(1, cache.size());
+        Assert.assertFalse(isClosed(loader.loaded.get(0)));
+        Assert.assertSame(loader.loaded.get(0), cache.acquire("a", loader).getDocument());
+        Assert.assertEquals(1, loader.loaded.size());
+    }
+
+    @Test
+    public void test_acquire_evictLeastRecentlyUsed() throws IOException {
+        // given
+        PdfDocumentCache cache = new PdfDocumentCache(2);
+        RecordedLoader loader = new RecordedLoader();
+        cache.acquire("a", loader).close();
+        cache.acquire("b", loader).close();
+        // "a" is used recently
+        cache.acquire("a", loader).close();
+
+        // when
+        cache.acquire("c", loader).close();
+
+        // then
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(isClosed(loader.loaded.get(0)));
+        Assert.assertTrue(isClosed(loader.loaded.get(1)));
+        Assert.assertFalse(isClosed(loader.loaded.get(2)));
+    }
+
+    @Test
+    public void test_acquire_evictUsed() throws IOException {
+        // given
+        PdfDocumentCache cache = new PdfDocumentCache(1);
+        RecordedLoader loader = new RecordedLoader();
+        PdfDocumentCache.Handle first = cache.acquire("a", loader);
+        PdfDocumentCache.Handle second = cache.acquire("a", loader);
+
+        // when
+        cache.acquire("b", loader).close();
+
+        // then
+        PDDocument evicted = loader.loaded.get(0);
+        Assert.assertFalse(isClosed(evicted));
+        first.close();
+        // closing a handle again does not release the document twice
+        first.close();
+        Assert.assertFalse(isClosed(evicted));
+        second.close();
+        Assert.assertTrue(isClosed(evicted));
+    }
+
+    @Test
+    public void test_setCapacity() throws IOException {
+        // given
+        PdfDocumentCache cache = new PdfDocumentCache(3);
+        RecordedLoader loader = new RecordedLoader();
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.acquire(key, loader).close();
+        }
+
+        // when
+        cache.setCapacity(1);
+
+        // then
+        Assert.assertEquals(1, cache.getCapacity());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(isClosed(loader.loaded.get(0)));
+        Assert.assertTrue(isClosed(loader.loaded.get(1)));
+        Assert.assertFalse(isClosed(loader.loaded.get(2)));
+    }
+
+    @Test
+    public void test_clear() throws IOException {
+        // given
+        PdfDocumentCache cache = new PdfDocumentCache(2);
+        RecordedLoader loader = new RecordedLoader();
+        cache.acquire("a", loader).close();
+        PdfDocumentCache.Handle used = cache.acquire("b", loader);
+
+        // when
+        cache.clear();
+
+        // then
+        Assert.assertEquals(0, cache.size());
+        Assert.assertTrue(isClosed(loader.loaded.get(0)));
+        Assert.assertFalse(isClosed(loader.loaded.get(1)));
+        used.close();
+        Assert.assertTrue(isClosed(loader.loaded.get(1)));
+    }
+
+    @Test
+    public void testEx_constructor_invalidCapacity() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new PdfDocumentCache(0));
+        Assert.assertEquals("Capacity must be greater than 0.", ex.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package cn.pipe.in;
+
+import cn.core.ex.InvalidSettingException;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+
+public class PdfLoadOptionsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_obtainMemoryUsageSetting_default() {
+        // when
+        MemoryUsageSetting setting = PdfLoadOptions.DEFAULT.obtainMemoryUsageSetting(4);
+
+        // then
+        Assert.assertTrue(setting.useMainMemory());
+        Assert.assertFalse(setting.useTempFile());
+        Assert.assertFalse(setting.isMainMemoryRestricted());
+        Assert.assertFalse(PdfLoadOptions.DEFAULT.isMemoryMapped());
+        Assert.assertFalse(PdfLoadOptions.DEFAULT.isReleaseRenderedResources());
+    }
+
+    @Test
+    public void test_obtainMemoryUsageSetting_mixed() throws IOException {
+        // given
+        File dir = folder.newFolder();
+        PdfLoadOptions options = new PdfLoadOptions.Builder()
+                .maxMainMemoryBytes(4096)
+                .tempDir(dir)
+                .build();
+
+        // when
+        MemoryUsageSetting single = options.obtainMemoryUsageSetting(1);
+        MemoryUsageSetting partitioned = options.obtainMemoryUsageSetting(4);
+
+        // then
+        Assert.assertTrue(single.useMainMemory());
+        Assert.assertTrue(single.useTempFile());
+        Assert.assertEquals(4096, single.getMaxMainMemoryBytes());
+        Assert.assertEquals(dir, single.getTempDir());
+        Assert.assertEquals(1024, partitioned.getMaxMainMemoryBytes());
+    }
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_correctUsage() {
+            PdfLoadOptions options = new PdfLoadOptions.Builder()
+                    .maxMainMemoryBytes(100)
+                    .memoryMapped()
+                    .releaseRenderedResources()
+                    .build();
+            Assert.assertEquals(100, options.getMaxMainMemoryBytes());
+            Assert.assertTrue(options.isMemoryMapped());
+            Assert.assertTrue(options.isReleaseRenderedResources());
+        }
+
+        @Test
+        public void testEx_maxMainMemoryBytes_invalid() {
+            PdfLoadOptions.Builder builder = new PdfLoadOptions.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.maxMainMemoryBytes(-1));
+            Assert.assertEquals("The maximum bytes of main memory must be greater than or equal to 0.", ex.getMessage());
+        }
+
+        @Test
+        public void testEx_tempDir_null() {
+            PdfLoadOptions.Builder builder = new PdfLoadOptions.Builder();
+            NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                    () -> builder.tempDir(null));
+            Assert.assertEquals("Temporary directory is null.", ex.getMessage());
+        }
+
+        @Test
+        public void testEx_build_tempDirWithoutBudget() {
+            PdfLoadOptions.Builder builder = new PdfLoadOptions.Builder().tempDir(new File("."));
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class, builder::build);
+            Assert.assertEquals("The temporary directory is only used with the budget of main memory.", ex.getMessage());
+        }
+    }
+}
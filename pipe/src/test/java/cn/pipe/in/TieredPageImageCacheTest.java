@@ -0,0 +1,155 @@
+package cn.pipe.in;
+
+import cn.core.ex.InvalidSettingException;
+import cn.pipe.BufferedImageComparer;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+public class TieredPageImageCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static BufferedImage page(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    @Test
+    public void test_memory() throws IOException {
+        // given
+        TieredPageImageCache cache = new TieredPageImageCache(1024 * 1024);
+        BufferedImage image = page(20, 10, Color.RED);
+
+        // when
+        cache.put("doc", 0, 72, image);
+        BufferedImage hit = cache.get("doc", 0, 72);
+
+        // then
+        Assert.assertTrue(BufferedImageComparer.isSame(image, hit));
+        Assert.assertNotSame(image, hit);
+        Assert.assertEquals(20 * 10 * 4, cache.getUsedBytes());
+        Assert.assertNull(cache.get("doc", 0, 96));
+        Assert.assertNull(cache.get("doc", 1, 72));
+        Assert.assertNull(cache.get("other", 0, 72));
+    }
+
+    @Test
+    public void test_memory_copied() throws IOException {
+        // given
+        TieredPageImageCache cache = new TieredPageImageCache(1024 * 1024);
+        BufferedImage image = page(20, 10, Color.RED);
+        BufferedImage expected = page(20, 10, Color.RED);
+        cache.put("doc", 0, 72, image);
+
+        // when
+        image.setRGB(0, 0, Color.BLUE.getRGB());
+        cache.get("doc", 0, 72).setRGB(1, 1, Color.BLUE.getRGB());
+
+        // then
+        Assert.assertTrue(BufferedImageComparer.isSame(expected, cache.get("doc", 0, 72)));
+    }
+
+    @Test
+    public void test_memory_evictLeastRecentlyUsed() throws IOException {
+        // given
+        // two images of 800 bytes
+        TieredPageImageCache cache = new TieredPageImageCache(1600);
+        cache.put("doc", 0, 72, page(20, 10, Color.RED));
+        cache.put("doc", 1, 72, page(20, 10, Color.GREEN));
+        cache.get("doc", 0, 72);
+
+        // when
+        cache.put("doc", 2, 72, page(20, 10, Color.BLUE));
+        cache.put("doc", 3, 72, page(100, 100, Color.BLUE));
+
+        // then
+        Assert.assertEquals(1600, cache.getUsedBytes());
+        Assert.assertNotNull(cache.get("doc", 0, 72));
+        Assert.assertNull(cache.get("doc", 1, 72));
+        Assert.assertNotNull(cache.get("doc", 2, 72));
+        // larger than the bound
+        Assert.assertNull(cache.get("doc", 3, 72));
+    }
+
+    @Test
+    public void test_disk() throws IOException {
+        // given
+        File dir = new File(folder.getRoot(), "pages");
+        BufferedImage image = page(20, 10, Color.RED);
+        new TieredPageImageCache(1, dir).put("doc", 0, 72, image);
+
+        // when
+        TieredPageImageCache cache = new TieredPageImageCache(1024 * 1024, dir);
+        BufferedImage hit = cache.get("doc", 0, 72);
+
+        // then
+        Assert.assertEquals(1, Objects.requireNonNull(dir.list()).length);
+        Assert.assertTrue(BufferedImageComparer.isSame(image, hit));
+        // kept in memory
+        Assert.assertEquals(20 * 10 * 4, cache.getUsedBytes());
+        Assert.assertNull(cache.get("doc", 1, 72));
+    }
+
+    @Test
+    public void test_contains() throws IOException {
+        // given
+        File dir = new File(folder.getRoot(), "pages");
+        new TieredPageImageCache(1, dir).put("doc", 0, 72, page(20, 10, Color.RED));
+        TieredPageImageCache cache = new TieredPageImageCache(1024 * 1024, dir);
+        cache.put("doc", 1, 72, page(20, 10, Color.BLUE));
+
+        // then
+        Assert.assertTrue(cache.contains("doc", 0, 72));
+        Assert.assertTrue(cache.contains("doc", 1, 72));
+        Assert.assertFalse(cache.contains("doc", 2, 72));
+        Assert.assertFalse(cache.contains("doc", 1, 96));
+        // not read into memory
+        Assert.assertEquals(20 * 10 * 4, cache.getUsedBytes());
+    }
+
+    @Test
+    public void test_clear() throws IOException {
+        // given
+        File dir = folder.newFolder();
+        File other = new File(dir, "other.png");
+        Assert.assertTrue(other.createNewFile());
+        TieredPageImageCache cache = new TieredPageImageCache(1024 * 1024, dir);
+        cache.put("doc", 0, 72, page(20, 10, Color.RED));
+
+        // when
+        cache.clear();
+
+        // then
+        Assert.assertEquals(0, cache.getUsedBytes());
+        Assert.assertNull(cache.get("doc", 0, 72));
+        // the files not written by the cache are kept
+        Assert.assertArrayEquals(new String[]{"other.png"}, dir.list());
+    }
+
+    @Test
+    public void testEx_constructor_invalidMaxBytes() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new TieredPageImageCache(0));
+        Assert.assertEquals("The maximum bytes must be greater than 0.", ex.getMessage());
+    }
+
+    @Test
+    public void testEx_constructor_notDirectory() throws IOException {
+        File file = folder.newFile();
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new TieredPageImageCache(1, file));
+        Assert.assertEquals("The cache directory is not a directory.", ex.getMessage());
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import java.io.IOException;
 import java.io.InputStream;
+import cn.core.ex.HandlingException;
+import cn.core.tool.SourceInfo;
 
 public class ByteArrayGifSourceTest {
 
@@ -24,4 +26,38 @@ public class ByteArrayGifSourceTest {
         Assert.assertEquals(GifDecoder.STATUS_OK, status);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/seasons.gif"));
+        ByteArrayGifSource source = new ByteArrayGifSource(bytes);
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertFalse(source.isReadCompleted());
+        Assert.assertEquals(source.size(), info.getFrameCount());
+        Assert.assertEquals(source.read(0).getWidth(), info.getWidth());
+        Assert.assertEquals(source.read(0).getHeight(), info.getHeight());
+    }
+
+    @Test
+    public void testEx_probe_truncated() throws IOException {
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/seasons.gif"));
+        byte[] head = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, head, 0, head.length);
+        ByteArrayGifSource source = new ByteArrayGifSource(head);
+        HandlingException ex = Assert.assertThrows(HandlingException.class, source::probe);
+        Assert.assertEquals("Error decoding file (may be partially decoded).", ex.getMessage());
+    }
+
+    @Test
+    public void testEx_probe_notGif() throws IOException {
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        ByteArrayGifSource source = new ByteArrayGifSource(bytes);
+        HandlingException ex = Assert.assertThrows(HandlingException.class, source::probe);
+        Assert.assertEquals("Error decoding file (may be partially decoded).", ex.getMessage());
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Objects;
+import cn.core.tool.SourceInfo;
+import cn.pipe.TestUtils;
+import java.awt.*;
 
 public class FileGifSourceTest {
 
@@ -25,4 +28,28 @@ public class FileGifSourceTest {
         Assert.assertEquals(GifDecoder.STATUS_OK, status);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/seasons.gif")
+        ).getPath();
+        FileGifSource source = new FileGifSource(new File(path));
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(TestUtils.getResourceStream("input/seasons.gif"));
+        Dimension size = decoder.getFrameSize();
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals(size.width, info.getWidth());
+        Assert.assertEquals(size.height, info.getHeight());
+        Assert.assertEquals("gif", info.getFormatName());
+        Assert.assertEquals(decoder.getFrameCount(), info.getFrameCount());
+        Assert.assertEquals(0, info.getPageCount());
+        // the frames are not decoded
+        Assert.assertFalse(source.isReadCompleted());
+    }
+}
@@ -0,0 +1,33 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.TestUtils;
+import com.madgag.gif.fmsware.GifDecoder;
+import org.apache.pdfbox.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+public class IndexedByteArrayGifSourceTest {
+
+    @Test
+    public void test_readAll() throws IOException {
+        // given
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/seasons.gif"));
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(TestUtils.getResourceStream("input/seasons.gif"));
+
+        // when
+        IndexedByteArrayGifSource source = new IndexedByteArrayGifSource(bytes);
+        List<BufferedImage> frames = source.readAll();
+
+        // then
+        Assert.assertEquals(decoder.getFrameCount(), frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(i), frames.get(i)));
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.TestUtils;
+import com.madgag.gif.fmsware.GifDecoder;
+import org.junit.Assert;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+public class IndexedFileGifSourceTest {
+
+    @Test
+    public void test_read() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/seasons.gif")
+        ).getPath();
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(TestUtils.getResourceStream("input/seasons.gif"));
+
+        // when
+        IndexedFileGifSource source = new IndexedFileGifSource(new File(path));
+        int last = source.size() - 1;
+
+        // then
+        Assert.assertEquals(decoder.getFrameCount(), source.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(last), source.read(last)));
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(0), source.read(0)));
+    }
+
+}
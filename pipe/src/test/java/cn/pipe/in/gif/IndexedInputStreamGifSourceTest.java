@@ -0,0 +1,29 @@
+package cn.pipe.in.gif;
+
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.TestUtils;
+import com.madgag.gif.fmsware.GifDecoder;
+import org.junit.Assert;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class IndexedInputStreamGifSourceTest {
+
+    @Test
+    public void test_read() throws IOException {
+        // given
+        InputStream is = TestUtils.getResourceStream("input/seasons.gif");
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(TestUtils.getResourceStream("input/seasons.gif"));
+
+        // when
+        IndexedInputStreamGifSource source = new IndexedInputStreamGifSource(is);
+
+        // then
+        Assert.assertEquals(decoder.getFrameCount(), source.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(2), source.read(2)));
+        Assert.assertTrue(BufferedImageComparer.isSame(decoder.getFrame(1), source.read(1)));
+    }
+
+}
@@ -6,6 +6,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import java.io.IOException;
 import java.io.InputStream;
+import cn.core.tool.SourceInfo;
+import java.io.BufferedInputStream;
 
 public class InputStreamGifSourceTest {
 
@@ -21,4 +23,43 @@ public class InputStreamGifSourceTest {
         // then
         Assert.assertEquals(GifDecoder.STATUS_OK, status);
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void test_probe_markSupported() throws IOException {
+        // given
+        InputStream is = new BufferedInputStream(TestUtils.getResourceStream("input/seasons.gif"));
+        InputStreamGifSource source = new InputStreamGifSource(is);
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertFalse(source.isReadCompleted());
+        // the input stream is reset for loading
+        Assert.assertEquals(source.size(), info.getFrameCount());
+        Assert.assertEquals(source.read(0).getWidth(), info.getWidth());
+    }
+
+    @Test
+    public void test_probe_markNotSupported() throws IOException {
+        // given
+        InputStream is = new InputStream() {
+            private final InputStream in = TestUtils.getResourceStream("input/seasons.gif");
+            @Override
+            public int read() throws IOException {
+                return in.read();
+            }
+        };
+        InputStreamGifSource source = new InputStreamGifSource(is);
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        // the gif is loaded for probing
+        Assert.assertTrue(source.isReadCompleted());
+        Assert.assertEquals(source.size(), info.getFrameCount());
+        Assert.assertEquals("gif", info.getFormatName());
+    }
+}
@@ -1,6 +1,7 @@
 package cn.pipe.in.pdf;
 
 import cn.pipe.TestUtils;
+import cn.pipe.in.PdfDocumentCache;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.Assert;
@@ -26,4 +27,26 @@ public class ByteArrayPdfSourceTest {
         Assert.assertEquals(3, document.getNumberOfPages());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test_cache() throws IOException {
+        // given
+        byte[] bytes = IOUtils.toByteArray(TestUtils.getResourceStream("input/sequence.pdf"));
+        PdfDocumentCache cache = new PdfDocumentCache(2);
+        ByteArrayPdfSource first = new ByteArrayPdfSource(bytes);
+        ByteArrayPdfSource second = new ByteArrayPdfSource(bytes.clone());
+        first.setCache(cache);
+        second.setCache(cache);
+
+        // when
+        int pages = first.maxPageNumber();
+        first.close();
+        second.read(0, 72);
+
+        // then
+        Assert.assertEquals(3, pages);
+        Assert.assertEquals(first.cacheKey(), second.cacheKey());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(first.isClosed());
+        Assert.assertFalse(second.isClosed());
+    }
+}
@@ -5,7 +5,16 @@ import org.junit.Assert;
 import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
+import cn.core.tool.SourceInfo;
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.in.PdfDocumentCache;
+import cn.pipe.in.PdfLoadOptions;
+import cn.pipe.in.TieredPageImageCache;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import java.awt.image.BufferedImage;
 
 public class FilePdfSourceTest {
 
@@ -27,4 +36,147 @@ public class FilePdfSourceTest {
         Assert.assertEquals(3, document.getNumberOfPages());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/sequence.pdf")
+        ).getPath();
+        FilePdfSource source = new FilePdfSource(new File(path));
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals("pdf", info.getFormatName());
+        Assert.assertEquals(3, info.getPageCount());
+        Assert.assertEquals(0, info.getFrameCount());
+        // the temporary document is closed
+        Assert.assertFalse(source.isReadCompleted());
+        Assert.assertTrue(source.isClosed());
+        try (PDDocument doc = PDDocument.load(new File(path))) {
+            BufferedImage page = new PDFRenderer(doc).renderImageWithDPI(0, 72);
+            Assert.assertEquals(page.getWidth(), info.getWidth());
+            Assert.assertEquals(page.getHeight(), info.getHeight());
+        }
+    }
+
+    @Test
+    public void test_cache() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/sequence.pdf")
+        ).getPath();
+        PdfDocumentCache cache = new PdfDocumentCache(2);
+        FilePdfSource first = new FilePdfSource(new File(path));
+        FilePdfSource second = new FilePdfSource(new File(path));
+        first.setCache(cache);
+        second.setCache(cache);
+
+        // when
+        BufferedImage expected = first.read(0, 72);
+        first.close();
+        SourceInfo info = second.probe();
+        BufferedImage actual = second.read(0, 72);
+        second.close();
+        // the shared document is acquired again after closing
+        BufferedImage again = first.read(1, 72);
+
+        // then
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(3, info.getPageCount());
+        Assert.assertEquals(expected.getWidth(), actual.getWidth());
+        Assert.assertEquals(expected.getHeight(), actual.getHeight());
+        Assert.assertNotNull(again);
+        Assert.assertFalse(first.isClosed());
+        first.close();
+        // the document is kept by the cache
+        Assert.assertTrue(first.isClosed());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void test_pageCache() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/sequence.pdf")
+        ).getPath();
+        TieredPageImageCache cache = new TieredPageImageCache(64 * 1024 * 1024);
+        FilePdfSource first = new FilePdfSource(new File(path));
+        first.setPageCache(cache);
+        List<BufferedImage> expected = first.read(new Integer[]{0, 2}, 72);
+        first.close();
+        FilePdfSource second = new FilePdfSource(new File(path));
+        second.setPageCache(cache);
+
+        // when
+        BufferedImage single = second.read(2, 72);
+        List<BufferedImage> multiple = second.read(new Integer[]{0, 1, 2}, 72);
+
+        // then
+        Assert.assertTrue(BufferedImageComparer.isSame(expected.get(1), single));
+        Assert.assertTrue(BufferedImageComparer.isSame(expected.get(0), multiple.get(0)));
+        Assert.assertTrue(BufferedImageComparer.isSame(expected.get(1), multiple.get(2)));
+        // the missed page is rendered
+        try (PDDocument doc = PDDocument.load(new File(path))) {
+            BufferedImage page = new PDFRenderer(doc).renderImageWithDPI(1, 72, ImageType.RGB);
+            Assert.assertTrue(BufferedImageComparer.isSame(page, multiple.get(1)));
+        }
+        Assert.assertNotNull(cache.get(second.cacheKey(), 1, 72));
+    }
+
+    @Test
+    public void test_pageCache_hitWithoutLoading() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/sequence.pdf")
+        ).getPath();
+        TieredPageImageCache cache = new TieredPageImageCache(64 * 1024 * 1024);
+        FilePdfSource first = new FilePdfSource(new File(path));
+        first.setPageCache(cache);
+        first.read(0, 72);
+        first.close();
+        FilePdfSource second = new FilePdfSource(new File(path));
+        second.setPageCache(cache);
+
+        // when
+        BufferedImage page = second.read(0, 72);
+
+        // then
+        Assert.assertNotNull(page);
+        Assert.assertFalse(second.isReadCompleted());
+    }
+
+    @Test
+    public void test_read_loadOptions() throws IOException {
+        // given
+        String path = Objects.requireNonNull(
+                ClassLoader.getSystemClassLoader().getResource("input/sequence.pdf")
+        ).getPath();
+        FilePdfSource expected = new FilePdfSource(new File(path));
+        FilePdfSource mapped = new FilePdfSource(new File(path));
+        mapped.setLoadOptions(new PdfLoadOptions.Builder().memoryMapped().build());
+        FilePdfSource mixed = new FilePdfSource(new File(path));
+        mixed.setLoadOptions(new PdfLoadOptions.Builder()
+                .memoryMapped()
+                .maxMainMemoryBytes(1024)
+                .releaseRenderedResources()
+                .build());
+
+        // when
+        List<BufferedImage> pages = expected.read(new Integer[]{0, 1, 2}, 72);
+        List<BufferedImage> mappedPages = mapped.read(new Integer[]{0, 1, 2}, 72);
+        List<BufferedImage> mixedPages = mixed.read(new Integer[]{0, 1, 2}, 72);
+
+        // then
+        for (int i = 0; i < pages.size(); i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(pages.get(i), mappedPages.get(i)));
+            Assert.assertTrue(BufferedImageComparer.isSame(pages.get(i), mixedPages.get(i)));
+        }
+        expected.close();
+        mapped.close();
+        mixed.close();
+        Assert.assertTrue(mapped.isClosed());
+    }
+}
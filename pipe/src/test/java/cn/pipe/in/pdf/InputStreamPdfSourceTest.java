@@ -1,14 +1,28 @@
 package cn.pipe.in.pdf;
 
+import cn.pipe.BufferedImageComparer;
+import cn.pipe.ReflectionUtils;
 import cn.pipe.TestUtils;
+import cn.pipe.in.PdfLoadOptions;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import cn.core.tool.SourceInfo;
 
 public class InputStreamPdfSourceTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void test_doLoad() throws IOException {
         // given
@@ -24,4 +38,114 @@ public class InputStreamPdfSourceTest {
         Assert.assertEquals(3, document.getNumberOfPages());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test_read_parallel() throws IOException {
+        // given
+        InputStream is = TestUtils.getResourceStream("input/sequence.pdf");
+        InputStreamPdfSource source = new InputStreamPdfSource(is);
+        source.setParallelism(3);
+
+        // when
+        List<BufferedImage> target = source.read(new Integer[]{0, 1, 2}, 100);
+
+        // then
+        Assert.assertTrue(source.isReloadable());
+        try (PDDocument doc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            for (int i = 0; i < 3; i++) {
+                BufferedImage page = renderer.renderImageWithDPI(i, 100, ImageType.RGB);
+                Assert.assertTrue(BufferedImageComparer.isSame(page, target.get(i)));
+            }
+        }
+
+        // finally
+        source.close();
+    }
+
+    @Test
+    public void test_isReloadable_loadedBeforeParallel() throws IOException {
+        // given
+        InputStream is = TestUtils.getResourceStream("input/sequence.pdf");
+        InputStreamPdfSource source = new InputStreamPdfSource(is);
+        source.maxPageNumber();
+
+        // when
+        source.setParallelism(3);
+        List<BufferedImage> target = source.read(new Integer[]{0, 1}, 50);
+
+        // then
+        // The input stream has been consumed, the pages are rendered one by one.
+        Assert.assertFalse(source.isReloadable());
+        Assert.assertEquals(2, target.size());
+
+        // finally
+        source.close();
+    }
+
+
+    @Test
+    public void test_probe() throws IOException {
+        // given
+        InputStream is = TestUtils.getResourceStream("input/sequence.pdf");
+        InputStreamPdfSource source = new InputStreamPdfSource(is);
+
+        // when
+        SourceInfo info = source.probe();
+
+        // then
+        Assert.assertEquals(3, info.getPageCount());
+        // the loaded document is kept for rendering
+        Assert.assertTrue(source.isReadCompleted());
+        Assert.assertEquals(info.getWidth(), source.read(0, 72).getWidth());
+
+        // finally
+        source.close();
+    }
+
+    @Test
+    public void test_read_mainMemoryBudget() throws IOException {
+        // given
+        InputStreamPdfSource source = new InputStreamPdfSource(TestUtils.getResourceStream("input/sequence.pdf"));
+        source.setLoadOptions(new PdfLoadOptions.Builder().maxMainMemoryBytes(1024).build());
+
+        // when
+        BufferedImage target = source.read(1, 72);
+
+        // then
+        try (PDDocument doc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"))) {
+            BufferedImage page = new PDFRenderer(doc).renderImageWithDPI(1, 72, ImageType.RGB);
+            Assert.assertTrue(BufferedImageComparer.isSame(page, target));
+        }
+        source.close();
+    }
+
+    @Test
+    public void test_read_parallel_mainMemoryBudget() throws IOException {
+        // given
+        File tempDir = temporaryFolder.newFolder();
+        InputStreamPdfSource source = new InputStreamPdfSource(TestUtils.getResourceStream("input/sequence.pdf"));
+        source.setLoadOptions(new PdfLoadOptions.Builder().maxMainMemoryBytes(1024).tempDir(tempDir).build());
+        source.setParallelism(3);
+
+        // when
+        List<BufferedImage> target = source.read(new Integer[]{0, 1, 2}, 72);
+
+        // then
+        // the content is spilled to a temporary file rather than buffered in the heap
+        Assert.assertTrue(source.isReloadable());
+        Assert.assertNull(ReflectionUtils.get("content", source));
+        File spilled = (File) ReflectionUtils.get("spilled", source);
+        Assert.assertEquals(tempDir, spilled.getParentFile());
+        try (PDDocument doc = PDDocument.load(TestUtils.getResourceStream("input/sequence.pdf"))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            for (int i = 0; i < 3; i++) {
+                BufferedImage page = renderer.renderImageWithDPI(i, 72, ImageType.RGB);
+                Assert.assertTrue(BufferedImageComparer.isSame(page, target.get(i)));
+            }
+        }
+
+        // the temporary file is deleted when closed
+        source.close();
+        Assert.assertFalse(spilled.exists());
+    }
+}
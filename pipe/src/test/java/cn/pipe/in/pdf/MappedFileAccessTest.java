@@ -0,0 +1,64 @@
+package cn.pipe.in.pdf;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class MappedFileAccessTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file(byte[] content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    public void test_read() throws IOException {
+        // given
+        MappedFileAccess access = new MappedFileAccess(file(new byte[]{1, 2, 3, 4, (byte) 0xff}));
+
+        // when & then
+        Assert.assertEquals(5, access.length());
+        Assert.assertEquals(1, access.read());
+        Assert.assertEquals(2, access.peek());
+        Assert.assertEquals(1, access.getPosition());
+        byte[] b = new byte[8];
+        Assert.assertEquals(4, access.read(b, 1, 8 - 1));
+        Assert.assertArrayEquals(new byte[]{0, 2, 3, 4, (byte) 0xff, 0, 0, 0}, b);
+        Assert.assertTrue(access.isEOF());
+        Assert.assertEquals(0, access.available());
+        Assert.assertEquals(-1, access.read());
+        Assert.assertEquals(-1, access.read(b));
+        Assert.assertEquals(-1, access.peek());
+
+        access.rewind(2);
+        Assert.assertEquals(4, access.read());
+        access.seek(0);
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, access.readFully(3));
+        Assert.assertEquals(2, access.available());
+        Assert.assertThrows(EOFException.class, () -> access.readFully(3));
+        Assert.assertThrows(IOException.class, () -> access.seek(-1));
+    }
+
+    @Test
+    public void test_close() throws IOException {
+        // given
+        MappedFileAccess access = new MappedFileAccess(file(new byte[]{1}));
+
+        // when
+        access.close();
+
+        // then
+        Assert.assertTrue(access.isClosed());
+        IOException ex = Assert.assertThrows(IOException.class, access::read);
+        Assert.assertEquals("The mapped file has been closed.", ex.getMessage());
+    }
+}
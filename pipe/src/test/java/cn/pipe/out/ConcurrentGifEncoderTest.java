@@ -0,0 +1,122 @@
+package cn.pipe.out;
+
+import cn.core.ex.InvalidSettingException;
+import cn.pipe.ReflectionUtils;
+import cn.pipe.TestUtils;
+import com.madgag.gif.fmsware.AnimatedGifEncoder;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+public class ConcurrentGifEncoderTest {
+
+    /**
+     * Encode the frames, the settings are changed between frames.
+     */
+    private static byte[] encode(AnimatedGifEncoder encoder, List<BufferedImage> frames) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Assert.assertTrue(encoder.start(os));
+        encoder.setRepeat(0);
+        for (int i = 0; i < frames.size(); i++) {
+            encoder.setDelay(100 * (i + 1));
+            encoder.setDispose(i % 3);
+            encoder.setTransparent(i % 2 == 0 ? null : Color.WHITE);
+            Assert.assertTrue(encoder.addFrame(frames.get(i)));
+        }
+        Assert.assertTrue(encoder.finish());
+        return os.toByteArray();
+    }
+
+    private static List<BufferedImage> frames() throws IOException {
+        BufferedImage small = new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = small.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(5, 5, 20, 10);
+        g.dispose();
+        return Arrays.asList(
+                TestUtils.getImageFromResource("input/frame/frame-0.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-1.jpg"),
+                small,
+                TestUtils.getImageFromResource("input/frame/frame-2.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-1.jpg")
+        );
+    }
+
+    @Test
+    public void test_sameAsAnimatedGifEncoder() throws IOException {
+        // given
+        List<BufferedImage> frames = frames();
+        byte[] expected = encode(new AnimatedGifEncoder(), frames);
+
+        for (int parallelism = 1; parallelism <= 4; parallelism++) {
+            // when
+            byte[] actual = encode(new ConcurrentGifEncoder(parallelism), frames);
+
+            // then
+            Assert.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_reuse() throws IOException {
+        // given
+        List<BufferedImage> frames = frames();
+        ConcurrentGifEncoder encoder = new ConcurrentGifEncoder(2);
+
+        // when
+        byte[] first = encode(encoder, frames);
+        byte[] second = encode(encoder, frames);
+
+        // then
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testEx_addFrame_quantizingFailed() throws IOException {
+        // given
+        ConcurrentGifEncoder encoder = new ConcurrentGifEncoder(1);
+        // a frame which can not be quantized by the workers
+        BufferedImage broken = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB) {
+            @Override
+            public int getType() {
+                throw new IllegalStateException("Broken frame.");
+            }
+        };
+        BufferedImage frame = TestUtils.getImageFromResource("input/frame/frame-0.jpg");
+        Assert.assertTrue(encoder.start(new ByteArrayOutputStream()));
+
+        // when
+        // the failure is thrown by either call, depending on when the quantizing fails
+        IllegalStateException ex = Assert.assertThrows(IllegalStateException.class, () -> {
+            encoder.addFrame(broken);
+            encoder.addFrame(frame);
+        });
+
+        // then
+        Assert.assertEquals("Broken frame.", ex.getMessage());
+        // the workers are released
+        Assert.assertNull(ReflectionUtils.get("service", encoder));
+        Assert.assertTrue(((Deque<?>) ReflectionUtils.get("pending", encoder)).isEmpty());
+        Assert.assertFalse(encoder.finish());
+    }
+
+    @Test
+    public void test_notStarted() {
+        ConcurrentGifEncoder encoder = new ConcurrentGifEncoder(2);
+        Assert.assertFalse(encoder.addFrame(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB)));
+        Assert.assertFalse(encoder.finish());
+    }
+
+    @Test
+    public void testEx_constructor_invalidParallelism() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new ConcurrentGifEncoder(0));
+        Assert.assertEquals("Parallelism must be greater than 0.", ex.getMessage());
+    }
+}
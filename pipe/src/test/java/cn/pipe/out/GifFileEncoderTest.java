@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GifFileEncoderTest {
 
@@ -98,10 +99,44 @@ public class GifFileEncoderTest {
         int frameSize = originalSort.size();
         Assert.assertEquals(frameSize, images.size());
 
-        // The order of the original list has been reversed.
-        for (int i = 0; i < frameSize; i++) {
-            Assert.assertEquals(originalSort.get(i), images.get(frameSize - i - 1));
-        }
+        // The frames are written in reverse order, and the original list is not modified.
+        Assert.assertEquals(originalSort, images);
+        GifDecoder decoder = new GifDecoder();
+        decoder.read(tempFilePath);
+        Assert.assertEquals(frameSize, decoder.getFrameCount());
+    }
+
+    @Test
+    public void testEx_encode_frameFailed() throws IOException {
+        // given
+        AtomicInteger finished = new AtomicInteger();
+        AnimatedGifEncoder failing = new AnimatedGifEncoder() {
+            @Override
+            public boolean addFrame(BufferedImage im) {
+                return false;
+            }
+
+            @Override
+            public boolean finish() {
+                finished.incrementAndGet();
+                return super.finish();
+            }
+        };
+        AbstractGifEncoder encoder = new GifFileEncoder.Builder()
+                .encoder(failing)
+                .filename(temporaryFolder.newFile("output.gif").getAbsolutePath())
+                .build();
+        List<BufferedImage> images = Collections.singletonList(
+                TestUtils.getImageFromResource("input/frame/frame-0.jpg"));
+
+        // when
+        IOException ex = Assert.assertThrows(IOException.class, () -> encoder.encode(images));
+
+        // then
+        // the output file is closed
+        Assert.assertEquals("Failed to write the frame of gif.", ex.getMessage());
+        Assert.assertEquals(1, finished.get());
+        Assert.assertFalse(failing.isStarted());
     }
 
     @Test
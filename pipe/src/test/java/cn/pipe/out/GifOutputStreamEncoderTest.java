@@ -1,5 +1,6 @@
 package cn.pipe.out;
 
+import cn.core.ex.HandlingException;
 import cn.core.ex.InvalidSettingException;
 import cn.pipe.ReflectionUtils;
 import cn.pipe.TestUtils;
@@ -13,6 +14,7 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class GifOutputStreamEncoderTest {
@@ -63,8 +65,121 @@ public class GifOutputStreamEncoderTest {
         Assert.assertEquals(300, decoder.getDelay(2));
     }
 
+    @Test
+    public void test_encode_reverse() throws IOException {
+        // given
+        List<BufferedImage> images = Arrays.asList(
+                TestUtils.getImageFromResource("input/frame/frame-0.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-1.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-2.jpg"));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new GifOutputStreamEncoder.Builder()
+                .outputStream(expected)
+                .build()
+                .encode(Arrays.asList(images.get(2), images.get(1), images.get(0)));
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        // when
+        // the list is read-only
+        new GifOutputStreamEncoder.Builder()
+                .reverse()
+                .outputStream(actual)
+                .build()
+                .encode(Collections.unmodifiableList(images));
+
+        // then
+        Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void test_addFrame_streaming() throws IOException {
+        // given
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new GifOutputStreamEncoder.Builder()
+                .delay(300)
+                .outputStream(expected)
+                .build()
+                .encode(Arrays.asList(
+                        TestUtils.getImageFromResource("input/frame/frame-0.jpg"),
+                        TestUtils.getImageFromResource("input/frame/frame-1.jpg"),
+                        TestUtils.getImageFromResource("input/frame/frame-2.jpg")));
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        AbstractGifEncoder encoder = new GifOutputStreamEncoder.Builder()
+                .delay(300)
+                .parallelism(2)
+                .outputStream(actual)
+                .build();
+
+        // when
+        encoder.open();
+        for (int i = 0; i < 3; i++) {
+            encoder.addFrame(TestUtils.getImageFromResource("input/frame/frame-" + i + ".jpg"));
+        }
+        encoder.finish();
+
+        // then
+        Assert.assertTrue(ReflectionUtils.getFromSuper("encoder", encoder) instanceof ConcurrentGifEncoder);
+        Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testEx_addFrame_notOpened() {
+        AbstractGifEncoder encoder = new GifOutputStreamEncoder.Builder()
+                .outputStream(new ByteArrayOutputStream())
+                .build();
+        BufferedImage frame = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                () -> encoder.addFrame(frame));
+        Assert.assertEquals("The gif encoding has not been opened.", ex.getMessage());
+        ex = Assert.assertThrows(HandlingException.class, encoder::finish);
+        Assert.assertEquals("The gif encoding has not been opened.", ex.getMessage());
+    }
+
+    @Test
+    public void test_encode_globalPaletteAndFrameDelta() throws IOException {
+        // given
+        List<BufferedImage> frames = Arrays.asList(
+                TestUtils.getImageFromResource("input/frame/frame-0.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-1.jpg"),
+                TestUtils.getImageFromResource("input/frame/frame-2.jpg"));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        AbstractGifEncoder encoder = new GifOutputStreamEncoder.Builder()
+                .delay(300)
+                .globalPalette(2)
+                .frameDelta()
+                .outputStream(os)
+                .build();
+
+        // when
+        encoder.encode(frames);
+
+        // then
+        Assert.assertTrue(ReflectionUtils.getFromSuper("encoder", encoder) instanceof OptimizedGifEncoder);
+        GifDecoder decoder = new GifDecoder();
+        Assert.assertEquals(GifDecoder.STATUS_OK, decoder.read(new ByteArrayInputStream(os.toByteArray())));
+        Assert.assertEquals(3, decoder.getFrameCount());
+        Assert.assertEquals(frames.get(0).getWidth(), decoder.getFrameSize().width);
+        Assert.assertEquals(300, decoder.getDelay(2));
+    }
+
     public static class BuilderTest {
 
+        @Test
+        public void testEx_globalPalette_invalid() {
+            GifOutputStreamEncoder.Builder builder = new GifOutputStreamEncoder.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.globalPalette(0));
+            Assert.assertEquals("The number of sampled frames must be greater than 0.", ex.getMessage());
+        }
+
+        @Test
+        public void testEx_parallelism_invalid() {
+            GifOutputStreamEncoder.Builder builder = new GifOutputStreamEncoder.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.parallelism(0));
+            Assert.assertEquals("Parallelism must be greater than 0.", ex.getMessage());
+        }
+
         @Test
         public void test_build_correctUsage() {
             // given
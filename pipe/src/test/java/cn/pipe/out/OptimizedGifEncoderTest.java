@@ -0,0 +1,211 @@
+package cn.pipe.out;
+
+import cn.core.ex.HandlingException;
+import cn.core.ex.InvalidSettingException;
+import com.madgag.gif.fmsware.AnimatedGifEncoder;
+import com.madgag.gif.fmsware.GifDecoder;
+import org.junit.Assert;
+import org.junit.Test;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OptimizedGifEncoderTest {
+
+    private static byte[] encode(AnimatedGifEncoder encoder, List<BufferedImage> frames) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Assert.assertTrue(encoder.start(os));
+        encoder.setRepeat(0);
+        for (int i = 0; i < frames.size(); i++) {
+            encoder.setDelay(100 * (i + 1));
+            Assert.assertTrue(encoder.addFrame(frames.get(i)));
+        }
+        Assert.assertTrue(encoder.finish());
+        return os.toByteArray();
+    }
+
+    /**
+     * The frames like screenshots, a box moves on the same background.
+     */
+    private static List<BufferedImage> frames() {
+        List<BufferedImage> frames = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            BufferedImage frame = new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = frame.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 120, 80);
+            g.setColor(Color.BLUE);
+            g.fillRect(0, 0, 120, 12);
+            g.setColor(Color.BLACK);
+            g.fillRect(10, 30, 100, 4);
+            g.setColor(Color.RED);
+            // the last frame is same as the previous one
+            g.fillRect(10 + Math.min(i, 4) * 15, 45, 20, 20);
+            g.dispose();
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    private static GifDecoder decode(byte[] gif) {
+        GifDecoder decoder = new GifDecoder();
+        Assert.assertEquals(GifDecoder.STATUS_OK, decoder.read(new ByteArrayInputStream(gif)));
+        return decoder;
+    }
+
+    /**
+     * Assert the frames decoded are close to the frames, the colors are quantized.
+     */
+    private static void assertFrames(List<BufferedImage> frames, byte[] gif) {
+        GifDecoder decoder = decode(gif);
+        Assert.assertEquals(frames.size(), decoder.getFrameCount());
+        for (int i = 0; i < frames.size(); i++) {
+            Assert.assertEquals(100 * (i + 1), decoder.getDelay(i));
+            BufferedImage expected = frames.get(i);
+            BufferedImage actual = decoder.getFrame(i);
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    int e = expected.getRGB(x, y);
+                    int a = actual.getRGB(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        int diff = Math.abs((e >> shift & 0xff) - (a >> shift & 0xff));
+                        Assert.assertTrue("frame " + i + " at " + x + "," + y, diff <= 16);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_noOption_sameAsAnimatedGifEncoder() {
+        // given
+        List<BufferedImage> frames = frames();
+        byte[] expected = encode(new AnimatedGifEncoder(), frames);
+
+        // when
+        byte[] actual = encode(new OptimizedGifEncoder(0, false), frames);
+
+        // then
+        Assert.assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void test_globalPalette() {
+        // given
+        List<BufferedImage> frames = frames();
+        byte[] full = encode(new AnimatedGifEncoder(), frames);
+
+        // when
+        byte[] gif = encode(new OptimizedGifEncoder(2, false), frames);
+
+        // then
+        assertFrames(frames, gif);
+        // no local color tables
+        Assert.assertTrue(gif.length < full.length);
+    }
+
+    @Test
+    public void test_frameDelta() {
+        // given
+        List<BufferedImage> frames = frames();
+        byte[] full = encode(new AnimatedGifEncoder(), frames);
+
+        // when
+        byte[] gif = encode(new OptimizedGifEncoder(0, true), frames);
+
+        // then
+        assertFrames(frames, gif);
+        Assert.assertTrue(gif.length < full.length);
+    }
+
+    @Test
+    public void test_globalPaletteAndFrameDelta() {
+        // given
+        List<BufferedImage> frames = frames();
+        byte[] delta = encode(new OptimizedGifEncoder(0, true), frames);
+
+        // when
+        byte[] gif = encode(new OptimizedGifEncoder(frames.size(), true), frames);
+
+        // then
+        assertFrames(frames, gif);
+        Assert.assertTrue(gif.length < delta.length);
+    }
+
+    @Test
+    public void test_finish_lessFramesThanSamples() {
+        // given
+        List<BufferedImage> frames = frames();
+
+        // when
+        byte[] gif = encode(new OptimizedGifEncoder(frames.size() + 1, true), frames);
+
+        // then
+        assertFrames(frames, gif);
+    }
+
+    @Test
+    public void test_preparePalette() {
+        // given
+        List<BufferedImage> frames = frames();
+        OptimizedGifEncoder encoder = new OptimizedGifEncoder(3, true);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        encoder.start(os);
+
+        // when
+        encoder.preparePalette(frames);
+        for (int i = 0; i < frames.size(); i++) {
+            encoder.setDelay(100 * (i + 1));
+            encoder.addFrame(frames.get(i));
+            // the frames are written without buffering
+            Assert.assertTrue(os.size() > 0);
+        }
+        encoder.finish();
+
+        // then
+        assertFrames(frames, os.toByteArray());
+    }
+
+    @Test
+    public void test_reuse() {
+        // given
+        List<BufferedImage> frames = frames();
+        OptimizedGifEncoder encoder = new OptimizedGifEncoder(2, true);
+
+        // when
+        byte[] first = encode(encoder, frames);
+        byte[] second = encode(encoder, frames);
+
+        // then
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testEx_preparePalette_afterAddingFrames() {
+        OptimizedGifEncoder encoder = new OptimizedGifEncoder(3, false);
+        encoder.start(new ByteArrayOutputStream());
+        BufferedImage frame = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        encoder.addFrame(frame);
+        HandlingException ex = Assert.assertThrows(HandlingException.class,
+                () -> encoder.preparePalette(Collections.singletonList(frame)));
+        Assert.assertEquals("The palette must be prepared before adding frames.", ex.getMessage());
+    }
+
+    @Test
+    public void test_notStarted() {
+        OptimizedGifEncoder encoder = new OptimizedGifEncoder(2, true);
+        Assert.assertFalse(encoder.addFrame(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB)));
+        Assert.assertFalse(encoder.finish());
+    }
+
+    @Test
+    public void testEx_constructor_invalidSamples() {
+        InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                () -> new OptimizedGifEncoder(-1, false));
+        Assert.assertEquals("The number of sampled frames cannot be less than 0.", ex.getMessage());
+    }
+}
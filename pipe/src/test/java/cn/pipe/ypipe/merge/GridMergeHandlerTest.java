@@ -1,19 +1,32 @@
 package cn.pipe.ypipe.merge;
 
 import cn.core.ex.InvalidSettingException;
+import cn.core.tool.ImageBuffer;
 import cn.core.utils.BufferedImageUtils;
 import cn.pipe.BufferedImageComparer;
 import cn.pipe.ReflectionUtils;
 import cn.pipe.TestUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class GridMergeHandlerTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void test_merge_correctUsage() throws IOException {
         // given
@@ -152,6 +165,247 @@ public class GridMergeHandlerTest {
         Assert.assertEquals(98, h_after);
     }
 
+    private static java.util.List<BufferedImage> slices() throws IOException {
+        java.util.List<BufferedImage> sources = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            sources.add(TestUtils.getImageFromResource("input/slices/" + i + ".jpg"));
+        }
+        return sources;
+    }
+
+    private static int[] pixels(Raster raster) {
+        return raster.getPixels(raster.getMinX(), raster.getMinY(), raster.getWidth(), raster.getHeight(), (int[]) null);
+    }
+
+    @Test
+    public void test_merge_fast() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = slices();
+        GridMergeHandler handler = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .horizontalNum(2)
+                .fillColor(Color.LIGHT_GRAY)
+                .alignCenter()
+                .fast()
+                .build();
+
+        // when
+        BufferedImage target = handler.merge(sources);
+
+        // then
+        BufferedImage merged = new BufferedImage(112, 108, sources.get(0).getType());
+        Graphics2D g = merged.createGraphics();
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(0, 0, 112, 108);
+        g.drawImage(sources.get(0), 3, 3, null);
+        g.drawImage(sources.get(1), 59, 3, null);
+        g.drawImage(sources.get(2), 3, 39, null);
+        g.drawImage(sources.get(3), 59, 39, null);
+        g.drawImage(sources.get(4), 3, 75, null);
+        g.dispose();
+        Assert.assertTrue(BufferedImageComparer.isSame(merged, target));
+    }
+
+    @Test
+    public void test_merge_fast_parallel() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            sources.addAll(slices());
+        }
+        // the sub images share the rasters of the source images
+        sources.add(TestUtils.getImageFromResource("input/nothing.jpg").getSubimage(10, 20, 40, 25));
+        GridMergeHandler.Builder builder = new GridMergeHandler.Builder()
+                .gridWidth(50).gridHeight(30)
+                .horizontalNum(7)
+                .fast();
+
+        // when
+        BufferedImage serial = builder.build().merge(sources);
+        BufferedImage parallel = builder.parallelism(4).build().merge(sources);
+
+        // then
+        Assert.assertEquals(sources.get(0).getType(), parallel.getType());
+        Assert.assertTrue(BufferedImageComparer.isSame(serial, parallel));
+        Assert.assertTrue(BufferedImageComparer.isSame(
+                BufferedImageUtils.copy(sources.get(40)), BufferedImageUtils.copy(parallel.getSubimage(250, 150, 40, 25))));
+    }
+
+    @Test
+    public void test_merge_fast_drawnIfNotCopyable() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = slices();
+        sources.add(BufferedImageUtils.copy(sources.get(0), BufferedImage.TYPE_INT_RGB));
+        GridMergeHandler.Builder builder = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .horizontalNum(2)
+                .alignCenter();
+
+        // when
+        BufferedImage expected = builder.build().merge(sources);
+        BufferedImage target = builder.fast().build().merge(sources);
+
+        // then
+        // the images of different types are drawn as usual
+        Assert.assertTrue(BufferedImageComparer.isSame(expected, target));
+    }
+
+    @Test
+    public void test_merge_fast_transparentBackground() throws IOException {
+        // given
+        java.util.List<BufferedImage> opaque = new ArrayList<>();
+        java.util.List<BufferedImage> translucent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            opaque.add(BufferedImageUtils.copy(slices().get(i), BufferedImage.TYPE_INT_RGB));
+            translucent.add(BufferedImageUtils.copy(slices().get(i), BufferedImage.TYPE_INT_ARGB));
+        }
+        GridMergeHandler.Builder builder = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .horizontalNum(2)
+                .alpha(0f)
+                .alignCenter();
+
+        // when
+        BufferedImage expected = builder.build().merge(opaque);
+        BufferedImage target = builder.fast().build().merge(opaque);
+        BufferedImage copied = builder.fast().build().merge(translucent);
+
+        // then
+        // the opaque images are drawn, so the gaps and the empty grid stay transparent
+        Assert.assertTrue(BufferedImageComparer.isSame(expected, target));
+        Assert.assertEquals(0, target.getRGB(0, 0));
+        Assert.assertEquals(0, target.getRGB(80, 50));
+        // the images with alpha are copied
+        Assert.assertEquals(BufferedImage.TYPE_INT_ARGB, copied.getType());
+        Assert.assertEquals(0, copied.getRGB(0, 0));
+        Assert.assertEquals(0, copied.getRGB(80, 50));
+        Assert.assertEquals(expected.getRGB(10, 10), copied.getRGB(10, 10));
+    }
+
+    @Test
+    public void test_merge_fast_imageBuffer() throws IOException {
+        // given
+        java.util.List<BufferedImage> heap = new ArrayList<>();
+        java.util.List<BufferedImage> views = new ArrayList<>();
+        java.util.List<ImageBuffer> buffers = new ArrayList<>();
+        for (BufferedImage o : slices()) {
+            heap.add(BufferedImageUtils.copy(o, BufferedImage.TYPE_INT_RGB));
+            ImageBuffer buffer = ImageBuffer.copyOf(o);
+            buffers.add(buffer);
+            views.add(buffer.asBufferedImage());
+        }
+        GridMergeHandler.Builder builder = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .horizontalNum(2)
+                .alignCenter()
+                .fast();
+
+        // when
+        BufferedImage expected = builder.build().merge(heap);
+        BufferedImage target = builder.parallelism(2).build().merge(views);
+
+        // then
+        Assert.assertEquals(BufferedImage.TYPE_INT_RGB, target.getType());
+        Assert.assertTrue(BufferedImageComparer.isSame(expected, target));
+        buffers.forEach(ImageBuffer::close);
+    }
+
+    @Test
+    public void test_mergeStreaming() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = slices();
+        for (GridMergeHandler.Builder builder : Arrays.asList(
+                new GridMergeHandler.Builder().alpha(0.8f).fillColor(Color.LIGHT_GRAY),
+                new GridMergeHandler.Builder().fast())) {
+            builder.gridWidth(56).gridHeight(36).horizontalNum(2).alignCenter();
+            BufferedImage expected = builder.build().merge(sources);
+
+            // when
+            RenderedImage target = builder.build().mergeStreaming(sources);
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ImageIO.write(target, "png", os);
+            BufferedImage written = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+
+            // then
+            Assert.assertEquals(112, target.getWidth());
+            Assert.assertEquals(108, target.getHeight());
+            Assert.assertEquals(3, target.getNumYTiles());
+            Assert.assertArrayEquals(pixels(expected.getRaster()), pixels(target.getData()));
+            Assert.assertArrayEquals(pixels(expected.getData(new Rectangle(10, 30, 50, 20))),
+                    pixels(target.getData(new Rectangle(10, 30, 50, 20))));
+            Assert.assertArrayEquals(expected.getRGB(0, 0, 112, 108, null, 0, 112),
+                    written.getRGB(0, 0, 112, 108, null, 0, 112));
+        }
+    }
+
+    @Test
+    public void test_mergeMapped() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = slices();
+        for (GridMergeHandler.Builder builder : Arrays.asList(
+                new GridMergeHandler.Builder().alpha(0.8f).fillColor(Color.LIGHT_GRAY),
+                new GridMergeHandler.Builder().fast())) {
+            builder.gridWidth(56).gridHeight(36).horizontalNum(2).alignCenter();
+            BufferedImage expected = builder.build().merge(sources);
+            File file = folder.newFile();
+
+            // when
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            try (MappedCanvas target = builder.build().mergeMapped(sources, file)) {
+                ImageIO.write(target, "png", os);
+
+                // then
+                Assert.assertEquals(112, target.getWidth());
+                Assert.assertEquals(108, target.getHeight());
+                Assert.assertEquals(expected.getColorModel().hasAlpha(), target.getColorModel().hasAlpha());
+                Assert.assertEquals(112 * 108 * 4, file.length());
+            }
+            BufferedImage written = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+            Assert.assertArrayEquals(expected.getRGB(0, 0, 112, 108, null, 0, 112),
+                    written.getRGB(0, 0, 112, 108, null, 0, 112));
+        }
+    }
+
+    @Test
+    public void test_mergeMapped_transparentBackground() throws IOException {
+        // given
+        java.util.List<BufferedImage> sources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sources.add(BufferedImageUtils.copy(slices().get(i), BufferedImage.TYPE_INT_RGB));
+        }
+        GridMergeHandler.Builder builder = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .horizontalNum(2)
+                .alpha(0f)
+                .alignCenter()
+                .fast();
+        BufferedImage expected = builder.build().merge(sources);
+
+        // when
+        try (MappedCanvas target = builder.build().mergeMapped(sources, folder.newFile())) {
+            Raster data = target.getData();
+
+            // then
+            Assert.assertTrue(target.getColorModel().hasAlpha());
+            for (int[] p : new int[][]{{0, 0}, {80, 50}, {10, 10}}) {
+                Assert.assertEquals(expected.getRGB(p[0], p[1]),
+                        target.getColorModel().getRGB(data.getDataElements(p[0], p[1], null)));
+            }
+            Assert.assertEquals(0, target.getColorModel().getRGB(data.getDataElements(80, 50, null)));
+        }
+    }
+
+    @Test
+    public void testEx_mergeMapped_nullFile() throws IOException {
+        GridMergeHandler handler = new GridMergeHandler.Builder()
+                .gridWidth(56).gridHeight(36)
+                .build();
+        java.util.List<BufferedImage> sources = slices();
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> handler.mergeMapped(sources, null));
+        Assert.assertEquals("Canvas file is null.", ex.getMessage());
+    }
+
     public static class BuilderTest {
 
         @Test
@@ -197,6 +451,16 @@ public class GridMergeHandlerTest {
             Assert.assertEquals(Color.WHITE, ReflectionUtils.get("fillColor", handler));
             Assert.assertFalse((boolean) ReflectionUtils.get("alignCenter", handler));
             Assert.assertFalse((boolean) ReflectionUtils.get("autoAdapts", handler));
+            Assert.assertFalse((boolean) ReflectionUtils.get("fast", handler));
+            Assert.assertEquals(1, ReflectionUtils.get("parallelism", handler));
+        }
+
+        @Test
+        public void testEx_parallelism_invalid() {
+            GridMergeHandler.Builder builder = new GridMergeHandler.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.parallelism(0));
+            Assert.assertEquals("Parallelism must be greater than 0.", ex.getMessage());
         }
 
         @Test
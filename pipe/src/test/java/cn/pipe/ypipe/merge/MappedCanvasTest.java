@@ -0,0 +1,79 @@
+package cn.pipe.ypipe.merge;
+
+import cn.core.ex.HandlingException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+
+public class MappedCanvasTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static BufferedImage band(int width, int height, int argb) {
+        BufferedImage band = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                band.setRGB(x, y, argb + y * width + x);
+            }
+        }
+        return band;
+    }
+
+    @Test
+    public void test_setRowsAndGetData() throws IOException {
+        // given
+        File file = folder.newFile();
+        try (MappedCanvas canvas = new MappedCanvas(file, 6, 5, 2, true)) {
+
+            // when
+            canvas.setRows(0, band(6, 2, 0x80000000));
+            canvas.setRows(2, band(6, 2, 0x40000000));
+            // the rows out of the canvas are skipped
+            canvas.setRows(4, band(6, 2, 0x20000000));
+
+            // then
+            Assert.assertEquals(6 * 5 * 4, file.length());
+            Assert.assertEquals(3, canvas.getNumYTiles());
+            Raster data = canvas.getData(new Rectangle(1, 1, 3, 3));
+            Assert.assertEquals(1, data.getMinX());
+            Assert.assertEquals(1, data.getMinY());
+            Assert.assertEquals(0x80000000 + 7, canvas.getColorModel().getRGB(data.getDataElements(1, 1, null)));
+            Assert.assertEquals(0x40000000 + 9, canvas.getColorModel().getRGB(data.getDataElements(3, 3, null)));
+
+            Raster tile = canvas.getTile(0, 2);
+            Assert.assertEquals(4, tile.getMinY());
+            Assert.assertEquals(1, tile.getHeight());
+            Assert.assertEquals(0x20000000 + 5, canvas.getColorModel().getRGB(tile.getDataElements(5, 4, null)));
+
+            WritableRaster copied = canvas.copyData(null);
+            Assert.assertEquals(6, copied.getWidth());
+            Assert.assertEquals(5, copied.getHeight());
+        }
+    }
+
+    @Test
+    public void test_opaque() throws IOException {
+        try (MappedCanvas canvas = new MappedCanvas(folder.newFile(), 2, 2, 2, false)) {
+            canvas.setRows(0, band(2, 2, 0xff102030));
+            Assert.assertFalse(canvas.getColorModel().hasAlpha());
+            Raster data = canvas.getData();
+            Assert.assertEquals(0xff102031, canvas.getColorModel().getRGB(data.getDataElements(1, 0, null)));
+        }
+    }
+
+    @Test
+    public void testEx_getData_closed() throws IOException {
+        MappedCanvas canvas = new MappedCanvas(folder.newFile(), 2, 2, 2, true);
+        canvas.close();
+        HandlingException ex = Assert.assertThrows(HandlingException.class, canvas::getData);
+        Assert.assertEquals("The mapped canvas has been closed.", ex.getMessage());
+    }
+}
@@ -5,14 +5,28 @@ import cn.core.ex.InvalidSettingException;
 import cn.pipe.BufferedImageComparer;
 import cn.pipe.ReflectionUtils;
 import cn.pipe.TestUtils;
+import cn.core.tool.ImageBuffer;
+import cn.core.tool.WriteOptions;
+import cn.core.utils.BufferedImageUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GridSplitHandlerTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void test_split_correctUsage() throws IOException {
         // given
@@ -139,6 +153,145 @@ public class GridSplitHandlerTest {
         Assert.assertEquals("There is no need to split.", ex.getMessage());
     }
 
+    @Test
+    public void test_split_compact() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .compact()
+                .build();
+
+        // when
+        List<BufferedImage> target = handler.split(source);
+
+        // then
+        Assert.assertEquals(8, target.size());
+        Assert.assertTrue(BufferedImageComparer.isSame(
+                BufferedImageUtils.copy(source.getSubimage(50, 60, 50, 38)), target.get(5)));
+        // the tiles do not share the raster of source image
+        Assert.assertNull(target.get(5).getRaster().getParent());
+        Assert.assertNotSame(source.getRaster().getDataBuffer(), target.get(5).getRaster().getDataBuffer());
+    }
+
+    @Test
+    public void test_split_imageBuffer() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .build();
+        try (ImageBuffer buffer = ImageBuffer.copyOf(source)) {
+
+            // when
+            List<BufferedImage> target = handler.split(buffer.asBufferedImage());
+
+            // then
+            // the tiles share the buffer
+            Assert.assertEquals(8, target.size());
+            Assert.assertSame(buffer, ImageBuffer.backingOf(target.get(7)));
+            Assert.assertArrayEquals(source.getRGB(150, 60, 4, 38, null, 0, 4),
+                    target.get(7).getRGB(0, 0, 4, 38, null, 0, 4));
+        }
+    }
+
+    @Test
+    public void test_forEachTile() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .build();
+        List<BufferedImage> expected = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .build().split(source);
+        Map<Integer, BufferedImage> tiles = new ConcurrentHashMap<>();
+
+        // when
+        handler.forEachTile(source, (row, col, tile) -> tiles.put(row * 4 + col, tile));
+
+        // then
+        Assert.assertEquals(8, tiles.size());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(expected.get(i), tiles.get(i)));
+        }
+    }
+
+    @Test
+    public void test_forEachTile_parallel() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(20).gridHeight(20)
+                .compact()
+                .parallelism(4)
+                .build();
+        List<BufferedImage> expected = new GridSplitHandler.Builder()
+                .gridWidth(20).gridHeight(20)
+                .build().split(source);
+        Map<Integer, BufferedImage> tiles = new ConcurrentHashMap<>();
+
+        // when
+        handler.forEachTile(source, (row, col, tile) -> tiles.put(row * 8 + col, tile));
+
+        // then
+        // 8 columns and 5 rows
+        Assert.assertEquals(40, tiles.size());
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(BufferedImageComparer.isSame(BufferedImageUtils.copy(expected.get(i)), tiles.get(i)));
+        }
+    }
+
+    @Test
+    public void test_forEachTile_writer() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .parallelism(2)
+                .build();
+        File dir = folder.newFolder();
+
+        // when
+        handler.forEachTile(source, GridSplitHandler.TileConsumer.writer(dir, "png", WriteOptions.DEFAULT));
+
+        // then
+        Assert.assertEquals(8, Objects.requireNonNull(dir.list()).length);
+        BufferedImage tile = ImageIO.read(new File(dir, "1_3.png"));
+        Assert.assertEquals(4, tile.getWidth());
+        Assert.assertEquals(38, tile.getHeight());
+        Assert.assertEquals(source.getRGB(150, 60), tile.getRGB(0, 0));
+    }
+
+    @Test
+    public void testEx_forEachTile_consumerFailed() throws IOException {
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(10).gridHeight(10)
+                .parallelism(4)
+                .build();
+        AtomicInteger count = new AtomicInteger();
+        IOException ex = Assert.assertThrows(IOException.class,
+                () -> handler.forEachTile(source, (row, col, tile) -> {
+                    count.incrementAndGet();
+                    throw new IOException("failed");
+                }));
+        Assert.assertEquals("failed", ex.getMessage());
+        // the remaining tiles are not consumed
+        Assert.assertTrue(count.get() <= 4);
+    }
+
+    @Test
+    public void testEx_forEachTile_nullConsumer() throws IOException {
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        GridSplitHandler handler = new GridSplitHandler.Builder()
+                .gridWidth(50).gridHeight(60)
+                .build();
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> handler.forEachTile(source, null));
+        Assert.assertEquals("Tile consumer is null.", ex.getMessage());
+    }
+
     public static class BuilderTest {
 
         @Test
@@ -154,6 +307,27 @@ public class GridSplitHandlerTest {
             // then
             Assert.assertEquals(w, ReflectionUtils.get("gridWidth", handler));
             Assert.assertEquals(h, ReflectionUtils.get("gridHeight", handler));
+            Assert.assertEquals(false, ReflectionUtils.get("compact", handler));
+            Assert.assertEquals(1, ReflectionUtils.get("parallelism", handler));
+        }
+
+        @Test
+        public void test_build_compactAndParallelism() {
+            GridSplitHandler handler = new GridSplitHandler.Builder()
+                    .gridWidth(50).gridHeight(100)
+                    .compact()
+                    .parallelism(4)
+                    .build();
+            Assert.assertEquals(true, ReflectionUtils.get("compact", handler));
+            Assert.assertEquals(4, ReflectionUtils.get("parallelism", handler));
+        }
+
+        @Test
+        public void testEx_parallelism_invalid() {
+            GridSplitHandler.Builder builder = new GridSplitHandler.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.parallelism(0));
+            Assert.assertEquals("Parallelism must be greater than 0.", ex.getMessage());
         }
 
         @Test
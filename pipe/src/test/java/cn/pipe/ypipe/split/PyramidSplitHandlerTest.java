@@ -0,0 +1,157 @@
+package cn.pipe.ypipe.split;
+
+import cn.core.ex.InvalidSettingException;
+import cn.core.tool.WriteOptions;
+import cn.pipe.ReflectionUtils;
+import cn.pipe.TestUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PyramidSplitHandlerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int[] pixels(BufferedImage img) {
+        return img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
+    }
+
+    private static int average(int p0, int p1, int p2, int p3) {
+        int pixel = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((p0 >>> shift) & 0xff) + ((p1 >>> shift) & 0xff)
+                    + ((p2 >>> shift) & 0xff) + ((p3 >>> shift) & 0xff);
+            pixel |= ((sum + 2) >> 2) << shift;
+        }
+        return pixel;
+    }
+
+    @Test
+    public void test_levelCount() {
+        Assert.assertEquals(1, PyramidSplitHandler.levelCount(1, 1));
+        Assert.assertEquals(2, PyramidSplitHandler.levelCount(2, 1));
+        Assert.assertEquals(9, PyramidSplitHandler.levelCount(154, 98));
+        Assert.assertEquals(9, PyramidSplitHandler.levelCount(256, 256));
+        Assert.assertEquals(10, PyramidSplitHandler.levelCount(257, 3));
+    }
+
+    @Test
+    public void test_forEachTile() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        PyramidSplitHandler handler = new PyramidSplitHandler.Builder()
+                .tileSize(64)
+                .build();
+        Map<String, BufferedImage> tiles = new HashMap<>();
+
+        // when
+        handler.forEachTile(source, (level, row, col, tile) ->
+                Assert.assertNull(tiles.put(level + "/" + col + "_" + row, tile)));
+
+        /*
+         * The levels from 8 to 0 are:
+         *      154*98 (3*2 tiles)  77*49 (2*1)  39*25  20*13  10*7  5*4  3*2  2*1  1*1
+         */
+        // then
+        Assert.assertEquals(6 + 2 + 7, tiles.size());
+        List<BufferedImage> full = new GridSplitHandler.Builder()
+                .gridWidth(64).gridHeight(64)
+                .build().split(source);
+        String[] names = {"8/0_0", "8/1_0", "8/2_0", "8/0_1", "8/1_1", "8/2_1"};
+        for (int i = 0; i < names.length; i++) {
+            Assert.assertArrayEquals(pixels(full.get(i)), pixels(tiles.get(names[i])));
+        }
+
+        // the next level is a 2x box reduction
+        BufferedImage level7 = tiles.get("7/1_0");
+        Assert.assertEquals(13, level7.getWidth());
+        Assert.assertEquals(49, level7.getHeight());
+        int expected = average(source.getRGB(130, 20), source.getRGB(131, 20),
+                source.getRGB(130, 21), source.getRGB(131, 21));
+        Assert.assertEquals(expected, level7.getRGB(1, 10));
+        // the last row of an odd height is reduced alone
+        expected = average(source.getRGB(0, 96), source.getRGB(1, 96),
+                source.getRGB(0, 97), source.getRGB(1, 97));
+        Assert.assertEquals(expected, tiles.get("7/0_0").getRGB(0, 48));
+
+        BufferedImage level0 = tiles.get("0/0_0");
+        Assert.assertEquals(1, level0.getWidth());
+        Assert.assertEquals(1, level0.getHeight());
+        Assert.assertEquals(BufferedImage.TYPE_INT_RGB, level0.getType());
+    }
+
+    @Test
+    public void test_split() {
+        // given
+        BufferedImage source = new BufferedImage(8, 4, BufferedImage.TYPE_INT_ARGB);
+        source.setRGB(0, 0, 0x80402010);
+        PyramidSplitHandler handler = new PyramidSplitHandler.Builder()
+                .tileSize(4)
+                .build();
+
+        // when
+        List<BufferedImage> tiles = handler.split(source);
+
+        // then
+        // 8*4 (2 tiles)  4*2  2*1  1*1
+        Assert.assertEquals(5, tiles.size());
+        Assert.assertEquals(BufferedImage.TYPE_INT_ARGB, tiles.get(0).getType());
+        Assert.assertEquals(0x80402010, tiles.get(0).getRGB(0, 0));
+        Assert.assertEquals(0x20100804, tiles.get(2).getRGB(0, 0));
+    }
+
+    @Test
+    public void test_forEachTile_writer() throws IOException {
+        // given
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        PyramidSplitHandler handler = new PyramidSplitHandler.Builder()
+                .tileSize(64)
+                .build();
+        File dir = folder.newFolder("nothing_files");
+
+        // when
+        handler.forEachTile(source, PyramidSplitHandler.TileSink.writer(dir, "png", WriteOptions.DEFAULT));
+
+        // then
+        Assert.assertTrue(new File(dir, "8/2_1.png").isFile());
+        Assert.assertTrue(new File(dir, "7/1_0.png").isFile());
+        Assert.assertTrue(new File(dir, "0/0_0.png").isFile());
+        Assert.assertFalse(new File(dir, "7/0_1.png").exists());
+    }
+
+    @Test
+    public void testEx_forEachTile_nullSink() throws IOException {
+        BufferedImage source = TestUtils.getImageFromResource("input/nothing.jpg");
+        PyramidSplitHandler handler = new PyramidSplitHandler.Builder().build();
+        NullPointerException ex = Assert.assertThrows(NullPointerException.class,
+                () -> handler.forEachTile(source, null));
+        Assert.assertEquals("Tile sink is null.", ex.getMessage());
+    }
+
+    public static class BuilderTest {
+
+        @Test
+        public void test_build_correctUsage() {
+            Assert.assertEquals(256, ReflectionUtils.get("tileSize",
+                    new PyramidSplitHandler.Builder().build()));
+            Assert.assertEquals(100, ReflectionUtils.get("tileSize",
+                    new PyramidSplitHandler.Builder().tileSize(100).build()));
+        }
+
+        @Test
+        public void testEx_tileSize_invalid() {
+            PyramidSplitHandler.Builder builder = new PyramidSplitHandler.Builder();
+            InvalidSettingException ex = Assert.assertThrows(InvalidSettingException.class,
+                    () -> builder.tileSize(0));
+            Assert.assertEquals("The size of the tile must be greater than 0.", ex.getMessage());
+        }
+    }
+}